@@ -0,0 +1,127 @@
+package com.example.apiLibrary.benchmark;
+
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.repository.BookFilter;
+import com.example.apiLibrary.repository.BookSearchRepositoryImpl;
+import com.example.apiLibrary.repository.BookSortKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog search with the filters in SQL ({@link BookSearchRepositoryImpl#findPage}) against loading every book
+ * and filtering in Java, which is what the service did before the filters were pushed down.
+ * <p>
+ * Needs a real database: set BENCH_JDBC_URL, BENCH_JDBC_USER and BENCH_JDBC_PASSWORD to a schema with the BOOKS
+ * table. If it holds fewer than {@code rows} books, synthetic ones (ISBN "BENCH-n") are inserted first, so point
+ * it at a schema you can throw away.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookSearchBenchmark {
+
+    private static final int CATEGORIES = 20;
+    private static final int AUTHORS = 5000;
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param("1000000")
+    private int rows;
+
+    private JdbcTemplate jdbcTemplate;
+    private BookSearchRepositoryImpl repository;
+    private BookFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(requiredEnv("BENCH_JDBC_URL"),
+                requiredEnv("BENCH_JDBC_USER"), requiredEnv("BENCH_JDBC_PASSWORD"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new BookSearchRepositoryImpl(new NamedParameterJdbcTemplate(jdbcTemplate));
+        seed();
+        // Selective, as catalog searches usually are: a few authors, one category, a price band.
+        filter = new BookFilter(null, "author 42", "Category 2", new BigDecimal("10.00"), new BigDecimal("60.00"));
+    }
+
+    @Benchmark
+    public List<Book> filteredInDatabase() {
+        return repository.findPage(filter, BookSortKey.TITLE, 0, 20);
+    }
+
+    @Benchmark
+    public List<Book> filteredInMemory() {
+        String author = filter.getAuthor().toLowerCase(Locale.ROOT);
+        List<Book> matches = new ArrayList<>();
+        String sql = "SELECT ID, TITLE, AUTHOR, ISBN, PRICE, STOCK, CATEGORY FROM BOOKS";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            BigDecimal price = rs.getBigDecimal("PRICE");
+            if (rs.getString("AUTHOR").toLowerCase(Locale.ROOT).contains(author)
+                    && filter.getCategory().equals(rs.getString("CATEGORY"))
+                    && price.compareTo(filter.getMinPrice()) >= 0 && price.compareTo(filter.getMaxPrice()) <= 0) {
+                Book book = new Book();
+                book.setId(rs.getLong("ID"));
+                book.setTitle(rs.getString("TITLE"));
+                book.setAuthor(rs.getString("AUTHOR"));
+                book.setIsbn(rs.getString("ISBN"));
+                book.setPrice(price);
+                book.setStock(rs.getInt("STOCK"));
+                book.setCategory(rs.getString("CATEGORY"));
+                matches.add(book);
+            }
+        });
+        matches.sort(Comparator.comparing(Book::getTitle).thenComparing(Book::getId));
+        return matches.subList(0, Math.min(20, matches.size()));
+    }
+
+    private void seed() {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOKS", Long.class);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (long n = existing == null ? 0 : existing; n < rows; n++) {
+            batch.add(new Object[] {"Title " + Long.toString(n * 7919 % rows, 36), "Author " + n % AUTHORS,
+                    "BENCH-" + n, BigDecimal.valueOf(n % 10_000, 2), 100, "Category " + n % CATEGORIES});
+            if (batch.size() == INSERT_BATCH) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO BOOKS (TITLE, AUTHOR, ISBN, PRICE, STOCK, CATEGORY) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", batch);
+            batch.clear();
+        }
+    }
+
+    private static String requiredEnv(String name) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalStateException(name + " is not set; this benchmark needs a database");
+        }
+        return value;
+    }
+}
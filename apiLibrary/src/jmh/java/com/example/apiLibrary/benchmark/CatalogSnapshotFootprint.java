@@ -0,0 +1,47 @@
+package com.example.apiLibrary.benchmark;
+
+import com.example.apiLibrary.catalog.CatalogSnapshot;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+
+/**
+ * Measures the heap footprint of a catalog snapshot with JOL, by walking its object graph, and prints it next to
+ * {@link CatalogSnapshot#estimatedBytes()}, the figure the reload log reports. Not a JMH benchmark: it takes the
+ * number of books as its only argument (default 1,000,000) and runs on the benchmark classpath.
+ * <p>
+ * The synthetic books mimic rows read over JDBC: every title, author and ISBN is its own String, and prices
+ * and categories repeat as they do in a real catalog. Run it on the JVM and heap settings of production, since
+ * compressed oops and compact strings change the result.
+ */
+public final class CatalogSnapshotFootprint {
+
+    private static final int CATEGORIES = 20;
+    private static final int AUTHORS = 5000;
+
+    private CatalogSnapshotFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+        for (int i = 1; i <= books; i++) {
+            builder.add(i,
+                    "Title " + i,
+                    "Author " + (i % AUTHORS),
+                    String.format("978%010d", i),
+                    BigDecimal.valueOf(500 + (i * 37L) % 9500, CatalogSnapshot.PRICE_SCALE),
+                    i % 50,
+                    "Category " + (i % CATEGORIES),
+                    0);
+        }
+        CatalogSnapshot snapshot = builder.build();
+
+        long measured = GraphLayout.parseInstance(snapshot).totalSize();
+        long estimated = snapshot.estimatedBytes();
+        System.out.printf("%d books: measured %d KB (%d bytes/book), estimated %d KB (%d bytes/book), "
+                        + "estimate off by %+.1f%%%n",
+                books, measured / 1024, measured / books, estimated / 1024, estimated / books,
+                100.0 * (estimated - measured) / measured);
+    }
+}
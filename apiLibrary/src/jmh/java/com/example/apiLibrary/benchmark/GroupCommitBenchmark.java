@@ -0,0 +1,87 @@
+package com.example.apiLibrary.benchmark;
+
+import com.example.apiLibrary.batching.GroupCommitFactory;
+import com.example.apiLibrary.batching.GroupCommitter;
+import com.example.apiLibrary.service.BatchOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latency and throughput of {@link GroupCommitter} across window settings, for 32 concurrent writers, against a
+ * simulated database: every transaction costs {@code commitUs} plus {@code rowUs} per request, and transactions
+ * commit one at a time, as they do when the commit cost is the redo log flush. {@code oneCommitPerRequest} is the
+ * same load with group commit off.
+ * <p>
+ * Runs in throughput and sample-time mode; the sample-time percentiles are the latency a caller sees, from
+ * submit to result. With a real database, compare the groupcommit.* metrics across windows instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(32)
+public class GroupCommitBenchmark {
+
+    @Param({"0", "500", "2000", "5000"})
+    private long windowUs;
+
+    @Param("1000")
+    private long commitUs;
+
+    @Param("10")
+    private long rowUs;
+
+    private final Object redoLog = new Object();
+    private GroupCommitFactory factory;
+    private GroupCommitter<Long, Long> groupCommitter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        factory = new GroupCommitFactory(new SimpleMeterRegistry(), true, windowUs, 64, 1000, 60_000);
+        groupCommitter = factory.<Long, Long>create("benchmark", this::commit).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Long groupCommit() {
+        return groupCommitter.submit(1L);
+    }
+
+    @Benchmark
+    public Long oneCommitPerRequest() {
+        return commit(List.of(1L)).get(0).get();
+    }
+
+    private List<BatchOutcome<Long>> commit(List<Long> requests) {
+        synchronized (redoLog) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(commitUs + rowUs * requests.size()));
+        }
+        List<BatchOutcome<Long>> outcomes = new ArrayList<>(requests.size());
+        requests.forEach(request -> outcomes.add(BatchOutcome.of(request)));
+        return outcomes;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.apiLibrary.benchmark;
+
+import com.example.apiLibrary.inventory.InventoryLedger;
+import com.example.apiLibrary.inventory.InventoryLedgerFlusher;
+import com.example.apiLibrary.inventory.InventoryLedgerLease;
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.repository.BookBatchRepositoryImpl;
+import com.example.apiLibrary.repository.BookRepository;
+import com.example.apiLibrary.service.impl.InventoryServiceImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jdbc.core.mapping.JdbcMappingContext;
+import org.springframework.data.relational.core.dialect.OracleDialect;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Checkouts of one hot book, one copy per basket: the guarded UPDATE on its BOOKS row against the
+ * {@link InventoryLedger} counter that replaces it for the books in app.inventory.ledger.book-ids.
+ * <ul>
+ *   <li>{@code guardedUpdate}: a transaction per basket running {@link BookBatchRepositoryImpl#decrementStock}.
+ *   The row lock is held until commit, so concurrent baskets for the book queue behind each other.</li>
+ *   <li>{@code reserve}: the same basket through {@link InventoryServiceImpl#reserve} with the ledger off, so two
+ *   round trips in the transaction: the SELECT of the book, then the guarded UPDATE.</li>
+ *   <li>{@code ledger}: {@link InventoryLedger#tryTake}. A background thread stands in for
+ *   {@link InventoryLedgerFlusher} and subtracts what was taken from BOOKS once a second, in one guarded UPDATE.</li>
+ * </ul>
+ * The {@code Contended} variants put 8 threads on the book; they only mean something with at least as many cores.
+ * <p>
+ * Needs a real database: set BENCH_JDBC_URL, BENCH_JDBC_USER and BENCH_JDBC_PASSWORD to a schema with the BOOKS
+ * table. The hot book is a synthetic row (ISBN "BENCH-HOT") whose stock is reset at the start of every trial, and
+ * teardown fails the run if BOOKS did not lose exactly what the baskets took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HotBookStockBenchmark {
+
+    private static final String ISBN = "BENCH-HOT";
+    private static final int INITIAL_STOCK = 1_000_000_000;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private BookBatchRepositoryImpl bookBatchRepository;
+    private InventoryServiceImpl inventoryService;
+    private InventoryLedger ledger;
+    private ScheduledExecutorService flusher;
+    private long bookId;
+    private Map<Long, Integer> basket;
+    private final LongAdder takenInDatabase = new LongAdder();
+    private final LongAdder takenInLedger = new LongAdder();
+    private long flushed; // Only touched by the flusher thread, then by teardown once it has stopped
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(requiredEnv("BENCH_JDBC_URL"));
+        dataSource.setUsername(requiredEnv("BENCH_JDBC_USER"));
+        dataSource.setPassword(requiredEnv("BENCH_JDBC_PASSWORD"));
+        dataSource.setMaximumPoolSize(10);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        bookBatchRepository = new BookBatchRepositoryImpl(new NamedParameterJdbcTemplate(jdbcTemplate),
+                new JdbcMappingContext(), OracleDialect.INSTANCE);
+
+        if (jdbcTemplate.update("UPDATE BOOKS SET STOCK = ? WHERE ISBN = ?", INITIAL_STOCK, ISBN) == 0) {
+            jdbcTemplate.update("INSERT INTO BOOKS (TITLE, AUTHOR, ISBN, PRICE, STOCK, CATEGORY, VERSION)"
+                    + " VALUES ('Hot Book', 'Bench', ?, 10, ?, 'Bench', 0)", ISBN, INITIAL_STOCK);
+        }
+        bookId = jdbcTemplate.queryForObject("SELECT ID FROM BOOKS WHERE ISBN = ?", Long.class, ISBN);
+        basket = Map.of(bookId, 1);
+
+        Book book = new Book();
+        book.setId(bookId);
+        book.setIsbn(ISBN);
+        book.setStock(INITIAL_STOCK);
+        // Stub-only: the service path calls it millions of times, and recording every call would fill the heap.
+        BookRepository databaseBooks = mock(BookRepository.class, withSettings().stubOnly());
+        when(databaseBooks.findAllById(any())).thenAnswer(invocation -> List.of(readBook()));
+        when(databaseBooks.findById(anyLong())).thenAnswer(invocation -> Optional.of(readBook()));
+        when(databaseBooks.decrementStock(anyMap())).thenAnswer(invocation ->
+                bookBatchRepository.decrementStock(invocation.getArgument(0)));
+        inventoryService = new InventoryServiceImpl(databaseBooks, event -> { }, Optional.empty());
+
+        BookRepository bookRepository = mock(BookRepository.class);
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book));
+        InventoryLedgerLease lease = mock(InventoryLedgerLease.class);
+        when(lease.isHeld()).thenReturn(true);
+        ledger = new InventoryLedger(bookRepository, mock(InventoryLedgerFlusher.class), lease, Set.of(bookId), 5000);
+        ledger.recover();
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(this::flushLedger, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flushLedger();
+        long expected = INITIAL_STOCK - takenInDatabase.sum() - takenInLedger.sum();
+        Long stock = jdbcTemplate.queryForObject("SELECT STOCK FROM BOOKS WHERE ID = ?", Long.class, bookId);
+        dataSource.close();
+        if (stock == null || stock != expected) {
+            throw new IllegalStateException("BOOKS holds " + stock + " copies of the hot book, expected " + expected);
+        }
+    }
+
+    @Benchmark
+    public int guardedUpdate() {
+        return takeInDatabase();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int guardedUpdateContended() {
+        return takeInDatabase();
+    }
+
+    @Benchmark
+    public Object reserve() {
+        return reserveThroughService();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object reserveContended() {
+        return reserveThroughService();
+    }
+
+    @Benchmark
+    public Long ledger() {
+        return takeInLedger();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long ledgerContended() {
+        return takeInLedger();
+    }
+
+    private int takeInDatabase() {
+        int updated = transactionTemplate.execute(status -> bookBatchRepository.decrementStock(basket)[0]);
+        takenInDatabase.add(updated);
+        return updated;
+    }
+
+    private Object reserveThroughService() {
+        Object reservation = transactionTemplate.execute(status -> inventoryService.reserve(basket));
+        takenInDatabase.increment(); // reserve() throws if the UPDATE took nothing
+        return reservation;
+    }
+
+    private Book readBook() {
+        return jdbcTemplate.queryForObject("SELECT ID, TITLE, STOCK FROM BOOKS WHERE ID = ?", (rs, row) -> {
+            Book book = new Book();
+            book.setId(rs.getLong("ID"));
+            book.setTitle(rs.getString("TITLE"));
+            book.setStock(rs.getInt("STOCK"));
+            return book;
+        }, bookId);
+    }
+
+    private Long takeInLedger() {
+        Long shortBookId = ledger.tryTake(basket);
+        if (shortBookId == null) {
+            ledger.completed(basket, true); // As after the basket's commit
+            takenInLedger.increment();
+        }
+        return shortBookId;
+    }
+
+    private void flushLedger() {
+        long units = takenInLedger.sum() - flushed;
+        if (units > 0) {
+            flushed += units;
+            transactionTemplate.executeWithoutResult(status ->
+                    bookBatchRepository.decrementStock(Map.of(bookId, (int) units)));
+        }
+    }
+
+    private static String requiredEnv(String name) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalStateException(name + " is not set; this benchmark needs a database");
+        }
+        return value;
+    }
+}
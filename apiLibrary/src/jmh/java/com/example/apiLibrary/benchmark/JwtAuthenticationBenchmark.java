@@ -0,0 +1,136 @@
+package com.example.apiLibrary.benchmark;
+
+import com.example.apiLibrary.security.JwtAuthenticationFilter;
+import com.example.apiLibrary.security.JwtTokenProvider;
+import com.example.apiLibrary.security.TokenVersions;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Authenticating a request with a bearer token, through {@link JwtAuthenticationFilter} on mock servlet objects.
+ * <ul>
+ *   <li>{@code twoParsesPerRequest}: the token handling before stateless mode, a new parser and a signature check
+ *   to validate the token and again to read the subject.</li>
+ *   <li>{@code statelessFilter}: the filter in stateless mode with the verified-token cache off, so every request
+ *   checks the signature.</li>
+ *   <li>{@code statelessFilterRepeatToken}: the same with the cache on, for a client that keeps sending the same
+ *   token.</li>
+ *   <li>{@code reloadingFilter}: the default mode, reloading the user through an in-memory UserDetailsService.
+ *   In the application that is a database query, which this does not include.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    // 64 bytes, so tokens are signed with HS512
+    private static final String SECRET =
+            "QUJDREVGR0hJSktMTU5PUFFSU1RVVldYWVphYmNkZWZnaGlqa2xtbm9wcXJzdHV2d3h5ejAxMjM0NTY3ODkrLw==";
+
+    private SecretKey key;
+    private String token;
+    private MockHttpServletRequest request;
+    private JwtAuthenticationFilter statelessUncached;
+    private JwtAuthenticationFilter statelessCached;
+    private JwtAuthenticationFilter reloading;
+
+    @Setup
+    public void setUp() throws ServletException, IOException {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        JwtTokenProvider uncached = tokenProvider(0);
+        JwtTokenProvider cached = tokenProvider(10_000);
+        token = cached.generateToken(new UsernamePasswordAuthenticationToken("seller1", null,
+                List.of(new SimpleGrantedAuthority("ROLE_SELLER"))), 0);
+        request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        TokenVersions tokenVersions = new TokenVersions(mock(JdbcTemplate.class)); // Nobody revoked: no queries
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+                User.withUsername("seller1").password("{noop}secret").roles("SELLER").build());
+        statelessUncached = new JwtAuthenticationFilter(uncached, users, tokenVersions, true);
+        statelessCached = new JwtAuthenticationFilter(cached, users, tokenVersions, true);
+        reloading = new JwtAuthenticationFilter(uncached, users, tokenVersions, false);
+
+        for (JwtAuthenticationFilter filter : List.of(statelessUncached, statelessCached, reloading)) {
+            if (authenticate(filter) == null) {
+                throw new IllegalStateException("The benchmark token does not authenticate");
+            }
+        }
+    }
+
+    @Benchmark
+    public String twoParsesPerRequest() {
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public Authentication statelessFilter() throws ServletException, IOException {
+        return authenticate(statelessUncached);
+    }
+
+    @Benchmark
+    public Authentication statelessFilterRepeatToken() throws ServletException, IOException {
+        return authenticate(statelessCached);
+    }
+
+    @Benchmark
+    public Authentication reloadingFilter() throws ServletException, IOException {
+        return authenticate(reloading);
+    }
+
+    private Authentication authenticate(JwtAuthenticationFilter filter) throws ServletException, IOException {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static JwtTokenProvider tokenProvider(long cacheSize) {
+        // Eviction runs on the calling thread, so a size of 0 keeps nothing
+        JwtTokenProvider provider = new JwtTokenProvider(
+                Caffeine.newBuilder().maximumSize(cacheSize).executor(Runnable::run).<String, Claims>build());
+        ReflectionTestUtils.setField(provider, "jwtSecretString", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3_600_000L);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.apiLibrary.benchmark;
+
+import com.example.apiLibrary.exception.LoginThrottledException;
+import com.example.apiLibrary.security.BCryptCost;
+import com.example.apiLibrary.security.PasswordVerifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A shift-start burst of logins next to the rest of the API: in each group, 200 threads stand in for request
+ * threads that keep logging in, and one thread stands in for the book and sale endpoints with a CPU-bound request
+ * that takes 0.2 ms on an idle core.
+ * <ul>
+ *   <li>{@code inline}: BCrypt on the request thread, as before {@link PasswordVerifier}.</li>
+ *   <li>{@code pooled}: {@link PasswordVerifier} with its defaults (half the cores, a queue of 64, 2 s timeout).
+ *   Throttled logins return at once and count in its samples; teardown prints how many there were.</li>
+ * </ul>
+ * In sample-time mode, the percentiles of {@code inlineLogin} and {@code pooledLogin} are the login latency, and
+ * those of {@code inlineOther} and {@code pooledOther} are what the other endpoints see during the burst. Cost 10,
+ * the lowest the calibration picks; a higher cost makes every number worse by the same factor.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class LoginBurstBenchmark {
+
+    private static final int STRENGTH = 10;
+    private static final long OTHER_REQUEST_NANOS = 200_000;
+
+    private PasswordEncoder passwordEncoder;
+    private PasswordVerifier passwordVerifier;
+    private String hash;
+    private long otherRequestWork;
+    private final LongAdder logins = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(STRENGTH);
+        hash = passwordEncoder.encode("secret");
+        passwordVerifier = new PasswordVerifier(passwordEncoder, BCryptCost.of(STRENGTH), new SimpleMeterRegistry(),
+                0, 64, 2000);
+        // Work that takes 0.2 ms on an idle core; under load it takes longer, like a real request would.
+        long work = 1;
+        while (true) {
+            otherRequest(work); // JIT
+            long start = System.nanoTime();
+            otherRequest(work);
+            if (System.nanoTime() - start >= OTHER_REQUEST_NANOS) {
+                break;
+            }
+            work *= 2;
+        }
+        otherRequestWork = work;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        passwordVerifier.close();
+        if (logins.sum() > 0 && throttled.sum() > 0) {
+            System.out.printf("%n%d of %d pooled logins were throttled with 503%n", throttled.sum(), logins.sum());
+        }
+    }
+
+    @Benchmark
+    @Group("inline")
+    @GroupThreads(200)
+    public boolean inlineLogin() {
+        return passwordEncoder.matches("secret", hash);
+    }
+
+    @Benchmark
+    @Group("inline")
+    @GroupThreads(1)
+    public long inlineOther() {
+        return otherRequest(otherRequestWork);
+    }
+
+    @Benchmark
+    @Group("pooled")
+    @GroupThreads(200)
+    public boolean pooledLogin() {
+        logins.increment();
+        try {
+            return passwordVerifier.matches("secret", hash);
+        } catch (LoginThrottledException ex) {
+            throttled.increment();
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Group("pooled")
+    @GroupThreads(1)
+    public long pooledOther() {
+        return otherRequest(otherRequestWork);
+    }
+
+    // A fixed amount of CPU work, so its latency grows with whatever else runs on the cores.
+    private static long otherRequest(long work) {
+        long x = work;
+        for (long i = 0; i < work; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.apiLibrary.benchmark;
+
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.dto.OrderDTO;
+import com.example.apiLibrary.mapper.impl.BookMapperImpl;
+import com.example.apiLibrary.mapper.impl.OrderMapperImpl;
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.model.Order;
+import com.example.apiLibrary.model.OrderItem;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hand-written mappers against ModelMapper 3.1.1 as it was configured before they replaced it (a plain
+ * {@code new ModelMapper()}), on a 20-book catalog page and a 5-line order. Setup fails if the two disagree on
+ * any field, so the numbers are for identical output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final BookMapperImpl bookMapper = new BookMapperImpl();
+    private final OrderMapperImpl orderMapper = new OrderMapperImpl();
+    private final List<Book> page = new ArrayList<>();
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        for (long id = 1; id <= 20; id++) {
+            Book book = new Book();
+            book.setId(id);
+            book.setTitle("Title " + id);
+            book.setAuthor("Author " + id % 7);
+            book.setIsbn("978-0-00-000" + id);
+            book.setPrice(BigDecimal.valueOf(1000 + id, 2));
+            book.setStock((int) id * 3);
+            book.setCategory("Category " + id % 4);
+            book.setVersion(id);
+            page.add(book);
+        }
+        order = new Order();
+        order.setOrderId(42L);
+        order.setCustomerName("Ada Reader");
+        order.setCustomerEmail("ada@example.com");
+        order.setStatus("CREATED");
+        List<OrderItem> items = new ArrayList<>();
+        for (long bookId = 1; bookId <= 5; bookId++) {
+            items.add(new OrderItem(bookId, (int) bookId));
+        }
+        order.setItems(items);
+
+        if (!handWrittenPage().equals(modelMapperPage()) || !handWrittenOrder().equals(modelMapperOrder())) {
+            throw new IllegalStateException("Hand-written mappers and ModelMapper produce different DTOs");
+        }
+    }
+
+    @Benchmark
+    public List<BookDTO> handWrittenPage() {
+        List<BookDTO> dtos = new ArrayList<>(page.size());
+        for (Book book : page) {
+            dtos.add(bookMapper.toDto(book));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<BookDTO> modelMapperPage() {
+        List<BookDTO> dtos = new ArrayList<>(page.size());
+        for (Book book : page) {
+            dtos.add(modelMapper.map(book, BookDTO.class));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public OrderDTO handWrittenOrder() {
+        return orderMapper.toDto(order);
+    }
+
+    @Benchmark
+    public OrderDTO modelMapperOrder() {
+        return modelMapper.map(order, OrderDTO.class);
+    }
+}
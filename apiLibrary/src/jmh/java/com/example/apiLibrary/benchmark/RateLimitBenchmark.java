@@ -0,0 +1,129 @@
+package com.example.apiLibrary.benchmark;
+
+import com.example.apiLibrary.security.RateLimitFilter;
+import com.example.apiLibrary.security.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link RateLimitFilter} per request, on mock servlet objects. {@code baseline} runs the same mock
+ * request, response and chain without the filter, so the filter's own overhead is the difference to it.
+ * <ul>
+ *   <li>{@code allowed}: anonymous GETs spread over 10,000 client IPs, on a route that never rejects.</li>
+ *   <li>{@code unmatched}: a path no route covers.</li>
+ *   <li>{@code rejected}: one client far over the login limit, including writing the 429 body.</li>
+ *   <li>{@code rejectedDecision}: only the {@link RateLimiter} decision for that client.</li>
+ * </ul>
+ * Single-threaded by default; pass -t to JMH to run the buckets under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private RateLimiter rateLimiter;
+    private RateLimitFilter filter;
+    private final MockHttpServletRequest[] bookRequests = new MockHttpServletRequest[CLIENTS];
+    private MockHttpServletRequest loginRequest;
+    private MockHttpServletRequest unmatchedRequest;
+
+    @Setup
+    public void setUp() throws ServletException, IOException {
+        Map<String, Object> properties = new HashMap<>();
+        route(properties, "login", "POST", "/api/auth/login", "10", "0.2");
+        route(properties, "books", "GET", "/api/books/**", "1000000000", "1000000000");
+        route(properties, "api", "", "/api/**", "200", "50");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        rateLimiter = new RateLimiter(environment, new SimpleMeterRegistry(), true, 100_000);
+        filter = new RateLimitFilter(rateLimiter, new ObjectMapper().findAndRegisterModules());
+
+        for (int i = 0; i < CLIENTS; i++) {
+            bookRequests[i] = new MockHttpServletRequest("GET", "/api/books/" + i % 500);
+            bookRequests[i].setRemoteAddr("10.0." + i / 256 + "." + i % 256);
+        }
+        loginRequest = new MockHttpServletRequest("POST", "/api/auth/login");
+        loginRequest.setRemoteAddr("10.9.9.9");
+        unmatchedRequest = new MockHttpServletRequest("GET", "/actuator/health");
+
+        for (int i = 0; i < 20; i++) { // Use up the login burst, so every measured login is rejected
+            filter.doFilter(loginRequest, new MockHttpServletResponse(), new MockFilterChain());
+        }
+        if (rejected() != 429 || allowed() != 200) {
+            throw new IllegalStateException("Rate limit routes are not set up as the benchmark expects");
+        }
+    }
+
+    @Benchmark
+    public int baseline() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain().doFilter(anyBookRequest(), response);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int allowed() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(anyBookRequest(), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int unmatched() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(unmatchedRequest, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int rejected() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(loginRequest, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public long rejectedDecision() {
+        return rateLimiter.acquire("POST", "/api/auth/login", "ip:10.9.9.9");
+    }
+
+    private MockHttpServletRequest anyBookRequest() {
+        return bookRequests[ThreadLocalRandom.current().nextInt(CLIENTS)];
+    }
+
+    private static void route(Map<String, Object> properties, String name, String method, String path,
+                              String capacity, String refillPerSecond) {
+        String prefix = "app.rate-limit.routes." + name + ".";
+        properties.put(prefix + "method", method);
+        properties.put(prefix + "path", path);
+        properties.put(prefix + "capacity", capacity);
+        properties.put(prefix + "refill-per-second", refillPerSecond);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.apiLibrary.benchmark;
+
+import com.example.apiLibrary.ApiLibraryApplication;
+import com.example.apiLibrary.dto.SaleBatchResponseDTO;
+import com.example.apiLibrary.dto.SaleItemDTO;
+import com.example.apiLibrary.dto.SaleRequestDTO;
+import com.example.apiLibrary.dto.SaleResponseDTO;
+import com.example.apiLibrary.service.SaleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An offline POS terminal syncing {@code salesPerRequest} queued sales: one {@link SaleService#createSales(List)}
+ * call, which is what POST /api/sales/batch runs, against the same sales sent one at a time through
+ * {@link SaleService#createSale}, which is what repeated POST /api/sales runs. Both report the time for the whole
+ * upload, so their ratio is the speedup of the batch endpoint. HTTP and JSON binding are left out; they cost the
+ * batch one request instead of {@code salesPerRequest}.
+ * <p>
+ * Each sale has two lines on different books. With the default app.sales.batch.chunk-size of 200, a batch of 200
+ * sales is one transaction: one SELECT of the books, one guarded UPDATE batch, one SALES_SEQ round trip and two
+ * INSERT batches. A single sale is its own transaction through saleRepository.save().
+ * <p>
+ * Runs the whole application against a real database: set BENCH_JDBC_URL, BENCH_JDBC_USER and
+ * BENCH_JDBC_PASSWORD to a schema with the tables and sequences from src/main/resources/db. The sales it creates
+ * stay in SALES, so use a scratch schema. The books are synthetic rows (ISBN "BENCH-SALE-n") whose stock is reset
+ * at the start of every trial, and teardown fails the run if BOOKS did not lose exactly what the sales took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SaleBatchBenchmark {
+
+    private static final String ISBN_PREFIX = "BENCH-SALE-";
+    private static final int BOOKS = 20;
+    private static final int INITIAL_STOCK = 1_000_000_000;
+
+    @Param({"200"})
+    private int salesPerRequest;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private SaleService saleService;
+    private List<SaleRequestDTO> upload;
+    private long copiesPerUpload;
+    private final LongAdder sold = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ApiLibraryApplication.class).run(
+                "--spring.datasource.url=" + requiredEnv("BENCH_JDBC_URL"),
+                "--spring.datasource.username=" + requiredEnv("BENCH_JDBC_USER"),
+                "--spring.datasource.password=" + requiredEnv("BENCH_JDBC_PASSWORD"),
+                "--spring.datasource.driver-class-name=", // Inferred from the URL
+                "--spring.profiles.active=",
+                "--server.port=0",
+                "--logging.level.com.example.apiLibrary=WARN"); // Not the INFO line per sale
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        saleService = context.getBean(SaleService.class);
+
+        List<Long> bookIds = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            String isbn = ISBN_PREFIX + i;
+            if (jdbcTemplate.update("UPDATE BOOKS SET STOCK = ? WHERE ISBN = ?", INITIAL_STOCK, isbn) == 0) {
+                jdbcTemplate.update("INSERT INTO BOOKS (TITLE, AUTHOR, ISBN, PRICE, STOCK, CATEGORY, VERSION)"
+                        + " VALUES (?, 'Bench', ?, 10, ?, 'Bench', 0)", "Sale Book " + i, isbn, INITIAL_STOCK);
+            }
+            bookIds.add(jdbcTemplate.queryForObject("SELECT ID FROM BOOKS WHERE ISBN = ?", Long.class, isbn));
+        }
+
+        upload = new ArrayList<>(salesPerRequest);
+        for (int i = 0; i < salesPerRequest; i++) {
+            SaleRequestDTO sale = new SaleRequestDTO();
+            sale.setSellerId(1L);
+            sale.setCustomerName("Bench");
+            sale.setItems(List.of(item(bookIds.get(i % BOOKS), 1), item(bookIds.get((i + 7) % BOOKS), 2)));
+            upload.add(sale);
+        }
+        copiesPerUpload = 3L * salesPerRequest;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Long stock = jdbcTemplate.queryForObject("SELECT SUM(STOCK) FROM BOOKS WHERE ISBN LIKE ?", Long.class,
+                ISBN_PREFIX + "%");
+        context.close();
+        long expected = (long) BOOKS * INITIAL_STOCK - sold.sum();
+        if (stock == null || stock != expected) {
+            throw new IllegalStateException("BOOKS holds " + stock + " copies of the bench books, expected " + expected);
+        }
+    }
+
+    @Benchmark
+    public SaleBatchResponseDTO batch() {
+        SaleBatchResponseDTO response = saleService.createSales(upload);
+        if (response.getRejected() > 0) {
+            throw new IllegalStateException(response.getRejected() + " sales of the batch were rejected");
+        }
+        sold.add(copiesPerUpload);
+        return response;
+    }
+
+    @Benchmark
+    public SaleResponseDTO oneByOne() {
+        SaleResponseDTO last = null;
+        for (SaleRequestDTO sale : upload) {
+            last = saleService.createSale(sale);
+        }
+        sold.add(copiesPerUpload);
+        return last;
+    }
+
+    private static SaleItemDTO item(Long bookId, int quantity) {
+        SaleItemDTO item = new SaleItemDTO();
+        item.setBookId(bookId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static String requiredEnv(String name) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalStateException(name + " is not set; this benchmark needs a database");
+        }
+        return value;
+    }
+}
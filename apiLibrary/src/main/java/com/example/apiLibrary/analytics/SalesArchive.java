@@ -0,0 +1,46 @@
+package com.example.apiLibrary.analytics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * What sale reads need to know about SALES_ARCHIVE: whether to look there at all, and the boundary below which
+ * sales may have moved. Present whether or not {@link SalesArchiveJob} runs, so turning archival off stops new
+ * moves but keeps the sales already archived visible in GET /api/sales and GET /api/sales/{id}.
+ * <p>
+ * {@code app.sales.archive.read-enabled} follows {@code app.sales.archive.enabled} unless set; it must stay on
+ * for as long as SALES_ARCHIVE holds sales, or they disappear from those endpoints.
+ */
+@Component
+public class SalesArchive {
+
+    private final boolean readEnabled;
+    private final int horizonDays;
+
+    @Autowired
+    public SalesArchive(
+            @Value("${app.sales.archive.read-enabled:${app.sales.archive.enabled:false}}") boolean readEnabled,
+            @Value("${app.sales.archive.horizon-days:365}") int horizonDays) {
+        if (horizonDays < 1) {
+            throw new IllegalArgumentException("app.sales.archive.horizon-days must be at least 1");
+        }
+        this.readEnabled = readEnabled;
+        this.horizonDays = horizonDays;
+    }
+
+    public boolean isReadEnabled() {
+        return readEnabled;
+    }
+
+    /**
+     * Sales before this instant are archived, or about to be. Always the start of a day, so a day's sales move
+     * together.
+     */
+    public LocalDateTime archiveBoundary() {
+        return LocalDate.now().minusDays(horizonDays).atStartOfDay();
+    }
+}
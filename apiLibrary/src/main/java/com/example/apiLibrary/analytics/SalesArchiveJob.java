@@ -0,0 +1,90 @@
+package com.example.apiLibrary.analytics;
+
+import com.example.apiLibrary.repository.SaleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves sales older than {@code app.sales.archive.horizon-days} whole days to SALES_ARCHIVE, on the
+ * {@code app.sales.archive.cron} schedule. Each chunk of at most {@code chunk-size} sales is its own short
+ * transaction that only locks the old rows it moves (SKIP LOCKED), so new sales are never blocked. Their
+ * SALES_DAILY_ROLLUP rows stay, so analytics over archived days are unchanged.
+ * <p>
+ * Sales only ever move forward: the boundary is {@link SalesArchive#archiveBoundary()} at the time of the run, so
+ * the archive holds nothing newer than today's boundary as long as the horizon is not lengthened. Reads of the
+ * archive are governed by {@link SalesArchive}, not by this job, so they keep working after it is turned off.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sales.archive.enabled", havingValue = "true")
+public class SalesArchiveJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalesArchiveJob.class);
+
+    private final SaleRepository saleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesArchive salesArchive;
+    private final int chunkSize;
+    private final long pauseMs;
+
+    @Autowired
+    public SalesArchiveJob(SaleRepository saleRepository,
+                           TransactionTemplate transactionTemplate,
+                           SalesArchive salesArchive,
+                           @Value("${app.sales.archive.chunk-size:500}") int chunkSize,
+                           @Value("${app.sales.archive.pause-ms:100}") long pauseMs) {
+        if (!salesArchive.isReadEnabled()) {
+            throw new IllegalStateException("app.sales.archive.read-enabled must be true while archival runs, "
+                    + "or archived sales disappear from GET /api/sales");
+        }
+        this.saleRepository = saleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.salesArchive = salesArchive;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(cron = "${app.sales.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        try {
+            archiveOldSales();
+        } catch (RuntimeException ex) {
+            // Chunks that committed stay archived; the rest waits for the next run.
+            LOGGER.error("Sales archival failed; retrying on the next run", ex);
+        }
+    }
+
+    public synchronized int archiveOldSales() {
+        LocalDateTime cutoff = salesArchive.archiveBoundary();
+        long start = System.nanoTime();
+        int archived = 0;
+        List<Long> moved;
+        do {
+            moved = transactionTemplate.execute(status -> saleRepository.archiveSalesBefore(cutoff, chunkSize));
+            archived += moved.size();
+            // Gives the redo log and checkouts some room between chunks on a large backlog.
+            if (moved.size() == chunkSize && pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } while (moved.size() == chunkSize);
+
+        if (archived > 0) {
+            LOGGER.info("Archived {} sales older than {} in {} ms", archived, cutoff,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return archived;
+    }
+}
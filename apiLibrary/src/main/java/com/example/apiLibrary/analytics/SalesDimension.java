@@ -0,0 +1,10 @@
+package com.example.apiLibrary.analytics;
+
+/**
+ * What a sales rollup bucket is grouped by, besides the day. ALL buckets use dimension ID 0.
+ */
+public enum SalesDimension {
+    ALL,
+    SELLER,
+    BOOK
+}
@@ -0,0 +1,123 @@
+package com.example.apiLibrary.analytics;
+
+import com.example.apiLibrary.model.Sale;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory totals for the sales committed by this instance that {@link SalesRollupJob} has not rolled up yet,
+ * so analytics include a sale as soon as it commits instead of after the next rollup round. Reads add these
+ * buckets to the ones in SALES_DAILY_ROLLUP; the window only ever holds about one rollup interval of sales.
+ * <p>
+ * Sales made by other instances show up once they are rolled up.
+ * <p>
+ * Adding a sale and dropping it again when it is rolled up each happen under the window's lock, so a rollup that
+ * lands while its sale is being added cannot leave the sale counted twice or take another sale's totals away.
+ */
+@Component
+public class SalesHotWindow {
+
+    private final Map<Long, Map<SalesRollupKey, SalesTotals>> pendingBySale = new ConcurrentHashMap<>();
+    private final Map<SalesRollupKey, SalesTotals> totals = new ConcurrentHashMap<>();
+
+    // Sales of this instance whose transaction is committing: from the insert until the after-commit event.
+    private final Set<Long> committing = new HashSet<>();
+    // The job can roll up a sale of this instance just before its after-commit event reaches us; the late event
+    // must then not count it a second time. Only committing sales go here, so sales of other instances and
+    // historic sales the job catches up on are never remembered.
+    private final Set<Long> rolledUpBeforeSeen = new HashSet<>();
+
+    @Autowired
+    public SalesHotWindow(MeterRegistry meterRegistry) {
+        meterRegistry.gaugeMapSize("sales.rollup.pending", List.of(), pendingBySale);
+    }
+
+    /**
+     * Runs inside the inserting transaction, when the event is published.
+     */
+    @EventListener
+    public synchronized void onSalesInserted(SalesRecordedEvent event) {
+        event.getSales().forEach(sale -> committing.add(sale.getSaleId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public synchronized void onSalesRolledBack(SalesRecordedEvent event) {
+        event.getSales().forEach(sale -> committing.remove(sale.getSaleId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onSalesRecorded(SalesRecordedEvent event) {
+        for (Sale sale : event.getSales()) {
+            committing.remove(sale.getSaleId());
+            if (rolledUpBeforeSeen.remove(sale.getSaleId())) {
+                continue;
+            }
+            Map<SalesRollupKey, SalesTotals> contributions = SalesRollups.contributions(sale);
+            if (pendingBySale.putIfAbsent(sale.getSaleId(), contributions) == null) {
+                contributions.forEach((key, value) -> totals.merge(key, value, SalesTotals::plus));
+            }
+        }
+    }
+
+    /**
+     * Drops sales whose contributions are now in the rollup tables. Called after the rollup transaction commits.
+     */
+    public synchronized void rolledUp(Collection<Long> saleIds) {
+        for (Long saleId : saleIds) {
+            Map<SalesRollupKey, SalesTotals> contributions = pendingBySale.remove(saleId);
+            if (contributions == null) {
+                if (committing.contains(saleId)) {
+                    rolledUpBeforeSeen.add(saleId);
+                }
+                continue;
+            }
+            contributions.forEach((key, value) -> totals.computeIfPresent(key, (bucket, current) -> {
+                SalesTotals left = current.minus(value);
+                return left.salesCount() == 0 ? null : left;
+            }));
+        }
+    }
+
+    /**
+     * Pending totals per day for one dimension value, within [from, to].
+     */
+    public Map<LocalDate, SalesTotals> dailyTotals(SalesDimension dimension, long dimensionId, LocalDate from, LocalDate to) {
+        Map<LocalDate, SalesTotals> daily = new HashMap<>();
+        totals.forEach((key, value) -> {
+            if (key.dimension() == dimension && key.dimensionId() == dimensionId && inRange(key.day(), from, to)) {
+                daily.merge(key.day(), value, SalesTotals::plus);
+            }
+        });
+        return daily;
+    }
+
+    /**
+     * Pending totals per dimension value, summed over [from, to].
+     */
+    public Map<Long, SalesTotals> totalsByDimensionId(SalesDimension dimension, LocalDate from, LocalDate to) {
+        Map<Long, SalesTotals> byId = new HashMap<>();
+        totals.forEach((key, value) -> {
+            if (key.dimension() == dimension && inRange(key.day(), from, to)) {
+                byId.merge(key.dimensionId(), value, SalesTotals::plus);
+            }
+        });
+        return byId;
+    }
+
+    private static boolean inRange(LocalDate day, LocalDate from, LocalDate to) {
+        return !day.isBefore(from) && !day.isAfter(to);
+    }
+}
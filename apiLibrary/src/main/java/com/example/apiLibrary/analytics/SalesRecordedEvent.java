@@ -0,0 +1,22 @@
+package com.example.apiLibrary.analytics;
+
+import com.example.apiLibrary.model.Sale;
+
+import java.util.List;
+
+/**
+ * Published by the sale service inside the transaction that inserts the sales. {@link SalesHotWindow} counts
+ * them once the transaction has committed.
+ */
+public class SalesRecordedEvent {
+
+    private final List<Sale> sales;
+
+    public SalesRecordedEvent(List<Sale> sales) {
+        this.sales = List.copyOf(sales);
+    }
+
+    public List<Sale> getSales() {
+        return sales;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.apiLibrary.analytics;
+
+import com.example.apiLibrary.repository.SaleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Folds new sales into SALES_DAILY_ROLLUP every {@code app.sales.rollup.interval-ms}. Each round is one
+ * transaction that adds a bounded set of sales to their buckets and marks them rolled up, so every sale is
+ * counted exactly once, and rounds repeat until nothing is pending. Sale writes never touch the rollup rows,
+ * so busy days and sellers do not become hot rows on the checkout path.
+ */
+@Component
+public class SalesRollupJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalesRollupJob.class);
+
+    private final SaleRepository saleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesHotWindow hotWindow;
+    private final int maxSalesPerRound;
+
+    @Autowired
+    public SalesRollupJob(SaleRepository saleRepository,
+                          TransactionTemplate transactionTemplate,
+                          SalesHotWindow hotWindow,
+                          @Value("${app.sales.rollup.max-sales-per-round:500}") int maxSalesPerRound) {
+        this.saleRepository = saleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.hotWindow = hotWindow;
+        this.maxSalesPerRound = maxSalesPerRound;
+    }
+
+    @Scheduled(fixedDelayString = "${app.sales.rollup.interval-ms:5000}")
+    public void rollUp() {
+        try {
+            rollUpAll();
+        } catch (RuntimeException ex) {
+            // Nothing is lost: the sales stay pending and the next round picks them up.
+            LOGGER.error("Sales rollup failed; retrying on the next round", ex);
+        }
+    }
+
+    public synchronized void rollUpAll() {
+        List<Long> rolledUp;
+        do {
+            rolledUp = transactionTemplate.execute(status -> {
+                List<Long> saleIds = saleRepository.rollUpPendingSales(maxSalesPerRound);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        hotWindow.rolledUp(saleIds);
+                    }
+                });
+                return saleIds;
+            });
+            if (!rolledUp.isEmpty()) {
+                LOGGER.debug("Rolled up {} sales", rolledUp.size());
+            }
+        } while (rolledUp.size() == maxSalesPerRound);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.apiLibrary.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * One bucket of the sales rollups: a day, per seller, per book or for all sales.
+ */
+public record SalesRollupKey(SalesDimension dimension, long dimensionId, LocalDate day) {
+}
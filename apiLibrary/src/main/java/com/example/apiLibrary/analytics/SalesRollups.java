@@ -0,0 +1,51 @@
+package com.example.apiLibrary.analytics;
+
+import com.example.apiLibrary.model.Sale;
+import com.example.apiLibrary.model.SaleItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How a sale adds to the rollup buckets. Shared by {@link SalesRollupJob}, which writes the rollup tables, and
+ * {@link SalesHotWindow}, which covers sales that are not rolled up yet, so both count a sale the same way.
+ */
+public final class SalesRollups {
+
+    private SalesRollups() {
+    }
+
+    /**
+     * The sale's contribution to each of its buckets: the ALL and SELLER buckets of its day get the sale's total
+     * amount, and each book in it gets its units at the price the sale was made at.
+     */
+    public static Map<SalesRollupKey, SalesTotals> contributions(Sale sale) {
+        LocalDate day = sale.getTimestamp().toLocalDate();
+        long units = 0;
+        Map<Long, long[]> unitsByBook = new HashMap<>();
+        Map<Long, BigDecimal> revenueByBook = new HashMap<>();
+        for (SaleItem item : sale.getItems()) {
+            units += item.getQuantity();
+            unitsByBook.computeIfAbsent(item.getBookId(), id -> new long[1])[0] += item.getQuantity();
+            BigDecimal unitPrice = item.getUnitPrice() == null ? BigDecimal.ZERO : item.getUnitPrice();
+            revenueByBook.merge(item.getBookId(), unitPrice.multiply(BigDecimal.valueOf(item.getQuantity())), BigDecimal::add);
+        }
+
+        Map<SalesRollupKey, SalesTotals> contributions = new HashMap<>();
+        SalesTotals saleTotals = new SalesTotals(1, units, sale.getTotalAmount());
+        contributions.put(new SalesRollupKey(SalesDimension.ALL, 0, day), saleTotals);
+        contributions.put(new SalesRollupKey(SalesDimension.SELLER, sale.getSellerId(), day), saleTotals);
+        unitsByBook.forEach((bookId, bookUnits) -> contributions.put(new SalesRollupKey(SalesDimension.BOOK, bookId, day),
+                new SalesTotals(1, bookUnits[0], revenueByBook.get(bookId))));
+        return contributions;
+    }
+
+    /**
+     * Adds the contributions into the running totals.
+     */
+    public static void addTo(Map<SalesRollupKey, SalesTotals> totals, Map<SalesRollupKey, SalesTotals> contributions) {
+        contributions.forEach((key, value) -> totals.merge(key, value, SalesTotals::plus));
+    }
+}
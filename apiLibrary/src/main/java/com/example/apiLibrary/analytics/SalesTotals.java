@@ -0,0 +1,20 @@
+package com.example.apiLibrary.analytics;
+
+import java.math.BigDecimal;
+
+/**
+ * Counters kept per {@link SalesRollupKey}: the number of sales, the units sold and the revenue. For a BOOK
+ * bucket, salesCount is the number of sales that included the book.
+ */
+public record SalesTotals(long salesCount, long units, BigDecimal revenue) {
+
+    public static final SalesTotals ZERO = new SalesTotals(0, 0, BigDecimal.ZERO);
+
+    public SalesTotals plus(SalesTotals other) {
+        return new SalesTotals(salesCount + other.salesCount, units + other.units, revenue.add(other.revenue));
+    }
+
+    public SalesTotals minus(SalesTotals other) {
+        return new SalesTotals(salesCount - other.salesCount, units - other.units, revenue.subtract(other.revenue));
+    }
+}
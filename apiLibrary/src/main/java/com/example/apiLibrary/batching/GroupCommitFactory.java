@@ -0,0 +1,66 @@
+package com.example.apiLibrary.batching;
+
+import com.example.apiLibrary.service.BatchOutcome;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Creates the {@link GroupCommitter} pipelines used by the order and sale services when app.group-commit.enabled
+ * is set, all with the same app.group-commit.* settings, and drains them on shutdown.
+ */
+@Component
+public class GroupCommitFactory {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final List<GroupCommitter<?, ?>> pipelines = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public GroupCommitFactory(MeterRegistry meterRegistry,
+                              @Value("${app.group-commit.enabled:false}") boolean enabled,
+                              @Value("${app.group-commit.window-us:2000}") long windowMicros,
+                              @Value("${app.group-commit.max-batch-size:64}") int maxBatchSize,
+                              @Value("${app.group-commit.queue-capacity:1000}") int queueCapacity,
+                              @Value("${app.group-commit.timeout-ms:5000}") long timeoutMillis) {
+        if (windowMicros < 0 || maxBatchSize < 1 || queueCapacity < 1 || timeoutMillis < 1) {
+            throw new IllegalArgumentException("app.group-commit.window-us must be >= 0 and "
+                    + "app.group-commit.max-batch-size, queue-capacity and timeout-ms >= 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Returns a pipeline feeding the given batch handler, or empty when group commit is disabled.
+     */
+    public <I, O> Optional<GroupCommitter<I, O>> create(String name, Function<List<I>, List<BatchOutcome<O>>> handler) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        GroupCommitter<I, O> pipeline = new GroupCommitter<>(name, handler, windowMicros, maxBatchSize, queueCapacity,
+                timeoutMillis, meterRegistry);
+        pipelines.add(pipeline);
+        return Optional.of(pipeline);
+    }
+
+    @PreDestroy
+    public void close() {
+        pipelines.forEach(GroupCommitter::close);
+    }
+}
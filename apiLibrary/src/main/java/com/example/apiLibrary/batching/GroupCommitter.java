@@ -0,0 +1,245 @@
+package com.example.apiLibrary.batching;
+
+import com.example.apiLibrary.exception.GroupCommitOutcomeUnknownException;
+import com.example.apiLibrary.exception.GroupCommitUnavailableException;
+import com.example.apiLibrary.service.BatchOutcome;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Group commit for concurrent writes. Callers block in {@link #submit} while a single worker thread collects
+ * requests for up to {@code window} after the first one arrives, or until {@code maxBatchSize} are waiting, and
+ * hands them to the batch handler, which applies them in one transaction. Each caller gets back its own result
+ * or exception, so the handler must isolate failures per request (see {@link BatchOutcome}).
+ * <p>
+ * While one batch commits the next one fills up, so under load the commit cost is shared by the whole batch.
+ * When the queue is full, callers run their request as a batch of one on their own thread instead of waiting.
+ * <p>
+ * A caller waits at most {@code timeout} for its result. A request the worker has not picked up by then is
+ * dropped and the caller gets a {@link GroupCommitUnavailableException}: nothing was written, so it is safe to
+ * send again. One whose batch is already being applied gets a {@link GroupCommitOutcomeUnknownException}
+ * instead, because the batch may still commit and a blind retry could record it twice. Requests still queued
+ * when the pipeline is closed fail the same way as ones that were never picked up.
+ * <p>
+ * The window trades latency for throughput. GroupCommitBenchmark measures it against a simulated commit cost;
+ * in production, compare the metrics, tagged with pipeline=name, across window settings:
+ * "groupcommit.batch.size", "groupcommit.latency" (from submit to result, commit included) and
+ * "groupcommit.queue.size".
+ */
+public class GroupCommitter<I, O> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupCommitter.class);
+    private static final long IDLE_POLL_MS = 100;
+
+    private final String name;
+    private final Function<List<I>, List<BatchOutcome<O>>> handler;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final BlockingQueue<Pending<I, O>> queue;
+    private final DistributionSummary batchSizes;
+    private final Timer latency;
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    GroupCommitter(String name,
+                   Function<List<I>, List<BatchOutcome<O>>> handler,
+                   long windowMicros,
+                   int maxBatchSize,
+                   int queueCapacity,
+                   long timeoutMillis,
+                   MeterRegistry meterRegistry) {
+        this.name = name;
+        this.handler = handler;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSizes = DistributionSummary.builder("groupcommit.batch.size")
+                .tag("pipeline", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.latency = Timer.builder("groupcommit.latency")
+                .tag("pipeline", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("groupcommit.queue.size", queue, BlockingQueue::size)
+                .tag("pipeline", name)
+                .register(meterRegistry);
+        this.worker = new Thread(this::run, "group-commit-" + name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues the request for the next batch and waits for its result.
+     *
+     * @throws RuntimeException whatever the request failed with, as if it had run on its own.
+     * @throws GroupCommitUnavailableException when the request was given up on before it was applied: it was not
+     *         picked up within the timeout, or the pipeline was closed first.
+     * @throws GroupCommitOutcomeUnknownException when its batch was being applied but did not finish within the
+     *         timeout, or the wait was interrupted then.
+     */
+    public O submit(I request) {
+        long start = System.nanoTime();
+        Pending<I, O> pending = new Pending<>(request);
+        try {
+            if (!running || !queue.offer(pending)) {
+                return runAlone(request);
+            }
+            if (!running && queue.remove(pending)) {
+                // close() may have drained the queue between the check and the offer; nobody else will take it.
+                return runAlone(request);
+            }
+            return pending.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw giveUp(pending, "did not pick up the request within " + timeoutMillis + " ms",
+                    "did not finish the request within " + timeoutMillis + " ms");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw giveUp(pending, "was interrupted before the request was picked up",
+                    "was interrupted while the request was being applied");
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private RuntimeException giveUp(Pending<I, O> pending, String notPickedUp, String notFinished) {
+        if (pending.claim()) {
+            return new GroupCommitUnavailableException("Group commit " + name + " " + notPickedUp
+                    + "; nothing was written");
+        }
+        return new GroupCommitOutcomeUnknownException("Group commit " + name + " " + notFinished
+                + "; it may still be committed");
+    }
+
+    private O runAlone(I request) {
+        return handler.apply(List.of(request)).get(0).get();
+    }
+
+    /**
+     * Stops accepting requests, waits for the worker to apply the queued ones and fails whatever it left behind,
+     * including requests offered while it was stopping.
+     */
+    void close() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        Pending<I, O> left;
+        int failed = 0;
+        while ((left = queue.poll()) != null) {
+            if (left.claim()) {
+                left.future.completeExceptionally(new GroupCommitUnavailableException(
+                        "Group commit " + name + " shut down before the request was applied; nothing was written"));
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            LOGGER.warn("Group commit {} shut down with {} requests not applied", name, failed);
+        }
+    }
+
+    private void run() {
+        List<Pending<I, O>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<I, O> first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long wait = deadline - System.nanoTime();
+                    Pending<I, O> next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException ex) {
+                LOGGER.warn("Group commit worker {} interrupted; applying the {} requests collected so far", name, batch.size());
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                apply(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void apply(List<Pending<I, O>> collected) {
+        // Requests whose caller already timed out are dropped; the rest can no longer time out unapplied.
+        List<Pending<I, O>> batch = new ArrayList<>(collected.size());
+        for (Pending<I, O> pending : collected) {
+            if (pending.claim()) {
+                batch.add(pending);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizes.record(batch.size());
+        List<I> requests = new ArrayList<>(batch.size());
+        batch.forEach(pending -> requests.add(pending.request));
+        try {
+            List<BatchOutcome<O>> outcomes = handler.apply(requests);
+            if (outcomes.size() != batch.size()) {
+                throw new IllegalStateException("Batch handler returned " + outcomes.size() + " outcomes for "
+                        + batch.size() + " requests");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                BatchOutcome<O> outcome = outcomes.get(i);
+                if (outcome.isFailed()) {
+                    batch.get(i).future.completeExceptionally(outcome.getError());
+                } else {
+                    batch.get(i).future.complete(outcome.getValue());
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.error("Group commit batch of {} {} requests failed", batch.size(), name, ex);
+            batch.forEach(pending -> pending.future.completeExceptionally(ex));
+        }
+    }
+
+    private static final class Pending<I, O> {
+        private final I request;
+        private final CompletableFuture<O> future = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Pending(I request) {
+            this.request = request;
+        }
+
+        /**
+         * Taken once, either by the worker about to apply the request or by whoever gives up on it.
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
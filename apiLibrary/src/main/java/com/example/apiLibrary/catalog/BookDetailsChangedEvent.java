@@ -0,0 +1,43 @@
+package com.example.apiLibrary.catalog;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published whenever a transaction adds books or changes their descriptive fields (title, author, price, ...).
+ * Listeners that keep copies of book data refresh those books once the transaction has committed, or straight
+ * away when the event is published outside a transaction.
+ * <p>
+ * Bulk writers that do not know the IDs they touched publish a {@link #catalogWide()} event instead, after
+ * which listeners refresh everything.
+ */
+public class BookDetailsChangedEvent {
+
+    private final Set<Long> bookIds;
+    private final boolean catalogWide;
+
+    public BookDetailsChangedEvent(Collection<Long> bookIds) {
+        this.bookIds = Set.copyOf(bookIds);
+        this.catalogWide = false;
+    }
+
+    private BookDetailsChangedEvent() {
+        this.bookIds = Set.of();
+        this.catalogWide = true;
+    }
+
+    public static BookDetailsChangedEvent catalogWide() {
+        return new BookDetailsChangedEvent();
+    }
+
+    /**
+     * The IDs of the changed books; empty for a {@link #catalogWide()} event.
+     */
+    public Set<Long> getBookIds() {
+        return bookIds;
+    }
+
+    public boolean isCatalogWide() {
+        return catalogWide;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.apiLibrary.catalog;
+
+import java.util.Arrays;
+
+/**
+ * How well a book matches title and author search terms, as a single rank key: higher keys rank first, and
+ * equal keys by ascending book ID.
+ * <p>
+ * Each term scores 3 when its field starts with it, 2 when it starts a later word and 1 when it only occurs
+ * inside a word; the scores of the terms add up. Among books with the same score, shorter fields rank first,
+ * because the terms make up more of them. Fields and terms are folded with {@link BookTextIndex#fold}.
+ * {@link BookTextIndex} ranks its matches with this key, the snapshot ranks its scan with it, and
+ * BookSearchRepositoryImpl computes the same key in SQL, so all of them order a search the same way.
+ */
+public final class BookRelevance {
+
+    public static final long SCORE_UNIT = 1_000_000;
+
+    private BookRelevance() {
+    }
+
+    /**
+     * The rank key of a book for the terms, which may be null or blank.
+     */
+    public static long key(String title, String author, String titleTerm, String authorTerm) {
+        return foldedKey(title == null ? "" : BookTextIndex.fold(title),
+                author == null ? "" : BookTextIndex.fold(author),
+                foldedTerm(titleTerm), foldedTerm(authorTerm));
+    }
+
+    static String foldedTerm(String term) {
+        return term == null || term.isBlank() ? null : BookTextIndex.fold(term.trim());
+    }
+
+    /**
+     * The rank key of a book whose fields and terms are already folded. A null term does not count.
+     */
+    static long foldedKey(String title, String author, String titleTerm, String authorTerm) {
+        long score = 0;
+        long length = 0;
+        if (titleTerm != null) {
+            score += score(title, titleTerm);
+            length += title.length();
+        }
+        if (authorTerm != null) {
+            score += score(author, authorTerm);
+            length += author.length();
+        }
+        return score * SCORE_UNIT - Math.min(length, SCORE_UNIT - 1);
+    }
+
+    private static int score(String field, String term) {
+        if (field.startsWith(term)) {
+            return 3;
+        }
+        if (field.contains(" " + term)) {
+            return 2;
+        }
+        return field.contains(term) ? 1 : 0;
+    }
+
+    /**
+     * Book IDs in rank order, with their rank keys.
+     */
+    public record Ranking(long[] ids, long[] keys) {
+
+        /**
+         * Sorts the IDs by descending key, then ascending ID.
+         */
+        static Ranking of(long[] ids, long[] keys) {
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> keys[a] != keys[b]
+                    ? Long.compare(keys[b], keys[a])
+                    : Long.compare(ids[a], ids[b]));
+            long[] rankedIds = new long[ids.length];
+            long[] rankedKeys = new long[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                rankedIds[i] = ids[order[i]];
+                rankedKeys[i] = keys[order[i]];
+            }
+            return new Ranking(rankedIds, rankedKeys);
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * The same IDs in ascending order, as {@link BookTextIndex#findIds} returns them.
+         */
+        public long[] sortedIds() {
+            long[] sorted = ids.clone();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        /**
+         * The first position that ranks strictly after (afterKey, afterId).
+         */
+        int firstPositionAfter(long afterKey, long afterId) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] > afterKey || (keys[mid] == afterKey && ids[mid] <= afterId)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.apiLibrary.catalog;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published by the write services whenever a transaction changes the stock of one or more books.
+ * Listeners that keep copies of book data refresh those books once the transaction has committed.
+ */
+public class BookStockChangedEvent {
+
+    private final Set<Long> bookIds;
+
+    public BookStockChangedEvent(Collection<Long> bookIds) {
+        this.bookIds = Set.copyOf(bookIds);
+    }
+
+    public Set<Long> getBookIds() {
+        return bookIds;
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.apiLibrary.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory trigram index over book titles and authors.
+ * <p>
+ * Text is accent-folded and lower-cased, then split into overlapping three-character grams. Each gram maps
+ * to a posting list of document ordinals, stored as a delta + varint encoded byte array. A "contains" query
+ * intersects the postings of the query's grams and verifies the survivors against the folded text, which
+ * is what {@code LIKE '%term%'} does in the database but without scanning every row.
+ * <p>
+ * The bulk of the index is built once, in parallel, from a {@link CatalogSnapshot}. Books added or edited
+ * afterwards go into a small uncompressed overlay and their old document is tombstoned; the overlay is
+ * folded back in by the next rebuild.
+ */
+@Component
+public class BookTextIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookTextIndex.class);
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final int GRAM = 3;
+    private static final int BUILD_CHUNK = 16_384;
+    private static final char FIELD_SEPARATOR = '\u0000';
+    private static final int STOP_INTERSECTING_BELOW = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Base segment, built from a snapshot. Ordinal i is row i of the snapshot, so baseIds is sorted.
+    private long[] baseIds = new long[0];
+    private Map<Long, byte[]> basePostings = Map.of();
+
+    // Per-ordinal folded text ("title\0author") for verification, shared by base and overlay.
+    private final List<String> documents = new ArrayList<>();
+    private final List<Long> overlayIds = new ArrayList<>(); // Ordinal baseIds.length + i
+    private final Map<Long, Integer> overlayOrdinals = new HashMap<>();
+    private final Map<Long, int[]> overlayPostings = new HashMap<>(); // [0] holds the length
+    private final BitSet deleted = new BitSet();
+    private boolean built;
+
+    /**
+     * Replaces the whole index with one built from the snapshot. The build runs as parallel streams, so it uses
+     * the fork/join pool of the calling thread; {@link CatalogReadModel} calls it from its own pool.
+     */
+    public void rebuild(CatalogSnapshot snapshot) {
+        long start = System.nanoTime();
+        int size = snapshot.size();
+        String[] folded = new String[size];
+        long[] ids = new long[size];
+
+        // Each chunk builds postings for its own row range; ranges are merged in order, so lists stay sorted.
+        int chunks = (size + BUILD_CHUNK - 1) / BUILD_CHUNK;
+        List<Map<Long, IntList>> partials = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    Map<Long, IntList> postings = new HashMap<>();
+                    int end = Math.min(size, (chunk + 1) * BUILD_CHUNK);
+                    for (int row = chunk * BUILD_CHUNK; row < end; row++) {
+                        ids[row] = snapshot.idAt(row);
+                        folded[row] = document(snapshot.titleAt(row), snapshot.authorAt(row));
+                        for (long gram : grams(folded[row])) {
+                            postings.computeIfAbsent(gram, key -> new IntList()).add(row);
+                        }
+                    }
+                    return postings;
+                })
+                .collect(Collectors.toList());
+
+        Map<Long, IntList> merged = new HashMap<>();
+        for (Map<Long, IntList> partial : partials) {
+            partial.forEach((gram, list) -> merged.computeIfAbsent(gram, key -> new IntList()).addAll(list));
+        }
+        Map<Long, byte[]> compressed = merged.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> encode(entry.getValue())));
+
+        lock.writeLock().lock();
+        try {
+            baseIds = ids;
+            basePostings = compressed;
+            documents.clear();
+            documents.addAll(Arrays.asList(folded));
+            overlayIds.clear();
+            overlayOrdinals.clear();
+            overlayPostings.clear();
+            deleted.clear();
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long postingBytes = compressed.values().stream().mapToLong(bytes -> bytes.length).sum();
+        LOGGER.info("Book text index built: {} books, {} trigrams, {} KB of postings in {} ms",
+                size, compressed.size(), postingBytes / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexes a new or edited book. The previous version of the book, if any, stops matching immediately.
+     */
+    public void update(long id, String title, String author) {
+        String document = document(title, author);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int ordinal = documents.size();
+            documents.add(document);
+            overlayIds.add(id);
+            overlayOrdinals.put(id, ordinal);
+            for (long gram : grams(document)) {
+                int[] list = overlayPostings.getOrDefault(gram, new int[]{0, 0, 0, 0, 0});
+                if (list[0] + 1 == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                }
+                list[++list[0]] = ordinal;
+                overlayPostings.put(gram, list);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        Integer overlayOrdinal = overlayOrdinals.remove(id);
+        if (overlayOrdinal != null) {
+            deleted.set(overlayOrdinal);
+        }
+        int baseOrdinal = Arrays.binarySearch(baseIds, id);
+        if (baseOrdinal >= 0) {
+            deleted.set(baseOrdinal);
+        }
+    }
+
+    /**
+     * Returns the IDs, in ascending order, of books whose title contains {@code titleTerm} and whose author
+     * contains {@code authorTerm}, ignoring case and accents. Either term may be null.
+     * Returns null when the index cannot answer the query, i.e. before the first build or when no term is at
+     * least three characters long; callers should then fall back to scanning.
+     */
+    public long[] findIds(String titleTerm, String authorTerm) {
+        String title = BookRelevance.foldedTerm(titleTerm);
+        String author = BookRelevance.foldedTerm(authorTerm);
+        lock.readLock().lock();
+        try {
+            int[] matches = matchLocked(title, author);
+            if (matches == null) {
+                return null;
+            }
+            long[] result = new long[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                result[i] = idOf(matches[i]);
+            }
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the same books as {@link #findIds}, ordered by {@link BookRelevance}. The rank keys are computed
+     * from the folded text the index already holds, so ranking costs nothing beyond the matches themselves.
+     * Returns null when {@link #findIds} would.
+     */
+    public BookRelevance.Ranking findRanked(String titleTerm, String authorTerm) {
+        String title = BookRelevance.foldedTerm(titleTerm);
+        String author = BookRelevance.foldedTerm(authorTerm);
+        lock.readLock().lock();
+        try {
+            int[] matches = matchLocked(title, author);
+            if (matches == null) {
+                return null;
+            }
+            long[] ids = new long[matches.length];
+            long[] keys = new long[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                String document = documents.get(matches[i]);
+                int separator = document.indexOf(FIELD_SEPARATOR);
+                ids[i] = idOf(matches[i]);
+                keys[i] = BookRelevance.foldedKey(document.substring(0, separator),
+                        document.substring(separator + 1), title, author);
+            }
+            return BookRelevance.Ranking.of(ids, keys);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinals of the documents matching the folded terms, or null when the index cannot answer.
+     */
+    private int[] matchLocked(String title, String author) {
+        Set<Long> queryGrams = new LinkedHashSet<>();
+        if (title != null) {
+            queryGrams.addAll(grams(title));
+        }
+        if (author != null) {
+            queryGrams.addAll(grams(author));
+        }
+        if (queryGrams.isEmpty() || !built) {
+            return null;
+        }
+        int[] candidates = intersect(queryGrams);
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int ordinal : candidates) {
+            // Terms never contain the separator, so a match can never straddle title and author.
+            String document = documents.get(ordinal);
+            int separator = document.indexOf(FIELD_SEPARATOR);
+            int titleMatch = title == null ? 0 : document.indexOf(title);
+            if (titleMatch >= 0 && titleMatch < separator
+                    && (author == null || document.indexOf(author, separator + 1) >= 0)) {
+                matches[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private long idOf(int ordinal) {
+        return ordinal < baseIds.length ? baseIds[ordinal] : overlayIds.get(ordinal - baseIds.length);
+    }
+
+    /**
+     * Intersects the postings of the query grams, shortest list first, dropping tombstoned documents.
+     * Callers verify every candidate against the text, so once the candidate set is small it is cheaper to stop
+     * intersecting than to decode the remaining (longer) lists.
+     */
+    private int[] intersect(Set<Long> queryGrams) {
+        List<Long> byLength = new ArrayList<>(queryGrams);
+        byLength.sort(Comparator.comparingInt(this::postingsLength));
+        int[] result = postingsOf(byLength.get(0));
+        for (int i = 1; i < byLength.size() && result.length > STOP_INTERSECTING_BELOW; i++) {
+            result = intersect(result, postingsOf(byLength.get(i)));
+        }
+        return Arrays.stream(result).filter(ordinal -> !deleted.get(ordinal)).toArray();
+    }
+
+    private int postingsLength(long gram) {
+        byte[] base = basePostings.get(gram);
+        int[] overlay = overlayPostings.get(gram);
+        return (base == null ? 0 : readVarint(base, new int[]{0})) + (overlay == null ? 0 : overlay[0]);
+    }
+
+    private int[] postingsOf(long gram) {
+        byte[] base = basePostings.get(gram);
+        int[] decoded = base == null ? new int[0] : decode(base);
+        int[] overlay = overlayPostings.get(gram);
+        if (overlay == null) {
+            return decoded;
+        }
+        // Overlay ordinals are all greater than base ordinals, so appending keeps the list sorted.
+        int[] combined = Arrays.copyOf(decoded, decoded.length + overlay[0]);
+        System.arraycopy(overlay, 1, combined, decoded.length, overlay[0]);
+        return combined;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static String document(String title, String author) {
+        return fold(title == null ? "" : title) + FIELD_SEPARATOR + fold(author == null ? "" : author);
+    }
+
+    /**
+     * Lower-cases and strips diacritics, so "Gabriel García Márquez" matches "garcia marquez". Every way of
+     * matching title and author terms (this index, the snapshot scan and the SQL query) folds the same way.
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Distinct trigrams of the text, each packed into a long. Grams never span the title/author separator.
+     */
+    static Set<Long> grams(String text) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) {
+                continue;
+            }
+            grams.add(((long) a << 32) | ((long) b << 16) | c);
+        }
+        return grams;
+    }
+
+    /**
+     * Encodes a sorted list as its length followed by gaps between consecutive values, seven bits per byte.
+     */
+    static byte[] encode(IntList list) {
+        byte[] buffer = new byte[5 * (list.size + 1)];
+        int position = writeVarint(buffer, 0, list.size);
+        int previous = 0;
+        for (int i = 0; i < list.size; i++) {
+            position = writeVarint(buffer, position, list.values[i] - previous);
+            previous = list.values[i];
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    static int[] decode(byte[] bytes) {
+        int[] position = {0};
+        int length = readVarint(bytes, position);
+        int[] values = new int[length];
+        int previous = 0;
+        for (int i = 0; i < length; i++) {
+            previous += readVarint(bytes, position);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static int writeVarint(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readVarint(byte[] bytes, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = bytes[position[0]++];
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Minimal growable int array used while building postings.
+     */
+    static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.apiLibrary.catalog;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the current {@link CatalogSnapshot} and keeps it fresh.
+ * <p>
+ * The snapshot is loaded once the application is ready and fully reloaded on a fixed schedule to pick up
+ * out-of-band changes. Stock changes made by sales and orders are applied incrementally after commit by
+ * re-reading just the affected rows, so the snapshot never shows stock that was rolled back. The re-read runs on
+ * the refresh thread, not on the thread that committed, and a burst of commits is applied as one re-read.
+ * Until the first load completes, {@link #current()} is empty and callers fall back to the database.
+ * <p>
+ * The {@link BookTextIndex} is rebuilt from every new snapshot. Books added or edited in between are
+ * re-read by ID and swapped into a copy of the snapshot, and indexed incrementally.
+ * <p>
+ * Background reloads and refreshes run one at a time on a dedicated thread, and the parallel parts of building
+ * snapshots and indexes run on a dedicated fork/join pool, so neither competes with users of the common pool.
+ */
+@Component
+public class CatalogReadModel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogReadModel.class);
+    private static final String SELECT_ALL = "SELECT ID, TITLE, AUTHOR, ISBN, PRICE, STOCK, CATEGORY, VERSION FROM BOOKS ORDER BY ID";
+    private static final String SELECT_STOCK = "SELECT ID, STOCK, VERSION FROM BOOKS WHERE ID IN (:ids)";
+    private static final String SELECT_ROWS =
+            "SELECT ID, TITLE, AUTHOR, ISBN, PRICE, STOCK, CATEGORY, VERSION FROM BOOKS WHERE ID IN (:ids) ORDER BY ID";
+    private static final int LOAD_FETCH_SIZE = 1000;
+    // Oracle caps IN lists at 1000 expressions.
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final BookTextIndex textIndex;
+    private final boolean enabled;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ForkJoinPool buildPool;
+
+    private volatile CatalogSnapshot snapshot;
+
+    // Books whose stock changed while a full reload was running; re-applied once the new snapshot is live.
+    private final Set<Long> changedDuringReload = ConcurrentHashMap.newKeySet();
+    private volatile boolean reloading;
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+    // Edited books waiting for the next refresh; a burst of edits is applied as one copy of the snapshot.
+    private final Set<Long> pendingEdits = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+    // Books sold or ordered since the last stock refresh; applied the same way as pendingEdits.
+    private final Set<Long> pendingStock = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean stockRefreshRequested = new AtomicBoolean();
+
+    @Autowired
+    public CatalogReadModel(JdbcTemplate jdbcTemplate,
+                            NamedParameterJdbcTemplate namedJdbcTemplate,
+                            BookTextIndex textIndex,
+                            @Value("${app.catalog.snapshot.enabled:true}") boolean enabled,
+                            @Value("${app.catalog.snapshot.build-threads:0}") int buildThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.textIndex = textIndex;
+        this.enabled = enabled;
+        int parallelism = buildThreads > 0 ? buildThreads : Runtime.getRuntime().availableProcessors();
+        this.buildPool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("catalog-build-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+        buildPool.shutdownNow();
+    }
+
+    /**
+     * Returns the current snapshot, or empty if the read model is disabled or not loaded yet.
+     */
+    public Optional<CatalogSnapshot> current() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.catalog.snapshot.reload-interval-ms:300000}",
+            fixedDelayString = "${app.catalog.snapshot.reload-interval-ms:300000}")
+    public void scheduledReload() {
+        if (enabled && snapshot != null) {
+            reload();
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot from the BOOKS table and swaps it in atomically.
+     */
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        reloading = true;
+        try {
+            CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(SELECT_ALL);
+                statement.setFetchSize(LOAD_FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                builder.add(rs.getLong("ID"),
+                        rs.getString("TITLE"),
+                        rs.getString("AUTHOR"),
+                        rs.getString("ISBN"),
+                        rs.getBigDecimal("PRICE"),
+                        rs.getObject("STOCK", Integer.class),
+                        rs.getString("CATEGORY"),
+                        rs.getLong("VERSION"));
+            });
+            CatalogSnapshot loaded = buildPool.submit(() -> {
+                CatalogSnapshot built = builder.build();
+                textIndex.rebuild(built);
+                return built;
+            }).join();
+            snapshot = loaded;
+
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            long estimatedBytes = loaded.estimatedBytes();
+            LOGGER.info("Catalog snapshot loaded: {} books in {} ms, estimated at ~{} KB (~{} bytes/book)",
+                    loaded.size(), elapsedMs, estimatedBytes / 1024,
+                    loaded.size() == 0 ? 0 : estimatedBytes / loaded.size());
+        } catch (RuntimeException ex) {
+            LOGGER.error("Could not load catalog snapshot; book reads keep using {}",
+                    snapshot == null ? "the database" : "the previous snapshot", ex);
+        } finally {
+            reloading = false;
+        }
+        reapplyStockChangedDuringReload();
+    }
+
+    /**
+     * Re-reads the given books and swaps a copy of the snapshot with just those rows replaced, then updates
+     * their text index entries. Serialized with {@link #reload()}, so an edit that lands during a reload is
+     * applied on top of the reloaded snapshot.
+     */
+    private synchronized void refreshDetails(Set<Long> bookIds) {
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            reloading = true;
+            try {
+                CatalogSnapshot.Builder changes = new CatalogSnapshot.Builder();
+                for (List<Long> chunk : chunks(bookIds)) {
+                    namedJdbcTemplate.query(SELECT_ROWS, new MapSqlParameterSource("ids", chunk), rs -> {
+                        changes.add(rs.getLong("ID"),
+                                rs.getString("TITLE"),
+                                rs.getString("AUTHOR"),
+                                rs.getString("ISBN"),
+                                rs.getBigDecimal("PRICE"),
+                                rs.getObject("STOCK", Integer.class),
+                                rs.getString("CATEGORY"),
+                                rs.getLong("VERSION"));
+                    });
+                }
+                CatalogSnapshot changed = changes.build();
+                snapshot = buildPool.submit(() -> current.withChanges(changed, bookIds)).join();
+                for (int row = 0; row < changed.size(); row++) {
+                    textIndex.update(changed.idAt(row), changed.titleAt(row), changed.authorAt(row));
+                }
+                bookIds.stream().filter(id -> changed.rowOf(id) < 0).forEach(textIndex::remove); // Deleted books
+            } catch (RuntimeException ex) {
+                // The next full reload picks the edits up.
+                LOGGER.warn("Could not refresh the catalog snapshot for books {}", bookIds, ex);
+            } finally {
+                reloading = false;
+            }
+        }
+        reapplyStockChangedDuringReload();
+    }
+
+    private void reapplyStockChangedDuringReload() {
+        if (!changedDuringReload.isEmpty()) {
+            Set<Long> pending = Set.copyOf(changedDuringReload);
+            changedDuringReload.removeAll(pending);
+            refreshStock(pending);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(BookStockChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (reloading) {
+            changedDuringReload.addAll(event.getBookIds());
+        }
+        pendingStock.addAll(event.getBookIds());
+        if (stockRefreshRequested.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                stockRefreshRequested.set(false);
+                Set<Long> sold = Set.copyOf(pendingStock);
+                pendingStock.removeAll(sold);
+                refreshStock(sold);
+            });
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDetailsChanged(BookDetailsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.isCatalogWide()) {
+            requestReload(); // The reload rebuilds the text index too
+            return;
+        }
+        pendingEdits.addAll(event.getBookIds());
+        if (refreshRequested.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshRequested.set(false);
+                Set<Long> edited = Set.copyOf(pendingEdits);
+                pendingEdits.removeAll(edited);
+                if (!edited.isEmpty()) {
+                    refreshDetails(edited);
+                }
+            });
+        }
+    }
+
+    /**
+     * Starts a background reload unless one is already pending, so a burst of bulk writes costs a single reload.
+     */
+    private void requestReload() {
+        if (reloadRequested.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                reloadRequested.set(false);
+                reload();
+            });
+        }
+    }
+
+    private void refreshStock(Set<Long> bookIds) {
+        CatalogSnapshot current = snapshot;
+        if (current == null || bookIds.isEmpty()) {
+            return;
+        }
+        try {
+            for (List<Long> chunk : chunks(bookIds)) {
+                namedJdbcTemplate.query(SELECT_STOCK, new MapSqlParameterSource("ids", chunk), rs -> {
+                    current.updateStock(rs.getLong("ID"), rs.getObject("STOCK", Integer.class), rs.getLong("VERSION"));
+                });
+            }
+        } catch (RuntimeException ex) {
+            // The next full reload corrects the stock; the sale or order itself has already committed.
+            LOGGER.warn("Could not refresh catalog stock for books {}", bookIds, ex);
+        }
+    }
+
+    private static List<List<Long>> chunks(Set<Long> bookIds) {
+        List<Long> ids = new ArrayList<>(bookIds);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            chunks.add(ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,627 @@
+package com.example.apiLibrary.catalog;
+
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.repository.BookFacetCounts;
+import com.example.apiLibrary.repository.BookFilter;
+import com.example.apiLibrary.repository.BookSortKey;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, column-oriented copy of the BOOKS table.
+ * <p>
+ * Each column is a separate array indexed by row, with rows ordered by book ID. Prices are stored as
+ * longs scaled by {@link #PRICE_SCALE} decimal places and categories as codes into a small dictionary,
+ * so the only per-book objects are the title, author and ISBN strings.
+ * The stock and version columns are the one exception to immutability: they are updated in place, with
+ * volatile semantics, when sales and orders commit.
+ */
+public final class CatalogSnapshot {
+
+    public static final int PRICE_SCALE = 2;
+
+    private static final long NULL_PRICE = Long.MIN_VALUE;
+    private static final int NULL_STOCK = Integer.MIN_VALUE;
+    private static final int NULL_CATEGORY = -1;
+    private static final int UNKNOWN_CATEGORY = -2; // Filter value that no row carries
+    private static final VarHandle STOCK = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle VERSION = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int size;
+    private final long[] ids;
+    private final String[] titles;
+    private final String[] authors;
+    private final String[] isbns;
+    private final long[] prices;
+    private final int[] stock;
+    private final int[] categoryCodes;
+    private final String[] categoryDictionary;
+    private final long[] versions;
+
+    // Sum of mix(id, version) over all rows; see contentVersion().
+    private final AtomicLong checksum = new AtomicLong();
+
+    // Row permutations for the non-ID sort orders, tie-broken by ID.
+    private final int[] byTitle;
+    private final int[] byPrice;
+
+    private CatalogSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.titles = Arrays.copyOf(builder.titles, size);
+        this.authors = Arrays.copyOf(builder.authors, size);
+        this.isbns = Arrays.copyOf(builder.isbns, size);
+        this.prices = Arrays.copyOf(builder.prices, size);
+        this.stock = Arrays.copyOf(builder.stock, size);
+        this.categoryCodes = Arrays.copyOf(builder.categoryCodes, size);
+        this.categoryDictionary = builder.categoryDictionary.toArray(new String[0]);
+        this.versions = Arrays.copyOf(builder.versions, size);
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            sum += mix(ids[row], versions[row]);
+        }
+        this.checksum.set(sum);
+        this.byTitle = sortedRows(Comparator.comparing((Integer row) -> titles[row], Comparator.nullsLast(Comparator.naturalOrder())));
+        this.byPrice = sortedRows(Comparator.comparingLong((Integer row) -> prices[row] == NULL_PRICE ? Long.MAX_VALUE : prices[row]));
+    }
+
+    private int[] sortedRows(Comparator<Integer> keyOrder) {
+        // Rows are already in ID order and the sort is stable, so ties stay ordered by ID.
+        return IntStream.range(0, size).boxed().parallel()
+                .sorted(keyOrder)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the row holding the given book, or -1 if the book is not in the snapshot.
+     */
+    public int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row : -1;
+    }
+
+    public long idAt(int row) {
+        return ids[row];
+    }
+
+    public String titleAt(int row) {
+        return titles[row];
+    }
+
+    public String authorAt(int row) {
+        return authors[row];
+    }
+
+    /**
+     * Identifies the content of the snapshot: a checksum over every (ID, BOOKS.VERSION) pair, kept current by
+     * {@link #updateStock}. Every write to a book bumps its version, so snapshots holding the same rows at the
+     * same versions report the same value, whichever instance loaded them.
+     */
+    public long contentVersion() {
+        return checksum.get();
+    }
+
+    public BookDTO toDto(int row) {
+        BookDTO dto = new BookDTO();
+        // The version is read before the stock it guards, so the row is never older than its version.
+        dto.setVersion((long) VERSION.getVolatile(versions, row));
+        dto.setId(ids[row]);
+        dto.setTitle(titles[row]);
+        dto.setAuthor(authors[row]);
+        dto.setIsbn(isbns[row]);
+        dto.setPrice(priceAt(row));
+        dto.setStock(stockAt(row));
+        dto.setCategory(categoryAt(row));
+        return dto;
+    }
+
+    private Integer stockAt(int row) {
+        int currentStock = (int) STOCK.getVolatile(stock, row);
+        return currentStock == NULL_STOCK ? null : currentStock;
+    }
+
+    private String categoryAt(int row) {
+        int categoryCode = categoryCodes[row];
+        return categoryCode == NULL_CATEGORY ? null : categoryDictionary[categoryCode];
+    }
+
+    /**
+     * Updates the stock of a book in place, as read at the given version. Reads older than what the snapshot
+     * already holds are ignored, as are books that are not in the snapshot; those will be picked up by the next
+     * full reload.
+     */
+    public synchronized void updateStock(long id, Integer newStock, long newVersion) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return;
+        }
+        long oldVersion = versions[row];
+        if (newVersion <= oldVersion) {
+            return;
+        }
+        STOCK.setVolatile(stock, row, newStock == null ? NULL_STOCK : newStock);
+        VERSION.setVolatile(versions, row, newVersion);
+        checksum.addAndGet(mix(id, newVersion) - mix(id, oldVersion));
+    }
+
+    private static long mix(long id, long version) {
+        // SplitMix64 finalizer, so the sum changes with overwhelming probability whenever any pair does.
+        long z = id * 0x9E3779B97F4A7C15L + version;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a copy of this snapshot in which the books listed in {@code changedIds} are replaced by their rows
+     * in {@code changes}, or dropped when {@code changes} has no row for them. All other rows, including their
+     * current stock, are carried over unchanged.
+     * <p>
+     * Only the sort orders are rebuilt, so this is much cheaper than reloading the table, but it is still linear
+     * in the size of the snapshot; callers batch edits together.
+     */
+    public CatalogSnapshot withChanges(CatalogSnapshot changes, Set<Long> changedIds) {
+        Builder builder = new Builder();
+        int row = 0;
+        int changed = 0;
+        while (row < size || changed < changes.size) {
+            if (changed < changes.size && (row == size || changes.ids[changed] <= ids[row])) {
+                if (row < size && ids[row] == changes.ids[changed]) {
+                    row++;
+                }
+                builder.addRow(changes, changed++);
+            } else {
+                if (!changedIds.contains(ids[row])) {
+                    builder.addRow(this, row);
+                }
+                row++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Finds a page of books matching the filter using offset paging.
+     *
+     * @param textMatches Sorted IDs of the books matching the filter's title/author terms, as computed by
+     *                    {@link BookTextIndex#findIds}; or null to match the terms by scanning.
+     */
+    public List<BookDTO> findPage(BookFilter filter, long[] textMatches, BookSortKey sort, long offset, int limit) {
+        return collect(new RowFilter(filter, textMatches), sort, 0, offset, limit);
+    }
+
+    /**
+     * Finds a page of books matching the filter that sort strictly after the given (key, id) position.
+     *
+     * @param textMatches See {@link #findPage}.
+     */
+    public List<BookDTO> findPageAfter(BookFilter filter, long[] textMatches, BookSortKey sort,
+                                       Object afterKey, long afterId, int limit) {
+        return collect(new RowFilter(filter, textMatches), sort, firstPositionAfter(sort, afterKey, afterId), 0, limit);
+    }
+
+    /**
+     * Ranks the books matching the title and author terms by {@link BookRelevance}, scanning every row. Used
+     * when the text index cannot answer the query.
+     */
+    public BookRelevance.Ranking rankByScan(String titleTerm, String authorTerm) {
+        String title = BookRelevance.foldedTerm(titleTerm);
+        String author = BookRelevance.foldedTerm(authorTerm);
+        long[] ids = new long[size];
+        long[] keys = new long[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (containsFolded(titles[row], title) && containsFolded(authors[row], author)) {
+                ids[count] = this.ids[row];
+                keys[count++] = BookRelevance.foldedKey(foldOrEmpty(titles[row]), foldOrEmpty(authors[row]),
+                        title, author);
+            }
+        }
+        return BookRelevance.Ranking.of(Arrays.copyOf(ids, count), Arrays.copyOf(keys, count));
+    }
+
+    /**
+     * Finds a page of ranked books that also match the filter's category and price, using offset paging.
+     *
+     * @param ranking The books matching the filter's title/author terms, from {@link BookTextIndex#findRanked}
+     *                or {@link #rankByScan}.
+     */
+    public List<BookDTO> findRankedPage(BookFilter filter, BookRelevance.Ranking ranking, long offset, int limit) {
+        return collectRanked(new RowFilter(filter, ranking.sortedIds()), ranking, 0, offset, limit);
+    }
+
+    /**
+     * Finds a page of ranked books matching the filter that rank strictly after the given (key, id) position.
+     *
+     * @param ranking See {@link #findRankedPage}.
+     */
+    public List<BookDTO> findRankedPageAfter(BookFilter filter, BookRelevance.Ranking ranking,
+                                             long afterKey, long afterId, int limit) {
+        return collectRanked(new RowFilter(filter, ranking.sortedIds()), ranking,
+                ranking.firstPositionAfter(afterKey, afterId), 0, limit);
+    }
+
+    /**
+     * Counts the books matching the filter.
+     *
+     * @param textMatches See {@link #findPage}.
+     */
+    public long countMatching(BookFilter filter, long[] textMatches) {
+        RowFilter rowFilter = new RowFilter(filter, textMatches);
+        long count = 0;
+        for (int row = rowFilter.firstCandidate(0); row >= 0 && row < size; row = rowFilter.firstCandidate(row + 1)) {
+            if (rowFilter.matches(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes category and price bucket counts for the filter in a single scan, with the same semantics as
+     * {@link com.example.apiLibrary.repository.BookSearchRepository#countFacets}.
+     *
+     * @param textMatches See {@link #findPage}.
+     */
+    public BookFacetCounts countFacets(BookFilter filter, long[] textMatches, List<BigDecimal> priceBucketBounds) {
+        RowFilter rowFilter = new RowFilter(filter, textMatches);
+        long[] bounds = new long[priceBucketBounds.size()];
+        for (int i = 0; i < bounds.length; i++) {
+            // price < bound holds for a scaled price exactly when it is below the bound rounded up to the scale
+            bounds[i] = priceBucketBounds.get(i).setScale(PRICE_SCALE, RoundingMode.CEILING).unscaledValue().longValueExact();
+        }
+        long[] byCategory = new long[categoryDictionary.length + 1]; // Slot 0 counts books without a category
+        long[] byBucket = new long[bounds.length + 1];
+        long total = 0;
+        for (int row = rowFilter.firstCandidate(0); row >= 0 && row < size; row = rowFilter.firstCandidate(row + 1)) {
+            if (!rowFilter.matchesText(row)) {
+                continue;
+            }
+            boolean inCategory = rowFilter.matchesCategory(row);
+            boolean inPriceRange = rowFilter.matchesPrice(row);
+            if (inPriceRange) {
+                byCategory[categoryCodes[row] + 1]++;
+            }
+            long price = prices[row];
+            if (inCategory && price != NULL_PRICE) {
+                int bucket = 0;
+                while (bucket < bounds.length && price >= bounds[bucket]) {
+                    bucket++;
+                }
+                byBucket[bucket]++;
+            }
+            if (inCategory && inPriceRange) {
+                total++;
+            }
+        }
+
+        Map<String, Long> categoryCounts = new HashMap<>();
+        for (int code = NULL_CATEGORY; code < categoryDictionary.length; code++) {
+            long count = byCategory[code + 1];
+            if (count > 0) {
+                categoryCounts.put(code == NULL_CATEGORY ? null : categoryDictionary[code], count);
+            }
+        }
+        return new BookFacetCounts(categoryCounts, byBucket, total);
+    }
+
+    /**
+     * Estimated heap footprint of the snapshot in bytes, computed from its array lengths and string lengths
+     * assuming compressed oops and Latin-1 compact strings; nothing is measured. CatalogSnapshotFootprint in the
+     * benchmarks compares it with the footprint JOL measures.
+     */
+    public long estimatedBytes() {
+        long bytes = arrayBytes(size, Long.BYTES) * 3          // ids, prices, versions
+                + arrayBytes(size, Integer.BYTES) * 4          // stock, categoryCodes, byTitle, byPrice
+                + arrayBytes(size, 4) * 3;                     // titles, authors, isbns (references)
+        for (int row = 0; row < size; row++) {
+            bytes += stringBytes(titles[row]) + stringBytes(authors[row]) + stringBytes(isbns[row]);
+        }
+        for (String category : categoryDictionary) {
+            bytes += stringBytes(category);
+        }
+        return bytes;
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        return 16L + (long) length * elementBytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 24L + 16L + value.length(); // String object + byte[] header + Latin-1 payload
+    }
+
+    private List<BookDTO> collect(RowFilter rowFilter, BookSortKey sort, int startPosition, long offset, int limit) {
+        int[] order = orderFor(sort);
+        List<BookDTO> result = new ArrayList<>(Math.min(limit, 256));
+        long skipped = 0;
+        for (int position = startPosition; position < size && result.size() < limit; position++) {
+            if (order == null) {
+                // In ID order positions are rows, so jump straight to the next text match, if any.
+                position = rowFilter.firstCandidate(position);
+                if (position < 0) {
+                    break;
+                }
+            }
+            int row = order == null ? position : order[position];
+            if (!rowFilter.matches(row)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            result.add(toDto(row));
+        }
+        return result;
+    }
+
+    private List<BookDTO> collectRanked(RowFilter rowFilter, BookRelevance.Ranking ranking, int startPosition,
+                                        long offset, int limit) {
+        List<BookDTO> result = new ArrayList<>(Math.min(limit, 256));
+        long skipped = 0;
+        for (int position = startPosition; position < ranking.size() && result.size() < limit; position++) {
+            int row = rowOf(ranking.ids()[position]);
+            if (row < 0 || !rowFilter.matches(row)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            result.add(toDto(row));
+        }
+        return result;
+    }
+
+    private int[] orderFor(BookSortKey sort) {
+        return switch (sort) {
+            case ID -> null; // Rows are stored in ID order
+            case TITLE -> byTitle;
+            case PRICE -> byPrice;
+            case RELEVANCE -> throw new IllegalArgumentException("Relevance order comes from a ranking");
+        };
+    }
+
+    /**
+     * Binary search for the first position in the given sort order that comes strictly after (afterKey, afterId).
+     */
+    private int firstPositionAfter(BookSortKey sort, Object afterKey, long afterId) {
+        int[] order = orderFor(sort);
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int row = order == null ? mid : order[mid];
+            if (compareToPosition(sort, row, afterKey, afterId) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compareToPosition(BookSortKey sort, int row, Object afterKey, long afterId) {
+        int keyComparison = switch (sort) {
+            case ID -> 0;
+            case TITLE -> titles[row] == null ? 1 : titles[row].compareTo((String) afterKey);
+            case PRICE -> prices[row] == NULL_PRICE ? 1 : priceAt(row).compareTo((BigDecimal) afterKey);
+            case RELEVANCE -> throw new IllegalArgumentException("Relevance order comes from a ranking");
+        };
+        return keyComparison != 0 ? keyComparison : Long.compare(ids[row], afterId);
+    }
+
+    private BigDecimal priceAt(int row) {
+        return prices[row] == NULL_PRICE ? null : BigDecimal.valueOf(prices[row], PRICE_SCALE);
+    }
+
+    /**
+     * A {@link BookFilter} resolved against this snapshot's encodings, so matching a row does not allocate.
+     */
+    private final class RowFilter {
+        private final String title;
+        private final String author;
+        private final boolean hasCategory;
+        private final int categoryCode;
+        private final long minPrice;
+        private final long maxPrice;
+        private final BitSet textMatchRows; // When set, replaces the title/author checks
+
+        RowFilter(BookFilter filter, long[] textMatches) {
+            if (textMatches != null) {
+                this.title = null;
+                this.author = null;
+                this.textMatchRows = new BitSet(size);
+                for (long id : textMatches) {
+                    int row = rowOf(id);
+                    if (row >= 0) {
+                        textMatchRows.set(row);
+                    }
+                }
+            } else {
+                this.title = foldToNull(filter.getTitle());
+                this.author = foldToNull(filter.getAuthor());
+                this.textMatchRows = null;
+            }
+            String category = trimToNull(filter.getCategory());
+            this.hasCategory = category != null;
+            int code = hasCategory ? Arrays.asList(categoryDictionary).indexOf(category) : NULL_CATEGORY;
+            this.categoryCode = hasCategory && code < 0 ? UNKNOWN_CATEGORY : code;
+            this.minPrice = filter.getMinPrice() == null ? Long.MIN_VALUE
+                    : filter.getMinPrice().setScale(PRICE_SCALE, RoundingMode.CEILING).unscaledValue().longValueExact();
+            this.maxPrice = filter.getMaxPrice() == null ? Long.MAX_VALUE
+                    : filter.getMaxPrice().setScale(PRICE_SCALE, RoundingMode.FLOOR).unscaledValue().longValueExact();
+        }
+
+        /**
+         * Returns the first row at or after {@code row} that can possibly match, or -1 if there is none.
+         */
+        int firstCandidate(int row) {
+            return textMatchRows == null ? row : textMatchRows.nextSetBit(row);
+        }
+
+        boolean matches(int row) {
+            return matchesCategory(row) && matchesPrice(row) && matchesText(row);
+        }
+
+        boolean matchesText(int row) {
+            if (textMatchRows != null) {
+                return textMatchRows.get(row);
+            }
+            return containsFolded(titles[row], title) && containsFolded(authors[row], author);
+        }
+
+        boolean matchesCategory(int row) {
+            return !hasCategory || categoryCodes[row] == categoryCode;
+        }
+
+        boolean matchesPrice(int row) {
+            if (minPrice == Long.MIN_VALUE && maxPrice == Long.MAX_VALUE) {
+                return true;
+            }
+            long price = prices[row];
+            return price != NULL_PRICE && price >= minPrice && price <= maxPrice;
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String foldToNull(String value) {
+        String trimmed = trimToNull(value);
+        return trimmed == null ? null : BookTextIndex.fold(trimmed);
+    }
+
+    private static String foldOrEmpty(String text) {
+        return text == null ? "" : BookTextIndex.fold(text);
+    }
+
+    /**
+     * Whether the text contains the term, both folded as {@link BookTextIndex#fold} does, so a scan matches
+     * exactly what the text index would. Plain ASCII text, most of the catalog, is compared without folding it.
+     *
+     * @param foldedTerm The term, already folded.
+     */
+    static boolean containsFolded(String text, String foldedTerm) {
+        if (foldedTerm == null) {
+            return true;
+        }
+        if (text == null) {
+            return false;
+        }
+        if (!isAscii(text)) {
+            return BookTextIndex.fold(text).contains(foldedTerm);
+        }
+        int last = text.length() - foldedTerm.length();
+        for (int start = 0; start <= last; start++) {
+            int i = 0;
+            while (i < foldedTerm.length() && lowerAscii(text.charAt(start + i)) == foldedTerm.charAt(i)) {
+                i++;
+            }
+            if (i == foldedTerm.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static char lowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Accumulates rows, which must be added in ascending ID order.
+     */
+    public static final class Builder {
+        private int size;
+        private long[] ids = new long[1024];
+        private String[] titles = new String[1024];
+        private String[] authors = new String[1024];
+        private String[] isbns = new String[1024];
+        private long[] prices = new long[1024];
+        private int[] stock = new int[1024];
+        private int[] categoryCodes = new int[1024];
+        private long[] versions = new long[1024];
+        private final List<String> categoryDictionary = new ArrayList<>();
+        private final Map<String, Integer> categoryLookup = new HashMap<>();
+
+        public Builder add(long id, String title, String author, String isbn,
+                           BigDecimal price, Integer stockLevel, String category, long version) {
+            if (size > 0 && id <= ids[size - 1]) {
+                throw new IllegalArgumentException("Rows must be added in ascending ID order");
+            }
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            titles[size] = title;
+            authors[size] = author;
+            isbns[size] = isbn;
+            prices[size] = price == null ? NULL_PRICE
+                    : price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            stock[size] = stockLevel == null ? NULL_STOCK : stockLevel;
+            categoryCodes[size] = category == null ? NULL_CATEGORY
+                    : categoryLookup.computeIfAbsent(category, key -> {
+                        categoryDictionary.add(key);
+                        return categoryDictionary.size() - 1;
+                    });
+            versions[size] = version;
+            size++;
+            return this;
+        }
+
+        private void addRow(CatalogSnapshot source, int row) {
+            add(source.ids[row], source.titles[row], source.authors[row], source.isbns[row],
+                    source.priceAt(row), source.stockAt(row), source.categoryAt(row), source.versions[row]);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            isbns = Arrays.copyOf(isbns, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            stock = Arrays.copyOf(stock, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+
+        public CatalogSnapshot build() {
+            return new CatalogSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.apiLibrary.catalog;
+
+import com.example.apiLibrary.dto.BookDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Derives HTTP entity tags from the persisted BOOKS.VERSION column, which every write to a book bumps.
+ * <p>
+ * A tag is always computed from the same data as the body it is sent with, so every instance issues the same
+ * tag for the same content, a restart does not invalidate client caches, and a write made by another instance
+ * or outside the application changes the tag as soon as this instance serves the new data.
+ */
+@Component
+public class CatalogVersion {
+
+    private final CatalogReadModel catalogReadModel;
+
+    @Autowired
+    public CatalogVersion(CatalogReadModel catalogReadModel) {
+        this.catalogReadModel = catalogReadModel;
+    }
+
+    /**
+     * Strong entity tag for any list or search response over the catalog, derived from the versions of all
+     * books in the snapshot. Empty while there is no snapshot: versioning a database query would cost as much
+     * as running it, so those responses go out without a tag.
+     * <p>
+     * Take the tag before reading the data it covers, so it can only ever be older than the body.
+     */
+    public Optional<String> catalogTag() {
+        return catalogReadModel.current()
+                .map(snapshot -> "\"c" + Long.toHexString(snapshot.contentVersion()) + "\"");
+    }
+
+    /**
+     * Strong entity tag for a single book, from the version of the row it was read from.
+     */
+    public String bookTag(BookDTO book) {
+        long version = book.getVersion() == null ? 0 : book.getVersion();
+        return "\"b" + book.getId() + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.apiLibrary.config;
+
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.dto.BookFacetsDTO;
+import com.example.apiLibrary.repository.BookFilter;
+import com.example.apiLibrary.service.impl.IdempotentResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Date;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Read-through cache for single-book lookups. Entries are invalidated after commit whenever a book's
+     * stock or details change; the TTL only bounds staleness for changes made outside this application.
+     * Hit and miss counts are published as the "cache.gets" metric with cache=books.byId.
+     */
+    @Bean
+    public Cache<Long, BookDTO> bookByIdCache(MeterRegistry meterRegistry,
+                                              @Value("${app.books.cache.max-size:10000}") long maxSize,
+                                              @Value("${app.books.cache.ttl-ms:60000}") long ttlMs) {
+        Cache<Long, BookDTO> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "books.byId");
+    }
+
+    /**
+     * Facet counts per filter signature. Cleared after commit whenever book details change; stock changes do not
+     * affect facets. The TTL bounds staleness for changes made outside this application.
+     */
+    @Bean
+    public Cache<BookFilter, BookFacetsDTO> bookFacetsCache(MeterRegistry meterRegistry,
+                                                            @Value("${app.books.facets.cache.max-size:1000}") long maxSize,
+                                                            @Value("${app.books.facets.cache.ttl-ms:60000}") long ttlMs) {
+        Cache<BookFilter, BookFacetsDTO> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "books.facets");
+    }
+
+    /**
+     * Total match counts per filter, so deep pagination against the database does not pay a COUNT(*) on every
+     * page. Cleared after commit on catalog-wide changes; the TTL bounds how far a total can lag single edits.
+     */
+    @Bean
+    public Cache<BookFilter, Long> bookCountCache(MeterRegistry meterRegistry,
+                                                  @Value("${app.books.count-cache.max-size:1024}") long maxSize,
+                                                  @Value("${app.books.count-cache-ttl-ms:30000}") long ttlMs) {
+        Cache<BookFilter, Long> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "books.counts");
+    }
+
+    /**
+     * Users by username for CachingUserDetailsService. Entries are invalidated when a user's tokens are revoked;
+     * the short TTL bounds staleness for changes made elsewhere.
+     */
+    @Bean
+    public Cache<String, UserDetails> userDetailsCache(MeterRegistry meterRegistry,
+                                                       @Value("${app.users.cache.max-size:10000}") long maxSize,
+                                                       @Value("${app.users.cache.ttl-ms:30000}") long ttlMs) {
+        Cache<String, UserDetails> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.byUsername");
+    }
+
+    /**
+     * Responses of recently completed idempotent requests by scoped key, so a client retrying right away is
+     * answered without a database read. The TTL is capped by the key retention, so the cache never replays a key
+     * the IDEMPOTENCY_KEYS table has already forgotten.
+     */
+    @Bean
+    public Cache<String, IdempotentResponse> idempotencyResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.cache.max-size:10000}") long maxSize,
+            @Value("${app.idempotency.cache.ttl-ms:600000}") long ttlMs,
+            @Value("${app.idempotency.retention-hours:24}") long retentionHours) {
+        Cache<String, IdempotentResponse> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(Math.min(ttlMs, Duration.ofHours(retentionHours).toMillis())))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency.recentKeys");
+    }
+
+    /**
+     * Claims of recently verified JWTs, keyed by a digest of the token. Each entry expires with its token's exp
+     * claim, so an expired token is always verified again and rejected. Revocation is checked separately on
+     * every request (see TokenVersions), so caching does not delay it.
+     */
+    @Bean
+    public Cache<String, Claims> verifiedTokenCache(MeterRegistry meterRegistry,
+                                                    @Value("${app.jwt.claims-cache.max-size:10000}") long maxSize) {
+        Cache<String, Claims> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        return untilExpiry(claims.getExpiration()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return untilExpiry(claims.getExpiration()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.claims");
+    }
+
+    private static Duration untilExpiry(Date expiration) {
+        if (expiration == null) {
+            return Duration.ZERO; // Tokens without exp are not cached
+        }
+        long remainingMs = expiration.getTime() - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(0, remainingMs));
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.apiLibrary.config;
 
+import com.example.apiLibrary.security.BCryptCost;
 import com.example.apiLibrary.security.JwtAuthenticationFilter;
+import com.example.apiLibrary.security.RateLimitFilter;
 import com.example.apiLibrary.service.impl.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -20,16 +24,40 @@ public class SecurityConfig {
 
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter; // Inject the filter
+    private final RateLimitFilter rateLimitFilter;
 
     @Autowired
-    public SecurityConfig(UserDetailsServiceImpl userDetailsService, JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(UserDetailsServiceImpl userDetailsService,
+                          JwtAuthenticationFilter jwtAuthenticationFilter,
+                          RateLimitFilter rateLimitFilter) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
+    /**
+     * Keeps Spring Boot from also registering the rate limiter as a plain servlet filter. That copy would run
+     * before the security chain, where every request still looks anonymous and would be limited per IP.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * BCrypt cost from app.auth.bcrypt.strength, or calibrated to app.auth.bcrypt.target-ms when it is 0.
+     */
+    @Bean
+    public BCryptCost bcryptCost(@Value("${app.auth.bcrypt.strength:0}") int strength,
+                                 @Value("${app.auth.bcrypt.target-ms:250}") long targetMs) {
+        return strength > 0 ? BCryptCost.of(strength) : BCryptCost.calibrate(targetMs);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(BCryptCost bcryptCost) {
+        return new BCryptPasswordEncoder(bcryptCost.strength());
     }
 
     @Bean
@@ -38,7 +66,11 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable()) // Disable CSRF for stateless APIs
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/api/auth/login").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/auth/users/*/revoke-tokens").hasRole("ADMIN")
+                // The full-catalog export is for partners and internal indexers only.
+                .requestMatchers(HttpMethod.GET, "/api/books/export").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/books", "/api/books/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/books/import").hasRole("ADMIN")
                 // For now, require authentication for sales and orders.
                 .requestMatchers("/api/sales", "/api/sales/**").authenticated()
                 .requestMatchers(HttpMethod.POST, "/api/orders").permitAll()
@@ -47,7 +79,9 @@ public class SecurityConfig {
             )
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             // Add JWT token filter
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            // Rate limits per user once the token has been read, per IP otherwise
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
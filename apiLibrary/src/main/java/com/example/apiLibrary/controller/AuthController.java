@@ -5,6 +5,7 @@ import com.example.apiLibrary.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -29,4 +30,13 @@ public class AuthController {
         // Return the token in a simple JSON structure: {"token": "your_jwt_token_here"}
         return ResponseEntity.ok(Map.of("token", jwtToken));
     }
+
+    /**
+     * Revokes all tokens issued to a user so far (admin only). Its next login gets a token that is valid again.
+     */
+    @PostMapping("/users/{username}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable String username) {
+        authService.revokeTokens(username);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -1,24 +1,49 @@
 package com.example.apiLibrary.controller;
 
+import com.example.apiLibrary.catalog.CatalogVersion;
 import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.dto.BookFacetsDTO;
+import com.example.apiLibrary.dto.BookImportResultDTO;
 import com.example.apiLibrary.dto.BookPageDTO;
+import com.example.apiLibrary.service.BookImportService;
 import com.example.apiLibrary.service.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final CatalogVersion catalogVersion;
+    private final CacheControl cacheControl;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService,
+                          BookImportService bookImportService,
+                          CatalogVersion catalogVersion,
+                          @Value("${app.books.http.max-age-seconds:0}") long maxAgeSeconds) {
         this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.catalogVersion = catalogVersion;
+        // Shared caches (CDNs) may store responses, but must revalidate with the ETag once they are stale.
+        this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic().mustRevalidate();
     }
 
     @GetMapping
@@ -29,15 +54,104 @@ public class BookController {
             @RequestParam Optional<BigDecimal> minPrice,
             @RequestParam Optional<BigDecimal> maxPrice,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam Optional<String> after, // Keyset cursor (nextCursor of a previous page); overrides page
+            @RequestParam(defaultValue = "true") boolean includeTotal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        BookPageDTO books = bookService.getBooks(title, author, category, minPrice, maxPrice, page, size);
-        return ResponseEntity.ok(books);
+        // The tag is taken before reading any data, so it can only ever be older than the body it goes with.
+        Optional<String> eTag = catalogVersion.catalogTag();
+        if (eTag.isPresent() && matches(ifNoneMatch, eTag.get())) {
+            return notModified(eTag.get());
+        }
+        BookPageDTO books = bookService.getBooks(title, author, category, minPrice, maxPrice, page, size,
+                sort, after, includeTotal);
+        return ok(eTag).body(books);
+    }
+
+    /**
+     * Category and price bucket counts for the catalog sidebar, for the same filters as {@link #listBooks}.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<BookFacetsDTO> getFacets(
+            @RequestParam Optional<String> title,
+            @RequestParam Optional<String> author,
+            @RequestParam Optional<String> category,
+            @RequestParam Optional<BigDecimal> minPrice,
+            @RequestParam Optional<BigDecimal> maxPrice,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        Optional<String> eTag = catalogVersion.catalogTag();
+        if (eTag.isPresent() && matches(ifNoneMatch, eTag.get())) {
+            return notModified(eTag.get());
+        }
+        BookFacetsDTO facets = bookService.getFacets(title, author, category, minPrice, maxPrice);
+        return ok(eTag).body(facets);
+    }
+
+    /**
+     * Streams the whole catalog (or the books changed since a point in time) as NDJSON, one BookDTO per line.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<LocalDateTime> since) {
+        StreamingResponseBody body = out -> bookService.exportCatalog(since, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    /**
+     * Bulk upsert by ISBN from a CSV (with header row) or NDJSON body. Rows that fail validation or the database
+     * are listed in the result; the rest of the load still goes through.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<BookImportResultDTO> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                           InputStream body) throws IOException {
+        BookImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? BookImportService.Format.CSV
+                : BookImportService.Format.NDJSON;
+        return ResponseEntity.ok(bookImportService.importBooks(body, format));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Read first: a missing book is a 404 whatever the client sends, and "*" only matches a book that exists.
+        // Snapshot and cache hits make this as cheap as looking up a version would be.
         BookDTO book = bookService.getBookById(id);
-        return ResponseEntity.ok(book);
+        String eTag = catalogVersion.bookTag(book);
+        if (matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(book);
+    }
+
+    private ResponseEntity.BodyBuilder ok(Optional<String> eTag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(cacheControl);
+        eTag.ifPresent(builder::eTag);
+        return builder;
+    }
+
+    private <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+    }
+
+    /**
+     * Checks an If-None-Match header value, which may be "*" or a comma-separated list of tags.
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -1,31 +1,61 @@
 package com.example.apiLibrary.controller;
 
+import com.example.apiLibrary.dto.OrderDTO;
+import com.example.apiLibrary.dto.OrderPageDTO;
 import com.example.apiLibrary.dto.OrderRequestDTO;
 import com.example.apiLibrary.dto.OrderResponseDTO;
+import com.example.apiLibrary.security.ClientIdentity;
+import com.example.apiLibrary.service.IdempotencyService;
 import com.example.apiLibrary.service.OrderService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping
-    public ResponseEntity<OrderResponseDTO> createOrder(@Valid @RequestBody OrderRequestDTO orderRequest) {
-        OrderResponseDTO orderResponse = orderService.createOrder(orderRequest);
+    public ResponseEntity<OrderResponseDTO> createOrder(@Valid @RequestBody OrderRequestDTO orderRequest,
+                                                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                        HttpServletRequest httpRequest) {
+        // A retry with the same key replays the first response instead of creating a second order.
+        OrderResponseDTO orderResponse = idempotencyService.execute("orders", ClientIdentity.of(httpRequest), idempotencyKey, orderRequest,
+                OrderResponseDTO.class, () -> orderService.createOrder(orderRequest));
         return ResponseEntity.status(HttpStatus.CREATED).body(orderResponse);
     }
+
+    @GetMapping
+    public ResponseEntity<OrderPageDTO> getOrders(
+            @RequestParam Optional<String> customerEmail,
+            @RequestParam Optional<String> after, // nextCursor of the previous page
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.getOrders(customerEmail, after, size));
+    }
+
+    @GetMapping("/{orderId}")
+    public ResponseEntity<OrderDTO> getOrder(@PathVariable Long orderId) {
+        return ResponseEntity.ok(orderService.getOrder(orderId));
+    }
 }
@@ -1,31 +1,90 @@
 package com.example.apiLibrary.controller;
 
+import com.example.apiLibrary.dto.SaleBatchResponseDTO;
+import com.example.apiLibrary.dto.SaleDTO;
+import com.example.apiLibrary.dto.SalePageDTO;
 import com.example.apiLibrary.dto.SaleRequestDTO;
 import com.example.apiLibrary.dto.SaleResponseDTO;
+import com.example.apiLibrary.security.ClientIdentity;
+import com.example.apiLibrary.service.IdempotencyService;
 import com.example.apiLibrary.service.SaleService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/sales")
 public class SaleController {
 
     private final SaleService saleService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public SaleController(SaleService saleService) {
+    public SaleController(SaleService saleService, IdempotencyService idempotencyService) {
         this.saleService = saleService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping
-    public ResponseEntity<SaleResponseDTO> createSale(@Valid @RequestBody SaleRequestDTO saleRequest) {
-        SaleResponseDTO saleResponse = saleService.createSale(saleRequest);
+    public ResponseEntity<SaleResponseDTO> createSale(@Valid @RequestBody SaleRequestDTO saleRequest,
+                                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                      HttpServletRequest httpRequest) {
+        // A retry with the same key replays the first response instead of creating a second sale.
+        SaleResponseDTO saleResponse = idempotencyService.execute("sales", ClientIdentity.of(httpRequest), idempotencyKey, saleRequest,
+                SaleResponseDTO.class, () -> saleService.createSale(saleRequest));
         return ResponseEntity.status(HttpStatus.CREATED).body(saleResponse);
     }
+
+    /**
+     * Bulk upload of sales queued by a POS while offline, as a JSON array. Each sale is validated and created or
+     * rejected on its own; the response has one result per sale, in request order.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SaleBatchResponseDTO> createSales(@RequestBody List<SaleRequestDTO> saleRequests) {
+        return ResponseEntity.ok(saleService.createSales(saleRequests));
+    }
+
+    /**
+     * Same as {@link #createSales(List)} for an NDJSON stream, one sale per line.
+     */
+    @PostMapping(value = "/batch", consumes = "application/x-ndjson")
+    public ResponseEntity<SaleBatchResponseDTO> createSalesFromNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(saleService.createSales(body));
+    }
+
+    /**
+     * Sales newest first, optionally for one seller and within [from, to).
+     */
+    @GetMapping
+    public ResponseEntity<SalePageDTO> getSales(
+            @RequestParam Optional<Long> sellerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<LocalDateTime> from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<LocalDateTime> to,
+            @RequestParam Optional<String> after, // nextCursor of the previous page
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(saleService.getSales(sellerId, from, to, after, size));
+    }
+
+    @GetMapping("/{saleId}")
+    public ResponseEntity<SaleDTO> getSale(@PathVariable Long saleId) {
+        return ResponseEntity.ok(saleService.getSale(saleId));
+    }
 }
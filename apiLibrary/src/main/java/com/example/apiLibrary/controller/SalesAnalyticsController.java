@@ -0,0 +1,53 @@
+package com.example.apiLibrary.controller;
+
+import com.example.apiLibrary.dto.SalesDayDTO;
+import com.example.apiLibrary.dto.SalesRankingDTO;
+import com.example.apiLibrary.service.SalesAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/sales/analytics")
+public class SalesAnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    public SalesAnalyticsController(SalesAnalyticsService salesAnalyticsService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<List<SalesDayDTO>> getDailyTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> to,
+            @RequestParam Optional<Long> sellerId,
+            @RequestParam Optional<Long> bookId) {
+        return ResponseEntity.ok(salesAnalyticsService.getDailyTotals(from, to, sellerId, bookId));
+    }
+
+    @GetMapping("/top-sellers")
+    public ResponseEntity<List<SalesRankingDTO>> getTopSellers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> to,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(salesAnalyticsService.getTopSellers(from, to, limit));
+    }
+
+    @GetMapping("/top-books")
+    public ResponseEntity<List<SalesRankingDTO>> getTopBooks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> to,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(salesAnalyticsService.getTopBooks(from, to, limit));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.apiLibrary.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import java.math.BigDecimal;
 
@@ -12,4 +13,8 @@ public class BookDTO {
     private BigDecimal price;
     private Integer stock;
     private String category;
+
+    // BOOKS.VERSION of the row this was read from; only used to derive the entity tag, so not serialized.
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,11 @@
+package com.example.apiLibrary.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BookFacetsDTO {
+    private List<FacetValueDTO> categories;   // Ignores the category filter; most frequent first
+    private List<PriceBucketDTO> priceBuckets; // Ignores the price range filter; in price order
+    private long totalElements;                // Books matching every filter
+}
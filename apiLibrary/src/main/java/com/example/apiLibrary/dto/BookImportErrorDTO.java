@@ -0,0 +1,14 @@
+package com.example.apiLibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookImportErrorDTO {
+    private long line;      // 1-based line of the input (the CSV header is line 1)
+    private String isbn;    // Null when the row could not be parsed far enough to read it
+    private String message;
+}
@@ -0,0 +1,15 @@
+package com.example.apiLibrary.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BookImportResultDTO {
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private List<BookImportErrorDTO> errors; // Capped; rowsRejected is always the full count
+    private boolean errorsTruncated;
+}
@@ -8,6 +8,7 @@ public class BookPageDTO {
     private List<BookDTO> content;
     private int page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private long totalElements; // -1 when the client asked to skip the count
+    private int totalPages;     // -1 when the client asked to skip the count
+    private String nextCursor;  // Pass as "after" to fetch the next page; null on the last page
 }
@@ -0,0 +1,13 @@
+package com.example.apiLibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetValueDTO {
+    private String value; // Null for books without one
+    private long count;
+}
@@ -1,12 +1,16 @@
 package com.example.apiLibrary.dto;
 
 import lombok.Data;
-// No validation needed here for now, but if bookId or quantity had specific constraints,
-// they could be added (e.g. @NotNull, @Min(1) for quantity)
-// For this to be triggered by @Valid on a List<OrderItemDTO>, these annotations would be necessary.
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 
 @Data
 public class OrderItemDTO {
+
+    @NotNull(message = "Book ID cannot be null")
     private Long bookId;
+
+    @NotNull(message = "Quantity cannot be null")
+    @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
 }
@@ -0,0 +1,15 @@
+package com.example.apiLibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceBucketDTO {
+    private BigDecimal min; // Inclusive; null for the first bucket
+    private BigDecimal max; // Exclusive; null for the last bucket
+    private long count;
+}
@@ -0,0 +1,11 @@
+package com.example.apiLibrary.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SaleBatchResponseDTO {
+    private int created;
+    private int rejected;
+    private List<SaleBatchResultDTO> results; // One per submitted sale, in request order
+}
@@ -0,0 +1,16 @@
+package com.example.apiLibrary.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class SaleBatchResultDTO {
+    private int index;               // 0-based position of the sale in the request (blank NDJSON lines not counted)
+    private String status;           // "CREATED" or "REJECTED"
+    private Long saleId;
+    private LocalDateTime timestamp;
+    private BigDecimal totalAmount;
+    private List<String> errors;     // Why the sale was rejected; null when created
+}
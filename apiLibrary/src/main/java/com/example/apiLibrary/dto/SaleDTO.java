@@ -0,0 +1,17 @@
+package com.example.apiLibrary.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class SaleDTO {
+    private Long saleId;
+    private Long sellerId;
+    private String customerName;
+    private LocalDateTime timestamp;
+    private BigDecimal totalAmount;
+    private List<SaleItemDTO> items;
+}
@@ -1,11 +1,16 @@
 package com.example.apiLibrary.dto;
 
 import lombok.Data;
-// Similar to OrderItemDTO, validation can be added here if needed.
-// e.g. @NotNull for bookId, @Min(1) for quantity
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 
 @Data
 public class SaleItemDTO {
+
+    @NotNull(message = "Book ID cannot be null")
     private Long bookId;
+
+    @NotNull(message = "Quantity cannot be null")
+    @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
 }
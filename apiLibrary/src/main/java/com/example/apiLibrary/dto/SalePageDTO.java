@@ -0,0 +1,11 @@
+package com.example.apiLibrary.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SalePageDTO {
+    private List<SaleDTO> content; // Newest first
+    private int size;
+    private String nextCursor;     // Pass as "after" to fetch the next page; null on the last page
+}
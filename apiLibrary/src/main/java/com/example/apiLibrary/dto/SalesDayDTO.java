@@ -0,0 +1,18 @@
+package com.example.apiLibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesDayDTO {
+    private LocalDate day;
+    private long salesCount;
+    private long units;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,17 @@
+package com.example.apiLibrary.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesRankingDTO {
+    private Long id;          // Seller ID or book ID
+    private long salesCount;  // For books: the number of sales that included the book
+    private long units;
+    private BigDecimal revenue;
+}
@@ -1,8 +1,10 @@
 package com.example.apiLibrary.exception;
 
 import com.example.apiLibrary.dto.ApiErrorDTO;
+import com.example.apiLibrary.service.IdempotencyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -45,12 +47,38 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(OrderNotFoundException.class)
+    public ResponseEntity<ApiErrorDTO> handleOrderNotFoundException(OrderNotFoundException ex, WebRequest request) {
+        ApiErrorDTO apiError = createErrorDTO(HttpStatus.NOT_FOUND, "Order Not Found", ex.getMessage(), request);
+        return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(SaleNotFoundException.class)
+    public ResponseEntity<ApiErrorDTO> handleSaleNotFoundException(SaleNotFoundException ex, WebRequest request) {
+        ApiErrorDTO apiError = createErrorDTO(HttpStatus.NOT_FOUND, "Sale Not Found", ex.getMessage(), request);
+        return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(InsufficientStockException.class)
     public ResponseEntity<ApiErrorDTO> handleInsufficientStockException(InsufficientStockException ex, WebRequest request) {
         ApiErrorDTO apiError = createErrorDTO(HttpStatus.BAD_REQUEST, "Insufficient Stock", ex.getMessage(), request);
         return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(StockUnavailableException.class)
+    public ResponseEntity<ApiErrorDTO> handleStockUnavailableException(StockUnavailableException ex, WebRequest request) {
+        ApiErrorDTO apiError = createErrorDTO(HttpStatus.SERVICE_UNAVAILABLE, "Stock Unavailable", ex.getMessage(), request);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(apiError);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ApiErrorDTO> handleIdempotencyConflictException(IdempotencyConflictException ex, WebRequest request) {
+        ApiErrorDTO apiError = createErrorDTO(HttpStatus.CONFLICT, "Idempotency Key Conflict", ex.getMessage(), request);
+        return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(UsernameNotFoundException.class)
     public ResponseEntity<ApiErrorDTO> handleUsernameNotFoundException(UsernameNotFoundException ex, WebRequest request) {
         // Note: UsernameNotFoundException typically implies user doesn't exist during authentication attempt.
@@ -65,6 +93,33 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ApiErrorDTO> handleLoginThrottledException(LoginThrottledException ex, WebRequest request) {
+        ApiErrorDTO apiError = createErrorDTO(HttpStatus.SERVICE_UNAVAILABLE, "Login Busy", ex.getMessage(), request);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(apiError);
+    }
+
+    @ExceptionHandler(GroupCommitUnavailableException.class)
+    public ResponseEntity<ApiErrorDTO> handleGroupCommitUnavailableException(GroupCommitUnavailableException ex, WebRequest request) {
+        ApiErrorDTO apiError = createErrorDTO(HttpStatus.SERVICE_UNAVAILABLE, "Busy, Nothing Recorded", ex.getMessage(), request);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(apiError);
+    }
+
+    @ExceptionHandler(GroupCommitOutcomeUnknownException.class)
+    public ResponseEntity<ApiErrorDTO> handleGroupCommitOutcomeUnknownException(GroupCommitOutcomeUnknownException ex, WebRequest request) {
+        // A 5xx, so clients treat it as a failure and reconcile, but not one a blind retry can fix: the write may
+        // have happened. Requests sent with an Idempotency-Key never get here, they run in their own transaction.
+        String path = request.getDescription(false).replace("uri=", "");
+        ApiErrorDTO apiError = createErrorDTO(HttpStatus.GATEWAY_TIMEOUT, "Outcome Unknown", List.of(ex.getMessage(),
+                "Look for it with GET " + path + " before sending it again, or send it with an "
+                        + IdempotencyService.HEADER + " header so that retries are safe"), request);
+        return new ResponseEntity<>(apiError, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiErrorDTO> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, WebRequest request) {
         List<String> validationErrors = ex.getBindingResult().getFieldErrors().stream()
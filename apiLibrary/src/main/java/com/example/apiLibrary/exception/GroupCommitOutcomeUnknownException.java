@@ -0,0 +1,11 @@
+package com.example.apiLibrary.exception;
+
+/**
+ * Thrown when a request's group commit batch was already being applied but did not finish in time. The batch may
+ * still commit, so sending the request again could record it twice; the client has to look it up first.
+ */
+public class GroupCommitOutcomeUnknownException extends RuntimeException {
+    public GroupCommitOutcomeUnknownException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.apiLibrary.exception;
+
+/**
+ * Thrown when a group commit pipeline gave up on a request before applying it: it was not picked up in time, or
+ * the pipeline shut down first. Nothing was written, so the client can safely send the request again.
+ */
+public class GroupCommitUnavailableException extends RuntimeException {
+    public GroupCommitUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.apiLibrary.exception;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
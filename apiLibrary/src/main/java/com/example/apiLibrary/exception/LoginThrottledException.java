@@ -0,0 +1,11 @@
+package com.example.apiLibrary.exception;
+
+/**
+ * Thrown when password verification is saturated and a login cannot be checked in time.
+ * The client should retry after a short pause.
+ */
+public class LoginThrottledException extends RuntimeException {
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
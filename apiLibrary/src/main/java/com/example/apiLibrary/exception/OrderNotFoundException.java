@@ -0,0 +1,7 @@
+package com.example.apiLibrary.exception;
+
+public class OrderNotFoundException extends RuntimeException {
+    public OrderNotFoundException(String message) {
+        super(message);
+    }
+}
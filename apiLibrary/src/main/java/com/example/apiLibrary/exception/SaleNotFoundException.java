@@ -0,0 +1,7 @@
+package com.example.apiLibrary.exception;
+
+public class SaleNotFoundException extends RuntimeException {
+    public SaleNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.apiLibrary.exception;
+
+/**
+ * Thrown when stock for a book cannot be checked right now, because the inventory ledger is handing the book back
+ * to the database. Nothing was reserved; the client should retry after a short pause.
+ */
+public class StockUnavailableException extends RuntimeException {
+    public StockUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.apiLibrary.inventory;
+
+import com.example.apiLibrary.exception.StockUnavailableException;
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stock counters for a configured set of hot books, for launch events where many buyers check out the
+ * same few titles and the BOOKS row locks would otherwise serialise every checkout.
+ * <p>
+ * Stock for these books is taken with a compare-and-set on a per-book counter, so concurrent baskets never
+ * block each other. Sale and order lines reserved here are saved with {@code stockApplied = false};
+ * {@link InventoryLedgerFlusher} later subtracts them from BOOKS and marks them applied, a bounded time behind.
+ * After a crash, whatever the flusher had not written yet is still in the item tables, so startup first applies
+ * those lines and only then loads the counters from BOOKS.
+ * <p>
+ * The counters are the source of truth for their books while the application runs, so only one instance may
+ * hold them: {@link InventoryLedgerLease} stops a second one from starting, and once the lease is lost the books
+ * fall back to the guarded database path. Not straight away, though: BOOKS does not include the lines reserved
+ * here until they are flushed, so the ledger first waits for the baskets still in flight and flushes every
+ * pending line. Until that drain is done, baskets with a hot book wait for it, up to
+ * {@code app.inventory.ledger.drain-wait-ms}, and are turned away with {@link StockUnavailableException} after
+ * that. Writes that set the stock of a hot book outright, such as the bulk
+ * import, go through {@link #beforeStockOverwrite} so the counters move with them. Other out-of-band changes to
+ * the stock of a hot book are only seen after a restart.
+ * Enabled with {@code app.inventory.ledger.enabled=true}, normally through the "launch" profile.
+ */
+@Component
+@ConditionalOnProperty(name = "app.inventory.ledger.enabled", havingValue = "true")
+public class InventoryLedger {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InventoryLedger.class);
+    private static final long DRAIN_POLL_MS = 10;
+    private static final long DRAIN_RETRY_MS = 1000;
+
+    private final BookRepository bookRepository;
+    private final InventoryLedgerFlusher flusher;
+    private final InventoryLedgerLease lease;
+    private final Set<Long> bookIds;
+    private final Map<Long, AtomicInteger> counters = new HashMap<>(); // Filled once at startup, then only read
+    private final Map<String, Long> idsByIsbn = new HashMap<>();
+    private final long drainWaitMs;
+
+    // Baskets that took stock from the counters and have not committed or rolled back yet.
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final CountDownLatch drained = new CountDownLatch(1);
+
+    @Autowired
+    public InventoryLedger(BookRepository bookRepository,
+                           InventoryLedgerFlusher flusher,
+                           InventoryLedgerLease lease,
+                           @Value("${app.inventory.ledger.book-ids:}") Set<Long> bookIds,
+                           @Value("${app.inventory.ledger.drain-wait-ms:5000}") long drainWaitMs) {
+        this.bookRepository = bookRepository;
+        this.flusher = flusher;
+        this.lease = lease;
+        this.bookIds = bookIds;
+        this.drainWaitMs = drainWaitMs;
+    }
+
+    @PostConstruct
+    public void recover() {
+        lease.onLost(this::startDrain);
+        lease.acquire();
+        flusher.flushAll(); // Lines left unapplied by a previous run
+        for (Book book : bookRepository.findAllById(bookIds)) {
+            counters.put(book.getId(), new AtomicInteger(book.getStock() == null ? 0 : book.getStock()));
+            if (book.getIsbn() != null) {
+                idsByIsbn.put(book.getIsbn(), book.getId());
+            }
+        }
+        if (counters.size() < bookIds.size()) {
+            LOGGER.warn("Inventory ledger: {} of the configured books do not exist and are not managed",
+                    bookIds.size() - counters.size());
+        }
+        LOGGER.info("Inventory ledger managing stock for {} books in memory", counters.size());
+    }
+
+    /**
+     * Whether stock for the book is taken from the counters. Once the lease is lost a hot book is only handed to
+     * the database path after the drain; until then this waits for it.
+     *
+     * @throws StockUnavailableException If the drain does not finish within drain-wait-ms.
+     */
+    public boolean manages(Long bookId) {
+        if (!counters.containsKey(bookId)) {
+            return false;
+        }
+        if (lease.isHeld()) {
+            return true;
+        }
+        awaitDrained();
+        return false;
+    }
+
+    public int available(Long bookId) {
+        return counters.get(bookId).get();
+    }
+
+    /**
+     * Takes stock for every line, or for none of them. A successful take must be followed by
+     * {@link #completed} once the basket's transaction has ended.
+     *
+     * @param quantities Quantity per managed book ID.
+     * @return Null on success, otherwise the ID of the first book that did not have enough stock.
+     * @throws StockUnavailableException If the lease was lost since {@link #manages} was asked.
+     */
+    public Long tryTake(Map<Long, Integer> quantities) {
+        // Counted before the lease is checked, so a drain that starts after the check waits for this basket.
+        inFlight.incrementAndGet();
+        if (!lease.isHeld()) {
+            inFlight.decrementAndGet();
+            throw new StockUnavailableException("Stock for these books is being moved back to the database; "
+                    + "retry shortly");
+        }
+        Map<Long, Integer> taken = new HashMap<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (!take(counters.get(line.getKey()), line.getValue())) {
+                giveBack(taken);
+                inFlight.decrementAndGet();
+                return line.getKey();
+            }
+            taken.put(line.getKey(), line.getValue());
+        }
+        return null;
+    }
+
+    /**
+     * Ends a basket taken by {@link #tryTake}: its stock is handed back unless its transaction committed, in
+     * which case its lines are in the item tables for the flusher.
+     */
+    public void completed(Map<Long, Integer> quantities, boolean committed) {
+        if (!committed) {
+            giveBack(quantities);
+        }
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Keeps the counters in step with a write that sets BOOKS.STOCK outright, such as the bulk import. Call it in
+     * the writing transaction, before the write: it locks the rows of the hot books among them, so the flusher
+     * cannot move their stock in between, and once the transaction commits moves each counter by as much as the
+     * write moves the stock.
+     *
+     * @param newStockByIsbn The stock the write will set, per ISBN.
+     */
+    public void beforeStockOverwrite(Map<String, Integer> newStockByIsbn) {
+        Map<Long, Integer> newStock = new HashMap<>();
+        newStockByIsbn.forEach((isbn, stock) -> {
+            Long bookId = idsByIsbn.get(isbn);
+            if (bookId != null) {
+                newStock.put(bookId, stock == null ? 0 : stock);
+            }
+        });
+        if (newStock.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> deltas = new HashMap<>();
+        bookRepository.lockStock(newStock.keySet())
+                .forEach((bookId, oldStock) -> deltas.put(bookId, newStock.get(bookId) - oldStock));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deltas.forEach((bookId, delta) -> counters.get(bookId).addAndGet(delta));
+                LOGGER.info("Inventory ledger counters adjusted for restocked books {}", deltas);
+            }
+        });
+    }
+
+    private void giveBack(Map<Long, Integer> quantities) {
+        quantities.forEach((bookId, quantity) -> counters.get(bookId).addAndGet(quantity));
+    }
+
+    private void startDrain() {
+        if (draining.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::drain, "inventory-drain");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (inFlight.get() > 0) {
+                Thread.sleep(DRAIN_POLL_MS);
+            }
+            while (true) {
+                try {
+                    flusher.flushAll();
+                    break;
+                } catch (RuntimeException ex) {
+                    LOGGER.error("Inventory ledger drain could not flush; hot books stay unavailable, retrying", ex);
+                    Thread.sleep(DRAIN_RETRY_MS);
+                }
+            }
+            drained.countDown();
+            LOGGER.warn("Inventory ledger drained: every line reserved in memory is in BOOKS, "
+                    + "hot books now sell from the database");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitDrained() {
+        try {
+            if (drained.await(drainWaitMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        throw new StockUnavailableException("Stock for this book is being moved back to the database; retry shortly");
+    }
+
+    private static boolean take(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+}
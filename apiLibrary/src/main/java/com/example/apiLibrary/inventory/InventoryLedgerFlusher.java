@@ -0,0 +1,89 @@
+package com.example.apiLibrary.inventory;
+
+import com.example.apiLibrary.catalog.BookStockChangedEvent;
+import com.example.apiLibrary.repository.BookRepository;
+import com.example.apiLibrary.repository.DeferredStock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind for {@link InventoryLedger}: every {@code app.inventory.ledger.flush-interval-ms} it subtracts the
+ * sale and order lines reserved in memory from BOOKS, so the database lags the ledger by about one interval.
+ * Each round is one transaction that updates BOOKS and marks the lines applied together, and rounds repeat until
+ * nothing is pending. The time since the last completed flush is published as inventory.ledger.flush.lag.
+ * <p>
+ * The subtraction is guarded, so BOOKS never goes negative. Units sold beyond what BOOKS still held (only
+ * possible if the stock was lowered outside the ledger) are recorded in INVENTORY_SHORTFALL with the round that
+ * found them, then logged and counted as inventory.ledger.oversold.
+ */
+@Component
+@ConditionalOnProperty(name = "app.inventory.ledger.enabled", havingValue = "true")
+public class InventoryLedgerFlusher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InventoryLedgerFlusher.class);
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxRowsPerFlush;
+    private final Counter oversold;
+
+    private volatile long lastFlushedAt = System.currentTimeMillis();
+
+    @Autowired
+    public InventoryLedgerFlusher(BookRepository bookRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.inventory.ledger.max-rows-per-flush:5000}") int maxRowsPerFlush) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxRowsPerFlush = maxRowsPerFlush;
+        this.oversold = Counter.builder("inventory.ledger.oversold").register(meterRegistry);
+        meterRegistry.gauge("inventory.ledger.flush.lag", this, flusher -> System.currentTimeMillis() - flusher.lastFlushedAt);
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            flushAll();
+        } catch (RuntimeException ex) {
+            // Nothing is lost: the lines stay unapplied and the next round picks them up.
+            LOGGER.error("Inventory ledger flush failed; retrying on the next round", ex);
+        }
+    }
+
+    public synchronized void flushAll() {
+        long startedAt = System.currentTimeMillis();
+        DeferredStock round;
+        do {
+            round = transactionTemplate.execute(status -> {
+                DeferredStock deferred = bookRepository.applyDeferredStock(maxRowsPerFlush);
+                if (!deferred.isEmpty()) {
+                    // BOOKS only changes now, so this is when the catalog should re-read the stock.
+                    eventPublisher.publishEvent(new BookStockChangedEvent(deferred.getApplied().keySet()));
+                }
+                return deferred;
+            });
+            if (!round.isEmpty()) {
+                LOGGER.debug("Inventory ledger flushed stock for {} books", round.getApplied().size());
+            }
+            round.getShortfall().forEach((bookId, units) -> {
+                LOGGER.error("Inventory ledger sold {} more units of book ID {} than BOOKS held; stock set to 0, "
+                        + "deficit recorded in INVENTORY_SHORTFALL", units, bookId);
+                oversold.increment(units);
+            });
+        } while (!round.isEmpty());
+        lastFlushedAt = startedAt;
+    }
+}
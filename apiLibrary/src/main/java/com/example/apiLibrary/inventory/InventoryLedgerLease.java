@@ -0,0 +1,149 @@
+package com.example.apiLibrary.inventory;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes sure at most one instance runs an {@link InventoryLedger}. Counters in two processes would each believe
+ * they own the same stock and sell it twice, so the ledger holds a lease on the single INVENTORY_LEDGER_LEASE row
+ * and a second instance started with the ledger enabled refuses to start while the lease is live.
+ * <p>
+ * The lease is renewed every {@code app.inventory.ledger.lease-renew-ms} and expires in the database after
+ * {@code app.inventory.ledger.lease-ttl-ms}. Locally it is considered lost a little earlier, measured from before
+ * each renewal was sent, so this instance has stopped selling from its counters before anyone else can take
+ * over. A lost lease is never taken back: the counters may be stale by then.
+ * <p>
+ * Renewals run on a thread of their own, so a long run of a scheduled job (a rollup catching up on history, an
+ * archival or flush loop) cannot hold one back past the TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.inventory.ledger.enabled", havingValue = "true")
+public class InventoryLedgerLease {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InventoryLedgerLease.class);
+    private static final String TAKE =
+            "UPDATE INVENTORY_LEDGER_LEASE SET OWNER = ?, EXPIRES_AT = SYSTIMESTAMP + NUMTODSINTERVAL(?, 'SECOND')"
+            + " WHERE ID = 1 AND (OWNER = ? OR OWNER IS NULL OR EXPIRES_AT < SYSTIMESTAMP)";
+    private static final String RELEASE = "UPDATE INVENTORY_LEDGER_LEASE SET OWNER = NULL WHERE ID = 1 AND OWNER = ?";
+    private static final String SELECT_OWNER = "SELECT OWNER FROM INVENTORY_LEDGER_LEASE WHERE ID = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMs;
+    private final long renewMs;
+    private final List<Runnable> lostListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    private volatile boolean acquired;
+    private volatile long heldUntilNanos;
+    private volatile boolean lost;
+
+    @Autowired
+    public InventoryLedgerLease(JdbcTemplate jdbcTemplate,
+                                @Value("${app.inventory.ledger.lease-ttl-ms:30000}") long ttlMs,
+                                @Value("${app.inventory.ledger.lease-renew-ms:5000}") long renewMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMs = ttlMs;
+        this.renewMs = renewMs;
+    }
+
+    /**
+     * Takes the lease and starts renewing it, or throws if another live instance holds it.
+     */
+    public void acquire() {
+        if (!take()) {
+            String holder = jdbcTemplate.queryForObject(SELECT_OWNER, String.class);
+            throw new IllegalStateException("The inventory ledger is already running in " + holder
+                    + "; only one instance may run with app.inventory.ledger.enabled=true");
+        }
+        acquired = true;
+        renewer.scheduleWithFixedDelay(this::renew, renewMs, renewMs, TimeUnit.MILLISECONDS);
+        LOGGER.info("Inventory ledger lease taken by {}", owner);
+    }
+
+    /**
+     * Whether this instance still owns the ledger. Cheap enough to call on every basket. Once it returns false it
+     * never returns true again, even if a renewal that was already on its way succeeds.
+     */
+    public boolean isHeld() {
+        if (!acquired || lost) {
+            return false;
+        }
+        if (System.nanoTime() - heldUntilNanos < 0) {
+            return true;
+        }
+        markLost("it expired before it could be renewed");
+        return false;
+    }
+
+    /**
+     * Runs the listener once, on whichever thread first finds the lease lost.
+     */
+    public void onLost(Runnable listener) {
+        lostListeners.add(listener);
+    }
+
+    void renew() {
+        if (!isHeld()) {
+            return;
+        }
+        try {
+            if (!take()) {
+                markLost("another instance took it over");
+            }
+        } catch (RuntimeException ex) {
+            // Keep selling until the local deadline; the next round tries again.
+            LOGGER.warn("Could not renew the inventory ledger lease", ex);
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        renewer.shutdownNow();
+        synchronized (this) {
+            if (!acquired || lost) {
+                return;
+            }
+            lost = true; // Shutting down: nothing left to drain to
+        }
+        jdbcTemplate.update(RELEASE, owner);
+    }
+
+    private boolean take() {
+        long sentAt = System.nanoTime();
+        if (jdbcTemplate.update(TAKE, owner, ttlMs / 1000.0, owner) == 0) {
+            return false;
+        }
+        heldUntilNanos = sentAt + TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        return true;
+    }
+
+    private void markLost(String reason) {
+        synchronized (this) {
+            if (lost) {
+                return;
+            }
+            lost = true;
+        }
+        LOGGER.error("Inventory ledger lease lost ({}); hot books fall back to database stock until restart", reason);
+        lostListeners.forEach(Runnable::run);
+    }
+}
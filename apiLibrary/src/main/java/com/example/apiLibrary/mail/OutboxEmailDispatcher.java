@@ -0,0 +1,213 @@
+package com.example.apiLibrary.mail;
+
+import com.example.apiLibrary.model.OutboxEmail;
+import com.example.apiLibrary.repository.OutboxEmailRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the email outbox in the background.
+ * <p>
+ * Due emails are claimed in batches of {@code app.mail.outbox.batch-size} and each batch is handed to one of
+ * {@code app.mail.outbox.senders} sender threads, which sends the whole batch over a single SMTP connection.
+ * Failed emails are retried with exponential backoff until {@code app.mail.outbox.max-attempts}, after which they
+ * are marked FAILED. Delivery is at least once: if the application stops mid-batch, the claimed emails become
+ * due again once their lease expires.
+ * <p>
+ * A committed order wakes the dispatcher up on its own claim thread, so the claim query never runs on the
+ * request thread or on the common pool.
+ */
+@Component
+public class OutboxEmailDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxEmailDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final JavaMailSender mailSender;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long leaseMs;
+
+    private final ExecutorService claimer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-claim");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService senders;
+    private final Semaphore idleSenders;
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    @Autowired
+    public OutboxEmailDispatcher(OutboxEmailRepository outboxEmailRepository,
+                                 JavaMailSender mailSender,
+                                 @Value("${app.mail.from:${spring.mail.username:}}") String from,
+                                 @Value("${app.mail.outbox.senders:2}") int senderCount,
+                                 @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${app.mail.outbox.initial-backoff-ms:5000}") long initialBackoffMs,
+                                 @Value("${app.mail.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                                 @Value("${app.mail.outbox.lease-ms:300000}") long leaseMs) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.mailSender = mailSender;
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = leaseMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderCount, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-email-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.idleSenders = new Semaphore(senderCount);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        dispatch();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmailQueued(OutboxEmailQueuedEvent event) {
+        // Off the request thread, and coalesced so a burst of orders triggers one claim round.
+        if (wakeUpPending.compareAndSet(false, true)) {
+            claimer.execute(() -> {
+                wakeUpPending.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    /**
+     * Claims batches for as long as there are idle senders and due emails. Never blocks the caller on SMTP.
+     */
+    private void dispatch() {
+        while (idleSenders.tryAcquire()) {
+            List<OutboxEmail> batch;
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                batch = outboxEmailRepository.claimDue(now, now.plusNanos(leaseMs * 1_000_000), batchSize);
+            } catch (RuntimeException ex) {
+                idleSenders.release();
+                LOGGER.error("Could not claim emails from the outbox", ex);
+                return;
+            }
+            if (batch.isEmpty()) {
+                idleSenders.release();
+                return;
+            }
+            senders.execute(() -> {
+                try {
+                    send(batch);
+                } finally {
+                    idleSenders.release();
+                }
+            });
+        }
+    }
+
+    private void send(List<OutboxEmail> batch) {
+        Map<SimpleMailMessage, OutboxEmail> byMessage = new IdentityHashMap<>();
+        for (OutboxEmail email : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            if (!from.isEmpty()) {
+                message.setFrom(from);
+            }
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            byMessage.put(message, email);
+        }
+
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        try {
+            // JavaMailSender sends all messages of one call over the same connection.
+            mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException ex) {
+            failures.putAll(ex.getFailedMessages());
+            if (failures.isEmpty()) {
+                byMessage.keySet().forEach(message -> failures.put(message, ex)); // Could not connect at all
+            }
+        } catch (MailException ex) {
+            byMessage.keySet().forEach(message -> failures.put(message, ex));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEmail> results = new ArrayList<>(batch.size());
+        byMessage.forEach((message, email) -> {
+            email.setAttempts(email.getAttempts() + 1);
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                email.setStatus(OutboxEmail.SENT);
+                email.setSentAt(now);
+                email.setNextAttemptAt(null);
+                email.setLastError(null);
+            } else {
+                email.setLastError(truncate(String.valueOf(failure.getMessage())));
+                if (email.getAttempts() >= maxAttempts) {
+                    email.setStatus(OutboxEmail.FAILED);
+                    email.setNextAttemptAt(null);
+                    LOGGER.error("Giving up on email {} to {} after {} attempts: {}",
+                            email.getId(), email.getRecipient(), email.getAttempts(), failure.getMessage());
+                } else {
+                    email.setNextAttemptAt(now.plusNanos(backoffMs(email.getAttempts()) * 1_000_000));
+                }
+            }
+            results.add(email);
+        });
+
+        try {
+            outboxEmailRepository.updateDeliveryStatus(results);
+        } catch (RuntimeException ex) {
+            // The lease runs out and the batch is sent again; recipients may get a duplicate.
+            LOGGER.error("Could not record delivery status for {} outbox emails", results.size(), ex);
+        }
+        LOGGER.info("Outbox batch of {} emails: {} sent, {} failed", batch.size(), batch.size() - failures.size(), failures.size());
+    }
+
+    private long backoffMs(int attempts) {
+        long backoff = initialBackoffMs << Math.min(attempts - 1, 30);
+        return Math.min(backoff, maxBackoffMs);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        claimer.shutdown();
+        claimer.awaitTermination(10, TimeUnit.SECONDS);
+        senders.shutdown();
+        senders.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
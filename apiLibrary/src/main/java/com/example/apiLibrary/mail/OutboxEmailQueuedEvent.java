@@ -0,0 +1,8 @@
+package com.example.apiLibrary.mail;
+
+/**
+ * Published when a transaction writes to the email outbox, so the dispatcher can start sending as soon as the
+ * transaction commits.
+ */
+public class OutboxEmailQueuedEvent {
+}
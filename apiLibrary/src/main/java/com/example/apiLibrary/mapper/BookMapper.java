@@ -0,0 +1,8 @@
+package com.example.apiLibrary.mapper;
+
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.model.Book;
+
+public interface BookMapper {
+    BookDTO toDto(Book book);
+}
@@ -0,0 +1,14 @@
+package com.example.apiLibrary.mapper;
+
+import com.example.apiLibrary.dto.OrderDTO;
+import com.example.apiLibrary.dto.OrderRequestDTO;
+import com.example.apiLibrary.dto.OrderResponseDTO;
+import com.example.apiLibrary.model.Order;
+
+public interface OrderMapper {
+    Order toEntity(OrderRequestDTO orderRequest);
+
+    OrderDTO toDto(Order order);
+
+    OrderResponseDTO toResponse(Order order);
+}
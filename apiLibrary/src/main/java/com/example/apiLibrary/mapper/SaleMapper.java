@@ -0,0 +1,11 @@
+package com.example.apiLibrary.mapper;
+
+import com.example.apiLibrary.dto.SaleDTO;
+import com.example.apiLibrary.dto.SaleResponseDTO;
+import com.example.apiLibrary.model.Sale;
+
+public interface SaleMapper {
+    SaleResponseDTO toResponse(Sale sale);
+
+    SaleDTO toDto(Sale sale);
+}
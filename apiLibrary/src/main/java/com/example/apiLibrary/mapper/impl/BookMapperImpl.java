@@ -0,0 +1,31 @@
+package com.example.apiLibrary.mapper.impl;
+
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.mapper.BookMapper;
+import com.example.apiLibrary.model.Book;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies the catalog fields and the row version, which the controller turns into the entity tag. The audit
+ * timestamp stays out of the DTO.
+ */
+@Component
+public class BookMapperImpl implements BookMapper {
+
+    @Override
+    public BookDTO toDto(Book book) {
+        if (book == null) {
+            return null;
+        }
+        BookDTO dto = new BookDTO();
+        dto.setId(book.getId());
+        dto.setTitle(book.getTitle());
+        dto.setAuthor(book.getAuthor());
+        dto.setIsbn(book.getIsbn());
+        dto.setPrice(book.getPrice());
+        dto.setStock(book.getStock());
+        dto.setCategory(book.getCategory());
+        dto.setVersion(book.getVersion());
+        return dto;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.apiLibrary.mapper.impl;
+
+import com.example.apiLibrary.dto.OrderDTO;
+import com.example.apiLibrary.dto.OrderItemDTO;
+import com.example.apiLibrary.dto.OrderRequestDTO;
+import com.example.apiLibrary.dto.OrderResponseDTO;
+import com.example.apiLibrary.mapper.OrderMapper;
+import com.example.apiLibrary.model.Order;
+import com.example.apiLibrary.model.OrderItem;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The request leaves id and status for the service to assign, and its items start with stock applied; the
+ * confirmation email gets the full order, the API response only id and status.
+ */
+@Component
+public class OrderMapperImpl implements OrderMapper {
+
+    @Override
+    public Order toEntity(OrderRequestDTO orderRequest) {
+        if (orderRequest == null) {
+            return null;
+        }
+        Order order = new Order();
+        order.setCustomerName(orderRequest.getCustomerName());
+        order.setCustomerEmail(orderRequest.getCustomerEmail());
+        if (orderRequest.getItems() != null) {
+            List<OrderItem> items = new ArrayList<>(orderRequest.getItems().size());
+            for (OrderItemDTO itemDTO : orderRequest.getItems()) {
+                items.add(new OrderItem(itemDTO.getBookId(), itemDTO.getQuantity()));
+            }
+            order.setItems(items);
+        }
+        return order;
+    }
+
+    @Override
+    public OrderDTO toDto(Order order) {
+        if (order == null) {
+            return null;
+        }
+        OrderDTO dto = new OrderDTO();
+        dto.setOrderId(order.getOrderId());
+        dto.setCustomerName(order.getCustomerName());
+        dto.setCustomerEmail(order.getCustomerEmail());
+        dto.setStatus(order.getStatus());
+        if (order.getItems() != null) {
+            List<OrderItemDTO> items = new ArrayList<>(order.getItems().size());
+            for (OrderItem item : order.getItems()) {
+                OrderItemDTO itemDTO = new OrderItemDTO();
+                itemDTO.setBookId(item.getBookId());
+                itemDTO.setQuantity(item.getQuantity());
+                items.add(itemDTO);
+            }
+            dto.setItems(items);
+        }
+        return dto;
+    }
+
+    @Override
+    public OrderResponseDTO toResponse(Order order) {
+        if (order == null) {
+            return null;
+        }
+        OrderResponseDTO response = new OrderResponseDTO();
+        response.setOrderId(order.getOrderId());
+        response.setStatus(order.getStatus());
+        return response;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.apiLibrary.mapper.impl;
+
+import com.example.apiLibrary.dto.SaleDTO;
+import com.example.apiLibrary.dto.SaleItemDTO;
+import com.example.apiLibrary.dto.SaleResponseDTO;
+import com.example.apiLibrary.mapper.SaleMapper;
+import com.example.apiLibrary.model.Sale;
+import com.example.apiLibrary.model.SaleItem;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sale items are exposed without their unit price, which only feeds the total and the rollups.
+ */
+@Component
+public class SaleMapperImpl implements SaleMapper {
+
+    @Override
+    public SaleResponseDTO toResponse(Sale sale) {
+        if (sale == null) {
+            return null;
+        }
+        SaleResponseDTO response = new SaleResponseDTO();
+        response.setSaleId(sale.getSaleId());
+        response.setTimestamp(sale.getTimestamp());
+        response.setTotalAmount(sale.getTotalAmount());
+        return response;
+    }
+
+    @Override
+    public SaleDTO toDto(Sale sale) {
+        if (sale == null) {
+            return null;
+        }
+        SaleDTO dto = new SaleDTO();
+        dto.setSaleId(sale.getSaleId());
+        dto.setSellerId(sale.getSellerId());
+        dto.setCustomerName(sale.getCustomerName());
+        dto.setTimestamp(sale.getTimestamp());
+        dto.setTotalAmount(sale.getTotalAmount());
+        if (sale.getItems() != null) {
+            List<SaleItemDTO> items = new ArrayList<>(sale.getItems().size());
+            for (SaleItem item : sale.getItems()) {
+                SaleItemDTO itemDTO = new SaleItemDTO();
+                itemDTO.setBookId(item.getBookId());
+                itemDTO.setQuantity(item.getQuantity());
+                items.add(itemDTO);
+            }
+            dto.setItems(items);
+        }
+        return dto;
+    }
+}
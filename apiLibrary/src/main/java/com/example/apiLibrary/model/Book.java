@@ -2,8 +2,11 @@ package com.example.apiLibrary.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @Table("BOOKS")
@@ -17,4 +20,13 @@ public class Book {
     private BigDecimal price;
     private Integer stock;
     private String category;
+
+    // Maintained by Spring Data JDBC auditing on every save; lets exports fetch only what changed.
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    // Optimistic lock for full-row saves: a save based on a stale read fails instead of overwriting stock.
+    // Bulk statements in BookBatchRepositoryImpl bump it too.
+    @Version
+    private Long version;
 }
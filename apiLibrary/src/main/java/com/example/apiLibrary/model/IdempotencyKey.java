@@ -0,0 +1,23 @@
+package com.example.apiLibrary.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A processed Idempotency-Key and the response it produced. Written in the same transaction as the sale or
+ * order it guards, so a committed sale or order always has its response recorded.
+ */
+@Data
+@Table("IDEMPOTENCY_KEYS")
+public class IdempotencyKey {
+
+    @Id
+    private String id;           // "<scope>:<SHA-256 of caller and client key>", e.g. "orders:7f3c..."
+    private String requestHash;  // SHA-256 of the request body, to catch a key reused for a different request
+    private String responseBody; // JSON of the response to replay
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
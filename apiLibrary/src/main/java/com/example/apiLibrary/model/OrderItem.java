@@ -18,6 +18,9 @@ public class OrderItem {
     private Long bookId;
     private Integer quantity;
 
+    // False while the stock for this line is only taken in the inventory ledger and not yet in BOOKS.
+    private Boolean stockApplied = Boolean.TRUE;
+
     // Constructors, if needed, can be added. Lombok's @Data provides an all-args constructor.
     // An explicit all-args constructor or a constructor with (Long bookId, Integer quantity) might be useful.
     public OrderItem(Long bookId, Integer quantity) {
@@ -0,0 +1,33 @@
+package com.example.apiLibrary.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email waiting to be sent, written in the same transaction as the business change it reports on.
+ * The dispatcher picks up PENDING rows whose next attempt is due and records the outcome on the row.
+ */
+@Data
+@Table("EMAIL_OUTBOX")
+public class OutboxEmail {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED"; // Gave up after the maximum number of attempts
+
+    @Id
+    private Long id;
+    private Long orderId; // The order this email is about, if any
+    private String recipient;
+    private String subject;
+    private String body;
+    private String status;
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+}
@@ -20,6 +20,9 @@ public class Sale {
     private LocalDateTime timestamp;
     private BigDecimal totalAmount;
 
+    // False until SalesRollupJob has added the sale to SALES_DAILY_ROLLUP.
+    private Boolean rolledUp = Boolean.FALSE;
+
     // Assuming the SaleItem table will have a "SALE_ID" column linking back to this Sale.
     @MappedCollection(idColumn = "SALE_ID")
     private List<SaleItem> items;
@@ -2,11 +2,17 @@ package com.example.apiLibrary.model;
 
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 public class SaleItem {
 
     private Long bookId;
     private Integer quantity;
+    private BigDecimal unitPrice; // Book price at the time of the sale
+
+    // False while the stock for this line is only taken in the inventory ledger and not yet in BOOKS.
+    private Boolean stockApplied = Boolean.TRUE;
 
     // All-args constructor
     public SaleItem(Long bookId, Integer quantity) {
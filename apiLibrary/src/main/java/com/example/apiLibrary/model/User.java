@@ -13,6 +13,7 @@ public class User {
     private String username; // Should be unique
     private String password; // Will be stored hashed
     private String roles;    // e.g., "ROLE_SELLER,ROLE_ADMIN" or "ROLE_USER"
+    private Integer tokenVersion = 0; // Bumped to revoke issued tokens; see TokenVersions
 
     // Note: For uniqueness constraints like on 'username',
     // Spring Data JDBC relies on database schema definitions.
@@ -0,0 +1,54 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Book;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom fragment of {@link BookRepository} for set-based writes that would be too slow one entity at a time.
+ * Spring Data JDBC picks up the implementation from {@link BookBatchRepositoryImpl}.
+ */
+public interface BookBatchRepository {
+
+    /**
+     * Inserts or updates the books in one JDBC batch, matching existing rows by ISBN.
+     * Book IDs are ignored; new rows get their ID from the database.
+     *
+     * @return The number of rows affected for each book, in input order.
+     */
+    int[] mergeByIsbn(List<Book> books);
+
+    /**
+     * Subtracts the given quantities from the books' stock in one JDBC batch. Each UPDATE is guarded by
+     * {@code STOCK >= quantity}, so stock never goes negative however many baskets race for the same book.
+     *
+     * @param quantities Quantity to subtract per book ID.
+     * @return The number of rows updated per entry, in the map's iteration order; 0 means the book is missing or
+     * no longer has enough stock, and nothing was subtracted for it.
+     */
+    int[] decrementStock(Map<Long, Integer> quantities);
+
+    /**
+     * Writes deferred stock to BOOKS: finds up to {@code maxRowsPerTable} committed sale and order item rows with
+     * {@code STOCK_APPLIED = 0}, subtracts their quantities from BOOKS and marks them applied. Must run in a
+     * transaction, so the stock change and the marking commit or roll back together; rows locked by another
+     * flusher are skipped.
+     * <p>
+     * The subtraction is guarded like {@link #decrementStock}. Lines already sold cannot be taken back, so where
+     * BOOKS holds less than they need, its stock is set to 0 and the difference is inserted into INVENTORY_SHORTFALL
+     * and reported as a shortfall.
+     *
+     * @return What was applied; empty when nothing was pending.
+     */
+    DeferredStock applyDeferredStock(int maxRowsPerTable);
+
+    /**
+     * Locks the given books' rows until the end of the transaction and returns their stock.
+     * Must run in a transaction.
+     *
+     * @return Stock per book ID, for the books that exist.
+     */
+    Map<Long, Integer> lockStock(Collection<Long> bookIds);
+}
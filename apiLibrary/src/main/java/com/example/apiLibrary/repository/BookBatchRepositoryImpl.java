@@ -0,0 +1,156 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.model.Order;
+import com.example.apiLibrary.model.Sale;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BookBatchRepositoryImpl implements BookBatchRepository {
+
+    // One statement text for every row, so the whole batch reuses a single Oracle cursor.
+    private static final String MERGE_BY_ISBN =
+            "MERGE INTO BOOKS b"
+            + " USING (SELECT ? AS ISBN, ? AS TITLE, ? AS AUTHOR, ? AS PRICE, ? AS STOCK, ? AS CATEGORY, ? AS UPDATED_AT FROM DUAL) s"
+            + " ON (b.ISBN = s.ISBN)"
+            + " WHEN MATCHED THEN UPDATE SET b.TITLE = s.TITLE, b.AUTHOR = s.AUTHOR, b.PRICE = s.PRICE,"
+            + " b.STOCK = s.STOCK, b.CATEGORY = s.CATEGORY, b.UPDATED_AT = s.UPDATED_AT, b.VERSION = b.VERSION + 1"
+            + " WHEN NOT MATCHED THEN INSERT (ISBN, TITLE, AUTHOR, PRICE, STOCK, CATEGORY, UPDATED_AT, VERSION)"
+            + " VALUES (s.ISBN, s.TITLE, s.AUTHOR, s.PRICE, s.STOCK, s.CATEGORY, s.UPDATED_AT, 0)";
+
+    // Check and decrement in one statement; the row lock taken by the UPDATE serialises concurrent baskets.
+    private static final String DECREMENT_STOCK =
+            "UPDATE BOOKS SET STOCK = STOCK - ?, VERSION = VERSION + 1, UPDATED_AT = ? WHERE ID = ? AND STOCK >= ?";
+
+    private static final String SELECT_STOCK_FOR_UPDATE = "SELECT ID, STOCK FROM BOOKS WHERE ID IN (:ids) FOR UPDATE";
+    private static final String SET_STOCK =
+            "UPDATE BOOKS SET STOCK = ?, VERSION = VERSION + 1, UPDATED_AT = ? WHERE ID = ?";
+    private static final String INSERT_SHORTFALL =
+            "INSERT INTO INVENTORY_SHORTFALL (BOOK_ID, UNITS, RECORDED_AT) VALUES (?, ?, ?)";
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+    // Per item table (SALE_ITEM, then ORDER_ITEM): claim pending lines, and mark a claimed line applied.
+    private final List<String> selectPendingSql = new ArrayList<>();
+    private final List<String> markAppliedSql = new ArrayList<>();
+
+    @Autowired
+    public BookBatchRepositoryImpl(NamedParameterJdbcOperations jdbcOperations,
+                                   RelationalMappingContext mappingContext,
+                                   Dialect dialect) {
+        this.jdbcOperations = jdbcOperations;
+        // Same mapping as the Sale and Order inserts; see SaleBatchRepositoryImpl.
+        IdentifierProcessing names = dialect.getIdentifierProcessing();
+        for (Class<?> owner : List.of(Sale.class, Order.class)) {
+            RelationalPersistentEntity<?> item = mappingContext.getRequiredPersistentEntity(
+                    mappingContext.getRequiredPersistentEntity(owner).getRequiredPersistentProperty("items")
+                            .getActualType());
+            String table = item.getTableName().toSql(names);
+            String stockApplied = column(item, "stockApplied", names);
+            selectPendingSql.add("SELECT ROWIDTOCHAR(ROWID) AS RID, " + column(item, "bookId", names) + " AS BOOK_ID, "
+                    + column(item, "quantity", names) + " AS QUANTITY FROM " + table
+                    + " WHERE " + stockApplied + " = 0 AND ROWNUM <= ? FOR UPDATE SKIP LOCKED");
+            markAppliedSql.add("UPDATE " + table + " SET " + stockApplied + " = 1 WHERE ROWID = CHARTOROWID(?)");
+        }
+    }
+
+    private static String column(RelationalPersistentEntity<?> entity, String property, IdentifierProcessing names) {
+        return entity.getRequiredPersistentProperty(property).getColumnName().toSql(names);
+    }
+
+    @Override
+    public int[] mergeByIsbn(List<Book> books) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcOperations.getJdbcOperations().batchUpdate(MERGE_BY_ISBN, books, books.size(), (statement, book) -> {
+            statement.setString(1, book.getIsbn());
+            statement.setString(2, book.getTitle());
+            statement.setString(3, book.getAuthor());
+            statement.setBigDecimal(4, book.getPrice());
+            statement.setObject(5, book.getStock());
+            statement.setString(6, book.getCategory());
+            statement.setTimestamp(7, now);
+        })[0];
+    }
+
+    @Override
+    public int[] decrementStock(Map<Long, Integer> quantities) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        return jdbcOperations.getJdbcOperations().batchUpdate(DECREMENT_STOCK, lines, lines.size(), (statement, line) -> {
+            statement.setInt(1, line.getValue());
+            statement.setTimestamp(2, now);
+            statement.setLong(3, line.getKey());
+            statement.setInt(4, line.getValue());
+        })[0];
+    }
+
+    @Override
+    public DeferredStock applyDeferredStock(int maxRowsPerTable) {
+        Map<Long, Integer> totals = new LinkedHashMap<>();
+        for (int table = 0; table < selectPendingSql.size(); table++) {
+            List<String> rowIds = new ArrayList<>();
+            jdbcOperations.getJdbcOperations().query(selectPendingSql.get(table), rs -> {
+                rowIds.add(rs.getString("RID"));
+                totals.merge(rs.getLong("BOOK_ID"), rs.getInt("QUANTITY"), Integer::sum);
+            }, maxRowsPerTable);
+            jdbcOperations.getJdbcOperations().batchUpdate(markAppliedSql.get(table), rowIds, rowIds.size(),
+                    (statement, rowId) -> statement.setString(1, rowId));
+        }
+        Map<Long, Integer> shortfall = new LinkedHashMap<>();
+        if (!totals.isEmpty()) {
+            int[] updated = decrementStock(totals);
+            Map<Long, Integer> notSubtracted = new LinkedHashMap<>();
+            int index = 0;
+            for (Map.Entry<Long, Integer> line : totals.entrySet()) {
+                if (updated[index++] == 0) {
+                    notSubtracted.put(line.getKey(), line.getValue());
+                }
+            }
+            if (!notSubtracted.isEmpty()) {
+                // Rare: the stock was lowered behind the ledger's back. Re-read under lock and empty the shelf; the
+                // units sold beyond it are written to INVENTORY_SHORTFALL in the same transaction, so the deficit
+                // outlives the 0 in BOOKS.
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                lockStock(notSubtracted.keySet()).forEach((bookId, stock) -> {
+                    int needed = notSubtracted.get(bookId);
+                    int remaining = Math.max(0, stock - needed);
+                    jdbcOperations.getJdbcOperations().update(SET_STOCK, remaining, now, bookId);
+                    if (stock < needed) {
+                        shortfall.put(bookId, needed - Math.max(0, stock));
+                    }
+                });
+                List<Map.Entry<Long, Integer>> deficits = new ArrayList<>(shortfall.entrySet());
+                jdbcOperations.getJdbcOperations().batchUpdate(INSERT_SHORTFALL, deficits, deficits.size(),
+                        (statement, deficit) -> {
+                            statement.setLong(1, deficit.getKey());
+                            statement.setInt(2, deficit.getValue());
+                            statement.setTimestamp(3, now);
+                        });
+            }
+        }
+        return new DeferredStock(totals, shortfall);
+    }
+
+    @Override
+    public Map<Long, Integer> lockStock(Collection<Long> bookIds) {
+        Map<Long, Integer> stock = new LinkedHashMap<>();
+        if (!bookIds.isEmpty()) {
+            jdbcOperations.query(SELECT_STOCK_FOR_UPDATE, new MapSqlParameterSource("ids", bookIds), rs -> {
+                stock.put(rs.getLong("ID"), rs.getInt("STOCK")); // NULL stock reads as 0
+            });
+        }
+        return stock;
+    }
+}
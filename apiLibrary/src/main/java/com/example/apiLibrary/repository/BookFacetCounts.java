@@ -0,0 +1,20 @@
+package com.example.apiLibrary.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Facet counts for a {@link BookFilter}. Each facet ignores its own filter dimension, so the category counts
+ * honour the text and price filters but not the category filter, and the price bucket counts honour the text and
+ * category filters but not the price range. That way the sidebar always shows what selecting another value would
+ * return.
+ */
+@Getter
+@AllArgsConstructor
+public class BookFacetCounts {
+    private final Map<String, Long> categoryCounts; // Null key: books without a category
+    private final long[] priceBucketCounts;          // One more entry than there are bucket bounds
+    private final long total;                        // Books matching the whole filter
+}
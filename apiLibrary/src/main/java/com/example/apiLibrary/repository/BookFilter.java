@@ -0,0 +1,22 @@
+package com.example.apiLibrary.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Catalog filters for {@link BookSearchRepository}. Any field may be null, meaning "no filter".
+ * Two filters with the same values are equal, so instances can be used as cache keys.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookFilter {
+    private String title;    // Case-insensitive "contains" match
+    private String author;   // Case-insensitive "contains" match
+    private String category; // Exact match
+    private BigDecimal minPrice; // Inclusive
+    private BigDecimal maxPrice; // Inclusive
+}
@@ -0,0 +1,62 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Book;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Custom fragment of {@link BookRepository} for filtered catalog queries.
+ * Spring Data JDBC picks up the implementation from {@link BookSearchRepositoryImpl}.
+ */
+public interface BookSearchRepository {
+
+    /**
+     * Finds books matching the filter using OFFSET paging.
+     *
+     * @param filter The filters to apply; null fields are left out of the generated SQL.
+     * @param sort   The sort order; ties are broken by book ID. {@link BookSortKey#RELEVANCE} needs a title or
+     *               author term in the filter.
+     * @param offset Number of matching rows to skip.
+     * @param limit  Maximum number of rows to return.
+     * @return The matching books, in sort order.
+     */
+    List<Book> findPage(BookFilter filter, BookSortKey sort, long offset, int limit);
+
+    /**
+     * Finds books matching the filter that sort strictly after the given (key, id) position.
+     * This is a seek query, so its cost does not depend on how deep into the catalog the position is.
+     *
+     * @param filter   The filters to apply; null fields are left out of the generated SQL.
+     * @param sort     The sort order; ties are broken by book ID.
+     * @param afterKey The sort key value of the last book already seen (ignored for {@link BookSortKey#ID}; the
+     *                 Long rank key for {@link BookSortKey#RELEVANCE}).
+     * @param afterId  The ID of the last book already seen.
+     * @param limit    Maximum number of rows to return.
+     * @return The matching books, in sort order.
+     */
+    List<Book> findPageAfter(BookFilter filter, BookSortKey sort, Object afterKey, long afterId, int limit);
+
+    /**
+     * Counts the books matching the filter.
+     */
+    long countMatching(BookFilter filter);
+
+    /**
+     * Computes category and price bucket counts for the filter with one grouped query.
+     *
+     * @param priceBucketBounds Ascending bucket boundaries; bucket i holds prices below bound i (and at or above
+     *                          bound i-1), and the last bucket holds everything from the last bound upwards.
+     */
+    BookFacetCounts countFacets(BookFilter filter, List<BigDecimal> priceBucketBounds);
+
+    /**
+     * Streams every book, in ID order, through a single forward-only cursor. Rows are handed to the consumer
+     * one at a time as they are fetched, so memory use does not depend on the size of the catalog.
+     *
+     * @param since If not null, only books modified after this time are streamed.
+     */
+    void streamAll(LocalDateTime since, Consumer<Book> consumer);
+}
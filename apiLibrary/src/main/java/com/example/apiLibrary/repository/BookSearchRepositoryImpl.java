@@ -0,0 +1,327 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.catalog.BookRelevance;
+import com.example.apiLibrary.catalog.BookTextIndex;
+import com.example.apiLibrary.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.Locale;
+
+/**
+ * Builds the catalog search SQL from only the filters that are present.
+ * <p>
+ * Filter values are always passed as bind variables and never concatenated into the SQL text,
+ * so there is one statement shape per combination of present filters and sort key. Oracle can
+ * therefore reuse the parsed cursor for every request with the same combination.
+ * <p>
+ * Title and author terms match ignoring case and accents, like the in-memory index: both sides are folded, the
+ * column with a TRANSLATE of accented capitals to their base letters that is generated from
+ * {@link BookTextIndex#fold} itself.
+ * <p>
+ * A relevance sort computes the {@link BookRelevance} rank key as a RANK_KEY column of a derived table and
+ * orders and seeks on it. The lengths in the key are those of the stored text, which equal the folded lengths
+ * the snapshot uses for text stored precomposed (NFC), so cursors computed in Java continue where they should.
+ */
+public class BookSearchRepositoryImpl implements BookSearchRepository {
+
+    private static final String SELECT_COLUMN_LIST = "SELECT ID, TITLE, AUTHOR, ISBN, PRICE, STOCK, CATEGORY, VERSION";
+    private static final String SELECT_COLUMNS = SELECT_COLUMN_LIST + " FROM BOOKS";
+    private static final String RANKED_SELECT_PREFIX = "SELECT * FROM (";
+    private static final String SELECT_COUNT = "SELECT COUNT(*) FROM BOOKS";
+    private static final char LIKE_ESCAPE = '\\';
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final String FOLD_FROM;
+    private static final String FOLD_TO;
+
+    static {
+        // Latin, Greek and Cyrillic letters, upper-cased as UPPER() does, whose fold is a different single letter.
+        int[][] ranges = {{0x00C0, 0x024F}, {0x0370, 0x04FF}, {0x1E00, 0x1FFF}};
+        StringBuilder from = new StringBuilder();
+        StringBuilder to = new StringBuilder();
+        Set<Character> mapped = new HashSet<>();
+        for (int[] range : ranges) {
+            for (int c = range[0]; c <= range[1]; c++) {
+                String upper = String.valueOf((char) c).toUpperCase(Locale.ROOT);
+                if (!Character.isLetter(c) || upper.length() != 1) {
+                    continue;
+                }
+                String folded = BookTextIndex.fold(upper).toUpperCase(Locale.ROOT);
+                if (folded.length() == 1 && !folded.equals(upper) && mapped.add(upper.charAt(0))) {
+                    from.append(upper);
+                    to.append(folded);
+                }
+            }
+        }
+        FOLD_FROM = from.toString();
+        FOLD_TO = to.toString();
+    }
+
+    static final RowMapper<Book> BOOK_ROW_MAPPER = (rs, rowNum) -> {
+        Book book = new Book();
+        book.setId(rs.getLong("ID"));
+        book.setTitle(rs.getString("TITLE"));
+        book.setAuthor(rs.getString("AUTHOR"));
+        book.setIsbn(rs.getString("ISBN"));
+        book.setPrice(rs.getBigDecimal("PRICE"));
+        book.setStock(rs.getObject("STOCK", Integer.class));
+        book.setCategory(rs.getString("CATEGORY"));
+        book.setVersion(rs.getLong("VERSION"));
+        return book;
+    };
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+
+    @Autowired
+    public BookSearchRepositoryImpl(NamedParameterJdbcOperations jdbcOperations) {
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    public List<Book> findPage(BookFilter filter, BookSortKey sort, long offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = buildWhereClause(filter, params);
+
+        params.addValue("offset", offset);
+        params.addValue("limit", limit);
+        String select = select(filter, sort, params);
+        return jdbcOperations.query(
+                select + where + orderBy(sort) + " OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY",
+                params,
+                BOOK_ROW_MAPPER);
+    }
+
+    @Override
+    public List<Book> findPageAfter(BookFilter filter, BookSortKey sort, Object afterKey, long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = buildWhereClause(filter, params);
+
+        // Oracle has no row-value comparison, so (key, id) > (:afterKey, :afterId) is spelled out.
+        String select = select(filter, sort, params);
+        if (sort == BookSortKey.ID) {
+            appendPredicate(where, "ID > :afterId");
+        } else if (sort == BookSortKey.RELEVANCE) {
+            // The rank key only exists in the derived table, and ranks descending.
+            select = RANKED_SELECT_PREFIX + select + where + ")";
+            where = new StringBuilder(" WHERE (RANK_KEY < :afterKey OR (RANK_KEY = :afterKey AND ID > :afterId))");
+            params.addValue("afterKey", afterKey);
+        } else {
+            String column = sort.getColumn();
+            appendPredicate(where, "(" + column + " > :afterKey OR (" + column + " = :afterKey AND ID > :afterId))");
+            params.addValue("afterKey", afterKey);
+        }
+        params.addValue("afterId", afterId);
+        params.addValue("limit", limit);
+        return jdbcOperations.query(
+                select + where + orderBy(sort) + " FETCH FIRST :limit ROWS ONLY",
+                params,
+                BOOK_ROW_MAPPER);
+    }
+
+    @Override
+    public long countMatching(BookFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = buildWhereClause(filter, params);
+        Long total = jdbcOperations.queryForObject(SELECT_COUNT + where, params, Long.class);
+        return total != null ? total : 0L;
+    }
+
+    @Override
+    public BookFacetCounts countFacets(BookFilter filter, List<BigDecimal> priceBucketBounds) {
+        // Only the text filters go in the WHERE clause. The category and price filters become grouping columns,
+        // so one pass over the matching rows yields the counts for every facet, each ignoring its own filter.
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        BookFilter textOnly = new BookFilter(filter.getTitle(), filter.getAuthor(), null, null, null);
+        StringBuilder where = buildWhereClause(textOnly, params);
+
+        StringBuilder bucket = new StringBuilder("CASE WHEN PRICE IS NULL THEN -1");
+        for (int i = 0; i < priceBucketBounds.size(); i++) {
+            bucket.append(" WHEN PRICE < :bound").append(i).append(" THEN ").append(i);
+            params.addValue("bound" + i, priceBucketBounds.get(i));
+        }
+        bucket.append(" ELSE ").append(priceBucketBounds.size()).append(" END");
+
+        String inPriceRange;
+        if (filter.getMinPrice() == null && filter.getMaxPrice() == null) {
+            inPriceRange = "1";
+        } else {
+            StringBuilder range = new StringBuilder("CASE WHEN PRICE IS NOT NULL");
+            if (filter.getMinPrice() != null) {
+                range.append(" AND PRICE >= :minPrice");
+                params.addValue("minPrice", filter.getMinPrice());
+            }
+            if (filter.getMaxPrice() != null) {
+                range.append(" AND PRICE <= :maxPrice");
+                params.addValue("maxPrice", filter.getMaxPrice());
+            }
+            inPriceRange = range.append(" THEN 1 ELSE 0 END").toString();
+        }
+
+        String category = StringUtils.hasText(filter.getCategory()) ? filter.getCategory().trim() : null;
+        Map<String, Long> categoryCounts = new HashMap<>();
+        long[] bucketCounts = new long[priceBucketBounds.size() + 1];
+        long[] total = new long[1];
+        jdbcOperations.query(
+                // Grouping on the derived columns: Oracle would not match bind placeholders repeated in GROUP BY.
+                "SELECT CATEGORY, BUCKET, IN_RANGE, COUNT(*) AS N FROM ("
+                        + "SELECT CATEGORY, " + bucket + " AS BUCKET, " + inPriceRange + " AS IN_RANGE FROM BOOKS" + where
+                        + ") GROUP BY CATEGORY, BUCKET, IN_RANGE",
+                params,
+                (RowCallbackHandler) rs -> {
+                    String rowCategory = rs.getString("CATEGORY");
+                    int rowBucket = rs.getInt("BUCKET");
+                    boolean inRange = rs.getInt("IN_RANGE") == 1;
+                    boolean inCategory = category == null || category.equals(rowCategory);
+                    long count = rs.getLong("N");
+                    if (inRange) {
+                        categoryCounts.merge(rowCategory, count, Long::sum);
+                    }
+                    if (inCategory && rowBucket >= 0) {
+                        bucketCounts[rowBucket] += count;
+                    }
+                    if (inRange && inCategory) {
+                        total[0] += count;
+                    }
+                });
+        return new BookFacetCounts(categoryCounts, bucketCounts, total[0]);
+    }
+
+    @Override
+    public void streamAll(LocalDateTime since, Consumer<Book> consumer) {
+        String sql = SELECT_COLUMNS + (since != null ? " WHERE UPDATED_AT > ?" : "") + " ORDER BY ID";
+        jdbcOperations.getJdbcOperations().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            // A larger fetch size means fewer round trips on the cursor; rows are still processed one at a time.
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            if (since != null) {
+                statement.setTimestamp(1, Timestamp.valueOf(since));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(BOOK_ROW_MAPPER.mapRow(rs, 0)));
+    }
+
+    private static String orderBy(BookSortKey sort) {
+        return switch (sort) {
+            case ID -> " ORDER BY ID";
+            case RELEVANCE -> " ORDER BY RANK_KEY DESC, ID";
+            default -> " ORDER BY " + sort.getColumn() + ", ID";
+        };
+    }
+
+    /**
+     * The SELECT list for the sort: the book columns, plus the rank key for a relevance sort.
+     *
+     * @throws IllegalArgumentException if a relevance sort has no title or author term to rank by.
+     */
+    private static String select(BookFilter filter, BookSortKey sort, MapSqlParameterSource params) {
+        if (sort != BookSortKey.RELEVANCE) {
+            return SELECT_COLUMNS;
+        }
+        StringBuilder score = new StringBuilder();
+        StringBuilder length = new StringBuilder();
+        if (StringUtils.hasText(filter.getTitle())) {
+            appendRankTerms(score, length, "TITLE", "title", filter.getTitle(), params);
+        }
+        if (StringUtils.hasText(filter.getAuthor())) {
+            appendRankTerms(score, length, "AUTHOR", "author", filter.getAuthor(), params);
+        }
+        if (score.length() == 0) {
+            throw new IllegalArgumentException("Sorting by relevance needs a title or author term");
+        }
+        return SELECT_COLUMN_LIST + ", (" + score + ") * " + BookRelevance.SCORE_UNIT
+                + " - LEAST(" + length + ", " + (BookRelevance.SCORE_UNIT - 1) + ") AS RANK_KEY FROM BOOKS";
+    }
+
+    /**
+     * Adds a term's score (3 for a prefix, 2 for a word start, 1 otherwise: the WHERE clause already requires
+     * the term) and its column's length to the rank key.
+     */
+    private static void appendRankTerms(StringBuilder score, StringBuilder length, String column, String name,
+                                        String term, MapSqlParameterSource params) {
+        if (score.length() > 0) {
+            score.append(" + ");
+            length.append(" + ");
+        }
+        score.append("CASE WHEN ").append(folded(column)).append(" LIKE :").append(name).append("Prefix ESCAPE '\\'")
+                .append(" THEN 3 WHEN ").append(folded(column)).append(" LIKE :").append(name)
+                .append("Word ESCAPE '\\' THEN 2 ELSE 1 END");
+        length.append("NVL(LENGTH(").append(column).append("), 0)");
+        params.addValue(name + "Prefix", likePattern("", term));
+        params.addValue(name + "Word", likePattern("% ", term));
+    }
+
+    private StringBuilder buildWhereClause(BookFilter filter, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder();
+        if (StringUtils.hasText(filter.getTitle())) {
+            appendPredicate(where, folded("TITLE") + " LIKE :title ESCAPE '\\'");
+            params.addValue("title", containsPattern(filter.getTitle()));
+        }
+        if (StringUtils.hasText(filter.getAuthor())) {
+            appendPredicate(where, folded("AUTHOR") + " LIKE :author ESCAPE '\\'");
+            params.addValue("author", containsPattern(filter.getAuthor()));
+        }
+        if (StringUtils.hasText(filter.getTitle()) || StringUtils.hasText(filter.getAuthor())) {
+            params.addValue("foldFrom", FOLD_FROM);
+            params.addValue("foldTo", FOLD_TO);
+        }
+        if (StringUtils.hasText(filter.getCategory())) {
+            appendPredicate(where, "CATEGORY = :category");
+            params.addValue("category", filter.getCategory().trim());
+        }
+        if (filter.getMinPrice() != null) {
+            appendPredicate(where, "PRICE >= :minPrice");
+            params.addValue("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            appendPredicate(where, "PRICE <= :maxPrice");
+            params.addValue("maxPrice", filter.getMaxPrice());
+        }
+        return where;
+    }
+
+    private static void appendPredicate(StringBuilder where, String predicate) {
+        where.append(where.length() == 0 ? " WHERE " : " AND ").append(predicate);
+    }
+
+    /**
+     * The column upper-cased and with its accents stripped; the SQL side of {@link BookTextIndex#fold}.
+     */
+    private static String folded(String column) {
+        return "TRANSLATE(UPPER(" + column + "), :foldFrom, :foldTo)";
+    }
+
+    private static String containsPattern(String term) {
+        return likePattern("%", term);
+    }
+
+    /**
+     * Folds and upper-cases the term and escapes LIKE wildcards so user input is matched literally. The pattern
+     * is the prefix, then the term, then any text.
+     */
+    private static String likePattern(String prefix, String term) {
+        String upper = BookTextIndex.fold(term.trim()).toUpperCase(Locale.ROOT);
+        StringBuilder pattern = new StringBuilder(upper.length() + prefix.length() + 1).append(prefix);
+        for (int i = 0; i < upper.length(); i++) {
+            char c = upper.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.apiLibrary.repository;
+
+import java.util.Locale;
+
+/**
+ * Sort orders supported by catalog queries. Every order is made total by using the book ID
+ * as a tie-breaker, which is what allows keyset (seek) pagination over it.
+ * <p>
+ * The sort columns are assumed to be NOT NULL in the BOOKS table. {@link #RELEVANCE} is not a column: it
+ * orders by a rank key computed from the title and author terms (see
+ * {@link com.example.apiLibrary.catalog.BookRelevance}), highest first, and needs at least one of them.
+ */
+public enum BookSortKey {
+    ID("ID"),
+    TITLE("TITLE"),
+    PRICE("PRICE"),
+    RELEVANCE("RANK_KEY");
+
+    private final String column;
+
+    BookSortKey(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Parses a request parameter such as "title" into a sort key.
+     *
+     * @throws IllegalArgumentException if the value is not a supported sort key.
+     */
+    public static BookSortKey fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported sort key: " + value);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.apiLibrary.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Outcome of {@link BookBatchRepository#applyDeferredStock}.
+ */
+@Getter
+@AllArgsConstructor
+public class DeferredStock {
+    private final Map<Long, Integer> applied;   // Quantity of the lines marked applied, per book ID
+    private final Map<Long, Integer> shortfall; // Units those lines sold beyond the stock left in BOOKS, per book ID
+
+    public boolean isEmpty() {
+        return applied.isEmpty();
+    }
+}
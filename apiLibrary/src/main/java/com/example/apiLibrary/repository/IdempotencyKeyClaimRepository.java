@@ -0,0 +1,25 @@
+package com.example.apiLibrary.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Custom fragment of {@link IdempotencyKeyRepository}. IDs are assigned by the client, so rows are inserted
+ * explicitly rather than through save(), which would treat them as existing.
+ * Spring Data JDBC picks up the implementation from {@link IdempotencyKeyClaimRepositoryImpl}.
+ */
+public interface IdempotencyKeyClaimRepository {
+
+    /**
+     * Inserts the key without a response. Within the claiming transaction the primary key makes a concurrent
+     * claim of the same key (from another instance) wait, and fail with a DuplicateKeyException if this
+     * transaction commits. An expired row for the same key is replaced.
+     */
+    void claim(String id, String requestHash, LocalDateTime now, LocalDateTime expiresAt);
+
+    void storeResponse(String id, String responseBody);
+
+    /**
+     * @return The number of keys removed.
+     */
+    int deleteExpired(LocalDateTime now);
+}
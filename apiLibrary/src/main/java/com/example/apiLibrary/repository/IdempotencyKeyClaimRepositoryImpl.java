@@ -0,0 +1,40 @@
+package com.example.apiLibrary.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.time.LocalDateTime;
+
+public class IdempotencyKeyClaimRepositoryImpl implements IdempotencyKeyClaimRepository {
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+
+    @Autowired
+    public IdempotencyKeyClaimRepositoryImpl(NamedParameterJdbcOperations jdbcOperations) {
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    public void claim(String id, String requestHash, LocalDateTime now, LocalDateTime expiresAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id)
+                .addValue("requestHash", requestHash)
+                .addValue("now", now)
+                .addValue("expiresAt", expiresAt);
+        jdbcOperations.update("DELETE FROM IDEMPOTENCY_KEYS WHERE ID = :id AND EXPIRES_AT <= :now", params);
+        jdbcOperations.update("INSERT INTO IDEMPOTENCY_KEYS (ID, REQUEST_HASH, CREATED_AT, EXPIRES_AT)"
+                + " VALUES (:id, :requestHash, :now, :expiresAt)", params);
+    }
+
+    @Override
+    public void storeResponse(String id, String responseBody) {
+        jdbcOperations.update("UPDATE IDEMPOTENCY_KEYS SET RESPONSE_BODY = :responseBody WHERE ID = :id",
+                new MapSqlParameterSource("id", id).addValue("responseBody", responseBody));
+    }
+
+    @Override
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcOperations.update("DELETE FROM IDEMPOTENCY_KEYS WHERE EXPIRES_AT <= :now",
+                new MapSqlParameterSource("now", now));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.IdempotencyKey;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyKeyRepository extends CrudRepository<IdempotencyKey, String>, IdempotencyKeyClaimRepository {
+    // Basic CRUD methods are inherited.
+    // Claiming, completing and expiring keys live in IdempotencyKeyClaimRepository.
+}
@@ -0,0 +1,18 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Order;
+
+import java.util.List;
+
+/**
+ * Custom fragment of {@link OrderRepository} for inserting many orders at once.
+ * Spring Data JDBC picks up the implementation from {@link OrderBatchRepositoryImpl}.
+ */
+public interface OrderBatchRepository {
+
+    /**
+     * Inserts the orders and their items with two JDBC batches, one for ORDERS and one for the item table.
+     * IDs are drawn from ORDERS_SEQ in a single round trip and set on the given orders.
+     */
+    void insertAll(List<Order> orders);
+}
@@ -0,0 +1,77 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Order;
+import com.example.apiLibrary.model.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderBatchRepositoryImpl implements OrderBatchRepository {
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+    private final String nextIdsSql;
+    private final String insertOrderSql;
+    private final String insertItemSql;
+
+    @Autowired
+    public OrderBatchRepositoryImpl(NamedParameterJdbcOperations jdbcOperations,
+                                    RelationalMappingContext mappingContext,
+                                    Dialect dialect,
+                                    @Value("${app.orders.batch.id-sequence:ORDERS_SEQ}") String idSequence) {
+        this.jdbcOperations = jdbcOperations;
+        // Same mapping as orderRepository.save(); see SaleBatchRepositoryImpl.
+        IdentifierProcessing names = dialect.getIdentifierProcessing();
+        RelationalPersistentEntity<?> order = mappingContext.getRequiredPersistentEntity(Order.class);
+        RelationalPersistentEntity<?> item = mappingContext.getRequiredPersistentEntity(OrderItem.class);
+        RelationalPersistentProperty items = order.getRequiredPersistentProperty("items");
+
+        this.nextIdsSql = "SELECT " + idSequence + ".NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?";
+        this.insertOrderSql = "INSERT INTO " + order.getTableName().toSql(names) + " ("
+                + column(order, "orderId", names) + ", "
+                + column(order, "customerName", names) + ", "
+                + column(order, "customerEmail", names) + ", "
+                + column(order, "status", names) + ") VALUES (?, ?, ?, ?)";
+        this.insertItemSql = "INSERT INTO " + item.getTableName().toSql(names) + " ("
+                + items.getReverseColumnName(order).toSql(names) + ", "
+                + items.getKeyColumn().toSql(names) + ", "
+                + column(item, "bookId", names) + ", "
+                + column(item, "quantity", names) + ", "
+                + column(item, "stockApplied", names) + ") VALUES (?, ?, ?, ?, ?)";
+    }
+
+    private static String column(RelationalPersistentEntity<?> entity, String property, IdentifierProcessing names) {
+        return entity.getRequiredPersistentProperty(property).getColumnName().toSql(names);
+    }
+
+    @Override
+    public void insertAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbcOperations.getJdbcOperations().queryForList(nextIdsSql, Long.class, orders.size());
+        List<Object[]> orderRows = new ArrayList<>(orders.size());
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            order.setOrderId(ids.get(i));
+            orderRows.add(new Object[]{order.getOrderId(), order.getCustomerName(), order.getCustomerEmail(), order.getStatus()});
+            List<OrderItem> orderItems = order.getItems();
+            for (int key = 0; key < orderItems.size(); key++) {
+                OrderItem orderItem = orderItems.get(key);
+                itemRows.add(new Object[]{order.getOrderId(), key, orderItem.getBookId(), orderItem.getQuantity(),
+                        Boolean.TRUE.equals(orderItem.getStockApplied()) ? 1 : 0});
+            }
+        }
+
+        jdbcOperations.getJdbcOperations().batchUpdate(insertOrderSql, orderRows);
+        jdbcOperations.getJdbcOperations().batchUpdate(insertItemSql, itemRows);
+    }
+}
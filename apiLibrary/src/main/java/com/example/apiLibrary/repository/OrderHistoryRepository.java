@@ -0,0 +1,22 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Order;
+
+import java.util.List;
+
+/**
+ * Custom fragment of {@link OrderRepository} for paging through order history newest first.
+ * Spring Data JDBC picks up the implementation from {@link OrderHistoryRepositoryImpl}.
+ */
+public interface OrderHistoryRepository {
+
+    /**
+     * Loads one keyset page of orders, newest (highest ID) first, with their items. A page costs two queries
+     * however many orders it holds: one for the orders and one for all of their items.
+     *
+     * @param customerEmail Only orders placed with this email, or all orders when null.
+     *                      Served by the (CUSTOMER_EMAIL, ORDER_ID) index.
+     * @param afterOrderId  ID of the last order of the previous page, or null for the first page.
+     */
+    List<Order> findHistoryPage(String customerEmail, Long afterOrderId, int limit);
+}
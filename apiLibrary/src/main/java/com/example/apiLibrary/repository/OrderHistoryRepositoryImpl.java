@@ -0,0 +1,94 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Order;
+import com.example.apiLibrary.model.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OrderHistoryRepositoryImpl implements OrderHistoryRepository {
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+    private final String selectOrders;
+    private final String orderIdColumn;
+    private final String customerEmailColumn;
+    private final String orderBy;
+    private final String selectItems;
+
+    @Autowired
+    public OrderHistoryRepositoryImpl(NamedParameterJdbcOperations jdbcOperations,
+                                      RelationalMappingContext mappingContext,
+                                      Dialect dialect) {
+        this.jdbcOperations = jdbcOperations;
+        // Same mapping as orderRepository.findById(); see SaleBatchRepositoryImpl.
+        IdentifierProcessing names = dialect.getIdentifierProcessing();
+        RelationalPersistentEntity<?> order = mappingContext.getRequiredPersistentEntity(Order.class);
+        RelationalPersistentEntity<?> item = mappingContext.getRequiredPersistentEntity(OrderItem.class);
+        RelationalPersistentProperty items = order.getRequiredPersistentProperty("items");
+
+        this.orderIdColumn = column(order, "orderId", names);
+        this.customerEmailColumn = column(order, "customerEmail", names);
+        this.selectOrders = "SELECT " + orderIdColumn + " AS ORDER_ID, "
+                + column(order, "customerName", names) + " AS CUSTOMER_NAME, "
+                + customerEmailColumn + " AS CUSTOMER_EMAIL, "
+                + column(order, "status", names) + " AS STATUS"
+                + " FROM " + order.getTableName().toSql(names);
+        this.orderBy = " ORDER BY " + orderIdColumn + " DESC FETCH FIRST :limit ROWS ONLY";
+        String reverseColumn = items.getReverseColumnName(order).toSql(names);
+        this.selectItems = "SELECT " + reverseColumn + " AS ORDER_ID, "
+                + column(item, "bookId", names) + " AS BOOK_ID, "
+                + column(item, "quantity", names) + " AS QUANTITY, "
+                + column(item, "stockApplied", names) + " AS STOCK_APPLIED"
+                + " FROM " + item.getTableName().toSql(names)
+                + " WHERE " + reverseColumn + " IN (:ids)"
+                + " ORDER BY " + reverseColumn + ", " + items.getKeyColumn().toSql(names);
+    }
+
+    private static String column(RelationalPersistentEntity<?> entity, String property, IdentifierProcessing names) {
+        return entity.getRequiredPersistentProperty(property).getColumnName().toSql(names);
+    }
+
+    @Override
+    public List<Order> findHistoryPage(String customerEmail, Long afterOrderId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        List<String> predicates = new ArrayList<>();
+        if (customerEmail != null) {
+            predicates.add(customerEmailColumn + " = :customerEmail");
+            params.addValue("customerEmail", customerEmail);
+        }
+        if (afterOrderId != null) {
+            predicates.add(orderIdColumn + " < :afterOrderId");
+            params.addValue("afterOrderId", afterOrderId);
+        }
+        String where = predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+
+        Map<Long, Order> orders = new LinkedHashMap<>();
+        jdbcOperations.query(selectOrders + where + orderBy, params, rs -> {
+            Order order = new Order();
+            order.setOrderId(rs.getLong("ORDER_ID"));
+            order.setCustomerName(rs.getString("CUSTOMER_NAME"));
+            order.setCustomerEmail(rs.getString("CUSTOMER_EMAIL"));
+            order.setStatus(rs.getString("STATUS"));
+            order.setItems(new ArrayList<>());
+            orders.put(order.getOrderId(), order);
+        });
+        if (!orders.isEmpty()) {
+            jdbcOperations.query(selectItems, new MapSqlParameterSource("ids", orders.keySet()), rs -> {
+                OrderItem item = new OrderItem(rs.getLong("BOOK_ID"), rs.getInt("QUANTITY"));
+                item.setStockApplied(rs.getInt("STOCK_APPLIED") == 1);
+                orders.get(rs.getLong("ORDER_ID")).getItems().add(item);
+            });
+        }
+        return new ArrayList<>(orders.values());
+    }
+}
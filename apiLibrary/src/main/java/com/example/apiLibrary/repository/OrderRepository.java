@@ -5,10 +5,11 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface OrderRepository extends CrudRepository<Order, Long> {
+public interface OrderRepository extends CrudRepository<Order, Long>, OrderBatchRepository, OrderHistoryRepository {
     // Basic CRUD methods are inherited.
+    // Batched inserts for group commit live in OrderBatchRepository (see OrderBatchRepositoryImpl).
+    // Paged history by customer email lives in OrderHistoryRepository (see OrderHistoryRepositoryImpl).
     // Custom query methods related to orders can be added here.
     // For example:
-    // List<Order> findByCustomerEmail(String customerEmail);
     // List<Order> findByStatus(String status);
 }
@@ -0,0 +1,27 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.OutboxEmail;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Custom fragment of {@link OutboxEmailRepository} for the email dispatcher.
+ * Spring Data JDBC picks up the implementation from {@link OutboxEmailDispatchRepositoryImpl}.
+ */
+public interface OutboxEmailDispatchRepository {
+
+    /**
+     * Claims up to {@code limit} PENDING emails that are due, oldest first, by pushing their next attempt out to
+     * {@code leaseUntil}. If the sender dies mid-batch, the emails become due again once the lease runs out.
+     * Rows claimed concurrently by another instance are left out.
+     *
+     * @return The claimed emails.
+     */
+    List<OutboxEmail> claimDue(LocalDateTime now, LocalDateTime leaseUntil, int limit);
+
+    /**
+     * Writes status, attempts, next attempt, last error and sent time of each email in one JDBC batch.
+     */
+    void updateDeliveryStatus(List<OutboxEmail> emails);
+}
@@ -0,0 +1,84 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.OutboxEmail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OutboxEmailDispatchRepositoryImpl implements OutboxEmailDispatchRepository {
+
+    private static final String SELECT_DUE =
+            "SELECT ID, ORDER_ID, RECIPIENT, SUBJECT, BODY, STATUS, ATTEMPTS, NEXT_ATTEMPT_AT, LAST_ERROR, CREATED_AT, SENT_AT"
+            + " FROM EMAIL_OUTBOX WHERE STATUS = 'PENDING' AND NEXT_ATTEMPT_AT <= :now"
+            + " ORDER BY NEXT_ATTEMPT_AT, ID FETCH FIRST :limit ROWS ONLY";
+    // Re-checks the due condition, so of two instances racing for a row only one gets an update count of 1.
+    private static final String CLAIM =
+            "UPDATE EMAIL_OUTBOX SET NEXT_ATTEMPT_AT = ? WHERE ID = ? AND STATUS = 'PENDING' AND NEXT_ATTEMPT_AT <= ?";
+    private static final String UPDATE_STATUS =
+            "UPDATE EMAIL_OUTBOX SET STATUS = ?, ATTEMPTS = ?, NEXT_ATTEMPT_AT = ?, LAST_ERROR = ?, SENT_AT = ? WHERE ID = ?";
+
+    private static final RowMapper<OutboxEmail> OUTBOX_EMAIL_ROW_MAPPER = (rs, rowNum) -> {
+        OutboxEmail email = new OutboxEmail();
+        email.setId(rs.getLong("ID"));
+        email.setOrderId(rs.getObject("ORDER_ID", Long.class));
+        email.setRecipient(rs.getString("RECIPIENT"));
+        email.setSubject(rs.getString("SUBJECT"));
+        email.setBody(rs.getString("BODY"));
+        email.setStatus(rs.getString("STATUS"));
+        email.setAttempts(rs.getInt("ATTEMPTS"));
+        email.setNextAttemptAt(rs.getObject("NEXT_ATTEMPT_AT", LocalDateTime.class));
+        email.setLastError(rs.getString("LAST_ERROR"));
+        email.setCreatedAt(rs.getObject("CREATED_AT", LocalDateTime.class));
+        email.setSentAt(rs.getObject("SENT_AT", LocalDateTime.class));
+        return email;
+    };
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+
+    @Autowired
+    public OutboxEmailDispatchRepositoryImpl(NamedParameterJdbcOperations jdbcOperations) {
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    public List<OutboxEmail> claimDue(LocalDateTime now, LocalDateTime leaseUntil, int limit) {
+        List<OutboxEmail> due = jdbcOperations.query(SELECT_DUE,
+                new MapSqlParameterSource("now", now).addValue("limit", limit),
+                OUTBOX_EMAIL_ROW_MAPPER);
+        if (due.isEmpty()) {
+            return due;
+        }
+        Timestamp nowTimestamp = Timestamp.valueOf(now);
+        Timestamp leaseTimestamp = Timestamp.valueOf(leaseUntil);
+        int[][] counts = jdbcOperations.getJdbcOperations().batchUpdate(CLAIM, due, due.size(), (statement, email) -> {
+            statement.setTimestamp(1, leaseTimestamp);
+            statement.setLong(2, email.getId());
+            statement.setTimestamp(3, nowTimestamp);
+        });
+        List<OutboxEmail> claimed = new ArrayList<>(due.size());
+        for (int i = 0; i < due.size(); i++) {
+            if (counts[0][i] != 0) {
+                claimed.add(due.get(i));
+            }
+        }
+        return claimed;
+    }
+
+    @Override
+    public void updateDeliveryStatus(List<OutboxEmail> emails) {
+        jdbcOperations.getJdbcOperations().batchUpdate(UPDATE_STATUS, emails, emails.size(), (statement, email) -> {
+            statement.setString(1, email.getStatus());
+            statement.setInt(2, email.getAttempts());
+            statement.setTimestamp(3, email.getNextAttemptAt() == null ? null : Timestamp.valueOf(email.getNextAttemptAt()));
+            statement.setString(4, email.getLastError());
+            statement.setTimestamp(5, email.getSentAt() == null ? null : Timestamp.valueOf(email.getSentAt()));
+            statement.setLong(6, email.getId());
+        });
+    }
+}
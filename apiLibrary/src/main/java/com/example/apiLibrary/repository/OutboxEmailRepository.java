@@ -0,0 +1,11 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.OutboxEmail;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEmailRepository extends CrudRepository<OutboxEmail, Long>, OutboxEmailDispatchRepository {
+    // Basic CRUD methods are inherited.
+    // Claiming and status updates for the dispatcher live in OutboxEmailDispatchRepository.
+}
@@ -0,0 +1,20 @@
+package com.example.apiLibrary.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Custom fragment of {@link SaleRepository} that moves old sales and their items from SALES and SALE_ITEM to
+ * SALES_ARCHIVE and SALE_ITEM_ARCHIVE, which have the same columns. Their SALES_DAILY_ROLLUP rows stay where they are.
+ */
+public interface SaleArchiveRepository {
+
+    /**
+     * Moves up to {@code maxSales} sales older than {@code cutoff} to the archive tables. Only sales that are
+     * already rolled up and whose stock is applied to BOOKS are moved, so neither the rollup job nor the inventory
+     * ledger ever needs an archived row. Call it inside a transaction; the sales are locked with SKIP LOCKED.
+     *
+     * @return The IDs of the sales moved.
+     */
+    List<Long> archiveSalesBefore(LocalDateTime cutoff, int maxSales);
+}
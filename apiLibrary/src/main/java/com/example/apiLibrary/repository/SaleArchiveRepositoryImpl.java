@@ -0,0 +1,61 @@
+package com.example.apiLibrary.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SaleArchiveRepositoryImpl implements SaleArchiveRepository {
+
+    private static final String CLAIM_OLD_SALES =
+            "SELECT s.SALE_ID FROM SALES s"
+            + " WHERE s.\"TIMESTAMP\" < ? AND s.ROLLED_UP = 1"
+            + " AND NOT EXISTS (SELECT 1 FROM SALE_ITEM i WHERE i.SALE_ID = s.SALE_ID AND i.STOCK_APPLIED = 0)"
+            + " AND ROWNUM <= ? FOR UPDATE OF s.SALE_ID SKIP LOCKED";
+
+    private static final String COPY_SALES =
+            "INSERT INTO SALES_ARCHIVE (SALE_ID, SELLER_ID, CUSTOMER_NAME, \"TIMESTAMP\", TOTAL_AMOUNT, ROLLED_UP)"
+            + " SELECT SALE_ID, SELLER_ID, CUSTOMER_NAME, \"TIMESTAMP\", TOTAL_AMOUNT, ROLLED_UP"
+            + " FROM SALES WHERE SALE_ID IN (:ids)";
+
+    private static final String COPY_ITEMS =
+            "INSERT INTO SALE_ITEM_ARCHIVE (SALE_ID, SALES_KEY, BOOK_ID, QUANTITY, UNIT_PRICE, STOCK_APPLIED)"
+            + " SELECT SALE_ID, SALES_KEY, BOOK_ID, QUANTITY, UNIT_PRICE, STOCK_APPLIED"
+            + " FROM SALE_ITEM WHERE SALE_ID IN (:ids)";
+
+    private static final String DELETE_ITEMS = "DELETE FROM SALE_ITEM WHERE SALE_ID IN (:ids)";
+    private static final String DELETE_SALES = "DELETE FROM SALES WHERE SALE_ID IN (:ids)";
+
+    // Oracle caps IN lists at 1000 expressions.
+    private static final int MAX_SALES_PER_CALL = 1000;
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+
+    @Autowired
+    public SaleArchiveRepositoryImpl(NamedParameterJdbcOperations jdbcOperations) {
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    public List<Long> archiveSalesBefore(LocalDateTime cutoff, int maxSales) {
+        if (maxSales < 1 || maxSales > MAX_SALES_PER_CALL) {
+            throw new IllegalArgumentException("maxSales must be between 1 and " + MAX_SALES_PER_CALL);
+        }
+        List<Long> saleIds = jdbcOperations.getJdbcOperations().queryForList(CLAIM_OLD_SALES, Long.class,
+                Timestamp.valueOf(cutoff), maxSales);
+        if (saleIds.isEmpty()) {
+            return saleIds;
+        }
+        // Copy before delete, all in the caller's transaction: a sale is in exactly one of the two tables
+        // for every reader.
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", saleIds);
+        jdbcOperations.update(COPY_SALES, ids);
+        jdbcOperations.update(COPY_ITEMS, ids);
+        jdbcOperations.update(DELETE_ITEMS, ids);
+        jdbcOperations.update(DELETE_SALES, ids);
+        return saleIds;
+    }
+}
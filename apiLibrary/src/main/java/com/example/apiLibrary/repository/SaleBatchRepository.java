@@ -0,0 +1,18 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Sale;
+
+import java.util.List;
+
+/**
+ * Custom fragment of {@link SaleRepository} for inserting many sales at once.
+ * Spring Data JDBC picks up the implementation from {@link SaleBatchRepositoryImpl}.
+ */
+public interface SaleBatchRepository {
+
+    /**
+     * Inserts the sales and their items with two JDBC batches, one for SALES and one for the item table.
+     * IDs are drawn from SALES_SEQ in a single round trip and set on the given sales.
+     */
+    void insertAll(List<Sale> sales);
+}
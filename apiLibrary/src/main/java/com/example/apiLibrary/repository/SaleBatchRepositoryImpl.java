@@ -0,0 +1,92 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Sale;
+import com.example.apiLibrary.model.SaleItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SaleBatchRepositoryImpl implements SaleBatchRepository {
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+    private final String nextIdsSql;
+    private final String insertSaleSql;
+    private final String insertItemSql;
+
+    @Autowired
+    public SaleBatchRepositoryImpl(NamedParameterJdbcOperations jdbcOperations,
+                                   RelationalMappingContext mappingContext,
+                                   Dialect dialect,
+                                   @Value("${app.sales.batch.id-sequence:SALES_SEQ}") String idSequence) {
+        this.jdbcOperations = jdbcOperations;
+        // Table and column names come from the same mapping Spring Data JDBC uses for saleRepository.save(),
+        // so both insert paths always agree.
+        IdentifierProcessing names = dialect.getIdentifierProcessing();
+        RelationalPersistentEntity<?> sale = mappingContext.getRequiredPersistentEntity(Sale.class);
+        RelationalPersistentEntity<?> item = mappingContext.getRequiredPersistentEntity(SaleItem.class);
+        RelationalPersistentProperty items = sale.getRequiredPersistentProperty("items");
+
+        this.nextIdsSql = "SELECT " + idSequence + ".NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?";
+        this.insertSaleSql = "INSERT INTO " + sale.getTableName().toSql(names) + " ("
+                + column(sale, "saleId", names) + ", "
+                + column(sale, "sellerId", names) + ", "
+                + column(sale, "customerName", names) + ", "
+                + column(sale, "timestamp", names) + ", "
+                + column(sale, "totalAmount", names) + ", "
+                + column(sale, "rolledUp", names) + ") VALUES (?, ?, ?, ?, ?, ?)";
+        this.insertItemSql = "INSERT INTO " + item.getTableName().toSql(names) + " ("
+                + items.getReverseColumnName(sale).toSql(names) + ", "
+                + items.getKeyColumn().toSql(names) + ", "
+                + column(item, "bookId", names) + ", "
+                + column(item, "quantity", names) + ", "
+                + column(item, "unitPrice", names) + ", "
+                + column(item, "stockApplied", names) + ") VALUES (?, ?, ?, ?, ?, ?)";
+    }
+
+    private static String column(RelationalPersistentEntity<?> entity, String property, IdentifierProcessing names) {
+        return entity.getRequiredPersistentProperty(property).getColumnName().toSql(names);
+    }
+
+    @Override
+    public void insertAll(List<Sale> sales) {
+        if (sales.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbcOperations.getJdbcOperations().queryForList(nextIdsSql, Long.class, sales.size());
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = 0; i < sales.size(); i++) {
+            Sale sale = sales.get(i);
+            sale.setSaleId(ids.get(i));
+            List<SaleItem> saleItems = sale.getItems();
+            for (int key = 0; key < saleItems.size(); key++) {
+                SaleItem saleItem = saleItems.get(key);
+                itemRows.add(new Object[]{sale.getSaleId(), key, saleItem.getBookId(), saleItem.getQuantity(),
+                        saleItem.getUnitPrice(), Boolean.TRUE.equals(saleItem.getStockApplied()) ? 1 : 0});
+            }
+        }
+
+        jdbcOperations.getJdbcOperations().batchUpdate(insertSaleSql, sales, sales.size(), (statement, sale) -> {
+            statement.setLong(1, sale.getSaleId());
+            statement.setLong(2, sale.getSellerId());
+            if (sale.getCustomerName() != null) {
+                statement.setString(3, sale.getCustomerName());
+            } else {
+                statement.setNull(3, Types.VARCHAR);
+            }
+            statement.setTimestamp(4, Timestamp.valueOf(sale.getTimestamp()));
+            statement.setBigDecimal(5, sale.getTotalAmount());
+            statement.setInt(6, Boolean.TRUE.equals(sale.getRolledUp()) ? 1 : 0);
+        });
+        jdbcOperations.getJdbcOperations().batchUpdate(insertItemSql, itemRows);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Sale;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom fragment of {@link SaleRepository} for paging through sales history newest first, in SALES or in the
+ * archive tables that {@link SaleArchiveRepository} moves old sales to.
+ * Spring Data JDBC picks up the implementation from {@link SaleHistoryRepositoryImpl}.
+ */
+public interface SaleHistoryRepository {
+
+    /**
+     * Loads one keyset page of sales ordered by (timestamp, ID) descending, with their items. A page costs two
+     * queries however many sales it holds: one for the sales and one for all of their items.
+     *
+     * @param sellerId       Only this seller's sales, or all sellers when null.
+     *                       Served by the (SELLER_ID, TIMESTAMP, SALE_ID) index, otherwise by (TIMESTAMP, SALE_ID).
+     * @param from           Inclusive lower bound on the timestamp, or null.
+     * @param to             Exclusive upper bound on the timestamp, or null.
+     * @param afterTimestamp Timestamp of the last sale of the previous page, or null for the first page.
+     * @param afterSaleId    ID of the last sale of the previous page; ignored when afterTimestamp is null.
+     */
+    List<Sale> findHistoryPage(Long sellerId, LocalDateTime from, LocalDateTime to,
+                               LocalDateTime afterTimestamp, long afterSaleId, int limit);
+
+    /**
+     * Same as {@link #findHistoryPage} over SALES_ARCHIVE and its item table.
+     */
+    List<Sale> findArchivedHistoryPage(Long sellerId, LocalDateTime from, LocalDateTime to,
+                                       LocalDateTime afterTimestamp, long afterSaleId, int limit);
+
+    Optional<Sale> findArchivedById(long saleId);
+}
@@ -0,0 +1,158 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.model.Sale;
+import com.example.apiLibrary.model.SaleItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class SaleHistoryRepositoryImpl implements SaleHistoryRepository {
+
+    /**
+     * Suffix of the tables {@link SaleArchiveRepository} moves old sales and their items to.
+     */
+    static final String ARCHIVE_SUFFIX = "_ARCHIVE";
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+    private final String saleIdColumn;
+    private final String sellerIdColumn;
+    private final String timestampColumn;
+    private final Queries live;
+    private final Queries archive;
+
+    @Autowired
+    public SaleHistoryRepositoryImpl(NamedParameterJdbcOperations jdbcOperations,
+                                     RelationalMappingContext mappingContext,
+                                     Dialect dialect) {
+        this.jdbcOperations = jdbcOperations;
+        // Same mapping as saleRepository.findById(); see SaleBatchRepositoryImpl.
+        IdentifierProcessing names = dialect.getIdentifierProcessing();
+        RelationalPersistentEntity<?> sale = mappingContext.getRequiredPersistentEntity(Sale.class);
+        RelationalPersistentEntity<?> item = mappingContext.getRequiredPersistentEntity(SaleItem.class);
+
+        this.saleIdColumn = column(sale, "saleId", names);
+        this.sellerIdColumn = column(sale, "sellerId", names);
+        this.timestampColumn = column(sale, "timestamp", names);
+        this.live = new Queries(sale, item, "", names);
+        this.archive = new Queries(sale, item, ARCHIVE_SUFFIX, names);
+    }
+
+    private static String column(RelationalPersistentEntity<?> entity, String property, IdentifierProcessing names) {
+        return entity.getRequiredPersistentProperty(property).getColumnName().toSql(names);
+    }
+
+    static String table(RelationalPersistentEntity<?> entity, String suffix, IdentifierProcessing names) {
+        return SqlIdentifier.quoted(entity.getTableName().getReference() + suffix).toSql(names);
+    }
+
+    /**
+     * The statements for one pair of sale and item tables, live or archive; both have the same columns.
+     */
+    private final class Queries {
+        private final String selectSales;
+        private final String selectItems;
+
+        private Queries(RelationalPersistentEntity<?> sale, RelationalPersistentEntity<?> item, String suffix,
+                        IdentifierProcessing names) {
+            RelationalPersistentProperty items = sale.getRequiredPersistentProperty("items");
+            this.selectSales = "SELECT " + saleIdColumn + " AS SALE_ID, "
+                    + sellerIdColumn + " AS SELLER_ID, "
+                    + column(sale, "customerName", names) + " AS CUSTOMER_NAME, "
+                    + timestampColumn + " AS SALE_TIME, "
+                    + column(sale, "totalAmount", names) + " AS TOTAL_AMOUNT"
+                    + " FROM " + table(sale, suffix, names);
+            String reverseColumn = items.getReverseColumnName(sale).toSql(names);
+            this.selectItems = "SELECT " + reverseColumn + " AS SALE_ID, "
+                    + column(item, "bookId", names) + " AS BOOK_ID, "
+                    + column(item, "quantity", names) + " AS QUANTITY, "
+                    + column(item, "unitPrice", names) + " AS UNIT_PRICE, "
+                    + column(item, "stockApplied", names) + " AS STOCK_APPLIED"
+                    + " FROM " + table(item, suffix, names)
+                    + " WHERE " + reverseColumn + " IN (:ids)"
+                    + " ORDER BY " + reverseColumn + ", " + items.getKeyColumn().toSql(names);
+        }
+    }
+
+    @Override
+    public List<Sale> findHistoryPage(Long sellerId, LocalDateTime from, LocalDateTime to,
+                                      LocalDateTime afterTimestamp, long afterSaleId, int limit) {
+        return findPage(live, sellerId, from, to, afterTimestamp, afterSaleId, limit);
+    }
+
+    @Override
+    public List<Sale> findArchivedHistoryPage(Long sellerId, LocalDateTime from, LocalDateTime to,
+                                              LocalDateTime afterTimestamp, long afterSaleId, int limit) {
+        return findPage(archive, sellerId, from, to, afterTimestamp, afterSaleId, limit);
+    }
+
+    @Override
+    public Optional<Sale> findArchivedById(long saleId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("saleId", saleId);
+        return query(archive, " WHERE " + saleIdColumn + " = :saleId", params).stream().findFirst();
+    }
+
+    private List<Sale> findPage(Queries queries, Long sellerId, LocalDateTime from, LocalDateTime to,
+                                LocalDateTime afterTimestamp, long afterSaleId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        List<String> predicates = new ArrayList<>();
+        if (sellerId != null) {
+            predicates.add(sellerIdColumn + " = :sellerId");
+            params.addValue("sellerId", sellerId);
+        }
+        if (from != null) {
+            predicates.add(timestampColumn + " >= :fromTime");
+            params.addValue("fromTime", Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            predicates.add(timestampColumn + " < :toTime");
+            params.addValue("toTime", Timestamp.valueOf(to));
+        }
+        if (afterTimestamp != null) {
+            // Oracle has no row-value comparison, so (timestamp, id) < (:afterTime, :afterId) is spelled out.
+            predicates.add("(" + timestampColumn + " < :afterTime OR (" + timestampColumn + " = :afterTime AND "
+                    + saleIdColumn + " < :afterSaleId))");
+            params.addValue("afterTime", Timestamp.valueOf(afterTimestamp));
+            params.addValue("afterSaleId", afterSaleId);
+        }
+        String where = predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+        String orderBy = " ORDER BY " + timestampColumn + " DESC, " + saleIdColumn + " DESC FETCH FIRST :limit ROWS ONLY";
+        return query(queries, where + orderBy, params);
+    }
+
+    private List<Sale> query(Queries queries, String whereAndOrder, MapSqlParameterSource params) {
+        Map<Long, Sale> sales = new LinkedHashMap<>();
+        jdbcOperations.query(queries.selectSales + whereAndOrder, params, rs -> {
+            Sale sale = new Sale();
+            sale.setSaleId(rs.getLong("SALE_ID"));
+            sale.setSellerId(rs.getLong("SELLER_ID"));
+            sale.setCustomerName(rs.getString("CUSTOMER_NAME"));
+            sale.setTimestamp(rs.getTimestamp("SALE_TIME").toLocalDateTime());
+            sale.setTotalAmount(rs.getBigDecimal("TOTAL_AMOUNT"));
+            sale.setItems(new ArrayList<>());
+            sales.put(sale.getSaleId(), sale);
+        });
+        if (!sales.isEmpty()) {
+            jdbcOperations.query(queries.selectItems, new MapSqlParameterSource("ids", sales.keySet()), rs -> {
+                SaleItem item = new SaleItem(rs.getLong("BOOK_ID"), rs.getInt("QUANTITY"));
+                item.setUnitPrice(rs.getBigDecimal("UNIT_PRICE"));
+                item.setStockApplied(rs.getInt("STOCK_APPLIED") == 1);
+                sales.get(rs.getLong("SALE_ID")).getItems().add(item);
+            });
+        }
+        return new ArrayList<>(sales.values());
+    }
+}
@@ -4,14 +4,13 @@ import com.example.apiLibrary.model.Sale;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
-import java.util.List;
-
 @Repository
-public interface SaleRepository extends CrudRepository<Sale, Long> {
+public interface SaleRepository extends CrudRepository<Sale, Long>, SaleBatchRepository, SalesRollupRepository, SaleHistoryRepository,
+        SaleArchiveRepository {
     // Basic CRUD methods are inherited.
+    // Batched inserts for bulk ingestion live in SaleBatchRepository (see SaleBatchRepositoryImpl).
+    // Daily sales aggregates live in SalesRollupRepository (see SalesRollupRepositoryImpl).
+    // Paged history by seller and time range lives in SaleHistoryRepository (see SaleHistoryRepositoryImpl).
+    // Moving old sales to the archive tables lives in SaleArchiveRepository (see SaleArchiveRepositoryImpl).
     // Custom query methods related to sales can be added here.
-    // For example:
-    // List<Sale> findBySellerId(Long sellerId);
-    // List<Sale> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
 }
@@ -0,0 +1,33 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.analytics.SalesDimension;
+import com.example.apiLibrary.analytics.SalesTotals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom fragment of {@link SaleRepository} for the SALES_DAILY_ROLLUP table, which keeps sale counts, units and
+ * revenue per day for all sales, per seller and per book. Queries read one row per bucket, never the sales.
+ */
+public interface SalesRollupRepository {
+
+    /**
+     * Adds up to {@code maxSales} sales that are not rolled up yet to their buckets and marks them rolled up.
+     * Call it inside a transaction; the sales are locked with SKIP LOCKED, so concurrent callers take disjoint sets.
+     *
+     * @return The IDs of the sales rolled up.
+     */
+    List<Long> rollUpPendingSales(int maxSales);
+
+    /**
+     * Rolled-up totals per day for one dimension value (0 for {@link SalesDimension#ALL}), within [from, to].
+     */
+    Map<LocalDate, SalesTotals> findDailyTotals(SalesDimension dimension, long dimensionId, LocalDate from, LocalDate to);
+
+    /**
+     * Rolled-up totals per dimension value, summed over [from, to].
+     */
+    Map<Long, SalesTotals> sumTotalsByDimensionId(SalesDimension dimension, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,164 @@
+package com.example.apiLibrary.repository;
+
+import com.example.apiLibrary.analytics.SalesDimension;
+import com.example.apiLibrary.analytics.SalesRollupKey;
+import com.example.apiLibrary.analytics.SalesRollups;
+import com.example.apiLibrary.analytics.SalesTotals;
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.model.Sale;
+import com.example.apiLibrary.model.SaleItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SalesRollupRepositoryImpl implements SalesRollupRepository {
+
+    // One statement text for every bucket, so the whole batch reuses a single Oracle cursor.
+    private static final String MERGE_BUCKET =
+            "MERGE INTO SALES_DAILY_ROLLUP r"
+            + " USING (SELECT ? AS DIMENSION, ? AS DIMENSION_ID, ? AS SALE_DAY, ? AS SALES_COUNT, ? AS UNITS, ? AS REVENUE FROM DUAL) d"
+            + " ON (r.DIMENSION = d.DIMENSION AND r.DIMENSION_ID = d.DIMENSION_ID AND r.SALE_DAY = d.SALE_DAY)"
+            + " WHEN MATCHED THEN UPDATE SET r.SALES_COUNT = r.SALES_COUNT + d.SALES_COUNT,"
+            + " r.UNITS = r.UNITS + d.UNITS, r.REVENUE = r.REVENUE + d.REVENUE"
+            + " WHEN NOT MATCHED THEN INSERT (DIMENSION, DIMENSION_ID, SALE_DAY, SALES_COUNT, UNITS, REVENUE)"
+            + " VALUES (d.DIMENSION, d.DIMENSION_ID, d.SALE_DAY, d.SALES_COUNT, d.UNITS, d.REVENUE)";
+
+    private static final String SELECT_DAILY =
+            "SELECT SALE_DAY, SALES_COUNT, UNITS, REVENUE FROM SALES_DAILY_ROLLUP"
+            + " WHERE DIMENSION = :dimension AND DIMENSION_ID = :dimensionId AND SALE_DAY BETWEEN :fromDay AND :toDay";
+
+    private static final String SUM_BY_DIMENSION_ID =
+            "SELECT DIMENSION_ID, SUM(SALES_COUNT) AS SALES_COUNT, SUM(UNITS) AS UNITS, SUM(REVENUE) AS REVENUE"
+            + " FROM SALES_DAILY_ROLLUP WHERE DIMENSION = :dimension AND SALE_DAY BETWEEN :fromDay AND :toDay"
+            + " GROUP BY DIMENSION_ID";
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+    private final String claimPendingSalesSql;
+    private final String selectItemsSql;
+    private final String markRolledUpSql;
+
+    @Autowired
+    public SalesRollupRepositoryImpl(NamedParameterJdbcOperations jdbcOperations,
+                                     RelationalMappingContext mappingContext,
+                                     Dialect dialect) {
+        this.jdbcOperations = jdbcOperations;
+        // Same mapping as saleRepository.save(); see SaleBatchRepositoryImpl.
+        IdentifierProcessing names = dialect.getIdentifierProcessing();
+        RelationalPersistentEntity<?> sale = mappingContext.getRequiredPersistentEntity(Sale.class);
+        RelationalPersistentEntity<?> item = mappingContext.getRequiredPersistentEntity(SaleItem.class);
+        RelationalPersistentEntity<?> book = mappingContext.getRequiredPersistentEntity(Book.class);
+        RelationalPersistentProperty items = sale.getRequiredPersistentProperty("items");
+        String saleTable = sale.getTableName().toSql(names);
+        String saleIdColumn = column(sale, "saleId", names);
+        String rolledUpColumn = column(sale, "rolledUp", names);
+        String bookIdColumn = column(item, "bookId", names);
+        String itemSaleIdColumn = items.getReverseColumnName(sale).toSql(names);
+
+        this.claimPendingSalesSql = "SELECT " + saleIdColumn + " AS SALE_ID, "
+                + column(sale, "sellerId", names) + " AS SELLER_ID, "
+                + column(sale, "timestamp", names) + " AS SALE_TIME, "
+                + column(sale, "totalAmount", names) + " AS TOTAL_AMOUNT"
+                + " FROM " + saleTable
+                + " WHERE " + rolledUpColumn + " = 0 AND ROWNUM <= ? FOR UPDATE SKIP LOCKED";
+        // Lines saved before the item table had a unit price fall back to the book's current price.
+        this.selectItemsSql = "SELECT i." + itemSaleIdColumn + " AS SALE_ID, "
+                + "i." + bookIdColumn + " AS BOOK_ID, "
+                + "i." + column(item, "quantity", names) + " AS QUANTITY, "
+                + "COALESCE(i." + column(item, "unitPrice", names) + ", b." + column(book, "price", names)
+                + ") AS UNIT_PRICE"
+                + " FROM " + item.getTableName().toSql(names) + " i"
+                + " LEFT JOIN " + book.getTableName().toSql(names) + " b"
+                + " ON b." + column(book, "id", names) + " = i." + bookIdColumn
+                + " WHERE i." + itemSaleIdColumn + " IN (:ids)";
+        this.markRolledUpSql = "UPDATE " + saleTable + " SET " + rolledUpColumn + " = 1"
+                + " WHERE " + saleIdColumn + " = ?";
+    }
+
+    private static String column(RelationalPersistentEntity<?> entity, String property, IdentifierProcessing names) {
+        return entity.getRequiredPersistentProperty(property).getColumnName().toSql(names);
+    }
+
+    @Override
+    public List<Long> rollUpPendingSales(int maxSales) {
+        Map<Long, Sale> sales = new LinkedHashMap<>();
+        jdbcOperations.getJdbcOperations().query(claimPendingSalesSql, rs -> {
+            Sale sale = new Sale();
+            sale.setSaleId(rs.getLong("SALE_ID"));
+            sale.setSellerId(rs.getLong("SELLER_ID"));
+            sale.setTimestamp(rs.getTimestamp("SALE_TIME").toLocalDateTime());
+            sale.setTotalAmount(rs.getBigDecimal("TOTAL_AMOUNT"));
+            sale.setItems(new ArrayList<>());
+            sales.put(sale.getSaleId(), sale);
+        }, maxSales);
+        if (sales.isEmpty()) {
+            return List.of();
+        }
+        jdbcOperations.query(selectItemsSql, new MapSqlParameterSource("ids", sales.keySet()), rs -> {
+            SaleItem item = new SaleItem(rs.getLong("BOOK_ID"), rs.getInt("QUANTITY"));
+            item.setUnitPrice(rs.getBigDecimal("UNIT_PRICE"));
+            sales.get(rs.getLong("SALE_ID")).getItems().add(item);
+        });
+
+        Map<SalesRollupKey, SalesTotals> deltas = new HashMap<>();
+        sales.values().forEach(sale -> SalesRollups.addTo(deltas, SalesRollups.contributions(sale)));
+        List<Map.Entry<SalesRollupKey, SalesTotals>> buckets = new ArrayList<>(deltas.entrySet());
+        jdbcOperations.getJdbcOperations().batchUpdate(MERGE_BUCKET, buckets, buckets.size(), (statement, bucket) -> {
+            statement.setString(1, bucket.getKey().dimension().name());
+            statement.setLong(2, bucket.getKey().dimensionId());
+            statement.setDate(3, Date.valueOf(bucket.getKey().day()));
+            statement.setLong(4, bucket.getValue().salesCount());
+            statement.setLong(5, bucket.getValue().units());
+            statement.setBigDecimal(6, bucket.getValue().revenue());
+        });
+
+        List<Long> saleIds = new ArrayList<>(sales.keySet());
+        jdbcOperations.getJdbcOperations().batchUpdate(markRolledUpSql, saleIds, saleIds.size(),
+                (statement, saleId) -> statement.setLong(1, saleId));
+        return saleIds;
+    }
+
+    @Override
+    public Map<LocalDate, SalesTotals> findDailyTotals(SalesDimension dimension, long dimensionId, LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = rangeParams(dimension, from, to).addValue("dimensionId", dimensionId);
+        Map<LocalDate, SalesTotals> daily = new HashMap<>();
+        jdbcOperations.query(SELECT_DAILY, params, rs -> {
+            daily.put(rs.getDate("SALE_DAY").toLocalDate(), totals(rs));
+        });
+        return daily;
+    }
+
+    @Override
+    public Map<Long, SalesTotals> sumTotalsByDimensionId(SalesDimension dimension, LocalDate from, LocalDate to) {
+        Map<Long, SalesTotals> byId = new HashMap<>();
+        jdbcOperations.query(SUM_BY_DIMENSION_ID, rangeParams(dimension, from, to), rs -> {
+            byId.put(rs.getLong("DIMENSION_ID"), totals(rs));
+        });
+        return byId;
+    }
+
+    private static MapSqlParameterSource rangeParams(SalesDimension dimension, LocalDate from, LocalDate to) {
+        return new MapSqlParameterSource()
+                .addValue("dimension", dimension.name())
+                .addValue("fromDay", Date.valueOf(from))
+                .addValue("toDay", Date.valueOf(to));
+    }
+
+    private static SalesTotals totals(ResultSet rs) throws SQLException {
+        return new SalesTotals(rs.getLong("SALES_COUNT"), rs.getLong("UNITS"), rs.getBigDecimal("REVENUE"));
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.apiLibrary.repository;
 
 import com.example.apiLibrary.model.User;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -17,4 +19,14 @@ public interface UserRepository extends CrudRepository<User, Long> {
      * @return An Optional containing the User if found, or an empty Optional otherwise.
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * Replaces a password hash, unless it was changed since {@code oldPassword} was read.
+     * Only the password column is written, so a concurrent token revocation is never overwritten.
+     *
+     * @return 1 if the hash was replaced, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE USERS SET PASSWORD = :newPassword WHERE ID = :id AND PASSWORD = :oldPassword")
+    int updatePassword(Long id, String oldPassword, String newPassword);
 }
@@ -0,0 +1,75 @@
+package com.example.apiLibrary.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * The BCrypt cost (log2 rounds) passwords are hashed with. Either fixed by {@code app.auth.bcrypt.strength} or
+ * calibrated at startup so one verification takes about {@code app.auth.bcrypt.target-ms} on this machine.
+ * Instances on different hardware may calibrate differently and rehash each other's passwords on login, so pin
+ * the strength once a value has proven right.
+ */
+public final class BCryptCost {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BCryptCost.class);
+    static final int MIN_STRENGTH = 10; // Never calibrate below the BCryptPasswordEncoder default
+    static final int MAX_STRENGTH = 16;
+    private static final int PROBE_STRENGTH = 10;
+    private static final int PROBES = 3;
+
+    private final int strength;
+
+    private BCryptCost(int strength) {
+        if (strength < 4 || strength > 31) {
+            throw new IllegalArgumentException("BCrypt strength must be between 4 and 31");
+        }
+        this.strength = strength;
+    }
+
+    public static BCryptCost of(int strength) {
+        return new BCryptCost(strength);
+    }
+
+    /**
+     * Times a few hashes at cost 10 and picks the highest cost, from 10 to 16, whose verification still fits
+     * {@code targetMs}. Each step doubles the work.
+     */
+    public static BCryptCost calibrate(long targetMs) {
+        String salt = BCrypt.gensalt(PROBE_STRENGTH);
+        BCrypt.hashpw("warm-up", salt); // JIT
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < PROBES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+        double probeMs = fastestNanos / 1_000_000.0;
+        int strength = PROBE_STRENGTH;
+        while (strength < MAX_STRENGTH && probeMs * (1L << (strength + 1 - PROBE_STRENGTH)) <= targetMs) {
+            strength++;
+        }
+        LOGGER.info("BCrypt cost calibrated to {} (~{} ms per verification, target {} ms)",
+                strength, Math.round(probeMs * (1L << (strength - PROBE_STRENGTH))), targetMs);
+        return new BCryptCost(strength);
+    }
+
+    public int strength() {
+        return strength;
+    }
+
+    /**
+     * Whether a stored hash was made with a different cost, higher or lower, and should be replaced.
+     */
+    public boolean differsFrom(String encodedPassword) {
+        // $2a$10$... : the cost is the two digits after the version.
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false; // Not a BCrypt hash; matching fails anyway
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.apiLibrary.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Who is calling: the authenticated user, or the client IP for anonymous requests.
+ * <p>
+ * The IP is {@link HttpServletRequest#getRemoteAddr()}; behind a proxy, set
+ * {@code server.forward-headers-strategy} so it is the caller's and not the proxy's.
+ */
+public final class ClientIdentity {
+
+    private ClientIdentity() {
+    }
+
+    /**
+     * Returns "user:&lt;username&gt;" for an authenticated request, otherwise "ip:&lt;address&gt;".
+     */
+    public static String of(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
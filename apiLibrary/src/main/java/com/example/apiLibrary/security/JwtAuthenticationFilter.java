@@ -1,5 +1,6 @@
 package com.example.apiLibrary.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,8 +8,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService; // Spring's UserDetailsService
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -17,7 +20,14 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
+/**
+ * Authenticates requests that carry a bearer token. By default the user is reloaded through the
+ * {@link UserDetailsService} on every request, so roles always come from the database. With
+ * {@code app.jwt.stateless=true} the authentication is built from the verified token claims alone and the
+ * request costs no query; role changes and revocations then go through {@link TokenVersions}.
+ */
 @Component // So it can be injected into SecurityConfig
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
@@ -26,11 +36,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService; // Use Spring's interface
+    private final TokenVersions tokenVersions;
+    private final boolean stateless;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+                                   UserDetailsService userDetailsService,
+                                   TokenVersions tokenVersions,
+                                   @Value("${app.jwt.stateless:false}") boolean stateless) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenVersions = tokenVersions;
+        this.stateless = stateless;
     }
 
     @Override
@@ -39,25 +56,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            Optional<Claims> claims = StringUtils.hasText(jwt) ? tokenProvider.parseToken(jwt) : Optional.empty();
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            if (claims.isPresent()) {
+                String username = claims.get().getSubject();
+                if (tokenVersions.isCurrent(username, JwtTokenProvider.getTokenVersion(claims.get()))) {
+                    // Stateless: trust the roles signed into the token. Otherwise reload the user, so its current
+                    // roles apply (authorities are loaded by UserDetailsService).
+                    UserDetails userDetails = stateless
+                            ? new User(username, "", JwtTokenProvider.getAuthorities(claims.get()))
+                            : userDetailsService.loadUserByUsername(username);
 
-                // Load UserDetails (authorities are loaded by UserDetailsService)
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                // Note: If you don't want to reload UserDetails every time, 
-                // you could trust the roles from the token (getAuthoritiesFromToken)
-                // but this requires ensuring token roles are always up-to-date.
-                // For simplicity and stronger consistency, reloading UserDetails is common.
-
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                LOGGER_FILTER.debug("Set authentication for user: {}", username);
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    LOGGER_FILTER.debug("Set authentication for user: {}", username);
+                } else {
+                    LOGGER_FILTER.debug("Rejected revoked token for user: {}", username);
+                }
             }
         } catch (Exception ex) {
             LOGGER_FILTER.error("Could not set user authentication in security context", ex);
@@ -4,9 +4,11 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import com.github.benmanes.caffeine.cache.Cache;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,10 +16,15 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Component
@@ -25,6 +32,7 @@ public class JwtTokenProvider {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JwtTokenProvider.class);
     private static final String ROLES_CLAIM = "roles";
+    private static final String VERSION_CLAIM = "ver"; // See TokenVersions
 
     @Value("${app.jwt.secret}")
     private String jwtSecretString;
@@ -33,6 +41,14 @@ public class JwtTokenProvider {
     private long jwtExpirationInMs;
 
     private SecretKey jwtSecretKey;
+    private JwtParser jwtParser; // Immutable and thread-safe once built, so one serves every request
+
+    private final Cache<String, Claims> verifiedTokenCache;
+
+    @Autowired
+    public JwtTokenProvider(Cache<String, Claims> verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
 
     @PostConstruct
     public void init() {
@@ -43,12 +59,16 @@ public class JwtTokenProvider {
             LOGGER.error("Error initializing JWT secret key. Ensure app.jwt.secret is a valid Base64 encoded string.", e);
             // Fallback to a default key if initialization fails (NOT recommended for production)
             // This is risky; a proper application should fail to start or have a more robust key management.
-            this.jwtSecretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+            this.jwtSecretKey = Jwts.SIG.HS512.key().build();
             LOGGER.warn("Using a dynamically generated fallback JWT secret key. This is NOT secure for production.");
         }
+        this.jwtParser = Jwts.parser().verifyWith(jwtSecretKey).build();
     }
 
-    public String generateToken(Authentication authentication) {
+    /**
+     * Issues a token for the authenticated user, carrying its roles and its current {@link TokenVersions} version.
+     */
+    public String generateToken(Authentication authentication, int tokenVersion) {
         String username = authentication.getName();
         Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
         List<String> roles = authorities.stream()
@@ -59,18 +79,35 @@ public class JwtTokenProvider {
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
         return Jwts.builder()
-                .setSubject(username)
+                .subject(username)
                 .claim(ROLES_CLAIM, roles)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(jwtSecretKey, SignatureAlgorithm.HS512) // Ensure algorithm matches key type
+                .claim(VERSION_CLAIM, tokenVersion)
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(jwtSecretKey) // Picks the strongest HMAC algorithm the key size allows
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verifies the token's signature and expiry and returns its claims, or empty if it is not valid.
+     * <p>
+     * Verified claims are cached under a SHA-256 digest of the token until the token expires, so a terminal that
+     * sends the same token again skips the signature check. Only valid tokens are cached, and the raw token is
+     * never kept.
+     */
+    public Optional<Claims> parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        String digest = digest(token);
+        Claims cached = verifiedTokenCache.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
-            Jwts.parserBuilder().setSigningKey(jwtSecretKey).build().parseClaimsJws(token);
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            verifiedTokenCache.put(digest, claims);
+            return Optional.of(claims);
         } catch (SignatureException ex) {
             LOGGER.error("Invalid JWT signature: {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -82,26 +119,11 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             LOGGER.error("JWT claims string is empty: {}", ex.getMessage());
         }
-        return false;
-    }
-
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(jwtSecretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return Optional.empty();
     }
 
     @SuppressWarnings("unchecked")
-    public List<GrantedAuthority> getAuthoritiesFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(jwtSecretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
+    public static List<GrantedAuthority> getAuthorities(Claims claims) {
         List<String> roles = claims.get(ROLES_CLAIM, List.class);
         if (roles == null) {
             return List.of();
@@ -110,4 +132,21 @@ public class JwtTokenProvider {
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * The {@link TokenVersions} version the token was issued at; 0 for tokens issued before versions existed.
+     */
+    public static int getTokenVersion(Claims claims) {
+        Integer version = claims.get(VERSION_CLAIM, Integer.class);
+        return version == null ? 0 : version;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex); // Every JRE ships it
+        }
+    }
 }
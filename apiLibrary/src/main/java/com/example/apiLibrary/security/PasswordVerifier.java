@@ -0,0 +1,139 @@
+package com.example.apiLibrary.security;
+
+import com.example.apiLibrary.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs BCrypt for logins on a small dedicated pool instead of the request threads, so a burst of logins (every
+ * store at shift start) uses at most {@code app.auth.bcrypt.threads} cores and the book and sale endpoints keep
+ * the rest. At most {@code queue-capacity} verifications wait; beyond that, and for those that wait longer than
+ * {@code timeout-ms}, the login fails fast with {@link LoginThrottledException} (503) and the client retries.
+ */
+@Component
+public class PasswordVerifier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PasswordVerifier.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final BCryptCost cost;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer verifyTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            BCryptCost cost,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.auth.bcrypt.threads:0}") int threads,
+                            @Value("${app.auth.bcrypt.queue-capacity:64}") int queueCapacity,
+                            @Value("${app.auth.bcrypt.timeout-ms:2000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.cost = cost;
+        this.timeoutMs = timeoutMs;
+        // Default: half the cores, so logins can never take the whole machine.
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "bcrypt", List.of());
+        this.verifyTimer = Timer.builder("auth.password.verify")
+                .description("Time from submitting a password check to its result, including queueing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password checks refused because the BCrypt pool was saturated")
+                .register(meterRegistry);
+        LOGGER.info("Password verification on {} threads, queue {}, BCrypt cost {}",
+                poolSize, queueCapacity, cost.strength());
+    }
+
+    /**
+     * Checks a password on the BCrypt pool, waiting at most {@code timeout-ms} for the result.
+     *
+     * @throws LoginThrottledException If the pool is saturated or the check did not finish in time.
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new LoginThrottledException("Too many logins in progress; retry shortly");
+        }
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            result.cancel(true);
+            rejected.increment();
+            throw new LoginThrottledException("Login could not be checked in time; retry shortly");
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LoginThrottledException("Login was interrupted; retry shortly");
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(ex.getCause());
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Whether a stored hash should be replaced because it was made with a different BCrypt cost.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return cost.differsFrom(encodedPassword);
+    }
+
+    /**
+     * Hashes the password at the current cost in the background and hands the result to {@code store}.
+     * Skipped while logins are queueing, so a rehash never delays one; a later login tries again.
+     */
+    public void rehashInBackground(String rawPassword, Consumer<String> store) {
+        if (!executor.getQueue().isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    store.accept(passwordEncoder.encode(rawPassword));
+                } catch (RuntimeException ex) {
+                    LOGGER.warn("Could not store rehashed password", ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Saturated; the next login retries.
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.apiLibrary.security;
+
+import com.example.apiLibrary.dto.ApiErrorDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Applies the {@link RateLimiter} in the security chain, right after {@link JwtAuthenticationFilter}, so
+ * authenticated requests are limited per user (the token subject) and anonymous ones, including logins, per
+ * client IP (see {@link ClientIdentity}). Requests over the limit get 429 Too Many Requests with Retry-After in
+ * seconds.
+ */
+@Component // So it can be injected into SecurityConfig
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectWriter errorWriter;
+
+    @Autowired
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.errorWriter = objectMapper.writerFor(ApiErrorDTO.class);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long waitNanos = rateLimiter.acquire(request.getMethod(), path, ClientIdentity.of(request));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        ApiErrorDTO apiError = new ApiErrorDTO(LocalDateTime.now(), HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests", List.of("Rate limit exceeded; retry after " + retryAfterSeconds + " s"), path);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        byte[] body = errorWriter.writeValueAsBytes(apiError);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.apiLibrary.security;
+
+/**
+ * One rate limit from {@code app.rate-limit.routes.<name>.*}: requests to {@code path} (a Spring path pattern,
+ * e.g. /api/books/**) with {@code method} (any method when blank) are allowed in bursts of up to
+ * {@code capacity} per client, refilled at {@code refillPerSecond}.
+ */
+public record RateLimitRoute(String method, String path, long capacity, double refillPerSecond) {
+}
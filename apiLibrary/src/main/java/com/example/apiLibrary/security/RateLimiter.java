@@ -0,0 +1,181 @@
+package com.example.apiLibrary.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets for the routes configured under {@code app.rate-limit.routes}. A request is checked
+ * against the most specific matching route only; requests that match no route are not limited.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the generic cell
+ * rate algorithm, equivalent to a token bucket), updated with compare-and-set, so taking a token never locks. The
+ * buckets of a route live in a {@link ConcurrentHashMap}, which is internally striped. A full bucket carries no
+ * state, so the periodic sweep drops every bucket that has refilled without changing any decision, and memory
+ * follows the number of clients active in the last refill period. Beyond {@code max-buckets-per-route},
+ * new clients of a route share one overflow bucket until the next sweep, so a flood of addresses cannot grow
+ * memory without bound.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final List<Route> routes;
+    private final int maxBucketsPerRoute;
+    private final AtomicBoolean sweepRequested = new AtomicBoolean();
+
+    @Autowired
+    public RateLimiter(Environment environment,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${app.rate-limit.max-buckets-per-route:100000}") int maxBucketsPerRoute) {
+        this.maxBucketsPerRoute = maxBucketsPerRoute;
+        Map<String, RateLimitRoute> configured = enabled
+                ? Binder.get(environment)
+                        .bind("app.rate-limit.routes", Bindable.mapOf(String.class, RateLimitRoute.class))
+                        .orElse(Map.of())
+                : Map.of();
+
+        List<Route> parsed = new ArrayList<>();
+        configured.forEach((name, limit) -> parsed.add(new Route(name, limit, meterRegistry)));
+        parsed.sort(Comparator.comparing((Route route) -> route.pattern, PathPattern.SPECIFICITY_COMPARATOR));
+        this.routes = List.copyOf(parsed);
+        routes.forEach(route -> LOGGER.info("Rate limit {}: {} {} burst {}, {}/s per client", route.name,
+                route.method == null ? "*" : route.method, route.pattern, route.capacity, route.refillPerSecond));
+        Gauge.builder("http.ratelimit.buckets", this, limiter -> limiter.routes.stream()
+                        .mapToInt(route -> route.buckets.size()).sum())
+                .description("Client buckets currently held across all rate-limited routes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token for the client from the bucket of the route the request matches.
+     *
+     * @param path The request path without the context path.
+     * @return 0 if the request may proceed, otherwise the nanoseconds until the client gets its next token.
+     */
+    public long acquire(String method, String path, String clientKey) {
+        if (routes.isEmpty()) {
+            return 0;
+        }
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (Route route : routes) {
+            if (route.matches(method, pathContainer)) {
+                long waitNanos = route.tryTake(bucketFor(route, clientKey), System.nanoTime());
+                if (waitNanos > 0) {
+                    route.rejected.increment();
+                }
+                return waitNanos;
+            }
+        }
+        return 0;
+    }
+
+    private AtomicLong bucketFor(Route route, String clientKey) {
+        AtomicLong bucket = route.buckets.get(clientKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (route.buckets.size() >= maxBucketsPerRoute) {
+            requestSweep();
+            return route.overflow;
+        }
+        // A bucket holds the time it is full again; a new one is full from now on.
+        return route.buckets.computeIfAbsent(clientKey, key -> new AtomicLong(System.nanoTime()));
+    }
+
+    private void requestSweep() {
+        if (sweepRequested.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    evictIdle();
+                } finally {
+                    sweepRequested.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops the buckets that have refilled completely; a client that comes back gets a fresh, equally full one.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Route route : routes) {
+            route.buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+
+    private static final class Route {
+        private final String name;
+        private final String method; // null for any method
+        private final PathPattern pattern;
+        private final long capacity;
+        private final double refillPerSecond;
+        private final long intervalNanos; // Time to refill one token
+        private final long toleranceNanos; // How far ahead of now a bucket may be and still have a token
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+        private final Counter rejected;
+
+        private Route(String name, RateLimitRoute limit, MeterRegistry meterRegistry) {
+            if (!StringUtils.hasText(limit.path()) || limit.capacity() < 1 || limit.refillPerSecond() <= 0) {
+                throw new IllegalArgumentException("app.rate-limit.routes." + name
+                        + " needs a path, a capacity of at least 1 and a positive refill-per-second");
+            }
+            this.name = name;
+            this.method = StringUtils.hasText(limit.method()) ? limit.method().toUpperCase() : null;
+            this.pattern = PathPatternParser.defaultInstance.parse(limit.path());
+            this.capacity = limit.capacity();
+            this.refillPerSecond = limit.refillPerSecond();
+            this.intervalNanos = Math.max(1, (long) (1_000_000_000L / limit.refillPerSecond()));
+            this.toleranceNanos = intervalNanos * (capacity - 1);
+            this.rejected = Counter.builder("http.ratelimit.rejected")
+                    .description("Requests refused with 429 by the rate limiter")
+                    .tag("route", name)
+                    .register(meterRegistry);
+        }
+
+        private boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.equals(requestMethod)) && pattern.matches(path);
+        }
+
+        private long tryTake(AtomicLong bucket, long now) {
+            while (true) {
+                long fullAt = bucket.get();
+                long from = fullAt - now > 0 ? fullAt : now; // nanoTime values are compared by difference
+                long waitNanos = from - toleranceNanos - now;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (bucket.compareAndSet(fullAt, from + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.apiLibrary.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user token versions (USERS.TOKEN_VERSION). Every token carries the version of its user at login, and a
+ * token whose version is below the current one is rejected, so bumping the counter revokes all tokens issued
+ * before it: after a role change, a password reset or a lost device.
+ * <p>
+ * The filter checks tokens against an in-memory copy, not the database. Only users that were ever revoked have
+ * a version above 0, so the copy stays small. It is updated right away for revocations made here and refreshed
+ * every {@code app.jwt.token-versions.refresh-ms} for those made by other instances; that interval bounds how
+ * long a revoked token keeps working elsewhere.
+ */
+@Component
+public class TokenVersions {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenVersions.class);
+    private static final String SELECT_REVOKED = "SELECT USERNAME, TOKEN_VERSION FROM USERS WHERE TOKEN_VERSION > 0";
+    private static final String BUMP = "UPDATE USERS SET TOKEN_VERSION = TOKEN_VERSION + 1 WHERE USERNAME = ?";
+    private static final String SELECT_ONE = "SELECT TOKEN_VERSION FROM USERS WHERE USERNAME = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Versions only ever grow, so merging with max never loses a revocation to a concurrent refresh.
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenVersions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The current version for a user; 0 for users that were never revoked.
+     */
+    public int current(String username) {
+        return versions.getOrDefault(username, 0);
+    }
+
+    /**
+     * Whether a token issued at {@code tokenVersion} is still valid for the user.
+     */
+    public boolean isCurrent(String username, int tokenVersion) {
+        return tokenVersion >= current(username);
+    }
+
+    /**
+     * Invalidates every token issued to the user so far. Takes effect on this instance once the transaction
+     * commits, and on the others at their next refresh.
+     *
+     * @return The new version, which tokens issued from now on carry.
+     * @throws IllegalArgumentException If there is no such user.
+     */
+    @Transactional
+    public int revoke(String username) {
+        if (jdbcTemplate.update(BUMP, username) == 0) {
+            throw new IllegalArgumentException("No user with username: " + username);
+        }
+        int version = jdbcTemplate.queryForObject(SELECT_ONE, Integer.class, username);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.merge(username, version, Math::max);
+            }
+        });
+        LOGGER.info("Revoked tokens for user {}; token version is now {}", username, version);
+        return version;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${app.jwt.token-versions.refresh-ms:30000}",
+            fixedDelayString = "${app.jwt.token-versions.refresh-ms:30000}")
+    public void refresh() {
+        try {
+            jdbcTemplate.query(SELECT_REVOKED, rs -> {
+                versions.merge(rs.getString("USERNAME"), rs.getInt("TOKEN_VERSION"), Math::max);
+            });
+        } catch (RuntimeException ex) {
+            // Keep the versions we have; revocations from other instances wait for the next refresh.
+            LOGGER.warn("Could not refresh token versions", ex);
+        }
+    }
+}
@@ -4,4 +4,9 @@ import com.example.apiLibrary.dto.LoginRequest;
 
 public interface AuthService {
     String loginSeller(LoginRequest loginRequest);
+
+    /**
+     * Invalidates every token issued to the user so far, e.g. after its roles changed.
+     */
+    void revokeTokens(String username);
 }
@@ -0,0 +1,46 @@
+package com.example.apiLibrary.service;
+
+/**
+ * Result of one request in a batch that is applied together but succeeds or fails per request:
+ * either a value or the exception the request would have thrown on its own.
+ */
+public final class BatchOutcome<T> {
+
+    private final T value;
+    private final RuntimeException error;
+
+    private BatchOutcome(T value, RuntimeException error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> BatchOutcome<T> of(T value) {
+        return new BatchOutcome<>(value, null);
+    }
+
+    public static <T> BatchOutcome<T> failed(RuntimeException error) {
+        return new BatchOutcome<>(null, error);
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public RuntimeException getError() {
+        return error;
+    }
+
+    /**
+     * Returns the value, or throws the request's exception.
+     */
+    public T get() {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.apiLibrary.service;
+
+import com.example.apiLibrary.dto.BookImportResultDTO;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BookImportService {
+
+    enum Format {
+        /** Comma-separated with a header row naming the columns (isbn, title, author, price, stock, category). */
+        CSV,
+        /** One BookDTO JSON object per line. */
+        NDJSON
+    }
+
+    /**
+     * Upserts books from the stream, matched by ISBN, in chunks that commit independently.
+     * Invalid rows are reported in the result and do not stop the rest of the load.
+     */
+    BookImportResultDTO importBooks(InputStream in, Format format) throws IOException;
+}
@@ -1,10 +1,26 @@
 package com.example.apiLibrary.service;
 
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.dto.BookFacetsDTO;
 import com.example.apiLibrary.dto.BookPageDTO;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface BookService {
+
+    /**
+     * Lists books matching the given filters.
+     * <p>
+     * Without {@code after} this is classic page/size paging. With {@code after} (the {@code nextCursor}
+     * of a previous response) the page is fetched with a keyset seek and {@code page} is ignored.
+     *
+     * @param sort         Sort key: "id", "title" or "price".
+     * @param after        Opaque cursor returned as {@code nextCursor} by a previous call.
+     * @param includeTotal Whether to fill in totalElements/totalPages. Totals are cached briefly per filter.
+     */
     BookPageDTO getBooks(
             Optional<String> title,
             Optional<String> author,
@@ -12,8 +28,31 @@ public interface BookService {
             Optional<BigDecimal> minPrice,
             Optional<BigDecimal> maxPrice,
             int page,
-            int size
+            int size,
+            String sort,
+            Optional<String> after,
+            boolean includeTotal
     );
 
     BookDTO getBookById(Long id);
+
+    /**
+     * Counts books per category and per price bucket for the given filters, for the catalog sidebar.
+     * Each facet ignores its own filter, so the counts show what choosing another value would return.
+     */
+    BookFacetsDTO getFacets(
+            Optional<String> title,
+            Optional<String> author,
+            Optional<String> category,
+            Optional<BigDecimal> minPrice,
+            Optional<BigDecimal> maxPrice
+    );
+
+    /**
+     * Writes the catalog to the stream as newline-delimited JSON, one BookDTO per line, in ID order.
+     * Rows are written as they are read from the database, so memory use is constant.
+     *
+     * @param since If present, only books modified after this time are exported.
+     */
+    void exportCatalog(Optional<LocalDateTime> since, OutputStream out) throws IOException;
 }
@@ -3,5 +3,11 @@ package com.example.apiLibrary.service;
 import com.example.apiLibrary.dto.OrderDTO;
 
 public interface EmailService {
+
+    /**
+     * Queues the order confirmation in the email outbox. Call it inside the order's transaction: the email is
+     * only sent if the order commits, and sending happens in the background, so SMTP latency never holds the
+     * transaction open.
+     */
     void sendOrderConfirmationEmail(OrderDTO orderDetails);
 }
@@ -0,0 +1,26 @@
+package com.example.apiLibrary.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    String HEADER = "Idempotency-Key";
+
+    /**
+     * Runs {@code action} at most once per key. The action runs in a transaction together with recording its
+     * response; a retry with the same key gets the recorded response back without the action running again, and a
+     * retry arriving while the first attempt is still running waits for it. If the first attempt fails nothing is
+     * recorded, so a retry runs the action again.
+     *
+     * @param scope        Namespace for the key, e.g. "orders".
+     * @param caller       Who sent the request (see {@link com.example.apiLibrary.security.ClientIdentity}). Keys
+     *                     are only ever shared between requests from the same caller.
+     * @param key          The client's Idempotency-Key header; when null the action simply runs.
+     * @param request      The request body, fingerprinted so a key reused for a different request is rejected.
+     * @param responseType Type to deserialize replayed responses into.
+     * @throws com.example.apiLibrary.exception.IdempotencyConflictException if the key was used for a different
+     *                                                                       request, or the first attempt is still
+     *                                                                       running after the wait timeout.
+     */
+    <T> T execute(String scope, String caller, String key, Object request, Class<T> responseType, Supplier<T> action);
+}
@@ -0,0 +1,36 @@
+package com.example.apiLibrary.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface InventoryService {
+
+    /**
+     * Takes stock for a basket: loads every book in one query, checks stock in memory and applies all the
+     * decrements as one JDBC batch. Must be called inside the caller's transaction so the decrements roll back
+     * with it.
+     * <p>
+     * When the inventory ledger is enabled, books it manages are reserved against in-memory counters instead
+     * and written to BOOKS in the background; see {@link com.example.apiLibrary.inventory.InventoryLedger}.
+     *
+     * @param quantities Quantity per book ID, with repeated lines for the same book already added up.
+     *                   Iteration order is the order errors are reported in.
+     * @return The books by ID and which of them were reserved in the ledger.
+     * @throws com.example.apiLibrary.exception.BookNotFoundException       if a book does not exist.
+     * @throws com.example.apiLibrary.exception.InsufficientStockException if a book has less stock than requested.
+     */
+    StockReservation reserve(Map<Long, Integer> quantities);
+
+    /**
+     * Takes stock for several baskets at once, for callers that write many sales or orders in one transaction.
+     * The books of all baskets are loaded in one query and the baskets are checked in order against that stock;
+     * a basket that cannot be filled gets the exception {@link #reserve} would have thrown and takes no stock.
+     * The remaining baskets take their stock together, as one {@link #reserve} call.
+     *
+     * @param baskets Quantity per book ID for each basket, as for {@link #reserve}.
+     * @return One outcome per basket, in order. Accepted baskets share the same reservation.
+     * @throws com.example.apiLibrary.exception.InsufficientStockException if stock ran out concurrently after the
+     *                                                                     check; callers should retry basket by basket.
+     */
+    List<BatchOutcome<StockReservation>> reserveEach(List<Map<Long, Integer>> baskets);
+}
@@ -1,8 +1,21 @@
 package com.example.apiLibrary.service;
 
+import com.example.apiLibrary.dto.OrderDTO;
+import com.example.apiLibrary.dto.OrderPageDTO;
 import com.example.apiLibrary.dto.OrderRequestDTO;
 import com.example.apiLibrary.dto.OrderResponseDTO;
 
+import java.util.Optional;
+
 public interface OrderService {
     OrderResponseDTO createOrder(OrderRequestDTO orderRequest);
+
+    /**
+     * Lists orders newest first, optionally only those placed with one customer email, with keyset paging.
+     *
+     * @param after The {@code nextCursor} of the previous page.
+     */
+    OrderPageDTO getOrders(Optional<String> customerEmail, Optional<String> after, int size);
+
+    OrderDTO getOrder(Long orderId);
 }
@@ -1,8 +1,40 @@
 package com.example.apiLibrary.service;
 
+import com.example.apiLibrary.dto.SaleBatchResponseDTO;
+import com.example.apiLibrary.dto.SaleDTO;
+import com.example.apiLibrary.dto.SalePageDTO;
 import com.example.apiLibrary.dto.SaleRequestDTO;
 import com.example.apiLibrary.dto.SaleResponseDTO;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 public interface SaleService {
     SaleResponseDTO createSale(SaleRequestDTO saleRequest);
+
+    /**
+     * Creates many sales at once, e.g. when a store's POS syncs after being offline. Sales are processed in
+     * chunks, each in its own transaction: stock is checked for the whole chunk from one query and the sales are
+     * inserted with JDBC batches. A sale that is invalid or cannot be filled is rejected on its own; the others in
+     * the batch are still created.
+     */
+    SaleBatchResponseDTO createSales(List<SaleRequestDTO> saleRequests);
+
+    /**
+     * Like {@link #createSales(List)}, reading one SaleRequestDTO per line as it streams in.
+     */
+    SaleBatchResponseDTO createSales(InputStream ndjson) throws IOException;
+
+    /**
+     * Lists sales newest first, optionally for one seller and within [from, to), with keyset paging.
+     *
+     * @param after The {@code nextCursor} of the previous page.
+     */
+    SalePageDTO getSales(Optional<Long> sellerId, Optional<LocalDateTime> from, Optional<LocalDateTime> to,
+                         Optional<String> after, int size);
+
+    SaleDTO getSale(Long saleId);
 }
@@ -0,0 +1,32 @@
+package com.example.apiLibrary.service;
+
+import com.example.apiLibrary.dto.SalesDayDTO;
+import com.example.apiLibrary.dto.SalesRankingDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Dashboard queries over the daily sales rollups. Every call reads one row per day and seller or book in range,
+ * never the sales themselves. Date ranges are inclusive and default to the last 7 days.
+ */
+public interface SalesAnalyticsService {
+
+    /**
+     * Totals for every day in range, oldest first, with zero for days without sales. Restricted to one seller or
+     * one book when given (not both).
+     */
+    List<SalesDayDTO> getDailyTotals(Optional<LocalDate> from, Optional<LocalDate> to,
+                                     Optional<Long> sellerId, Optional<Long> bookId);
+
+    /**
+     * Sellers with the highest revenue in range.
+     */
+    List<SalesRankingDTO> getTopSellers(Optional<LocalDate> from, Optional<LocalDate> to, int limit);
+
+    /**
+     * Books with the highest revenue in range.
+     */
+    List<SalesRankingDTO> getTopBooks(Optional<LocalDate> from, Optional<LocalDate> to, int limit);
+}
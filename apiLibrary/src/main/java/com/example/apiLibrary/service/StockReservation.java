@@ -0,0 +1,36 @@
+package com.example.apiLibrary.service;
+
+import com.example.apiLibrary.model.Book;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of {@link InventoryService#reserve}: the books in the basket and which of them had their stock taken
+ * from the in-memory ledger, to be written to BOOKS later by the ledger flusher.
+ */
+public final class StockReservation {
+
+    private final Map<Long, Book> books;
+    private final Set<Long> deferredBookIds;
+
+    public StockReservation(Map<Long, Book> books, Set<Long> deferredBookIds) {
+        this.books = books;
+        this.deferredBookIds = Set.copyOf(deferredBookIds);
+    }
+
+    /**
+     * The books by ID, as loaded before the reservation.
+     */
+    public Map<Long, Book> getBooks() {
+        return books;
+    }
+
+    /**
+     * Whether the stock for this book has not been written to BOOKS yet. Sale and order lines for such books are
+     * saved with {@code stockApplied = false} so the flusher, or recovery after a crash, can find them.
+     */
+    public boolean isDeferred(Long bookId) {
+        return deferredBookIds.contains(bookId);
+    }
+}
@@ -4,15 +4,15 @@ import com.example.apiLibrary.dto.LoginRequest;
 import com.example.apiLibrary.model.User;
 import com.example.apiLibrary.repository.UserRepository;
 import com.example.apiLibrary.security.JwtTokenProvider;
+import com.example.apiLibrary.security.PasswordVerifier;
+import com.example.apiLibrary.security.TokenVersions;
 import com.example.apiLibrary.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -21,19 +21,22 @@ import java.util.Optional;
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerifier passwordVerifier;
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService; // Spring's UserDetailsService
+    private final CachingUserDetailsService userDetailsService;
+    private final TokenVersions tokenVersions;
 
     @Autowired
     public AuthServiceImpl(UserRepository userRepository,
-                           PasswordEncoder passwordEncoder,
+                           PasswordVerifier passwordVerifier,
                            JwtTokenProvider jwtTokenProvider,
-                           UserDetailsService userDetailsService) {
+                           CachingUserDetailsService userDetailsService,
+                           TokenVersions tokenVersions) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordVerifier = passwordVerifier;
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenVersions = tokenVersions;
     }
 
     @Override
@@ -46,9 +49,16 @@ public class AuthServiceImpl implements AuthService {
 
         User user = userOptional.get();
 
-        // Password comparison using PasswordEncoder
-        if (passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        // Password comparison on the BCrypt pool, off the request thread's CPU budget
+        if (passwordVerifier.matches(loginRequest.getPassword(), user.getPassword())) {
             // Passwords match
+            if (passwordVerifier.needsRehash(user.getPassword())) {
+                passwordVerifier.rehashInBackground(loginRequest.getPassword(), newPassword -> {
+                    if (userRepository.updatePassword(user.getId(), user.getPassword(), newPassword) == 1) {
+                        userDetailsService.invalidate(user.getUsername());
+                    }
+                });
+            }
 
             // Load UserDetails to get authorities and create Authentication object
             UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
@@ -67,10 +77,17 @@ public class AuthServiceImpl implements AuthService {
             // throw new org.springframework.security.access.AccessDeniedException("User does not have SELLER role");
             // }
 
-            return jwtTokenProvider.generateToken(authentication); // Generate token from Authentication
+            int tokenVersion = user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+            return jwtTokenProvider.generateToken(authentication, tokenVersion); // Generate token from Authentication
         } else {
             // Passwords do not match
             throw new BadCredentialsException("Invalid username or password."); // Generic message for security
         }
     }
+
+    @Override
+    public void revokeTokens(String username) {
+        tokenVersions.revoke(username);
+        userDetailsService.invalidate(username); // Revoked for a role change, so reload the roles too
+    }
 }
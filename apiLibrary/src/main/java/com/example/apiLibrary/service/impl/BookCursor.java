@@ -0,0 +1,100 @@
+package com.example.apiLibrary.service.impl;
+
+import com.example.apiLibrary.catalog.BookRelevance;
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.repository.BookFilter;
+import com.example.apiLibrary.repository.BookSortKey;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: the sort key and the (key value, id) of the last book a client has seen.
+ * Encoded as URL-safe Base64 so clients treat it as an opaque token.
+ * <p>
+ * The cursor also records whether the catalog snapshot or the database issued it. The two order titles and
+ * prices slightly differently (Java string order and rounded prices against Oracle collation and stored scale),
+ * so a cursor is only ever continued by the source that issued it.
+ * <p>
+ * For {@link BookSortKey#RELEVANCE} the key is the last book's {@link BookRelevance} rank key, recomputed from
+ * its title and author for the filter's terms.
+ */
+final class BookCursor {
+
+    private static final char SEPARATOR = ':';
+    private static final String SNAPSHOT = "S";
+    private static final String DATABASE = "D";
+
+    private final BookSortKey sort;
+    private final boolean fromSnapshot;
+    private final long id;
+    private final Object key; // Null for BookSortKey.ID, a Long rank key for BookSortKey.RELEVANCE
+
+    private BookCursor(BookSortKey sort, boolean fromSnapshot, long id, Object key) {
+        this.sort = sort;
+        this.fromSnapshot = fromSnapshot;
+        this.id = id;
+        this.key = key;
+    }
+
+    static BookCursor after(BookSortKey sort, boolean fromSnapshot, BookDTO lastBook, BookFilter filter) {
+        Object key = switch (sort) {
+            case ID -> null;
+            case TITLE -> lastBook.getTitle();
+            case PRICE -> lastBook.getPrice();
+            case RELEVANCE -> BookRelevance.key(lastBook.getTitle(), lastBook.getAuthor(),
+                    filter.getTitle(), filter.getAuthor());
+        };
+        return new BookCursor(sort, fromSnapshot, lastBook.getId(), key);
+    }
+
+    BookSortKey getSort() {
+        return sort;
+    }
+
+    boolean isFromSnapshot() {
+        return fromSnapshot;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    String encode() {
+        String raw = sort.name() + SEPARATOR + (fromSnapshot ? SNAPSHOT : DATABASE) + SEPARATOR + id + SEPARATOR
+                + (key != null ? key.toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The key is last so titles containing the separator survive the round trip.
+            String[] parts = raw.split(String.valueOf(SEPARATOR), 4);
+            BookSortKey sort = BookSortKey.valueOf(parts[0]);
+            if (!SNAPSHOT.equals(parts[1]) && !DATABASE.equals(parts[1])) {
+                throw new IllegalArgumentException("Unknown cursor source");
+            }
+            long id = Long.parseLong(parts[2]);
+            Object key = switch (sort) {
+                case ID -> null;
+                case TITLE -> parts[3];
+                case PRICE -> new BigDecimal(parts[3]);
+                case RELEVANCE -> Long.valueOf(parts[3]);
+            };
+            return new BookCursor(sort, SNAPSHOT.equals(parts[1]), id, key);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid pagination cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.apiLibrary.service.impl;
+
+import com.example.apiLibrary.catalog.BookDetailsChangedEvent;
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.dto.BookImportErrorDTO;
+import com.example.apiLibrary.dto.BookImportResultDTO;
+import com.example.apiLibrary.inventory.InventoryLedger;
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.repository.BookRepository;
+import com.example.apiLibrary.service.BookImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams CSV or NDJSON into BOOKS without holding the file in memory.
+ * <p>
+ * Valid rows are buffered into chunks of {@code app.books.import.chunk-size}; each chunk is one MERGE batch in its
+ * own transaction, so a failure late in the file does not roll back what was already loaded. When a chunk fails
+ * (a constraint violation, a value too long for its column, ...) it is retried row by row so that only the
+ * offending rows are rejected.
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookImportServiceImpl.class);
+    private static final List<String> REQUIRED_COLUMNS = List.of("isbn", "title", "price", "stock");
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Optional<InventoryLedger> ledger;
+    private final ObjectReader bookReader;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+    private final Timer importTimer;
+    private final AtomicLong lastRowsPerSecond = new AtomicLong();
+
+    @Autowired
+    public BookImportServiceImpl(BookRepository bookRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 Optional<InventoryLedger> ledger,
+                                 @Value("${app.books.import.chunk-size:1000}") int chunkSize,
+                                 @Value("${app.books.import.max-reported-errors:1000}") int maxReportedErrors) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("app.books.import.chunk-size must be >= 1");
+        }
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.ledger = ledger;
+        this.bookReader = objectMapper.readerFor(BookDTO.class);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.importedRows = Counter.builder("books.import.rows").tag("result", "imported").register(meterRegistry);
+        this.rejectedRows = Counter.builder("books.import.rows").tag("result", "rejected").register(meterRegistry);
+        this.importTimer = Timer.builder("books.import").register(meterRegistry);
+        meterRegistry.gauge("books.import.last.rows.per.second", lastRowsPerSecond);
+    }
+
+    @Override
+    public BookImportResultDTO importBooks(InputStream in, Format format) throws IOException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+            run.flush();
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            importTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (run.imported > 0) {
+                // IDs are assigned by the database inside MERGE, so tell listeners to refresh everything.
+                eventPublisher.publishEvent(BookDetailsChangedEvent.catalogWide());
+            }
+            run.elapsedNanos = elapsedNanos;
+        }
+
+        BookImportResultDTO result = run.toResult();
+        lastRowsPerSecond.set(Math.round(result.getRowsPerSecond()));
+        LOGGER.info("Book import ({}) finished: {} rows read, {} imported, {} rejected in {} ms ({} rows/s)",
+                format, result.getRowsRead(), result.getRowsImported(), result.getRowsRejected(),
+                result.getElapsedMs(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty; expected a header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the '" + required + "' column");
+            }
+        }
+
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            long line = csv.recordLine();
+            run.rowsRead++;
+            String isbn = field(record, columns, "isbn");
+            try {
+                Book book = new Book();
+                book.setIsbn(isbn);
+                book.setTitle(field(record, columns, "title"));
+                book.setAuthor(field(record, columns, "author"));
+                book.setCategory(field(record, columns, "category"));
+                book.setPrice(parsePrice(field(record, columns, "price")));
+                book.setStock(parseStock(field(record, columns, "stock")));
+                run.accept(line, validate(book));
+            } catch (IllegalArgumentException ex) {
+                run.reject(line, isbn, ex.getMessage());
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            run.rowsRead++;
+            BookDTO dto;
+            try {
+                dto = bookReader.readValue(text);
+            } catch (JsonProcessingException ex) {
+                run.reject(line, null, "Malformed JSON: " + ex.getOriginalMessage());
+                continue;
+            }
+            try {
+                Book book = new Book();
+                book.setIsbn(trimToNull(dto.getIsbn()));
+                book.setTitle(trimToNull(dto.getTitle()));
+                book.setAuthor(trimToNull(dto.getAuthor()));
+                book.setCategory(trimToNull(dto.getCategory()));
+                book.setPrice(dto.getPrice());
+                book.setStock(dto.getStock());
+                run.accept(line, validate(book));
+            } catch (IllegalArgumentException ex) {
+                run.reject(line, dto.getIsbn(), ex.getMessage());
+            }
+        }
+    }
+
+    private static Book validate(Book book) {
+        if (book.getIsbn() == null) {
+            throw new IllegalArgumentException("isbn is required");
+        }
+        if (book.getTitle() == null) {
+            throw new IllegalArgumentException("title is required");
+        }
+        if (book.getPrice() == null || book.getPrice().signum() < 0) {
+            throw new IllegalArgumentException("price is required and must not be negative");
+        }
+        if (book.getStock() == null || book.getStock() < 0) {
+            throw new IllegalArgumentException("stock is required and must not be negative");
+        }
+        return book;
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= record.size() ? null : trimToNull(record.get(index));
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("price '" + value + "' is not a number");
+        }
+    }
+
+    private static Integer parseStock(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("stock '" + value + "' is not a whole number");
+        }
+    }
+
+    private void merge(List<Book> books) {
+        // Stock of hot books is held by the ledger; its counters have to move with the stock this write sets.
+        ledger.ifPresent(inventoryLedger -> {
+            Map<String, Integer> newStock = new HashMap<>();
+            books.forEach(book -> newStock.put(book.getIsbn(), book.getStock()));
+            inventoryLedger.beforeStockOverwrite(newStock);
+        });
+        bookRepository.mergeByIsbn(books);
+    }
+
+    /**
+     * State of one import: the pending chunk plus running totals.
+     */
+    private final class ImportRun {
+
+        private final List<Book> chunk = new ArrayList<>(chunkSize);
+        private final List<Long> chunkLines = new ArrayList<>(chunkSize);
+        private final List<BookImportErrorDTO> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+        private long elapsedNanos;
+
+        void accept(long line, Book book) {
+            chunk.add(book);
+            chunkLines.add(line);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String isbn, String message) {
+            rejected++;
+            rejectedRows.increment();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new BookImportErrorDTO(line, isbn, message));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> merge(chunk));
+                imported += chunk.size();
+                importedRows.increment(chunk.size());
+            } catch (DataAccessException chunkFailure) {
+                LOGGER.debug("Import chunk of {} rows failed, retrying row by row", chunk.size(), chunkFailure);
+                for (int i = 0; i < chunk.size(); i++) {
+                    Book book = chunk.get(i);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> merge(List.of(book)));
+                        imported++;
+                        importedRows.increment();
+                    } catch (DataAccessException rowFailure) {
+                        reject(chunkLines.get(i), book.getIsbn(), rowFailure.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            chunk.clear();
+            chunkLines.clear();
+        }
+
+        BookImportResultDTO toResult() {
+            BookImportResultDTO result = new BookImportResultDTO();
+            result.setRowsRead(rowsRead);
+            result.setRowsImported(imported);
+            result.setRowsRejected(rejected);
+            result.setElapsedMs(elapsedNanos / 1_000_000);
+            result.setRowsPerSecond(elapsedNanos == 0 ? 0 : imported * 1_000_000_000.0 / elapsedNanos);
+            result.setErrors(errors);
+            result.setErrorsTruncated(rejected > errors.size());
+            return result;
+        }
+    }
+}
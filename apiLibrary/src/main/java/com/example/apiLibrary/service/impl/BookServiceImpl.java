@@ -1,18 +1,43 @@
 package com.example.apiLibrary.service.impl;
 
+import com.example.apiLibrary.catalog.BookDetailsChangedEvent;
+import com.example.apiLibrary.catalog.BookRelevance;
+import com.example.apiLibrary.catalog.BookStockChangedEvent;
+import com.example.apiLibrary.catalog.BookTextIndex;
+import com.example.apiLibrary.catalog.CatalogReadModel;
+import com.example.apiLibrary.catalog.CatalogSnapshot;
 import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.dto.BookFacetsDTO;
 import com.example.apiLibrary.dto.BookPageDTO;
+import com.example.apiLibrary.dto.FacetValueDTO;
+import com.example.apiLibrary.dto.PriceBucketDTO;
+import com.example.apiLibrary.mapper.BookMapper;
 import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.repository.BookFacetCounts;
+import com.example.apiLibrary.repository.BookFilter;
 import com.example.apiLibrary.repository.BookRepository;
+import com.example.apiLibrary.repository.BookSortKey;
 import com.example.apiLibrary.service.BookService;
-import org.modelmapper.ModelMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -20,13 +45,37 @@ import java.util.stream.Collectors;
 @Service
 public class BookServiceImpl implements BookService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookServiceImpl.class);
+
     private final BookRepository bookRepository;
-    private final ModelMapper modelMapper;
+    private final BookMapper bookMapper;
+    private final CatalogReadModel catalogReadModel;
+    private final BookTextIndex textIndex;
+    private final Cache<Long, BookDTO> bookByIdCache;
+    private final Cache<BookFilter, BookFacetsDTO> bookFacetsCache;
+    private final Cache<BookFilter, Long> bookCountCache;
+    private final ObjectMapper objectMapper;
+    private final List<BigDecimal> priceBucketBounds;
 
     @Autowired
-    public BookServiceImpl(BookRepository bookRepository, ModelMapper modelMapper) {
+    public BookServiceImpl(BookRepository bookRepository,
+                           BookMapper bookMapper,
+                           CatalogReadModel catalogReadModel,
+                           BookTextIndex textIndex,
+                           Cache<Long, BookDTO> bookByIdCache,
+                           Cache<BookFilter, BookFacetsDTO> bookFacetsCache,
+                           Cache<BookFilter, Long> bookCountCache,
+                           ObjectMapper objectMapper,
+                           @Value("${app.books.facets.price-buckets:10,20,50,100}") List<BigDecimal> priceBucketBounds) {
         this.bookRepository = bookRepository;
-        this.modelMapper = modelMapper;
+        this.bookMapper = bookMapper;
+        this.catalogReadModel = catalogReadModel;
+        this.textIndex = textIndex;
+        this.bookByIdCache = bookByIdCache;
+        this.bookFacetsCache = bookFacetsCache;
+        this.bookCountCache = bookCountCache;
+        this.objectMapper = objectMapper;
+        this.priceBucketBounds = priceBucketBounds.stream().sorted().distinct().toList();
     }
 
     @Override
@@ -37,24 +86,99 @@ public class BookServiceImpl implements BookService {
             Optional<BigDecimal> minPrice,
             Optional<BigDecimal> maxPrice,
             int page,
-            int size
+            int size,
+            String sort,
+            Optional<String> after,
+            boolean includeTotal
     ) {
-        // TODO: Implement filtering based on title, author, category, minPrice, maxPrice.
-        // For now, only pagination is implemented.
-
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookRepository.findAll(pageable);
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be >= 1");
+        }
+        BookFilter filter = new BookFilter(
+                title.orElse(null),
+                author.orElse(null),
+                category.orElse(null),
+                minPrice.orElse(null),
+                maxPrice.orElse(null));
+        BookSortKey sortKey = BookSortKey.fromParameter(sort);
 
-        List<BookDTO> bookDTOs = bookPage.getContent().stream()
-                .map(book -> modelMapper.map(book, BookDTO.class))
-                .collect(Collectors.toList());
+        // Serve from the in-memory snapshot when it is loaded, otherwise push the query down to the database.
+        // Title/author terms are resolved through the trigram index when it can answer them. A relevance sort
+        // ranks those matches, through the index too when it can, or else by scanning the snapshot.
+        Optional<CatalogSnapshot> snapshot = catalogReadModel.current();
+        if (sortKey == BookSortKey.RELEVANCE && isBlank(filter.getTitle()) && isBlank(filter.getAuthor())) {
+            throw new IllegalArgumentException("Sorting by relevance needs a title or author term");
+        }
+        BookRelevance.Ranking ranking = null;
+        if (snapshot.isPresent() && sortKey == BookSortKey.RELEVANCE) {
+            ranking = textIndex.findRanked(filter.getTitle(), filter.getAuthor());
+            if (ranking == null) {
+                ranking = snapshot.get().rankByScan(filter.getTitle(), filter.getAuthor());
+            }
+        }
+        long[] textMatches = ranking != null ? ranking.sortedIds()
+                : snapshot.isPresent() ? textIndex.findIds(filter.getTitle(), filter.getAuthor()) : null;
+        List<BookDTO> bookDTOs;
+        boolean fromSnapshot = snapshot.isPresent();
+        if (after.isPresent()) {
+            BookCursor cursor = BookCursor.decode(after.get());
+            if (cursor.getSort() != sortKey) {
+                throw new IllegalArgumentException("Cursor was issued for sort key " + cursor.getSort().name().toLowerCase()
+                        + ", not " + sort);
+            }
+            // Continue with the source that issued the cursor, so no page skips or repeats rows when the snapshot
+            // comes or goes. The database can always continue its own cursors; a snapshot cursor cannot be
+            // continued until a snapshot is loaded again.
+            if (cursor.isFromSnapshot() && snapshot.isEmpty()) {
+                throw new IllegalArgumentException("Pagination cursor can no longer be continued; "
+                        + "start again from the first page");
+            }
+            fromSnapshot = cursor.isFromSnapshot();
+            Object afterKey = cursor.getKey();
+            long afterId = cursor.getId();
+            if (!fromSnapshot) {
+                bookDTOs = toDTOs(bookRepository.findPageAfter(filter, sortKey, afterKey, afterId, size));
+            } else if (ranking != null) {
+                bookDTOs = snapshot.get().findRankedPageAfter(filter, ranking, (Long) afterKey, afterId, size);
+            } else {
+                bookDTOs = snapshot.get().findPageAfter(filter, textMatches, sortKey, afterKey, afterId, size);
+            }
+        } else {
+            long offset = (long) page * size;
+            if (snapshot.isEmpty()) {
+                bookDTOs = toDTOs(bookRepository.findPage(filter, sortKey, offset, size));
+            } else if (ranking != null) {
+                bookDTOs = snapshot.get().findRankedPage(filter, ranking, offset, size);
+            } else {
+                bookDTOs = snapshot.get().findPage(filter, textMatches, sortKey, offset, size);
+            }
+        }
 
         BookPageDTO bookPageDTO = new BookPageDTO();
         bookPageDTO.setContent(bookDTOs);
-        bookPageDTO.setPage(bookPage.getNumber());
-        bookPageDTO.setSize(bookPage.getSize());
-        bookPageDTO.setTotalElements(bookPage.getTotalElements());
-        bookPageDTO.setTotalPages(bookPage.getTotalPages());
+        bookPageDTO.setPage(page);
+        bookPageDTO.setSize(size);
+        // A full page may have a successor; a short page is the last one.
+        if (bookDTOs.size() == size) {
+            BookDTO last = bookDTOs.get(bookDTOs.size() - 1);
+            bookPageDTO.setNextCursor(BookCursor.after(sortKey, fromSnapshot, last, filter).encode());
+        }
+
+        if (!includeTotal) {
+            bookPageDTO.setTotalElements(-1);
+            bookPageDTO.setTotalPages(-1);
+        } else {
+            long total;
+            // The last page tells us the total for free. An empty page past the end does not: the total may be
+            // anywhere below page * size.
+            if (after.isEmpty() && bookDTOs.size() < size && (!bookDTOs.isEmpty() || page == 0)) {
+                total = (long) page * size + bookDTOs.size();
+            } else {
+                total = countMatching(filter, textMatches);
+            }
+            bookPageDTO.setTotalElements(total);
+            bookPageDTO.setTotalPages((int) ((total + size - 1) / size));
+        }
 
         return bookPageDTO;
     }
@@ -62,11 +186,119 @@ public class BookServiceImpl implements BookService {
     @Override
     public BookDTO getBookById(Long id) {
         LOGGER.debug("Fetching book by ID: {}", id);
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> {
-                    LOGGER.warn("Book not found with ID: {}", id);
-                    return new com.example.apiLibrary.exception.BookNotFoundException("Book not found with ID: " + id);
-                });
-        return modelMapper.map(book, BookDTO.class);
+        // Not from the snapshot: it takes sales and edits in on the refresh thread, a little after commit, and a
+        // single book (with its ETag) must never show stock from before a committed sale. The cache is
+        // invalidated on the committing thread. An invalidation racing with a load waits for it and then removes
+        // the (possibly stale) result.
+        BookDTO book = bookByIdCache.get(id, key -> bookRepository.findById(key)
+                .map(bookMapper::toDto)
+                .orElse(null)); // Misses are not cached
+        if (book == null) {
+            LOGGER.warn("Book not found with ID: {}", id);
+            throw new com.example.apiLibrary.exception.BookNotFoundException("Book not found with ID: " + id);
+        }
+        return book;
+    }
+
+    @Override
+    public BookFacetsDTO getFacets(
+            Optional<String> title,
+            Optional<String> author,
+            Optional<String> category,
+            Optional<BigDecimal> minPrice,
+            Optional<BigDecimal> maxPrice
+    ) {
+        BookFilter filter = new BookFilter(
+                title.map(String::trim).filter(value -> !value.isEmpty()).orElse(null),
+                author.map(String::trim).filter(value -> !value.isEmpty()).orElse(null),
+                category.map(String::trim).filter(value -> !value.isEmpty()).orElse(null),
+                minPrice.orElse(null),
+                maxPrice.orElse(null));
+        return bookFacetsCache.get(filter, this::computeFacets);
+    }
+
+    private BookFacetsDTO computeFacets(BookFilter filter) {
+        Optional<CatalogSnapshot> snapshot = catalogReadModel.current();
+        BookFacetCounts counts;
+        if (snapshot.isPresent()) {
+            long[] textMatches = textIndex.findIds(filter.getTitle(), filter.getAuthor());
+            counts = snapshot.get().countFacets(filter, textMatches, priceBucketBounds);
+        } else {
+            counts = bookRepository.countFacets(filter, priceBucketBounds);
+        }
+
+        List<FacetValueDTO> categories = new ArrayList<>();
+        counts.getCategoryCounts().forEach((value, count) -> categories.add(new FacetValueDTO(value, count)));
+        categories.sort(Comparator.comparingLong(FacetValueDTO::getCount).reversed()
+                .thenComparing(FacetValueDTO::getValue, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        List<PriceBucketDTO> priceBuckets = new ArrayList<>();
+        long[] bucketCounts = counts.getPriceBucketCounts();
+        for (int i = 0; i < bucketCounts.length; i++) {
+            priceBuckets.add(new PriceBucketDTO(
+                    i == 0 ? null : priceBucketBounds.get(i - 1),
+                    i == priceBucketBounds.size() ? null : priceBucketBounds.get(i),
+                    bucketCounts[i]));
+        }
+
+        BookFacetsDTO facets = new BookFacetsDTO();
+        facets.setCategories(categories);
+        facets.setPriceBuckets(priceBuckets);
+        facets.setTotalElements(counts.getTotal());
+        return facets;
+    }
+
+    @Override
+    public void exportCatalog(Optional<LocalDateTime> since, OutputStream out) throws IOException {
+        // One generator for the whole export; the serializer for BookDTO is resolved once, and output is only
+        // flushed when the generator's buffer fills rather than after every row.
+        ObjectWriter rowWriter = objectMapper.writerFor(BookDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            bookRepository.streamAll(since.orElse(null), book -> {
+                try {
+                    rowWriter.writeValue(generator, bookMapper.toDto(book));
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex); // Client went away; stops reading the cursor
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(BookStockChangedEvent event) {
+        bookByIdCache.invalidateAll(event.getBookIds());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDetailsChanged(BookDetailsChangedEvent event) {
+        if (event.isCatalogWide()) {
+            bookByIdCache.invalidateAll();
+            bookCountCache.invalidateAll();
+        } else {
+            bookByIdCache.invalidateAll(event.getBookIds());
+        }
+        bookFacetsCache.invalidateAll(); // Any edit can move a book between categories or price buckets
+    }
+
+    private List<BookDTO> toDTOs(List<Book> books) {
+        return books.stream()
+                .map(bookMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private long countMatching(BookFilter filter, long[] textMatches) {
+        Optional<CatalogSnapshot> snapshot = catalogReadModel.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().countMatching(filter, textMatches); // A scan of primitive arrays; no need to cache
+        }
+        return bookCountCache.get(filter, bookRepository::countMatching);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 }
@@ -0,0 +1,47 @@
+package com.example.apiLibrary.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caches {@link UserDetailsServiceImpl} per username, so the login and the JWT filter do not query USERS and
+ * re-parse the roles string on every call. This is the {@link UserDetailsService} injected everywhere.
+ * <p>
+ * Concurrent misses for the same username wait for a single load. Unknown usernames are not cached. Entries
+ * live for {@code app.users.cache.ttl-ms}; call {@link #invalidate(String)} after changing a user's roles or
+ * password so this instance sees it at once, while the TTL bounds staleness on other instances.
+ */
+@Primary
+@Service
+public class CachingUserDetailsService implements UserDetailsService {
+
+    private final UserDetailsServiceImpl delegate;
+    private final Cache<String, UserDetails> userDetailsCache;
+
+    @Autowired
+    public CachingUserDetailsService(UserDetailsServiceImpl delegate, Cache<String, UserDetails> userDetailsCache) {
+        this.delegate = delegate;
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Every caller gets the cached instance itself, with its authorities already built. That is safe because
+        // nothing hands it to a ProviderManager, which would erase the cached password: AuthServiceImpl and
+        // JwtAuthenticationFilter build their Authentication themselves. Copy it before adding such a caller.
+        return userDetailsCache.get(username, delegate::loadUserByUsername);
+    }
+
+    public void invalidate(String username) {
+        userDetailsCache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        userDetailsCache.invalidateAll();
+    }
+}
@@ -1,43 +1,62 @@
 package com.example.apiLibrary.service.impl;
 
 import com.example.apiLibrary.dto.OrderDTO;
+import com.example.apiLibrary.dto.OrderItemDTO;
+import com.example.apiLibrary.mail.OutboxEmailQueuedEvent;
+import com.example.apiLibrary.model.OutboxEmail;
+import com.example.apiLibrary.repository.OutboxEmailRepository;
 import com.example.apiLibrary.service.EmailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.javamail.JavaMailSender; // For future use
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 @Service
 public class EmailServiceImpl implements EmailService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EmailServiceImpl.class);
 
-    private final JavaMailSender mailSender; // Injected for future actual implementation
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public EmailServiceImpl(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailServiceImpl(OutboxEmailRepository outboxEmailRepository, ApplicationEventPublisher eventPublisher) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional // Joins the order's transaction
     public void sendOrderConfirmationEmail(OrderDTO orderDetails) {
-        // TODO: Implement actual email sending logic using JavaMailSender.
-        // This would involve creating a SimpleMailMessage or MimeMessage, setting recipients, subject, body, etc.
-        // For example:
-        // SimpleMailMessage message = new SimpleMailMessage();
-        // message.setTo(orderDetails.getCustomerEmail());
-        // message.setSubject("Order Confirmation - ID: " + orderDetails.getOrderId());
-        // message.setText("Dear " + orderDetails.getCustomerName() + ",\n\nYour order with ID " +
-        //                  orderDetails.getOrderId() + " has been " + orderDetails.getStatus() + ".");
-        // mailSender.send(message);
-
-        LOGGER.info("Simulating sending email for order {} to {}. Status: {}. Items: {}",
-                orderDetails.getOrderId(),
-                orderDetails.getCustomerEmail(),
-                orderDetails.getStatus(),
-                orderDetails.getItems() // This might be verbose, consider logging item count or specific details
-        );
-        LOGGER.info("JavaMailSender instance: {}", mailSender.toString()); // Just to confirm it's injected
+        StringBuilder body = new StringBuilder()
+                .append("Dear ").append(orderDetails.getCustomerName()).append(",\n\n")
+                .append("Your order with ID ").append(orderDetails.getOrderId())
+                .append(" has been ").append(orderDetails.getStatus().toLowerCase()).append(".\n");
+        if (orderDetails.getItems() != null && !orderDetails.getItems().isEmpty()) {
+            body.append("\nItems:\n");
+            for (OrderItemDTO item : orderDetails.getItems()) {
+                body.append(" - Book ").append(item.getBookId()).append(" x ").append(item.getQuantity()).append('\n');
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEmail email = new OutboxEmail();
+        email.setOrderId(orderDetails.getOrderId());
+        email.setRecipient(orderDetails.getCustomerEmail());
+        email.setSubject("Order Confirmation - ID: " + orderDetails.getOrderId());
+        email.setBody(body.toString());
+        email.setStatus(OutboxEmail.PENDING);
+        email.setAttempts(0);
+        email.setNextAttemptAt(now);
+        email.setCreatedAt(now);
+        outboxEmailRepository.save(email);
+        LOGGER.debug("Queued confirmation email for order {} to {}", orderDetails.getOrderId(), orderDetails.getCustomerEmail());
+
+        // Wakes the dispatcher once the order has committed, instead of waiting for its next poll.
+        eventPublisher.publishEvent(new OutboxEmailQueuedEvent());
     }
 }
@@ -0,0 +1,60 @@
+package com.example.apiLibrary.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for order and sale history: the ID and, for sales, the timestamp of the last entry a
+ * client has seen. Encoded as URL-safe Base64 like {@link BookCursor}.
+ */
+final class HistoryCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final long id;
+    private final LocalDateTime timestamp; // Null for orders
+
+    private HistoryCursor(long id, LocalDateTime timestamp) {
+        this.id = id;
+        this.timestamp = timestamp;
+    }
+
+    static HistoryCursor after(long id, LocalDateTime timestamp) {
+        return new HistoryCursor(id, timestamp);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + (timestamp != null ? timestamp.toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param withTimestamp Whether the cursor must carry a timestamp (sale history) or not (order history).
+     * @throws IllegalArgumentException if the token is malformed or was issued for the other kind of history.
+     */
+    static HistoryCursor decode(String token, boolean withTimestamp) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 2);
+            long id = Long.parseLong(parts[0]);
+            LocalDateTime timestamp = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+            if ((timestamp != null) != withTimestamp) {
+                throw new IllegalArgumentException("Cursor kind mismatch");
+            }
+            return new HistoryCursor(id, timestamp);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid pagination cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.apiLibrary.service.impl;
+
+import com.example.apiLibrary.exception.IdempotencyConflictException;
+import com.example.apiLibrary.model.IdempotencyKey;
+import com.example.apiLibrary.repository.IdempotencyKeyRepository;
+import com.example.apiLibrary.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency keys, checked in three places from cheapest to most authoritative:
+ * <ol>
+ *   <li>a small in-memory cache of recently completed keys, so a client retrying a timed-out request right away
+ *       is answered without touching the database;</li>
+ *   <li>a map of executions running in this instance, so concurrent duplicates wait on the first one instead
+ *       of racing it;</li>
+ *   <li>the IDEMPOTENCY_KEYS table, whose primary key settles races between instances and which keeps keys for
+ *       {@code app.idempotency.retention-hours}.</li>
+ * </ol>
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final long waitTimeoutMs;
+
+    private final Cache<String, IdempotentResponse> recentKeys;
+    private final Map<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  Cache<String, IdempotentResponse> idempotencyResponseCache,
+                                  @Value("${app.idempotency.retention-hours:24}") long retentionHours,
+                                  @Value("${app.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.recentKeys = idempotencyResponseCache;
+        this.retention = Duration.ofHours(retentionHours);
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    @Override
+    public <T> T execute(String scope, String caller, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        // Keys are chosen by clients, so two callers can pick the same one; each caller gets its own namespace.
+        // The caller and key are hashed to keep the stored ID short, and out of the logs.
+        String id = scope + ":" + sha256(caller + '\n' + key);
+        String requestHash = fingerprint(request);
+
+        while (true) {
+            IdempotentResponse recent = recentKeys.getIfPresent(id);
+            if (recent != null) {
+                return replay(id, recent, requestHash, responseType);
+            }
+
+            CompletableFuture<IdempotentResponse> execution = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(id, execution);
+            if (running != null) {
+                IdempotentResponse first = await(id, running);
+                if (first != null) {
+                    return replay(id, first, requestHash, responseType);
+                }
+                continue; // The first attempt failed without recording anything; take our turn
+            }
+
+            try {
+                Result<T> result = executeOnce(id, requestHash, responseType, action);
+                recentKeys.put(id, result.stored);
+                execution.complete(result.stored);
+                return result.replayed ? replay(id, result.stored, requestHash, responseType) : result.value;
+            } catch (RuntimeException ex) {
+                execution.complete(null);
+                throw ex;
+            } finally {
+                inFlight.remove(id, execution);
+            }
+        }
+    }
+
+    private <T> Result<T> executeOnce(String id, String requestHash, Class<T> responseType, Supplier<T> action) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyKey> existing = idempotencyKeyRepository.findById(id)
+                .filter(row -> row.getExpiresAt().isAfter(now));
+        if (existing.isPresent()) {
+            return Result.replayed(stored(existing.get()));
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                idempotencyKeyRepository.claim(id, requestHash, now, now.plus(retention));
+                T value = action.get();
+                String body = toJson(value);
+                idempotencyKeyRepository.storeResponse(id, body);
+                return Result.executed(value, new IdempotentResponse(requestHash, body));
+            });
+        } catch (DuplicateKeyException ex) {
+            // Another instance claimed the key and committed while we waited on its row.
+            LOGGER.debug("Idempotency key {} was completed by another instance", id);
+            return Result.replayed(idempotencyKeyRepository.findById(id).map(this::stored)
+                    .orElseThrow(() -> new IdempotencyConflictException("Request with this " + HEADER + " is being retried concurrently; try again")));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpiredKeys() {
+        int deleted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            LOGGER.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private IdempotentResponse await(String id, CompletableFuture<IdempotentResponse> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IdempotencyConflictException("A request with this " + HEADER + " is still being processed");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for a request with the same " + HEADER);
+        } catch (ExecutionException ex) {
+            return null; // Never completed exceptionally, but treat it as a failed first attempt
+        }
+    }
+
+    private <T> T replay(String id, IdempotentResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException(HEADER + " was already used for a different request");
+        }
+        LOGGER.info("Replaying stored response for idempotency key {}", id);
+        try {
+            return objectMapper.readValue(stored.body(), responseType);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored response for idempotency key " + id + " cannot be read", ex);
+        }
+    }
+
+    private IdempotentResponse stored(IdempotencyKey row) {
+        return new IdempotentResponse(row.getRequestHash(), row.getResponseBody());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Response cannot be stored for replay", ex);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return sha256(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot fingerprint request", ex);
+        }
+    }
+
+    private static String sha256(String text) {
+        return sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private record Result<T>(T value, IdempotentResponse stored, boolean replayed) {
+        static <T> Result<T> executed(T value, IdempotentResponse stored) {
+            return new Result<>(value, stored, false);
+        }
+
+        static <T> Result<T> replayed(IdempotentResponse stored) {
+            return new Result<>(null, stored, true);
+        }
+    }
+}
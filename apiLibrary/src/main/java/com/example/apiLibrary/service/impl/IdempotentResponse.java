@@ -0,0 +1,8 @@
+package com.example.apiLibrary.service.impl;
+
+/**
+ * The outcome of a completed idempotent request: a hash of the request that produced it and the serialized
+ * response to replay for retries of the same key.
+ */
+public record IdempotentResponse(String requestHash, String body) {
+}
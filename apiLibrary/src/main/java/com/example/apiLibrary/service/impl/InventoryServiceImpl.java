@@ -0,0 +1,199 @@
+package com.example.apiLibrary.service.impl;
+
+import com.example.apiLibrary.catalog.BookStockChangedEvent;
+import com.example.apiLibrary.exception.BookNotFoundException;
+import com.example.apiLibrary.exception.InsufficientStockException;
+import com.example.apiLibrary.inventory.InventoryLedger;
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.repository.BookRepository;
+import com.example.apiLibrary.service.BatchOutcome;
+import com.example.apiLibrary.service.InventoryService;
+import com.example.apiLibrary.service.StockReservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Stock bookkeeping for sales and orders. A basket costs two round trips however many lines it has:
+ * one SELECT ... WHERE ID IN (...) and one batch of guarded UPDATEs that check and take stock atomically.
+ * Lines for books managed by the {@link InventoryLedger}, when it is enabled, skip the UPDATE and are taken from
+ * its in-memory counters instead.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InventoryServiceImpl.class);
+
+    private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Optional<InventoryLedger> ledger;
+
+    @Autowired
+    public InventoryServiceImpl(BookRepository bookRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                Optional<InventoryLedger> ledger) {
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.ledger = ledger;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StockReservation reserve(Map<Long, Integer> quantities) {
+        checkQuantities(quantities);
+        return reserve(quantities, loadBooks(quantities.keySet()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<BatchOutcome<StockReservation>> reserveEach(List<Map<Long, Integer>> baskets) {
+        Set<Long> bookIds = new HashSet<>();
+        baskets.forEach(basket -> bookIds.addAll(basket.keySet()));
+        Map<Long, Book> books = loadBooks(bookIds);
+        Map<Long, Integer> remaining = new HashMap<>();
+        books.forEach((id, book) -> remaining.put(id, isInLedger(id) ? ledger.get().available(id) : stockOf(book)));
+
+        // Baskets are allocated in order against the stock just read, so one that does not fit is rejected here
+        // and the others never see its demand.
+        List<RuntimeException> rejections = new ArrayList<>(baskets.size());
+        Map<Long, Integer> totals = new LinkedHashMap<>();
+        for (Map<Long, Integer> basket : baskets) {
+            RuntimeException rejection = null;
+            try {
+                checkQuantities(basket);
+                for (Map.Entry<Long, Integer> line : basket.entrySet()) {
+                    Book book = requireBook(books, line.getKey());
+                    checkAvailable(book, line.getValue(), remaining.get(line.getKey()));
+                }
+                basket.forEach((bookId, quantity) -> {
+                    remaining.merge(bookId, -quantity, Integer::sum);
+                    totals.merge(bookId, quantity, Integer::sum);
+                });
+            } catch (IllegalArgumentException | BookNotFoundException | InsufficientStockException ex) {
+                rejection = ex;
+            }
+            rejections.add(rejection);
+        }
+
+        StockReservation reservation = totals.isEmpty() ? null : reserve(totals, books);
+        List<BatchOutcome<StockReservation>> outcomes = new ArrayList<>(baskets.size());
+        for (RuntimeException rejection : rejections) {
+            outcomes.add(rejection == null ? BatchOutcome.of(reservation) : BatchOutcome.failed(rejection));
+        }
+        return outcomes;
+    }
+
+    private Map<Long, Book> loadBooks(Set<Long> bookIds) {
+        Map<Long, Book> books = new HashMap<>();
+        bookRepository.findAllById(bookIds).forEach(book -> books.put(book.getId(), book));
+        return books;
+    }
+
+    private StockReservation reserve(Map<Long, Integer> quantities, Map<Long, Book> books) {
+        Map<Long, Integer> inLedger = new LinkedHashMap<>();
+        Map<Long, Integer> inDatabase = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Book book = requireBook(books, line.getKey());
+            if (isInLedger(line.getKey())) {
+                inLedger.put(line.getKey(), line.getValue());
+                continue;
+            }
+            checkAvailable(book, line.getValue(), stockOf(book));
+            inDatabase.put(line.getKey(), line.getValue());
+        }
+
+        if (!inLedger.isEmpty()) {
+            reserveInLedger(ledger.get(), inLedger, books);
+        }
+        if (!inDatabase.isEmpty()) {
+            reserveInDatabase(inDatabase, books);
+        }
+        return new StockReservation(books, inLedger.keySet());
+    }
+
+    private static void checkQuantities(Map<Long, Integer> quantities) {
+        quantities.forEach((bookId, quantity) -> {
+            if (bookId == null || quantity == null || quantity < 1) {
+                throw new IllegalArgumentException("Each item needs a book ID and a quantity of at least 1");
+            }
+        });
+    }
+
+    private static Book requireBook(Map<Long, Book> books, Long bookId) {
+        Book book = books.get(bookId);
+        if (book == null) {
+            LOGGER.error("Book not found with ID: {}", bookId);
+            throw new BookNotFoundException("Book not found with ID: " + bookId);
+        }
+        return book;
+    }
+
+    private static void checkAvailable(Book book, int requested, int available) {
+        if (available < requested) {
+            LOGGER.error("Insufficient stock for book ID: {}. Requested: {}, Available: {}",
+                    book.getId(), requested, available);
+            throw new InsufficientStockException("Insufficient stock for book: " + book.getTitle() +
+                    ". Requested: " + requested + ", Available: " + available);
+        }
+    }
+
+    private static int stockOf(Book book) {
+        return book.getStock() == null ? 0 : book.getStock();
+    }
+
+    private boolean isInLedger(Long bookId) {
+        return ledger.isPresent() && ledger.get().manages(bookId);
+    }
+
+    private void reserveInLedger(InventoryLedger inventoryLedger, Map<Long, Integer> quantities, Map<Long, Book> books) {
+        Long shortBookId = inventoryLedger.tryTake(quantities);
+        if (shortBookId != null) {
+            int available = inventoryLedger.available(shortBookId);
+            LOGGER.error("Insufficient stock for book ID: {}. Requested: {}, Available: {}",
+                    shortBookId, quantities.get(shortBookId), available);
+            throw new InsufficientStockException("Insufficient stock for book: " + books.get(shortBookId).getTitle() +
+                    ". Requested: " + quantities.get(shortBookId) + ", Available: " + available);
+        }
+        // The counters are not transactional, so hand the stock back if the sale or order does not commit.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                inventoryLedger.completed(quantities, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void reserveInDatabase(Map<Long, Integer> quantities, Map<Long, Book> books) {
+        // The check in reserve() only fails fast on the stock we read. The guarded UPDATE is what decides: a line
+        // that updated no row lost a race for the last copies, and throwing rolls back the whole basket.
+        int[] updated = bookRepository.decrementStock(quantities);
+        int index = 0;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (updated[index++] == 0) {
+                Integer available = bookRepository.findById(line.getKey()).map(Book::getStock).orElse(0);
+                LOGGER.warn("Stock for book ID {} ran out concurrently. Requested: {}, Available: {}",
+                        line.getKey(), line.getValue(), available);
+                throw new InsufficientStockException("Insufficient stock for book: " + books.get(line.getKey()).getTitle() +
+                        ". Requested: " + line.getValue() + ", Available: " + available);
+            }
+        }
+
+        // Delivered after commit, so read models never see stock from a rolled-back sale or order.
+        eventPublisher.publishEvent(new BookStockChangedEvent(quantities.keySet()));
+    }
+}
@@ -1,97 +1,198 @@
 package com.example.apiLibrary.service.impl;
 
 import com.example.apiLibrary.dto.OrderDTO;
+import com.example.apiLibrary.dto.OrderPageDTO;
 import com.example.apiLibrary.dto.OrderItemDTO;
 import com.example.apiLibrary.dto.OrderRequestDTO;
 import com.example.apiLibrary.dto.OrderResponseDTO;
+import com.example.apiLibrary.batching.GroupCommitFactory;
+import com.example.apiLibrary.batching.GroupCommitter;
 import com.example.apiLibrary.exception.BookNotFoundException;
 import com.example.apiLibrary.exception.InsufficientStockException;
-import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.exception.OrderNotFoundException;
+import com.example.apiLibrary.mapper.OrderMapper;
 import com.example.apiLibrary.model.Order;
 import com.example.apiLibrary.model.OrderItem;
-import com.example.apiLibrary.repository.BookRepository;
 import com.example.apiLibrary.repository.OrderRepository;
+import com.example.apiLibrary.service.BatchOutcome;
 import com.example.apiLibrary.service.EmailService;
+import com.example.apiLibrary.service.InventoryService;
 import com.example.apiLibrary.service.OrderService;
-import org.modelmapper.ModelMapper;
+import com.example.apiLibrary.service.StockReservation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional; // Important for stock updates
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderServiceImpl.class);
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final OrderRepository orderRepository;
-    private final BookRepository bookRepository;
+    private final InventoryService inventoryService;
     private final EmailService emailService;
-    private final ModelMapper modelMapper;
+    private final OrderMapper orderMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final GroupCommitter<OrderRequestDTO, OrderResponseDTO> groupCommit; // null unless app.group-commit.enabled
 
     @Autowired
     public OrderServiceImpl(OrderRepository orderRepository,
-                            BookRepository bookRepository,
+                            InventoryService inventoryService,
                             EmailService emailService,
-                            ModelMapper modelMapper) {
+                            OrderMapper orderMapper,
+                            TransactionTemplate transactionTemplate,
+                            GroupCommitFactory groupCommitFactory) {
         this.orderRepository = orderRepository;
-        this.bookRepository = bookRepository;
+        this.inventoryService = inventoryService;
         this.emailService = emailService;
-        this.modelMapper = modelMapper;
+        this.orderMapper = orderMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.groupCommit = groupCommitFactory.<OrderRequestDTO, OrderResponseDTO>create("orders", this::createOrders).orElse(null);
     }
 
     @Override
-    @Transactional // Ensures atomicity for order creation and stock updates
     public OrderResponseDTO createOrder(OrderRequestDTO orderRequest) {
-        LOGGER.info("Creating order for customer: {}", orderRequest.getCustomerEmail());
+        // A caller with its own transaction (e.g. an idempotent request) needs the order written in that
+        // transaction, so only stand-alone calls go through group commit.
+        if (groupCommit != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return groupCommit.submit(orderRequest);
+        }
+        // Ensures atomicity for order creation and stock updates
+        return transactionTemplate.execute(status -> placeOrder(orderRequest));
+    }
 
-        Order order = modelMapper.map(orderRequest, Order.class);
-        order.setStatus("CREATED"); // Initial status
+    @Override
+    public OrderPageDTO getOrders(Optional<String> customerEmail, Optional<String> after, int size) {
+        checkPageSize(size);
+        Long afterOrderId = after.map(token -> HistoryCursor.decode(token, false).getId()).orElse(null);
+        List<Order> orders = orderRepository.findHistoryPage(customerEmail.orElse(null), afterOrderId, size);
+
+        OrderPageDTO page = new OrderPageDTO();
+        page.setContent(orders.stream().map(orderMapper::toDto).toList());
+        page.setSize(size);
+        if (orders.size() == size) {
+            page.setNextCursor(HistoryCursor.after(orders.get(orders.size() - 1).getOrderId(), null).encode());
+        }
+        return page;
+    }
 
-        List<OrderItem> orderItems = new ArrayList<>();
-        for (OrderItemDTO itemDTO : orderRequest.getItems()) {
-            Book book = bookRepository.findById(itemDTO.getBookId())
-                    .orElseThrow(() -> {
-                        LOGGER.error("Book not found with ID: {}", itemDTO.getBookId());
-                        return new BookNotFoundException("Book not found with ID: " + itemDTO.getBookId());
-                    });
-
-            if (book.getStock() < itemDTO.getQuantity()) {
-                LOGGER.error("Insufficient stock for book ID: {}. Requested: {}, Available: {}",
-                        itemDTO.getBookId(), itemDTO.getQuantity(), book.getStock());
-                throw new InsufficientStockException("Insufficient stock for book: " + book.getTitle() +
-                        ". Requested: " + itemDTO.getQuantity() + ", Available: " + book.getStock());
-            }
+    @Override
+    public OrderDTO getOrder(Long orderId) {
+        return orderRepository.findById(orderId)
+                .map(orderMapper::toDto)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
+    }
+
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
 
-            // TODO: Consider transactional safety and race conditions for stock updates more deeply.
-            // For high concurrency, pessimistic locking (SELECT ... FOR UPDATE) or optimistic locking might be needed.
-            book.setStock(book.getStock() - itemDTO.getQuantity());
-            bookRepository.save(book); // Update stock
+    private OrderResponseDTO placeOrder(OrderRequestDTO orderRequest) {
+        LOGGER.info("Creating order for customer: {}", orderRequest.getCustomerEmail());
 
-            OrderItem orderItem = new OrderItem(itemDTO.getBookId(), itemDTO.getQuantity());
-            orderItems.add(orderItem);
+        Order order = newOrder(orderRequest);
+        StockReservation reservation = inventoryService.reserve(quantities(orderRequest));
+        List<OrderItem> orderItems = order.getItems();
+        for (OrderItem orderItem : orderItems) {
+            orderItem.setStockApplied(!reservation.isDeferred(orderItem.getBookId()));
         }
-        order.setItems(orderItems); // Set the processed items
 
         Order savedOrder = orderRepository.save(order);
         LOGGER.info("Order {} created successfully for customer {}", savedOrder.getOrderId(), savedOrder.getCustomerEmail());
+        return confirm(savedOrder);
+    }
 
-        // Prepare OrderDTO for email service
-        OrderDTO emailOrderDetails = modelMapper.map(savedOrder, OrderDTO.class);
-        // ModelMapper might not map items correctly if OrderItemDTO structure is different from OrderItem entity structure
-        // or if explicit mapping for the list is needed. Let's assume basic mapping works or adjust if needed.
-        // Ensure OrderItemDTOs are correctly populated in emailOrderDetails
-         emailOrderDetails.setItems(orderRequest.getItems()); // Use original DTOs for email for simplicity for now
+    /**
+     * Group commit handler: creates the orders in one transaction, with one stock check for all of them and
+     * batched inserts. Orders rejected by the stock check fail on their own; if the batch as a whole fails (stock
+     * taken concurrently after the check, a database error), each order is retried in its own transaction.
+     */
+    private List<BatchOutcome<OrderResponseDTO>> createOrders(List<OrderRequestDTO> orderRequests) {
+        try {
+            return transactionTemplate.execute(status -> placeOrders(orderRequests));
+        } catch (InsufficientStockException | BookNotFoundException | DataAccessException ex) {
+            LOGGER.warn("Group of {} orders failed ({}); retrying order by order", orderRequests.size(), ex.getMessage());
+            List<BatchOutcome<OrderResponseDTO>> outcomes = new ArrayList<>(orderRequests.size());
+            for (OrderRequestDTO orderRequest : orderRequests) {
+                try {
+                    outcomes.add(BatchOutcome.of(transactionTemplate.execute(status -> placeOrder(orderRequest))));
+                } catch (RuntimeException orderFailure) {
+                    outcomes.add(BatchOutcome.failed(orderFailure));
+                }
+            }
+            return outcomes;
+        }
+    }
+
+    private List<BatchOutcome<OrderResponseDTO>> placeOrders(List<OrderRequestDTO> orderRequests) {
+        List<Map<Long, Integer>> baskets = new ArrayList<>(orderRequests.size());
+        orderRequests.forEach(orderRequest -> baskets.add(quantities(orderRequest)));
+        List<BatchOutcome<StockReservation>> reservations = inventoryService.reserveEach(baskets);
+
+        List<Order> accepted = new ArrayList<>(orderRequests.size());
+        for (int i = 0; i < orderRequests.size(); i++) {
+            if (reservations.get(i).isFailed()) {
+                continue;
+            }
+            StockReservation reservation = reservations.get(i).getValue();
+            Order order = newOrder(orderRequests.get(i));
+            for (OrderItem orderItem : order.getItems()) {
+                orderItem.setStockApplied(!reservation.isDeferred(orderItem.getBookId()));
+            }
+            accepted.add(order);
+        }
+        orderRepository.insertAll(accepted);
+
+        List<BatchOutcome<OrderResponseDTO>> outcomes = new ArrayList<>(orderRequests.size());
+        int next = 0;
+        for (BatchOutcome<StockReservation> reservation : reservations) {
+            outcomes.add(reservation.isFailed()
+                    ? BatchOutcome.failed(reservation.getError())
+                    : BatchOutcome.of(confirm(accepted.get(next++))));
+        }
+        LOGGER.info("Created {} of {} orders in one group", accepted.size(), orderRequests.size());
+        return outcomes;
+    }
+
+    private Order newOrder(OrderRequestDTO orderRequest) {
+        Order order = orderMapper.toEntity(orderRequest);
+        order.setStatus("CREATED"); // Initial status
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (OrderItemDTO itemDTO : orderRequest.getItems()) {
+            orderItems.add(new OrderItem(itemDTO.getBookId(), itemDTO.getQuantity()));
+        }
+        order.setItems(orderItems); // Set the processed items
+        return order;
+    }
 
+    // Repeated lines for the same book are added up, so the stock check sees the order's full demand.
+    private static Map<Long, Integer> quantities(OrderRequestDTO orderRequest) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemDTO itemDTO : orderRequest.getItems()) {
+            quantities.merge(itemDTO.getBookId(), itemDTO.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
 
+    private OrderResponseDTO confirm(Order savedOrder) {
+        // Prepare OrderDTO for email service
+        OrderDTO emailOrderDetails = orderMapper.toDto(savedOrder);
         emailService.sendOrderConfirmationEmail(emailOrderDetails);
 
-        OrderResponseDTO response = modelMapper.map(savedOrder, OrderResponseDTO.class);
+        OrderResponseDTO response = orderMapper.toResponse(savedOrder);
         response.setMessage("Order created successfully and confirmation email is being sent.");
         return response;
     }
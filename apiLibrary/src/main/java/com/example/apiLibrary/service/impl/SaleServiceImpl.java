@@ -1,90 +1,370 @@
 package com.example.apiLibrary.service.impl;
 
+import com.example.apiLibrary.analytics.SalesArchive;
+import com.example.apiLibrary.analytics.SalesRecordedEvent;
+import com.example.apiLibrary.batching.GroupCommitFactory;
+import com.example.apiLibrary.batching.GroupCommitter;
+import com.example.apiLibrary.dto.SaleBatchResponseDTO;
+import com.example.apiLibrary.dto.SaleBatchResultDTO;
+import com.example.apiLibrary.dto.SaleDTO;
 import com.example.apiLibrary.dto.SaleItemDTO;
+import com.example.apiLibrary.dto.SalePageDTO;
 import com.example.apiLibrary.dto.SaleRequestDTO;
 import com.example.apiLibrary.dto.SaleResponseDTO;
 import com.example.apiLibrary.exception.BookNotFoundException;
 import com.example.apiLibrary.exception.InsufficientStockException;
+import com.example.apiLibrary.exception.SaleNotFoundException;
+import com.example.apiLibrary.mapper.SaleMapper;
 import com.example.apiLibrary.model.Book;
 import com.example.apiLibrary.model.Sale;
 import com.example.apiLibrary.model.SaleItem;
-import com.example.apiLibrary.repository.BookRepository;
 import com.example.apiLibrary.repository.SaleRepository;
+import com.example.apiLibrary.service.BatchOutcome;
+import com.example.apiLibrary.service.InventoryService;
 import com.example.apiLibrary.service.SaleService;
-import org.modelmapper.ModelMapper;
+import com.example.apiLibrary.service.StockReservation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SaleServiceImpl implements SaleService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SaleServiceImpl.class);
 
+    private static final String CREATED = "CREATED";
+    private static final String REJECTED = "REJECTED";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Comparator<Sale> NEWEST_FIRST =
+            Comparator.comparing(Sale::getTimestamp).thenComparing(Sale::getSaleId).reversed();
+
     private final SaleRepository saleRepository;
-    private final BookRepository bookRepository;
-    private final ModelMapper modelMapper;
+    private final InventoryService inventoryService;
+    private final SaleMapper saleMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectReader saleRequestReader;
+    private final int batchChunkSize;
+    private final GroupCommitter<SaleRequestDTO, SaleResponseDTO> groupCommit; // null unless app.group-commit.enabled
+    private final SalesArchive archive;
     // No EmailService needed for Sale based on requirements
 
     @Autowired
     public SaleServiceImpl(SaleRepository saleRepository,
-                           BookRepository bookRepository,
-                           ModelMapper modelMapper) {
+                           InventoryService inventoryService,
+                           SaleMapper saleMapper,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           Validator validator,
+                           ObjectMapper objectMapper,
+                           GroupCommitFactory groupCommitFactory,
+                           SalesArchive archive,
+                           @Value("${app.sales.batch.chunk-size:200}") int batchChunkSize) {
         this.saleRepository = saleRepository;
-        this.bookRepository = bookRepository;
-        this.modelMapper = modelMapper;
+        this.inventoryService = inventoryService;
+        this.saleMapper = saleMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.saleRequestReader = objectMapper.readerFor(SaleRequestDTO.class);
+        this.batchChunkSize = batchChunkSize;
+        this.groupCommit = groupCommitFactory.<SaleRequestDTO, SaleResponseDTO>create("sales", this::createGroup).orElse(null);
+        this.archive = archive;
     }
 
     @Override
-    @Transactional // Ensures atomicity for sale creation and stock updates
     public SaleResponseDTO createSale(SaleRequestDTO saleRequest) {
+        // As for orders: a caller with its own transaction keeps the sale in it, stand-alone calls are grouped.
+        if (groupCommit != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return groupCommit.submit(saleRequest);
+        }
+        // Ensures atomicity for sale creation and stock updates
+        return transactionTemplate.execute(status -> placeSale(saleRequest));
+    }
+
+    @Override
+    public SalePageDTO getSales(Optional<Long> sellerId, Optional<LocalDateTime> from, Optional<LocalDateTime> to,
+                                Optional<String> after, int size) {
+        checkPageSize(size);
+        Optional<HistoryCursor> cursor = after.map(token -> HistoryCursor.decode(token, true));
+        LocalDateTime afterTimestamp = cursor.map(HistoryCursor::getTimestamp).orElse(null);
+        long afterSaleId = cursor.map(HistoryCursor::getId).orElse(0L);
+        List<Sale> sales = saleRepository.findHistoryPage(sellerId.orElse(null), from.orElse(null), to.orElse(null),
+                afterTimestamp, afterSaleId, size);
+        if (archiveMayHold(sales, from.orElse(null), size)) {
+            // Same keyset on both tables, merged: a page can span the boundary, and a sale archived between two
+            // requests is found in the archive with the same (timestamp, id) position.
+            List<Sale> archived = saleRepository.findArchivedHistoryPage(sellerId.orElse(null), from.orElse(null),
+                    to.orElse(null), afterTimestamp, afterSaleId, size);
+            if (!archived.isEmpty()) {
+                sales = Stream.concat(sales.stream(), archived.stream()).sorted(NEWEST_FIRST).limit(size).toList();
+            }
+        }
+
+        SalePageDTO page = new SalePageDTO();
+        page.setContent(sales.stream().map(saleMapper::toDto).toList());
+        page.setSize(size);
+        if (sales.size() == size) {
+            Sale last = sales.get(sales.size() - 1);
+            page.setNextCursor(HistoryCursor.after(last.getSaleId(), last.getTimestamp()).encode());
+        }
+        return page;
+    }
+
+    @Override
+    public SaleDTO getSale(Long saleId) {
+        return saleRepository.findById(saleId)
+                .or(() -> archive.isReadEnabled() ? saleRepository.findArchivedById(saleId) : Optional.empty())
+                .map(saleMapper::toDto)
+                .orElseThrow(() -> new SaleNotFoundException("Sale not found with ID: " + saleId));
+    }
+
+    /**
+     * Whether the archive can contribute to a page: not when archive reads are off, when the range starts after the
+     * archive boundary, or when a full page of live sales is already newer than the boundary.
+     */
+    private boolean archiveMayHold(List<Sale> livePage, LocalDateTime from, int size) {
+        if (!archive.isReadEnabled()) {
+            return false;
+        }
+        LocalDateTime boundary = archive.archiveBoundary();
+        if (from != null && !from.isBefore(boundary)) {
+            return false;
+        }
+        return livePage.size() < size || livePage.get(livePage.size() - 1).getTimestamp().isBefore(boundary);
+    }
+
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private SaleResponseDTO placeSale(SaleRequestDTO saleRequest) {
         LOGGER.info("Processing sale for seller ID: {}", saleRequest.getSellerId());
 
+        StockReservation reservation = inventoryService.reserve(quantities(saleRequest));
+        Sale sale = newSale(saleRequest, reservation, LocalDateTime.now());
+
+        Sale savedSale = saleRepository.save(sale);
+        LOGGER.info("Sale {} created successfully. Total amount: {}", savedSale.getSaleId(), savedSale.getTotalAmount());
+        eventPublisher.publishEvent(new SalesRecordedEvent(List.of(savedSale))); // Counted in analytics after commit
+
+        return saleMapper.toResponse(savedSale);
+    }
+
+    private Sale newSale(SaleRequestDTO saleRequest, StockReservation reservation, LocalDateTime timestamp) {
         Sale sale = new Sale(); // Manual mapping for some parts
         sale.setSellerId(saleRequest.getSellerId());
         sale.setCustomerName(saleRequest.getCustomerName()); // Can be null
-        sale.setTimestamp(LocalDateTime.now());
+        sale.setTimestamp(timestamp);
 
         List<SaleItem> saleItems = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
+        for (SaleItemDTO itemDTO : saleRequest.getItems()) {
+            SaleItem saleItem = new SaleItem(itemDTO.getBookId(), itemDTO.getQuantity());
+            saleItem.setStockApplied(!reservation.isDeferred(saleItem.getBookId()));
+            saleItems.add(saleItem);
+            Book book = reservation.getBooks().get(saleItem.getBookId());
+            saleItem.setUnitPrice(book.getPrice());
+            totalAmount = totalAmount.add(book.getPrice().multiply(BigDecimal.valueOf(saleItem.getQuantity())));
+        }
+        sale.setItems(saleItems);
+        sale.setTotalAmount(totalAmount);
+        return sale;
+    }
 
+    // Repeated lines for the same book are added up, so the stock check sees the basket's full demand.
+    private static Map<Long, Integer> quantities(SaleRequestDTO saleRequest) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
         for (SaleItemDTO itemDTO : saleRequest.getItems()) {
-            Book book = bookRepository.findById(itemDTO.getBookId())
-                    .orElseThrow(() -> {
-                        LOGGER.error("Book not found with ID: {}", itemDTO.getBookId());
-                        return new BookNotFoundException("Book not found with ID: " + itemDTO.getBookId());
-                    });
-
-            if (book.getStock() < itemDTO.getQuantity()) {
-                LOGGER.error("Insufficient stock for book ID: {}. Requested: {}, Available: {}",
-                        itemDTO.getBookId(), itemDTO.getQuantity(), book.getStock());
-                throw new InsufficientStockException("Insufficient stock for book: " + book.getTitle() +
-                        ". Requested: " + itemDTO.getQuantity() + ", Available: " + book.getStock());
+            quantities.merge(itemDTO.getBookId(), itemDTO.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    @Override
+    public SaleBatchResponseDTO createSales(List<SaleRequestDTO> saleRequests) {
+        SaleBatch batch = new SaleBatch();
+        saleRequests.forEach(batch::add);
+        return batch.finish();
+    }
+
+    @Override
+    public SaleBatchResponseDTO createSales(InputStream ndjson) throws IOException {
+        SaleBatch batch = new SaleBatch();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
             }
+            try {
+                batch.add(saleRequestReader.readValue(line));
+            } catch (JsonProcessingException ex) {
+                batch.reject(List.of("Malformed JSON: " + ex.getOriginalMessage()));
+            }
+        }
+        return batch.finish();
+    }
 
-            // TODO: Consider transactional safety and race conditions for stock updates.
-            book.setStock(book.getStock() - itemDTO.getQuantity());
-            bookRepository.save(book); // Update stock
+    /**
+     * Creates a group of valid sales in one transaction: used for each chunk of a bulk upload and by group commit.
+     * Stock for the whole group is checked with {@link InventoryService#reserveEach}, so sales that cannot be
+     * filled fail on their own, and the rest are inserted with JDBC batches. If the group as a whole fails (stock
+     * taken concurrently after the check, a database error), each sale is retried in its own transaction.
+     */
+    private List<BatchOutcome<SaleResponseDTO>> createGroup(List<SaleRequestDTO> saleRequests) {
+        try {
+            return transactionTemplate.execute(status -> placeSales(saleRequests));
+        } catch (InsufficientStockException | BookNotFoundException | DataAccessException ex) {
+            LOGGER.warn("Group of {} sales failed ({}); retrying sale by sale", saleRequests.size(), ex.getMessage());
+            List<BatchOutcome<SaleResponseDTO>> outcomes = new ArrayList<>(saleRequests.size());
+            for (SaleRequestDTO saleRequest : saleRequests) {
+                try {
+                    outcomes.add(BatchOutcome.of(transactionTemplate.execute(status -> placeSale(saleRequest))));
+                } catch (RuntimeException saleFailure) {
+                    outcomes.add(BatchOutcome.failed(saleFailure));
+                }
+            }
+            return outcomes;
+        }
+    }
 
-            SaleItem saleItem = new SaleItem(itemDTO.getBookId(), itemDTO.getQuantity());
-            saleItems.add(saleItem);
+    private List<BatchOutcome<SaleResponseDTO>> placeSales(List<SaleRequestDTO> saleRequests) {
+        List<Map<Long, Integer>> baskets = new ArrayList<>(saleRequests.size());
+        saleRequests.forEach(saleRequest -> baskets.add(quantities(saleRequest)));
+        List<BatchOutcome<StockReservation>> reservations = inventoryService.reserveEach(baskets);
 
-            totalAmount = totalAmount.add(book.getPrice().multiply(BigDecimal.valueOf(itemDTO.getQuantity())));
+        LocalDateTime now = LocalDateTime.now();
+        List<Sale> accepted = new ArrayList<>(saleRequests.size());
+        for (int i = 0; i < saleRequests.size(); i++) {
+            if (!reservations.get(i).isFailed()) {
+                accepted.add(newSale(saleRequests.get(i), reservations.get(i).getValue(), now));
+            }
         }
-        sale.setItems(saleItems);
-        sale.setTotalAmount(totalAmount);
+        saleRepository.insertAll(accepted);
+        eventPublisher.publishEvent(new SalesRecordedEvent(accepted));
 
-        Sale savedSale = saleRepository.save(sale);
-        LOGGER.info("Sale {} created successfully. Total amount: {}", savedSale.getSaleId(), savedSale.getTotalAmount());
+        List<BatchOutcome<SaleResponseDTO>> outcomes = new ArrayList<>(saleRequests.size());
+        int next = 0;
+        for (BatchOutcome<StockReservation> reservation : reservations) {
+            outcomes.add(reservation.isFailed()
+                    ? BatchOutcome.failed(reservation.getError())
+                    : BatchOutcome.of(saleMapper.toResponse(accepted.get(next++))));
+        }
+        LOGGER.info("Created {} of {} sales in one group", accepted.size(), saleRequests.size());
+        return outcomes;
+    }
+
+    private static SaleBatchResultDTO created(int index, SaleResponseDTO sale) {
+        SaleBatchResultDTO result = new SaleBatchResultDTO();
+        result.setIndex(index);
+        result.setStatus(CREATED);
+        result.setSaleId(sale.getSaleId());
+        result.setTimestamp(sale.getTimestamp());
+        result.setTotalAmount(sale.getTotalAmount());
+        return result;
+    }
+
+    private static SaleBatchResultDTO rejected(int index, List<String> errors) {
+        SaleBatchResultDTO result = new SaleBatchResultDTO();
+        result.setIndex(index);
+        result.setStatus(REJECTED);
+        result.setErrors(errors);
+        return result;
+    }
+
+    private record PendingSale(int index, SaleRequestDTO request) {
+    }
 
-        return modelMapper.map(savedSale, SaleResponseDTO.class);
+    /**
+     * State of one batch request: the chunk being filled and the results so far.
+     */
+    private final class SaleBatch {
+
+        private final long startedAt = System.nanoTime();
+        private final List<PendingSale> chunk = new ArrayList<>(batchChunkSize);
+        private final List<SaleBatchResultDTO> results = new ArrayList<>();
+        private int nextIndex;
+
+        void add(SaleRequestDTO request) {
+            Set<ConstraintViolation<SaleRequestDTO>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.toList()));
+                return;
+            }
+            chunk.add(new PendingSale(nextIndex++, request));
+            if (chunk.size() >= batchChunkSize) {
+                flush();
+            }
+        }
+
+        void reject(List<String> errors) {
+            results.add(rejected(nextIndex++, errors));
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<SaleRequestDTO> saleRequests = new ArrayList<>(chunk.size());
+            chunk.forEach(pending -> saleRequests.add(pending.request));
+            List<BatchOutcome<SaleResponseDTO>> outcomes = createGroup(saleRequests);
+            for (int i = 0; i < chunk.size(); i++) {
+                BatchOutcome<SaleResponseDTO> outcome = outcomes.get(i);
+                results.add(outcome.isFailed()
+                        ? rejected(chunk.get(i).index, List.of(outcome.getError().getMessage()))
+                        : created(chunk.get(i).index, outcome.getValue()));
+            }
+            chunk.clear();
+        }
+
+        SaleBatchResponseDTO finish() {
+            flush();
+            results.sort(Comparator.comparingInt(SaleBatchResultDTO::getIndex));
+            int created = (int) results.stream().filter(result -> CREATED.equals(result.getStatus())).count();
+
+            SaleBatchResponseDTO response = new SaleBatchResponseDTO();
+            response.setCreated(created);
+            response.setRejected(results.size() - created);
+            response.setResults(results);
+            long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+            LOGGER.info("Sale batch processed: {} sales, {} created, {} rejected in {} ms",
+                    results.size(), created, results.size() - created, elapsedMs);
+            return response;
+        }
     }
 }
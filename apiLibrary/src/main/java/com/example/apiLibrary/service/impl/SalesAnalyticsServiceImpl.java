@@ -0,0 +1,109 @@
+package com.example.apiLibrary.service.impl;
+
+import com.example.apiLibrary.analytics.SalesDimension;
+import com.example.apiLibrary.analytics.SalesHotWindow;
+import com.example.apiLibrary.analytics.SalesTotals;
+import com.example.apiLibrary.dto.SalesDayDTO;
+import com.example.apiLibrary.dto.SalesRankingDTO;
+import com.example.apiLibrary.repository.SaleRepository;
+import com.example.apiLibrary.service.SalesAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads SALES_DAILY_ROLLUP and adds the buckets of sales committed since the last rollup round from the
+ * {@link SalesHotWindow}, so results are current without scanning SALES.
+ */
+@Service
+public class SalesAnalyticsServiceImpl implements SalesAnalyticsService {
+
+    private static final int DEFAULT_DAYS = 7;
+    private static final int MAX_LIMIT = 100;
+
+    private final SaleRepository saleRepository;
+    private final SalesHotWindow hotWindow;
+    private final int maxDays;
+
+    @Autowired
+    public SalesAnalyticsServiceImpl(SaleRepository saleRepository,
+                                     SalesHotWindow hotWindow,
+                                     @Value("${app.sales.analytics.max-days:366}") int maxDays) {
+        this.saleRepository = saleRepository;
+        this.hotWindow = hotWindow;
+        this.maxDays = maxDays;
+    }
+
+    @Override
+    public List<SalesDayDTO> getDailyTotals(Optional<LocalDate> from, Optional<LocalDate> to,
+                                            Optional<Long> sellerId, Optional<Long> bookId) {
+        if (sellerId.isPresent() && bookId.isPresent()) {
+            throw new IllegalArgumentException("Filter by sellerId or bookId, not both");
+        }
+        LocalDate toDay = to.orElse(LocalDate.now());
+        LocalDate fromDay = from.orElse(toDay.minusDays(DEFAULT_DAYS - 1));
+        checkRange(fromDay, toDay);
+        SalesDimension dimension = sellerId.isPresent() ? SalesDimension.SELLER
+                : bookId.isPresent() ? SalesDimension.BOOK : SalesDimension.ALL;
+        long dimensionId = sellerId.or(() -> bookId).orElse(0L);
+
+        Map<LocalDate, SalesTotals> daily = saleRepository.findDailyTotals(dimension, dimensionId, fromDay, toDay);
+        hotWindow.dailyTotals(dimension, dimensionId, fromDay, toDay)
+                .forEach((day, pending) -> daily.merge(day, pending, SalesTotals::plus));
+
+        List<SalesDayDTO> days = new ArrayList<>();
+        for (LocalDate day = fromDay; !day.isAfter(toDay); day = day.plusDays(1)) {
+            SalesTotals totals = daily.getOrDefault(day, SalesTotals.ZERO);
+            days.add(new SalesDayDTO(day, totals.salesCount(), totals.units(), totals.revenue()));
+        }
+        return days;
+    }
+
+    @Override
+    public List<SalesRankingDTO> getTopSellers(Optional<LocalDate> from, Optional<LocalDate> to, int limit) {
+        return getTop(SalesDimension.SELLER, from, to, limit);
+    }
+
+    @Override
+    public List<SalesRankingDTO> getTopBooks(Optional<LocalDate> from, Optional<LocalDate> to, int limit) {
+        return getTop(SalesDimension.BOOK, from, to, limit);
+    }
+
+    private List<SalesRankingDTO> getTop(SalesDimension dimension, Optional<LocalDate> from, Optional<LocalDate> to, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        LocalDate toDay = to.orElse(LocalDate.now());
+        LocalDate fromDay = from.orElse(toDay.minusDays(DEFAULT_DAYS - 1));
+        checkRange(fromDay, toDay);
+
+        // Ranked after merging, so sales not rolled up yet can still move a seller or book into the top.
+        Map<Long, SalesTotals> totals = saleRepository.sumTotalsByDimensionId(dimension, fromDay, toDay);
+        hotWindow.totalsByDimensionId(dimension, fromDay, toDay)
+                .forEach((id, pending) -> totals.merge(id, pending, SalesTotals::plus));
+        return totals.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<Long, SalesTotals> entry) -> entry.getValue().revenue()).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(entry -> new SalesRankingDTO(entry.getKey(), entry.getValue().salesCount(),
+                        entry.getValue().units(), entry.getValue().revenue()))
+                .toList();
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxDays + " days");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- Last-modified time of each book, maintained by Spring Data JDBC auditing (@LastModifiedDate on Book) and by the
+-- bulk statements in BookBatchRepositoryImpl. GET /api/books/export?since=... reads it. Run once per schema.
+ALTER TABLE BOOKS ADD (UPDATED_AT TIMESTAMP);
+
+-- Existing books count as modified now, so the first incremental export after the upgrade includes them.
+UPDATE BOOKS SET UPDATED_AT = SYSTIMESTAMP WHERE UPDATED_AT IS NULL;
+COMMIT;
+
+-- ?since=...: range on UPDATED_AT. Full exports read in ID order through the primary key instead.
+CREATE INDEX BOOKS_UPDATED_AT_IX ON BOOKS (UPDATED_AT);
@@ -0,0 +1,4 @@
+-- Optimistic lock column for BOOKS (@Version on Book). Every write to a book bumps it: full-entity saves through
+-- Spring Data JDBC, the guarded stock decrements and the import MERGE in BookBatchRepositoryImpl. Entity tags
+-- (CatalogVersion) are derived from it as well. Existing rows start at 0. Run once per schema.
+ALTER TABLE BOOKS ADD (VERSION NUMBER(19) DEFAULT 0 NOT NULL);
@@ -0,0 +1,19 @@
+-- Transactional outbox for emails (OutboxEmail, OutboxEmailDispatcher). EmailServiceImpl inserts a row in the
+-- same transaction as the order it reports on; the dispatcher claims due PENDING rows, sends them and records
+-- the outcome on the row. Run once per schema.
+CREATE TABLE EMAIL_OUTBOX (
+    ID              NUMBER(19) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    ORDER_ID        NUMBER(19),
+    RECIPIENT       VARCHAR2(320) NOT NULL,
+    SUBJECT         VARCHAR2(998) NOT NULL,
+    BODY            CLOB,
+    STATUS          VARCHAR2(10) NOT NULL,          -- PENDING, SENT or FAILED
+    ATTEMPTS        NUMBER(10) DEFAULT 0 NOT NULL,
+    NEXT_ATTEMPT_AT TIMESTAMP NOT NULL,             -- Due time while PENDING; pushed out while a sender holds it
+    LAST_ERROR      VARCHAR2(1000),                 -- Truncated by the dispatcher to fit
+    CREATED_AT      TIMESTAMP NOT NULL,
+    SENT_AT         TIMESTAMP
+);
+
+-- Claims: STATUS = 'PENDING' AND NEXT_ATTEMPT_AT <= :now. Sent and failed rows sort away from the pending ones.
+CREATE INDEX EMAIL_OUTBOX_DUE_IX ON EMAIL_OUTBOX (STATUS, NEXT_ATTEMPT_AT);
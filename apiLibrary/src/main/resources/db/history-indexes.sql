@@ -0,0 +1,18 @@
+-- Indexes behind the order and sale history endpoints (GET /api/orders, GET /api/sales).
+-- Each one matches a keyset query in OrderHistoryRepositoryImpl / SaleHistoryRepositoryImpl, so a page is an
+-- index range scan that stops after "size" rows, independent of table size. Run once per schema.
+
+-- GET /api/orders?customerEmail=...: equality on the email, then ORDER_ID descending.
+CREATE INDEX ORDERS_CUSTOMER_EMAIL_IX ON ORDERS (CUSTOMER_EMAIL, ORDER_ID);
+
+-- Items for a page of orders: ORDER_ITEM WHERE ORDER_ID IN (...) ORDER BY ORDER_ID, key.
+CREATE INDEX ORDER_ITEM_ORDER_IX ON ORDER_ITEM (ORDER_ID, ORDERS_KEY);
+
+-- GET /api/sales?sellerId=...[&from&to]: equality on the seller, then (TIMESTAMP, SALE_ID) descending.
+CREATE INDEX SALES_SELLER_TIME_IX ON SALES (SELLER_ID, "TIMESTAMP", SALE_ID);
+
+-- GET /api/sales[?from&to] without a seller.
+CREATE INDEX SALES_TIME_IX ON SALES ("TIMESTAMP", SALE_ID);
+
+-- Items for a page of sales.
+CREATE INDEX SALE_ITEM_SALE_IX ON SALE_ITEM (SALE_ID, SALES_KEY);
@@ -0,0 +1,13 @@
+-- Processed Idempotency-Key headers and the responses to replay (IdempotencyKey, IdempotencyServiceImpl).
+-- A row is inserted in the same transaction as the sale or order it guards, so the primary key settles races
+-- between instances. Expired rows are deleted by a scheduled job. Run once per schema.
+CREATE TABLE IDEMPOTENCY_KEYS (
+    ID            VARCHAR2(100) PRIMARY KEY,   -- "<scope>:<SHA-256 hex of caller and key>"
+    REQUEST_HASH  VARCHAR2(64) NOT NULL,       -- SHA-256 hex of the request body
+    RESPONSE_BODY CLOB,                        -- Set before the guarded transaction commits
+    CREATED_AT    TIMESTAMP NOT NULL,
+    EXPIRES_AT    TIMESTAMP NOT NULL
+);
+
+-- Cleanup: DELETE ... WHERE EXPIRES_AT <= :now.
+CREATE INDEX IDEMPOTENCY_KEYS_EXPIRES_IX ON IDEMPOTENCY_KEYS (EXPIRES_AT);
@@ -0,0 +1,11 @@
+-- Single-owner lease for the inventory ledger (InventoryLedgerLease). The one row names the instance whose
+-- in-memory counters hold the stock of the hot books; another instance can only take over once the lease has
+-- expired. Run once per schema.
+CREATE TABLE INVENTORY_LEDGER_LEASE (
+    ID         NUMBER(1) PRIMARY KEY CHECK (ID = 1),
+    OWNER      VARCHAR2(200),
+    EXPIRES_AT TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+INSERT INTO INVENTORY_LEDGER_LEASE (ID, OWNER, EXPIRES_AT) VALUES (1, NULL, SYSTIMESTAMP);
+COMMIT;
@@ -0,0 +1,11 @@
+-- Units the inventory ledger sold beyond what BOOKS still held (BookBatchRepositoryImpl.applyDeferredStock).
+-- BOOKS.STOCK stops at 0, so this is the only record of the deficit: one row per book per flush that found one,
+-- written in the same transaction. Reconcile by restocking or cancelling, then delete the rows. Run once per schema.
+CREATE TABLE INVENTORY_SHORTFALL (
+    ID          NUMBER(19) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    BOOK_ID     NUMBER(19) NOT NULL,
+    UNITS       NUMBER(10) NOT NULL,
+    RECORDED_AT TIMESTAMP NOT NULL
+);
+
+CREATE INDEX INVENTORY_SHORTFALL_BOOK_IX ON INVENTORY_SHORTFALL (BOOK_ID);
@@ -0,0 +1,20 @@
+-- ORDERS_SEQ feeds ORDERS.ORDER_ID on both insert paths: OrderBatchRepositoryImpl draws IDs from it for its JDBC
+-- batches (app.orders.batch.id-sequence), and single saves through Spring Data JDBC get them from the column
+-- default. An identity generator on ORDER_ID is dropped, since it would hand out the same IDs as the sequence.
+-- Run once per schema, with the application stopped, so no row is inserted between reading the highest ID and
+-- switching the default.
+DECLARE
+    next_id          NUMBER;
+    identity_columns NUMBER;
+BEGIN
+    SELECT NVL(MAX(ORDER_ID), 0) + 1 INTO next_id FROM ORDERS;
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE ORDERS_SEQ START WITH ' || next_id || ' CACHE 1000';
+
+    SELECT COUNT(*) INTO identity_columns FROM USER_TAB_IDENTITY_COLS
+     WHERE TABLE_NAME = 'ORDERS' AND COLUMN_NAME = 'ORDER_ID';
+    IF identity_columns > 0 THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE ORDERS MODIFY ORDER_ID DROP IDENTITY';
+    END IF;
+    EXECUTE IMMEDIATE 'ALTER TABLE ORDERS MODIFY ORDER_ID DEFAULT ON NULL ORDERS_SEQ.NEXTVAL';
+END;
+/
@@ -0,0 +1,16 @@
+-- Archive tables for SalesArchiveJob (app.sales.archive.enabled=true). Same columns as SALES and SALE_ITEM, so
+-- SaleArchiveRepositoryImpl copies rows with INSERT ... SELECT and SaleHistoryRepositoryImpl reads both alike.
+-- Rows are written once in bulk and never updated, which suits basic table compression. Run once per schema.
+
+CREATE TABLE SALES_ARCHIVE COMPRESS AS SELECT * FROM SALES WHERE 1 = 0;
+ALTER TABLE SALES_ARCHIVE ADD CONSTRAINT SALES_ARCHIVE_PK PRIMARY KEY (SALE_ID);
+
+CREATE TABLE SALE_ITEM_ARCHIVE COMPRESS AS SELECT * FROM SALE_ITEM WHERE 1 = 0;
+
+-- The same keyset indexes as the live tables (see history-indexes.sql).
+CREATE INDEX SALES_ARCHIVE_SELLER_TIME_IX ON SALES_ARCHIVE (SELLER_ID, "TIMESTAMP", SALE_ID) COMPRESS 1;
+CREATE INDEX SALES_ARCHIVE_TIME_IX ON SALES_ARCHIVE ("TIMESTAMP", SALE_ID);
+CREATE INDEX SALE_ITEM_ARCHIVE_SALE_IX ON SALE_ITEM_ARCHIVE (SALE_ID, SALES_KEY) COMPRESS 1;
+
+-- The archival job looks for old, rolled-up sales with every line applied to BOOKS through
+-- SALES_ROLLED_UP_TIME_IX, created with the ROLLED_UP column in sales-rollup.sql.
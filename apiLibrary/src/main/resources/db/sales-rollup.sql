@@ -0,0 +1,25 @@
+-- Daily sales rollups (SalesRollupJob, SalesRollupRepositoryImpl). Run once per schema.
+
+-- Sales start out unrolled; the job folds them into SALES_DAILY_ROLLUP and sets the flag. Existing sales are
+-- rolled up gradually by the job, max-sales-per-round at a time.
+ALTER TABLE SALES ADD (ROLLED_UP NUMBER(1) DEFAULT 0 NOT NULL);
+
+-- The book price at the time of the sale. Existing lines stay NULL and fall back to the current book price.
+ALTER TABLE SALE_ITEM ADD (UNIT_PRICE NUMBER);
+
+-- One row per (dimension, dimension ID, day): ALL with ID 0, SELLER with the seller ID, BOOK with the book ID.
+CREATE TABLE SALES_DAILY_ROLLUP (
+    DIMENSION    VARCHAR2(10) NOT NULL,
+    DIMENSION_ID NUMBER(19) NOT NULL,
+    SALE_DAY     DATE NOT NULL,
+    SALES_COUNT  NUMBER(19) NOT NULL,
+    UNITS        NUMBER(19) NOT NULL,
+    REVENUE      NUMBER NOT NULL,
+    CONSTRAINT SALES_DAILY_ROLLUP_PK PRIMARY KEY (DIMENSION, DIMENSION_ID, SALE_DAY)
+);
+
+-- Rankings read every ID of a dimension over a day range: DIMENSION = ? AND SALE_DAY BETWEEN ? AND ?.
+CREATE INDEX SALES_DAILY_ROLLUP_DAY_IX ON SALES_DAILY_ROLLUP (DIMENSION, SALE_DAY, DIMENSION_ID);
+
+-- The job claims ROLLED_UP = 0; the archival job (sales-archive.sql) looks for rolled-up sales by time.
+CREATE INDEX SALES_ROLLED_UP_TIME_IX ON SALES (ROLLED_UP, "TIMESTAMP");
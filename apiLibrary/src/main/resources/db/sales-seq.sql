@@ -0,0 +1,20 @@
+-- SALES_SEQ feeds SALES.SALE_ID on both insert paths: SaleBatchRepositoryImpl draws IDs from it for its JDBC
+-- batches (app.sales.batch.id-sequence), and single saves through Spring Data JDBC get them from the column
+-- default. An identity generator on SALE_ID is dropped, since it would hand out the same IDs as the sequence.
+-- Run once per schema, with the application stopped, so no row is inserted between reading the highest ID and
+-- switching the default.
+DECLARE
+    next_id          NUMBER;
+    identity_columns NUMBER;
+BEGIN
+    SELECT NVL(MAX(SALE_ID), 0) + 1 INTO next_id FROM SALES;
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE SALES_SEQ START WITH ' || next_id || ' CACHE 1000';
+
+    SELECT COUNT(*) INTO identity_columns FROM USER_TAB_IDENTITY_COLS
+     WHERE TABLE_NAME = 'SALES' AND COLUMN_NAME = 'SALE_ID';
+    IF identity_columns > 0 THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE SALES MODIFY SALE_ID DROP IDENTITY';
+    END IF;
+    EXECUTE IMMEDIATE 'ALTER TABLE SALES MODIFY SALE_ID DEFAULT ON NULL SALES_SEQ.NEXTVAL';
+END;
+/
@@ -0,0 +1,10 @@
+-- Whether a sale or order line has been subtracted from BOOKS.STOCK yet. Lines taken through the inventory
+-- ledger (app.inventory.ledger.enabled) are written with 0 and set to 1 by InventoryLedgerFlusher; every other
+-- line is written with 1. Existing lines have all been applied. Run once per schema.
+ALTER TABLE SALE_ITEM ADD (STOCK_APPLIED NUMBER(1) DEFAULT 1 NOT NULL);
+ALTER TABLE ORDER_ITEM ADD (STOCK_APPLIED NUMBER(1) DEFAULT 1 NOT NULL);
+
+-- The flusher and the startup recovery look for pending lines: STOCK_APPLIED = 0 AND ROWNUM <= ?. Nearly every
+-- row holds 1, so the range scan only ever visits the few pending ones.
+CREATE INDEX SALE_ITEM_STOCK_APPLIED_IX ON SALE_ITEM (STOCK_APPLIED);
+CREATE INDEX ORDER_ITEM_STOCK_APPLIED_IX ON ORDER_ITEM (STOCK_APPLIED);
@@ -0,0 +1,3 @@
+-- Per-user token version for revoking JWTs (see TokenVersions). Existing tokens carry no version and count as 0,
+-- so they stay valid until the user is first revoked. Run once per schema.
+ALTER TABLE USERS ADD (TOKEN_VERSION NUMBER(10) DEFAULT 0 NOT NULL);
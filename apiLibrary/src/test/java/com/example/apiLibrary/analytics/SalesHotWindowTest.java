@@ -0,0 +1,110 @@
+package com.example.apiLibrary.analytics;
+
+import com.example.apiLibrary.model.Sale;
+import com.example.apiLibrary.model.SaleItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SalesHotWindow}: every sale of this instance is counted by the window until it is rolled
+ * up and never after, whichever of its after-commit event and the rollup comes first.
+ */
+class SalesHotWindowTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    private SalesHotWindow window;
+
+    @BeforeEach
+    void setUp() {
+        window = new SalesHotWindow(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void committedSaleIsCountedUntilItIsRolledUp() {
+        SalesRecordedEvent event = new SalesRecordedEvent(List.of(sale(1)));
+        window.onSalesInserted(event);
+        window.onSalesRecorded(event);
+
+        assertThat(salesOfTheDay()).isEqualTo(1);
+
+        window.rolledUp(List.of(1L));
+
+        assertThat(salesOfTheDay()).isZero();
+    }
+
+    @Test
+    void saleRolledUpBeforeItsEventArrivesIsNotCountedByTheLateEvent() {
+        SalesRecordedEvent event = new SalesRecordedEvent(List.of(sale(1)));
+        window.onSalesInserted(event);
+
+        window.rolledUp(List.of(1L)); // The job saw the commit first
+        window.onSalesRecorded(event);
+
+        assertThat(salesOfTheDay()).isZero();
+    }
+
+    @Test
+    void rollupOfSalesThisInstanceIsNotCommittingLeavesNothingBehind() {
+        window.rolledUp(List.of(7L, 8L)); // Another instance's sales, or history the job catches up on
+
+        SalesRecordedEvent event = new SalesRecordedEvent(List.of(sale(7)));
+        window.onSalesInserted(event);
+        window.onSalesRecorded(event); // Same ID committed later here: not mistaken for an early rollup
+
+        assertThat(salesOfTheDay()).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackSaleIsNeitherCountedNorRemembered() {
+        SalesRecordedEvent event = new SalesRecordedEvent(List.of(sale(1)));
+        window.onSalesInserted(event);
+        window.onSalesRolledBack(event);
+        window.rolledUp(List.of(1L));
+
+        SalesRecordedEvent retried = new SalesRecordedEvent(List.of(sale(1)));
+        window.onSalesInserted(retried);
+        window.onSalesRecorded(retried);
+
+        assertThat(salesOfTheDay()).isEqualTo(1);
+    }
+
+    @Test
+    void rollupOfOneSaleLeavesTheOthersInTheBucket() {
+        SalesRecordedEvent event = new SalesRecordedEvent(List.of(sale(1), sale(2)));
+        window.onSalesInserted(event);
+        window.onSalesRecorded(event);
+
+        window.rolledUp(List.of(1L));
+
+        Map<LocalDate, SalesTotals> daily = window.dailyTotals(SalesDimension.ALL, 0, DAY, DAY);
+        assertThat(daily.get(DAY)).isEqualTo(new SalesTotals(1, 2, new BigDecimal("20.00")));
+    }
+
+    private long salesOfTheDay() {
+        SalesTotals totals = window.dailyTotals(SalesDimension.ALL, 0, DAY, DAY).get(DAY);
+        return totals == null ? 0 : totals.salesCount();
+    }
+
+    private static Sale sale(long saleId) {
+        SaleItem item = new SaleItem(3L, 2);
+        item.setUnitPrice(new BigDecimal("10.00"));
+        Sale sale = new Sale();
+        sale.setSaleId(saleId);
+        sale.setSellerId(5L);
+        sale.setTimestamp(LocalDateTime.of(DAY, LocalTime.NOON));
+        sale.setTotalAmount(new BigDecimal("20.00"));
+        sale.setItems(List.of(item));
+        return sale;
+    }
+}
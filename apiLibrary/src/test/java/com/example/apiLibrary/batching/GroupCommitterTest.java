@@ -0,0 +1,75 @@
+package com.example.apiLibrary.batching;
+
+import com.example.apiLibrary.exception.GroupCommitOutcomeUnknownException;
+import com.example.apiLibrary.exception.GroupCommitUnavailableException;
+import com.example.apiLibrary.service.BatchOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for how {@link GroupCommitter} fails a caller that gives up: the exception has to tell a request
+ * that was never written from one that may still commit.
+ */
+class GroupCommitterTest {
+
+    private static final long TIMEOUT_MS = 200;
+
+    private final CountDownLatch batchStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseBatch = new CountDownLatch(1);
+    private final List<String> applied = new CopyOnWriteArrayList<>();
+    // Applies each batch only once the test releases it, so the worker is busy for as long as the test needs.
+    private final GroupCommitter<String, String> groupCommitter = new GroupCommitter<>("test", requests -> {
+        batchStarted.countDown();
+        try {
+            releaseBatch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        applied.addAll(requests);
+        return requests.stream().map(BatchOutcome::of).collect(Collectors.toList());
+    }, 0, 64, 10, TIMEOUT_MS, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        releaseBatch.countDown();
+        groupCommitter.close();
+    }
+
+    @Test
+    void requestWhoseBatchIsStillBeingAppliedHasAnUnknownOutcome() {
+        assertThatThrownBy(() -> groupCommitter.submit("first"))
+                .isInstanceOf(GroupCommitOutcomeUnknownException.class)
+                .hasMessageContaining("may still be committed");
+
+        releaseBatch.countDown();
+        groupCommitter.close();
+        assertThat(applied).containsExactly("first"); // Committed after its caller gave up
+    }
+
+    @Test
+    void requestNotPickedUpInTimeIsDroppedAndSafeToRetry() throws Exception {
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> groupCommitter.submit("first"));
+        assertThat(batchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> groupCommitter.submit("second"))
+                .isInstanceOf(GroupCommitUnavailableException.class)
+                .hasMessageContaining("nothing was written");
+
+        releaseBatch.countDown();
+        assertThat(first.handle((result, error) -> error.getCause())).succeedsWithin(5, TimeUnit.SECONDS)
+                .isInstanceOf(GroupCommitOutcomeUnknownException.class);
+        groupCommitter.close();
+        assertThat(applied).containsExactly("first");
+    }
+}
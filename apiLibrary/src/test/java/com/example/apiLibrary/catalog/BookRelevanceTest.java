@@ -0,0 +1,66 @@
+package com.example.apiLibrary.catalog;
+
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.repository.BookFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link BookRelevance}: the text index and the snapshot scan rank a search the same way, and
+ * ranked pages continue from a rank key computed from the last book alone.
+ */
+class BookRelevanceTest {
+
+    private CatalogSnapshot snapshot;
+    private BookTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new CatalogSnapshot.Builder()
+                .add(1, "The Art of War", "Sun Tzu", "isbn-1", new BigDecimal("10.00"), 5, "History", 0)
+                .add(2, "War and Peace", "Leo Tolstoy", "isbn-2", new BigDecimal("20.00"), 5, "Fiction", 0)
+                .add(3, "Warlock", "Wilbur Smith", "isbn-3", new BigDecimal("15.00"), 5, "Fiction", 0)
+                .add(4, "Postwar", "Tony Judt", "isbn-4", new BigDecimal("30.00"), 5, "History", 0)
+                .add(5, "Wär und Frieden", "Anonymous", "isbn-5", new BigDecimal("12.00"), 5, "Fiction", 0)
+                .add(6, "Peace", "Someone", "isbn-6", new BigDecimal("8.00"), 5, "Fiction", 0)
+                .build();
+        index = new BookTextIndex();
+        index.rebuild(snapshot);
+    }
+
+    @Test
+    void prefixRanksBeforeWordStartBeforeInsideAWord() {
+        BookRelevance.Ranking ranking = index.findRanked("war", null);
+
+        // Prefixes, shortest title first; then the word start; then the match inside a word.
+        assertThat(ranking.ids()).containsExactly(3, 2, 5, 1, 4);
+    }
+
+    @Test
+    void scanRanksLikeTheIndex() {
+        BookRelevance.Ranking indexed = index.findRanked("war", null);
+        BookRelevance.Ranking scanned = snapshot.rankByScan("war", null);
+
+        assertThat(scanned.ids()).containsExactly(indexed.ids());
+        assertThat(scanned.keys()).containsExactly(indexed.keys());
+    }
+
+    @Test
+    void rankedPageContinuesFromTheKeyOfItsLastBook() {
+        BookFilter filter = new BookFilter("war", null, "Fiction", null, null);
+        BookRelevance.Ranking ranking = index.findRanked("war", null);
+
+        List<BookDTO> first = snapshot.findRankedPage(filter, ranking, 0, 2);
+        BookDTO last = first.get(first.size() - 1);
+        long afterKey = BookRelevance.key(last.getTitle(), last.getAuthor(), "war", null);
+        List<BookDTO> second = snapshot.findRankedPageAfter(filter, ranking, afterKey, last.getId(), 2);
+
+        assertThat(first).extracting(BookDTO::getId).containsExactly(3L, 2L);
+        assertThat(second).extracting(BookDTO::getId).containsExactly(5L);
+    }
+}
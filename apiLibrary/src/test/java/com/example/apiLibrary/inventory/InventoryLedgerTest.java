@@ -0,0 +1,133 @@
+package com.example.apiLibrary.inventory;
+
+import com.example.apiLibrary.exception.StockUnavailableException;
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for how {@link InventoryLedger} hands its books back to the database once the lease is lost: not
+ * before the baskets still in flight have ended and every pending line has been flushed to BOOKS.
+ */
+class InventoryLedgerTest {
+
+    private static final long HOT_BOOK = 1L;
+    private static final long OTHER_BOOK = 2L;
+
+    private InventoryLedgerFlusher flusher;
+    private final AtomicBoolean held = new AtomicBoolean(true);
+    private final AtomicReference<Runnable> onLost = new AtomicReference<>();
+    private final ExecutorService callers = Executors.newCachedThreadPool(); // Request threads
+
+    @BeforeEach
+    void setUp() {
+        flusher = mock(InventoryLedgerFlusher.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void hotBookFallsBackOnlyAfterInFlightBasketsEndAndPendingLinesAreFlushed() throws Exception {
+        InventoryLedger ledger = newLedger(5000);
+        assertThat(ledger.tryTake(Map.of(HOT_BOOK, 2))).isNull(); // Committing, not completed yet
+
+        loseLease();
+        CompletableFuture<Boolean> manages = CompletableFuture.supplyAsync(() -> ledger.manages(HOT_BOOK), callers);
+        Thread.sleep(200);
+        assertThat(manages).isNotDone();
+        verify(flusher, times(1)).flushAll(); // Only the one at startup
+
+        ledger.completed(Map.of(HOT_BOOK, 2), true);
+
+        assertThat(manages).succeedsWithin(5, TimeUnit.SECONDS).isEqualTo(false);
+        verify(flusher, times(2)).flushAll();
+    }
+
+    @Test
+    void basketsWaitingForADrainThatDoesNotFinishAreTurnedAway() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch releaseFlush = new CountDownLatch(1);
+        InventoryLedger ledger = newLedger(100);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            releaseFlush.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(flusher).flushAll();
+
+        loseLease();
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> ledger.manages(HOT_BOOK)).isInstanceOf(StockUnavailableException.class);
+        assertThat(ledger.manages(OTHER_BOOK)).isFalse(); // Not a hot book: never waits
+        releaseFlush.countDown();
+    }
+
+    @Test
+    void takeAfterTheLeaseIsLostReservesNothing() {
+        InventoryLedger ledger = newLedger(5000);
+        loseLease();
+
+        assertThatThrownBy(() -> ledger.tryTake(Map.of(HOT_BOOK, 1))).isInstanceOf(StockUnavailableException.class);
+        assertThat(ledger.available(HOT_BOOK)).isEqualTo(10);
+    }
+
+    @Test
+    void basketThatRollsBackHandsItsStockBack() {
+        InventoryLedger ledger = newLedger(5000);
+
+        assertThat(ledger.tryTake(Map.of(HOT_BOOK, 3))).isNull();
+        ledger.completed(Map.of(HOT_BOOK, 3), false);
+
+        assertThat(ledger.available(HOT_BOOK)).isEqualTo(10);
+    }
+
+    private InventoryLedger newLedger(long drainWaitMs) {
+        Book book = new Book();
+        book.setId(HOT_BOOK);
+        book.setIsbn("978-0000000001");
+        book.setStock(10);
+        BookRepository bookRepository = mock(BookRepository.class);
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book));
+        InventoryLedgerLease lease = mock(InventoryLedgerLease.class);
+        when(lease.isHeld()).thenAnswer(invocation -> held.get());
+        doAnswer(invocation -> {
+            onLost.set(invocation.getArgument(0));
+            return null;
+        }).when(lease).onLost(any());
+
+        InventoryLedger ledger = new InventoryLedger(bookRepository, flusher, lease, Set.of(HOT_BOOK), drainWaitMs);
+        ledger.recover();
+        return ledger;
+    }
+
+    // What InventoryLedgerLease does when a renewal fails: isHeld() turns false for good, then the listeners run.
+    private void loseLease() {
+        held.set(false);
+        onLost.get().run();
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.apiLibrary.mail;
+
+import com.example.apiLibrary.model.OutboxEmail;
+import com.example.apiLibrary.repository.OutboxEmailRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.byLessThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link OutboxEmailDispatcher} with a mocked outbox and a stub SMTP sender that records what it
+ * was asked to send and fails the recipients it is told to.
+ */
+class OutboxEmailDispatcherTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long INITIAL_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 5000;
+    private static final long LEASE_MS = 60000;
+
+    private OutboxEmailRepository outboxEmailRepository;
+    private StubMailSender mailSender;
+    private OutboxEmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxEmailRepository = mock(OutboxEmailRepository.class);
+        mailSender = new StubMailSender();
+        dispatcher = new OutboxEmailDispatcher(outboxEmailRepository, mailSender, "shop@example.com",
+                1, BATCH_SIZE, MAX_ATTEMPTS, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS, LEASE_MS);
+    }
+
+    @Test
+    void claimsDueEmailsUnderALeaseAndSendsTheBatchOverOneConnection() throws Exception {
+        List<OutboxEmail> batch = List.of(email(1, 0), email(2, 0), email(3, 0));
+        when(outboxEmailRepository.claimDue(any(), any(), anyInt())).thenReturn(batch, List.of());
+
+        dispatchAndWait();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEmailRepository, atLeastOnce()).claimDue(now.capture(), leaseUntil.capture(), anyInt());
+        verify(outboxEmailRepository, atLeastOnce()).claimDue(any(), any(), eq(BATCH_SIZE));
+        assertThat(Duration.between(now.getAllValues().get(0), leaseUntil.getAllValues().get(0)))
+                .isEqualTo(Duration.ofMillis(LEASE_MS));
+
+        assertThat(mailSender.connections).hasSize(1);
+        assertThat(mailSender.connections.get(0)).extracting(message -> message.getTo()[0])
+                .containsExactlyInAnyOrder("reader1@example.com", "reader2@example.com", "reader3@example.com");
+        assertThat(mailSender.connections.get(0)).allMatch(message -> "shop@example.com".equals(message.getFrom()));
+        verify(outboxEmailRepository).updateDeliveryStatus(any());
+        assertThat(batch).allSatisfy(email -> {
+            assertThat(email.getStatus()).isEqualTo(OutboxEmail.SENT);
+            assertThat(email.getAttempts()).isEqualTo(1);
+            assertThat(email.getSentAt()).isNotNull();
+            assertThat(email.getNextAttemptAt()).isNull();
+        });
+    }
+
+    @Test
+    void rejectedRecipientIsRetriedWithExponentialBackoffAndTheRestAreSent() throws Exception {
+        OutboxEmail rejected = email(1, 1);
+        OutboxEmail delivered = email(2, 0);
+        when(outboxEmailRepository.claimDue(any(), any(), anyInt()))
+                .thenReturn(List.of(rejected, delivered), List.of());
+        mailSender.rejected.add("reader1@example.com");
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatchAndWait();
+
+        assertThat(rejected.getStatus()).isEqualTo(OutboxEmail.PENDING);
+        assertThat(rejected.getAttempts()).isEqualTo(2);
+        assertThat(rejected.getLastError()).contains("Mailbox unavailable");
+        // Second attempt: initial backoff doubled once.
+        assertThat(rejected.getNextAttemptAt()).isCloseTo(before.plusNanos(2 * INITIAL_BACKOFF_MS * 1_000_000),
+                byLessThan(500, ChronoUnit.MILLIS));
+        assertThat(delivered.getStatus()).isEqualTo(OutboxEmail.SENT);
+    }
+
+    @Test
+    void backoffIsCappedAtTheMaximum() throws Exception {
+        OutboxEmail rejected = email(1, 2); // Third attempt would wait 4 s, fourth 8 s; this is the third
+        when(outboxEmailRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(rejected), List.of());
+        mailSender.rejected.add("reader1@example.com");
+        dispatcher.shutdown();
+        dispatcher = new OutboxEmailDispatcher(outboxEmailRepository, mailSender, "", 1, BATCH_SIZE, 10,
+                INITIAL_BACKOFF_MS, 3000, LEASE_MS);
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatchAndWait();
+
+        assertThat(rejected.getNextAttemptAt()).isCloseTo(before.plusSeconds(3), byLessThan(500, ChronoUnit.MILLIS));
+    }
+
+    @Test
+    void connectionFailureRetriesTheWholeBatch() throws Exception {
+        List<OutboxEmail> batch = List.of(email(1, 0), email(2, 0));
+        when(outboxEmailRepository.claimDue(any(), any(), anyInt())).thenReturn(batch, List.of());
+        mailSender.connectionRefused = true;
+
+        dispatchAndWait();
+
+        assertThat(batch).allSatisfy(email -> {
+            assertThat(email.getStatus()).isEqualTo(OutboxEmail.PENDING);
+            assertThat(email.getAttempts()).isEqualTo(1);
+            assertThat(email.getNextAttemptAt()).isNotNull();
+            assertThat(email.getLastError()).contains("Connection refused");
+        });
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() throws Exception {
+        OutboxEmail email = email(1, MAX_ATTEMPTS - 1);
+        when(outboxEmailRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(email), List.of());
+        mailSender.rejected.add("reader1@example.com");
+
+        dispatchAndWait();
+
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.FAILED);
+        assertThat(email.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(email.getNextAttemptAt()).isNull();
+    }
+
+    @Test
+    void failedClaimSendsNothingAndTheNextPollStartsOver() throws Exception {
+        OutboxEmail email = email(1, 0);
+        when(outboxEmailRepository.claimDue(any(), any(), anyInt()))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenReturn(List.of(email), List.of());
+
+        dispatcher.poll();
+        assertThat(mailSender.connections).isEmpty();
+        verify(outboxEmailRepository, never()).updateDeliveryStatus(any());
+
+        dispatchAndWait();
+        assertThat(email.getStatus()).isEqualTo(OutboxEmail.SENT);
+    }
+
+    @Test
+    void committedOrderClaimsOnTheDispatcherThreadNotTheCallers() throws Exception {
+        List<String> claimingThreads = new ArrayList<>();
+        when(outboxEmailRepository.claimDue(any(), any(), anyInt())).thenAnswer(invocation -> {
+            claimingThreads.add(Thread.currentThread().getName());
+            return List.of();
+        });
+
+        dispatcher.onEmailQueued(new OutboxEmailQueuedEvent());
+        dispatcher.shutdown(); // Waits for the claim round
+
+        assertThat(claimingThreads).containsExactly("outbox-claim");
+    }
+
+    private void dispatchAndWait() throws InterruptedException {
+        dispatcher.poll();
+        dispatcher.shutdown(); // Waits for the sender thread to finish the batch
+    }
+
+    private static OutboxEmail email(long id, int attempts) {
+        OutboxEmail email = new OutboxEmail();
+        email.setId(id);
+        email.setRecipient("reader" + id + "@example.com");
+        email.setSubject("Order confirmation");
+        email.setBody("Thank you for your order.");
+        email.setStatus(OutboxEmail.PENDING);
+        email.setAttempts(attempts);
+        return email;
+    }
+
+    /**
+     * Records each send call as one SMTP connection. Recipients in {@link #rejected} fail the way a server
+     * rejecting them would, and {@link #connectionRefused} fails the whole call before anything is sent.
+     */
+    private static final class StubMailSender implements JavaMailSender {
+
+        private final List<List<SimpleMailMessage>> connections = new ArrayList<>();
+        private final Set<String> rejected = new HashSet<>();
+        private volatile boolean connectionRefused;
+
+        @Override
+        public synchronized void send(SimpleMailMessage... messages) {
+            if (connectionRefused) {
+                throw new MailSendException("Connection refused");
+            }
+            connections.add(List.of(messages));
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (SimpleMailMessage message : messages) {
+                if (rejected.contains(message.getTo()[0])) {
+                    failed.put(message, new IllegalStateException("550 Mailbox unavailable"));
+                }
+            }
+            if (!failed.isEmpty()) {
+                throw new MailSendException("Some messages failed", null, failed);
+            }
+        }
+
+        @Override
+        public MimeMessage createMimeMessage() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MimeMessage createMimeMessage(InputStream contentStream) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
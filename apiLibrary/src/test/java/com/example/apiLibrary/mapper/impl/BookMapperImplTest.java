@@ -0,0 +1,56 @@
+package com.example.apiLibrary.mapper.impl;
+
+import com.example.apiLibrary.dto.BookDTO;
+import com.example.apiLibrary.model.Book;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link BookMapperImpl} against ModelMapper as the services used it before (a plain {@code new ModelMapper()}):
+ * the hand-written mapper must produce the same DTO, field by field.
+ */
+class BookMapperImplTest {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final BookMapperImpl bookMapper = new BookMapperImpl();
+
+    @Test
+    void mapsEveryFieldAsModelMapperDid() {
+        Book book = new Book();
+        book.setId(7L);
+        book.setTitle("Dune");
+        book.setAuthor("Frank Herbert");
+        book.setIsbn("978-0441013593");
+        book.setPrice(new BigDecimal("18.99"));
+        book.setStock(12);
+        book.setCategory("Science Fiction");
+        book.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 10, 30));
+        book.setVersion(3L);
+
+        BookDTO dto = bookMapper.toDto(book);
+
+        assertThat(dto).usingRecursiveComparison().isEqualTo(modelMapper.map(book, BookDTO.class));
+        assertThat(dto.getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void leavesMissingFieldsNullAsModelMapperDid() {
+        Book book = new Book();
+        book.setId(8L);
+
+        BookDTO dto = bookMapper.toDto(book);
+
+        assertThat(dto).usingRecursiveComparison().isEqualTo(modelMapper.map(book, BookDTO.class));
+        assertThat(dto).hasAllNullFieldsOrPropertiesExcept("id");
+    }
+
+    @Test
+    void mapsNoBookToNoDto() {
+        assertThat(bookMapper.toDto(null)).isNull();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.apiLibrary.mapper.impl;
+
+import com.example.apiLibrary.dto.OrderDTO;
+import com.example.apiLibrary.dto.OrderItemDTO;
+import com.example.apiLibrary.dto.OrderRequestDTO;
+import com.example.apiLibrary.dto.OrderResponseDTO;
+import com.example.apiLibrary.model.Order;
+import com.example.apiLibrary.model.OrderItem;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link OrderMapperImpl} against ModelMapper as the services used it before (a plain {@code new ModelMapper()}),
+ * in all three directions it replaced, including the nested items and missing fields.
+ */
+class OrderMapperImplTest {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final OrderMapperImpl orderMapper = new OrderMapperImpl();
+
+    @Test
+    void requestBecomesTheSameEntityAsWithModelMapper() {
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setCustomerName("Ada Reader");
+        request.setCustomerEmail("ada@example.com");
+        request.setItems(List.of(item(1L, 2), item(5L, 1), item(9L, null)));
+
+        Order order = orderMapper.toEntity(request);
+
+        assertThat(order).usingRecursiveComparison().isEqualTo(modelMapper.map(request, Order.class));
+        assertThat(order.getOrderId()).isNull();
+        assertThat(order.getStatus()).isNull();
+        assertThat(order.getItems()).extracting(OrderItem::getStockApplied).containsOnly(Boolean.TRUE);
+    }
+
+    @Test
+    void requestWithoutItemsOrCustomerBecomesTheSameEntityAsWithModelMapper() {
+        OrderRequestDTO request = new OrderRequestDTO();
+
+        Order order = orderMapper.toEntity(request);
+
+        assertThat(order).usingRecursiveComparison().isEqualTo(modelMapper.map(request, Order.class));
+        assertThat(order.getItems()).isNull();
+    }
+
+    @Test
+    void orderBecomesTheSameDtoAsWithModelMapper() {
+        Order order = order();
+
+        OrderDTO dto = orderMapper.toDto(order);
+
+        assertThat(dto).usingRecursiveComparison().isEqualTo(modelMapper.map(order, OrderDTO.class));
+        assertThat(dto.getItems()).hasSize(3);
+    }
+
+    @Test
+    void orderWithMissingFieldsBecomesTheSameDtoAsWithModelMapper() {
+        Order order = new Order();
+        order.setOrderId(43L);
+        order.setItems(new ArrayList<>());
+
+        OrderDTO dto = orderMapper.toDto(order);
+
+        assertThat(dto).usingRecursiveComparison().isEqualTo(modelMapper.map(order, OrderDTO.class));
+        assertThat(dto.getItems()).isEmpty();
+    }
+
+    @Test
+    void orderBecomesTheSameResponseAsWithModelMapper() {
+        Order order = order();
+
+        OrderResponseDTO response = orderMapper.toResponse(order);
+
+        assertThat(response).usingRecursiveComparison().isEqualTo(modelMapper.map(order, OrderResponseDTO.class));
+        assertThat(response.getMessage()).isNull();
+    }
+
+    @Test
+    void mapsNothingToNothing() {
+        assertThat(orderMapper.toEntity(null)).isNull();
+        assertThat(orderMapper.toDto(null)).isNull();
+        assertThat(orderMapper.toResponse(null)).isNull();
+    }
+
+    private static Order order() {
+        Order order = new Order();
+        order.setOrderId(42L);
+        order.setCustomerName("Ada Reader");
+        order.setCustomerEmail("ada@example.com");
+        order.setStatus("CREATED");
+        OrderItem deferred = new OrderItem(3L, 4);
+        deferred.setStockApplied(Boolean.FALSE);
+        order.setItems(List.of(new OrderItem(1L, 2), deferred, new OrderItem(null, null)));
+        return order;
+    }
+
+    private static OrderItemDTO item(Long bookId, Integer quantity) {
+        OrderItemDTO item = new OrderItemDTO();
+        item.setBookId(bookId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
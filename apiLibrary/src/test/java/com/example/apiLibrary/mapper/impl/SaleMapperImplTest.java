@@ -0,0 +1,81 @@
+package com.example.apiLibrary.mapper.impl;
+
+import com.example.apiLibrary.dto.SaleDTO;
+import com.example.apiLibrary.dto.SaleResponseDTO;
+import com.example.apiLibrary.model.Sale;
+import com.example.apiLibrary.model.SaleItem;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link SaleMapperImpl} against ModelMapper as the services used it before (a plain {@code new ModelMapper()}),
+ * including the nested items and missing fields.
+ */
+class SaleMapperImplTest {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final SaleMapperImpl saleMapper = new SaleMapperImpl();
+
+    @Test
+    void saleBecomesTheSameResponseAsWithModelMapper() {
+        Sale sale = sale();
+
+        SaleResponseDTO response = saleMapper.toResponse(sale);
+
+        assertThat(response).usingRecursiveComparison().isEqualTo(modelMapper.map(sale, SaleResponseDTO.class));
+    }
+
+    @Test
+    void saleBecomesTheSameDtoAsWithModelMapper() {
+        Sale sale = sale();
+
+        SaleDTO dto = saleMapper.toDto(sale);
+
+        assertThat(dto).usingRecursiveComparison().isEqualTo(modelMapper.map(sale, SaleDTO.class));
+        assertThat(dto.getItems()).hasSize(3);
+    }
+
+    @Test
+    void saleWithMissingFieldsMapsAsWithModelMapper() {
+        Sale sale = new Sale();
+        sale.setSaleId(12L);
+
+        assertThat(saleMapper.toDto(sale)).usingRecursiveComparison()
+                .isEqualTo(modelMapper.map(sale, SaleDTO.class));
+        assertThat(saleMapper.toResponse(sale)).usingRecursiveComparison()
+                .isEqualTo(modelMapper.map(sale, SaleResponseDTO.class));
+        assertThat(saleMapper.toDto(sale).getItems()).isNull();
+    }
+
+    @Test
+    void mapsNoSaleToNothing() {
+        assertThat(saleMapper.toResponse(null)).isNull();
+        assertThat(saleMapper.toDto(null)).isNull();
+    }
+
+    private static Sale sale() {
+        Sale sale = new Sale();
+        sale.setSaleId(11L);
+        sale.setSellerId(2L);
+        sale.setCustomerName("Walk-in");
+        sale.setTimestamp(LocalDateTime.of(2024, 5, 1, 23, 59, 59));
+        sale.setTotalAmount(new BigDecimal("61.97"));
+        sale.setRolledUp(Boolean.TRUE);
+        sale.setItems(List.of(item(1L, 2, "18.99"), item(4L, 1, "23.99"), item(null, null, null)));
+        return sale;
+    }
+
+    private static SaleItem item(Long bookId, Integer quantity, String unitPrice) {
+        SaleItem item = new SaleItem();
+        item.setBookId(bookId);
+        item.setQuantity(quantity);
+        item.setUnitPrice(unitPrice == null ? null : new BigDecimal(unitPrice));
+        return item;
+    }
+}
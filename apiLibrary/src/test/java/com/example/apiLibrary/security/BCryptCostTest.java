@@ -0,0 +1,48 @@
+package com.example.apiLibrary.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link BCryptCost}: calibration stays within 10..16 however fast or slow the machine is, and a
+ * stored hash is rehashed exactly when its cost differs.
+ */
+class BCryptCostTest {
+
+    @Test
+    void calibrationNeverGoesBelowTheMinimum() {
+        assertThat(BCryptCost.calibrate(0).strength()).isEqualTo(BCryptCost.MIN_STRENGTH);
+    }
+
+    @Test
+    void calibrationNeverGoesAboveTheMaximum() {
+        assertThat(BCryptCost.calibrate(Long.MAX_VALUE).strength()).isEqualTo(BCryptCost.MAX_STRENGTH);
+    }
+
+    @Test
+    void hashWithTheSameCostIsKept() {
+        BCryptCost cost = BCryptCost.of(12);
+
+        assertThat(cost.differsFrom("$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW")).isFalse();
+        assertThat(cost.differsFrom("$2b$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW")).isFalse();
+    }
+
+    @Test
+    void hashWithALowerOrHigherCostIsReplaced() {
+        BCryptCost cost = BCryptCost.of(12);
+
+        assertThat(cost.differsFrom("$2a$10$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW")).isTrue();
+        assertThat(cost.differsFrom("$2y$14$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW")).isTrue();
+    }
+
+    @Test
+    void valueThatIsNotABCryptHashIsLeftAlone() {
+        BCryptCost cost = BCryptCost.of(12);
+
+        assertThat(cost.differsFrom(null)).isFalse();
+        assertThat(cost.differsFrom("plain-text")).isFalse();
+        assertThat(cost.differsFrom("$2a$")).isFalse();
+        assertThat(cost.differsFrom("$2a$xy$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW")).isFalse();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.apiLibrary.security;
+
+import com.example.apiLibrary.dto.ApiErrorDTO;
+import com.example.apiLibrary.exception.GlobalExceptionHandler;
+import com.example.apiLibrary.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the load shedding in {@link PasswordVerifier}: with one BCrypt thread and a queue of one, a login
+ * that finds both taken, or that waits past the timeout, fails at once with a 503 the client can retry.
+ */
+class PasswordVerifierTest {
+
+    private final CountDownLatch checkStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseChecks = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool(); // Request threads waiting on a check
+    private PasswordVerifier passwordVerifier;
+
+    @AfterEach
+    void tearDown() {
+        releaseChecks.countDown();
+        passwordVerifier.close();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void loginFindingThePoolAndQueueFullIsThrottled() throws Exception {
+        passwordVerifier = newVerifier(10_000);
+        CompletableFuture<Boolean> running =
+                CompletableFuture.supplyAsync(() -> passwordVerifier.matches("a", "hash"), callers);
+        assertThat(checkStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued =
+                CompletableFuture.supplyAsync(() -> passwordVerifier.matches("b", "hash"), callers);
+        awaitQueued(1);
+
+        assertThatThrownBy(() -> passwordVerifier.matches("c", "hash"))
+                .isInstanceOf(LoginThrottledException.class)
+                .hasMessageContaining("Too many logins");
+        assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+
+        releaseChecks.countDown();
+        assertThat(running).succeedsWithin(5, TimeUnit.SECONDS).isEqualTo(true);
+        assertThat(queued).succeedsWithin(5, TimeUnit.SECONDS).isEqualTo(true);
+    }
+
+    @Test
+    void loginNotCheckedWithinTheTimeoutIsThrottled() {
+        passwordVerifier = newVerifier(100);
+
+        assertThatThrownBy(() -> passwordVerifier.matches("a", "hash"))
+                .isInstanceOf(LoginThrottledException.class)
+                .hasMessageContaining("in time");
+        assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void throttledLoginIsAServiceUnavailableToRetry() {
+        ResponseEntity<ApiErrorDTO> response = new GlobalExceptionHandler().handleLoginThrottledException(
+                new LoginThrottledException("Too many logins in progress; retry shortly"),
+                new ServletWebRequest(new MockHttpServletRequest("POST", "/api/auth/login")));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    // One BCrypt thread and a queue of one; every check blocks until the test releases it.
+    private PasswordVerifier newVerifier(long timeoutMs) {
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            checkStarted.countDown();
+            return releaseChecks.await(10, TimeUnit.SECONDS);
+        });
+        return new PasswordVerifier(passwordEncoder, BCryptCost.of(10), meterRegistry, 1, 1, timeoutMs);
+    }
+
+    private void awaitQueued(int checks) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("executor.queued").tag("name", "bcrypt").gauge().value() < checks) {
+            assertThat(System.nanoTime()).as("check queued in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
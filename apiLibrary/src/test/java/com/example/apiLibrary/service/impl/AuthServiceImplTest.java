@@ -0,0 +1,122 @@
+package com.example.apiLibrary.service.impl;
+
+import com.example.apiLibrary.dto.LoginRequest;
+import com.example.apiLibrary.model.User;
+import com.example.apiLibrary.repository.UserRepository;
+import com.example.apiLibrary.security.JwtTokenProvider;
+import com.example.apiLibrary.security.PasswordVerifier;
+import com.example.apiLibrary.security.TokenVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the rehash-on-login in {@link AuthServiceImpl}: a hash made with another BCrypt cost is replaced
+ * with a password-only UPDATE guarded on the old hash, so it never overwrites a password changed in between.
+ */
+class AuthServiceImplTest {
+
+    private static final String OLD_HASH = "$2a$10$oldoldoldoldoldoldoldoldoldoldoldoldoldoldoldoldoldol";
+    private static final String NEW_HASH = "$2a$12$newnewnewnewnewnewnewnewnewnewnewnewnewnewnewnewnewne";
+
+    private UserRepository userRepository;
+    private PasswordVerifier passwordVerifier;
+    private CachingUserDetailsService userDetailsService;
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        passwordVerifier = mock(PasswordVerifier.class);
+        userDetailsService = mock(CachingUserDetailsService.class);
+        JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+        authService = new AuthServiceImpl(userRepository, passwordVerifier, jwtTokenProvider, userDetailsService,
+                mock(TokenVersions.class));
+
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("seller");
+        user.setPassword(OLD_HASH);
+        when(userRepository.findByUsername("seller")).thenReturn(Optional.of(user));
+        UserDetails userDetails = org.springframework.security.core.userdetails.User.withUsername("seller")
+                .password(OLD_HASH)
+                .authorities(new SimpleGrantedAuthority("ROLE_SELLER"))
+                .build();
+        when(userDetailsService.loadUserByUsername("seller")).thenReturn(userDetails);
+        when(jwtTokenProvider.generateToken(any(), anyInt())).thenReturn("token");
+        // Runs the background rehash inline, as if the BCrypt pool had produced NEW_HASH.
+        doAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(1).accept(NEW_HASH);
+            return null;
+        }).when(passwordVerifier).rehashInBackground(anyString(), any());
+    }
+
+    @Test
+    void hashWithAnotherCostIsReplacedOnlyIfStillTheStoredOne() {
+        when(passwordVerifier.matches("secret", OLD_HASH)).thenReturn(true);
+        when(passwordVerifier.needsRehash(OLD_HASH)).thenReturn(true);
+        when(userRepository.updatePassword(7L, OLD_HASH, NEW_HASH)).thenReturn(1);
+
+        assertThat(authService.loginSeller(login("secret"))).isEqualTo("token");
+
+        verify(userRepository).updatePassword(7L, OLD_HASH, NEW_HASH);
+        verify(userDetailsService).invalidate("seller");
+    }
+
+    @Test
+    void rehashLosingToAConcurrentPasswordChangeKeepsTheCachedUser() {
+        when(passwordVerifier.matches("secret", OLD_HASH)).thenReturn(true);
+        when(passwordVerifier.needsRehash(OLD_HASH)).thenReturn(true);
+        when(userRepository.updatePassword(7L, OLD_HASH, NEW_HASH)).thenReturn(0); // PASSWORD no longer OLD_HASH
+
+        assertThat(authService.loginSeller(login("secret"))).isEqualTo("token");
+
+        verify(userDetailsService, never()).invalidate(anyString());
+    }
+
+    @Test
+    void hashWithTheCurrentCostIsNotRewritten() {
+        when(passwordVerifier.matches("secret", OLD_HASH)).thenReturn(true);
+        when(passwordVerifier.needsRehash(OLD_HASH)).thenReturn(false);
+
+        authService.loginSeller(login("secret"));
+
+        verify(passwordVerifier, never()).rehashInBackground(anyString(), any());
+        verify(userRepository, never()).updatePassword(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void wrongPasswordIsNeverRehashed() {
+        when(passwordVerifier.matches("wrong", OLD_HASH)).thenReturn(false);
+        when(passwordVerifier.needsRehash(OLD_HASH)).thenReturn(true);
+
+        assertThatThrownBy(() -> authService.loginSeller(login("wrong"))).isInstanceOf(BadCredentialsException.class);
+
+        verify(passwordVerifier, never()).rehashInBackground(anyString(), any());
+        verify(userRepository, never()).updatePassword(anyLong(), anyString(), anyString());
+    }
+
+    private static LoginRequest login(String password) {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("seller");
+        loginRequest.setPassword(password);
+        return loginRequest;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.apiLibrary.service.impl;
+
+import com.example.apiLibrary.config.CacheConfig;
+import com.example.apiLibrary.dto.OrderItemDTO;
+import com.example.apiLibrary.dto.OrderRequestDTO;
+import com.example.apiLibrary.dto.OrderResponseDTO;
+import com.example.apiLibrary.exception.IdempotencyConflictException;
+import com.example.apiLibrary.model.IdempotencyKey;
+import com.example.apiLibrary.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link IdempotencyServiceImpl}: a key runs its action at most once, whether the retry finds the
+ * response in memory, in the table, behind a first attempt still running here, or behind another instance that
+ * won the race for the key.
+ */
+class IdempotencyServiceImplTest {
+
+    private static final String CALLER = "user:seller";
+    private static final String KEY = "3f2a9c0e-retry";
+
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    private TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicInteger actionRuns = new AtomicInteger();
+    private final ExecutorService callers = Executors.newCachedThreadPool(); // Concurrent requests with the key
+
+    @BeforeEach
+    void setUp() {
+        idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+        when(idempotencyKeyRepository.findById(anyString())).thenReturn(Optional.empty());
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void retryIsAnsweredFromMemoryWithoutRunningTheActionAgain() {
+        IdempotencyServiceImpl idempotencyService = newService(30_000);
+
+        OrderResponseDTO first = execute(idempotencyService, order(2), this::createOrder);
+        OrderResponseDTO retry = execute(idempotencyService, order(2), this::createOrder);
+
+        assertThat(actionRuns).hasValue(1);
+        assertThat(retry).isEqualTo(first);
+    }
+
+    @Test
+    void retryOnAnotherInstanceIsAnsweredFromTheTable() {
+        OrderResponseDTO first = execute(newService(30_000), order(2), this::createOrder);
+        ArgumentCaptor<String> id = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyKeyRepository).claim(id.capture(), requestHash.capture(), any(), any());
+        verify(idempotencyKeyRepository).storeResponse(any(), body.capture());
+        when(idempotencyKeyRepository.findById(id.getValue()))
+                .thenReturn(Optional.of(row(id.getValue(), requestHash.getValue(), body.getValue())));
+
+        OrderResponseDTO retry = execute(newService(30_000), order(2), this::createOrder); // Empty cache
+
+        assertThat(actionRuns).hasValue(1);
+        assertThat(retry).isEqualTo(first);
+    }
+
+    @Test
+    void keyReusedForADifferentRequestConflicts() {
+        IdempotencyServiceImpl idempotencyService = newService(30_000);
+        execute(idempotencyService, order(2), this::createOrder);
+
+        assertThatThrownBy(() -> execute(idempotencyService, order(3), this::createOrder))
+                .isInstanceOf(IdempotencyConflictException.class)
+                .hasMessageContaining("different request");
+        assertThat(actionRuns).hasValue(1);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstAttemptAndGetsItsResponse() throws Exception {
+        IdempotencyServiceImpl idempotencyService = newService(30_000);
+        CountDownLatch actionStarted = new CountDownLatch(1);
+        CountDownLatch releaseAction = new CountDownLatch(1);
+        Supplier<OrderResponseDTO> slowAction = () -> {
+            actionStarted.countDown();
+            await(releaseAction);
+            return createOrder();
+        };
+        CompletableFuture<OrderResponseDTO> first =
+                CompletableFuture.supplyAsync(() -> execute(idempotencyService, order(2), slowAction), callers);
+        assertThat(actionStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<Thread> duplicateThread = new AtomicReference<>();
+        CompletableFuture<OrderResponseDTO> duplicate = CompletableFuture.supplyAsync(() -> {
+            duplicateThread.set(Thread.currentThread());
+            return execute(idempotencyService, order(2), slowAction);
+        }, callers);
+        awaitTimedWaiting(duplicateThread); // Parked on the first attempt, not running the action
+        releaseAction.countDown();
+
+        assertThat(first).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(duplicate).succeedsWithin(5, TimeUnit.SECONDS).isEqualTo(first.get());
+        assertThat(actionRuns).hasValue(1);
+    }
+
+    @Test
+    void concurrentDuplicateConflictsWhenTheFirstAttemptOutlastsTheWaitTimeout() throws Exception {
+        IdempotencyServiceImpl idempotencyService = newService(100);
+        CountDownLatch actionStarted = new CountDownLatch(1);
+        CountDownLatch releaseAction = new CountDownLatch(1);
+        CompletableFuture<OrderResponseDTO> first = CompletableFuture.supplyAsync(() ->
+                execute(idempotencyService, order(2), () -> {
+                    actionStarted.countDown();
+                    await(releaseAction);
+                    return createOrder();
+                }), callers);
+        assertThat(actionStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> execute(idempotencyService, order(2), this::createOrder))
+                .isInstanceOf(IdempotencyConflictException.class)
+                .hasMessageContaining("still being processed");
+
+        releaseAction.countDown();
+        assertThat(first).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(actionRuns).hasValue(1);
+    }
+
+    @Test
+    void keyClaimedByAnotherInstanceReplaysItsResponse() throws Exception {
+        OrderResponseDTO otherInstanceResponse = new OrderResponseDTO();
+        otherInstanceResponse.setOrderId(99L);
+        otherInstanceResponse.setStatus("CREATED");
+        String otherInstanceBody = objectMapper.writeValueAsString(otherInstanceResponse);
+        AtomicReference<String> claimedHash = new AtomicReference<>();
+        // The claim waits on the other instance's row, then fails once that instance commits; from then on the
+        // row is there with the same request.
+        doAnswer(invocation -> {
+            claimedHash.set(invocation.getArgument(1));
+            throw new DuplicateKeyException("IDEMPOTENCY_KEYS primary key");
+        }).when(idempotencyKeyRepository).claim(anyString(), anyString(), any(), any());
+        when(idempotencyKeyRepository.findById(anyString())).thenAnswer(invocation -> claimedHash.get() == null
+                ? Optional.empty()
+                : Optional.of(row(invocation.getArgument(0), claimedHash.get(), otherInstanceBody)));
+
+        OrderResponseDTO response = execute(newService(30_000), order(2), this::createOrder);
+
+        assertThat(response).isEqualTo(otherInstanceResponse);
+        assertThat(actionRuns).hasValue(0);
+        verify(idempotencyKeyRepository, never()).storeResponse(any(), any());
+    }
+
+    private IdempotencyServiceImpl newService(long waitTimeoutMs) {
+        Cache<String, IdempotentResponse> cache =
+                new CacheConfig().idempotencyResponseCache(new SimpleMeterRegistry(), 10_000, 600_000, 24);
+        return new IdempotencyServiceImpl(idempotencyKeyRepository, transactionTemplate, objectMapper, cache,
+                24, waitTimeoutMs);
+    }
+
+    private OrderResponseDTO execute(IdempotencyServiceImpl idempotencyService, OrderRequestDTO request,
+                                     Supplier<OrderResponseDTO> action) {
+        return idempotencyService.execute("orders", CALLER, KEY, request, OrderResponseDTO.class, action);
+    }
+
+    private OrderResponseDTO createOrder() {
+        OrderResponseDTO response = new OrderResponseDTO();
+        response.setOrderId((long) actionRuns.incrementAndGet());
+        response.setStatus("CREATED");
+        return response;
+    }
+
+    private static OrderRequestDTO order(int quantity) {
+        OrderItemDTO item = new OrderItemDTO();
+        item.setBookId(1L);
+        item.setQuantity(quantity);
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setCustomerName("Ada Reader");
+        request.setCustomerEmail("ada@example.com");
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    private static IdempotencyKey row(String id, String requestHash, String responseBody) {
+        IdempotencyKey row = new IdempotencyKey();
+        row.setId(id);
+        row.setRequestHash(requestHash);
+        row.setResponseBody(responseBody);
+        row.setCreatedAt(LocalDateTime.now());
+        row.setExpiresAt(LocalDateTime.now().plusHours(24));
+        return row;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTimedWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.get() == null || thread.get().getState() != Thread.State.TIMED_WAITING) {
+            assertThat(System.nanoTime()).as("duplicate waiting in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.apiLibrary.service.impl;
+
+import com.example.apiLibrary.catalog.BookStockChangedEvent;
+import com.example.apiLibrary.exception.InsufficientStockException;
+import com.example.apiLibrary.model.Book;
+import com.example.apiLibrary.repository.BookRepository;
+import com.example.apiLibrary.service.BatchOutcome;
+import com.example.apiLibrary.service.StockReservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link InventoryServiceImpl} against a mocked repository: every repository call is a database
+ * round trip, so counting calls counts round trips.
+ */
+class InventoryServiceImplTest {
+
+    private BookRepository bookRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private InventoryServiceImpl inventoryService;
+    private final Map<Long, Book> books = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        inventoryService = new InventoryServiceImpl(bookRepository, eventPublisher, Optional.empty());
+        when(bookRepository.findAllById(anySet())).thenAnswer(invocation -> {
+            List<Book> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (books.containsKey(id)) {
+                    found.add(books.get(id));
+                }
+            }
+            return found;
+        });
+        when(bookRepository.decrementStock(anyMap())).thenAnswer(invocation -> {
+            int[] updated = new int[invocation.<Map<Long, Integer>>getArgument(0).size()];
+            Arrays.fill(updated, 1);
+            return updated;
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 200})
+    void reserveCostsTwoRoundTripsWhateverTheBasketSize(int lines) {
+        Map<Long, Integer> basket = new LinkedHashMap<>();
+        for (long id = 1; id <= lines; id++) {
+            addBook(id, 5);
+            basket.put(id, 2);
+        }
+
+        StockReservation reservation = inventoryService.reserve(basket);
+
+        assertThat(reservation.getBooks()).hasSize(lines);
+        verify(bookRepository, times(1)).findAllById(basket.keySet());
+        verify(bookRepository, times(1)).decrementStock(basket);
+        verifyNoMoreInteractions(bookRepository);
+        verify(eventPublisher).publishEvent(any(BookStockChangedEvent.class));
+    }
+
+    @Test
+    void reserveEachCostsTwoRoundTripsForAllBaskets() {
+        for (long id = 1; id <= 5; id++) {
+            addBook(id, 100);
+        }
+        List<Map<Long, Integer>> baskets = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            baskets.add(Map.of((long) (i % 5) + 1, 1, (long) ((i + 1) % 5) + 1, 1));
+        }
+
+        List<BatchOutcome<StockReservation>> outcomes = inventoryService.reserveEach(baskets);
+
+        assertThat(outcomes).hasSize(50).noneMatch(BatchOutcome::isFailed);
+        verify(bookRepository, times(1)).findAllById(anySet());
+        verify(bookRepository, times(1)).decrementStock(Map.of(1L, 20, 2L, 20, 3L, 20, 4L, 20, 5L, 20));
+        verifyNoMoreInteractions(bookRepository);
+    }
+
+    @Test
+    void basketThatDoesNotFitIsRejectedWithoutWriting() {
+        addBook(1L, 5);
+        addBook(2L, 1);
+
+        assertThatThrownBy(() -> inventoryService.reserve(Map.of(1L, 1, 2L, 3)))
+                .isInstanceOf(InsufficientStockException.class);
+
+        verify(bookRepository, times(1)).findAllById(anySet());
+        verify(bookRepository, never()).decrementStock(anyMap());
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void lineThatLosesTheRaceForTheLastCopiesFailsTheBasket() {
+        addBook(1L, 5);
+        addBook(2L, 5);
+        // Both lines pass the check on the stock read, but another basket took book 2 before our UPDATE ran.
+        when(bookRepository.decrementStock(anyMap())).thenReturn(new int[] {1, 0});
+        when(bookRepository.findById(2L)).thenReturn(Optional.of(book(2L, 1)));
+        Map<Long, Integer> basket = new LinkedHashMap<>();
+        basket.put(1L, 2);
+        basket.put(2L, 3);
+
+        assertThatThrownBy(() -> inventoryService.reserve(basket))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("Requested: 3, Available: 1");
+
+        // Throwing rolls back the caller's transaction, line 1 included, and no stock change is announced.
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    // Only the service's side of the race: that a line whose UPDATE matched no row fails its basket. Whether the
+    // guarded UPDATE itself holds under contention is up to the database; HotBookStockBenchmark runs the real one.
+    @Test
+    void basketsWhoseUpdateMatchesNoRowAreRejectedAsSoldOut() throws Exception {
+        int stock = 10;
+        int buyers = 40;
+        addBook(1L, stock); // Every buyer reads 10, as they would before any of them commits
+        AtomicInteger stockInDatabase = new AtomicInteger(stock);
+        // Stand-in for UPDATE ... WHERE STOCK >= ?: 1 while there is stock, 0 once it has run out.
+        when(bookRepository.decrementStock(anyMap())).thenAnswer(invocation -> {
+            int quantity = invocation.<Map<Long, Integer>>getArgument(0).get(1L);
+            while (true) {
+                int current = stockInDatabase.get();
+                if (current < quantity) {
+                    return new int[] {0};
+                }
+                if (stockInDatabase.compareAndSet(current, current - quantity)) {
+                    return new int[] {1};
+                }
+            }
+        });
+        when(bookRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(book(1L, stockInDatabase.get())));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            attempts.add(() -> {
+                try {
+                    inventoryService.reserve(Map.of(1L, 1));
+                    return true;
+                } catch (InsufficientStockException ex) {
+                    return false;
+                }
+            });
+        }
+        int sold = 0;
+        try {
+            for (Future<Boolean> attempt : pool.invokeAll(attempts)) {
+                sold += attempt.get() ? 1 : 0;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(sold).isEqualTo(stock);
+        assertThat(stockInDatabase.get()).isZero();
+        verify(eventPublisher, times(stock)).publishEvent(any(BookStockChangedEvent.class));
+    }
+
+    private void addBook(long id, int stock) {
+        books.put(id, book(id, stock));
+    }
+
+    private static Book book(long id, int stock) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle("Book " + id);
+        book.setStock(stock);
+        return book;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.apiLibrary.service.impl;
+
+import com.example.apiLibrary.batching.GroupCommitFactory;
+import com.example.apiLibrary.dto.OrderDTO;
+import com.example.apiLibrary.dto.OrderItemDTO;
+import com.example.apiLibrary.dto.OrderRequestDTO;
+import com.example.apiLibrary.dto.OrderResponseDTO;
+import com.example.apiLibrary.exception.InsufficientStockException;
+import com.example.apiLibrary.mapper.OrderMapper;
+import com.example.apiLibrary.model.Order;
+import com.example.apiLibrary.repository.OrderRepository;
+import com.example.apiLibrary.service.BatchOutcome;
+import com.example.apiLibrary.service.EmailService;
+import com.example.apiLibrary.service.InventoryService;
+import com.example.apiLibrary.service.StockReservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the group commit handler of {@link OrderServiceImpl}: a group that loses a race, for stock or
+ * for a row version, is retried order by order so one conflict does not fail every order in it.
+ */
+class OrderServiceImplTest {
+
+    private OrderRepository orderRepository;
+    private InventoryService inventoryService;
+    private TransactionTemplate transactionTemplate;
+    private Function<List<OrderRequestDTO>, List<BatchOutcome<OrderResponseDTO>>> createOrders;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        inventoryService = mock(InventoryService.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        AtomicLong orderIds = new AtomicLong();
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setOrderId(orderIds.incrementAndGet());
+            return order;
+        });
+
+        OrderMapper orderMapper = mock(OrderMapper.class);
+        when(orderMapper.toEntity(any())).thenAnswer(invocation -> {
+            Order order = new Order();
+            order.setCustomerEmail(invocation.<OrderRequestDTO>getArgument(0).getCustomerEmail());
+            return order;
+        });
+        when(orderMapper.toDto(any())).thenReturn(new OrderDTO());
+        when(orderMapper.toResponse(any())).thenAnswer(invocation -> {
+            OrderResponseDTO response = new OrderResponseDTO();
+            response.setOrderId(invocation.<Order>getArgument(0).getOrderId());
+            return response;
+        });
+
+        GroupCommitFactory groupCommitFactory = mock(GroupCommitFactory.class);
+        when(groupCommitFactory.create(anyString(), any())).thenReturn(Optional.empty());
+        new OrderServiceImpl(orderRepository, inventoryService, mock(EmailService.class), orderMapper,
+                transactionTemplate, groupCommitFactory);
+        ArgumentCaptor<Function> handler = ArgumentCaptor.forClass(Function.class);
+        verify(groupCommitFactory).create(eq("orders"), handler.capture());
+        createOrders = handler.getValue();
+    }
+
+    @Test
+    void groupCommitsInOneTransactionWhenNothingConflicts() {
+        when(inventoryService.reserveEach(anyList())).thenReturn(List.of(
+                BatchOutcome.of(reservation()), BatchOutcome.of(reservation())));
+
+        List<BatchOutcome<OrderResponseDTO>> outcomes = createOrders.apply(List.of(request(1L), request(2L)));
+
+        assertThat(outcomes).noneMatch(BatchOutcome::isFailed);
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(orderRepository).insertAll(anyList());
+        verify(inventoryService, never()).reserve(any());
+    }
+
+    @Test
+    void groupThatLosesARaceForStockIsRetriedOrderByOrder() {
+        // The guarded UPDATE found book 2 sold out after the in-memory check: the whole group rolls back.
+        when(inventoryService.reserveEach(anyList())).thenThrow(new InsufficientStockException("Book 2 sold out"));
+        when(inventoryService.reserve(Map.of(1L, 1))).thenReturn(reservation());
+        when(inventoryService.reserve(Map.of(2L, 1))).thenThrow(new InsufficientStockException("Book 2 sold out"));
+
+        List<BatchOutcome<OrderResponseDTO>> outcomes = createOrders.apply(List.of(request(1L), request(2L)));
+
+        assertThat(outcomes.get(0).isFailed()).isFalse();
+        assertThat(outcomes.get(0).getValue().getOrderId()).isNotNull();
+        assertThat(outcomes.get(1).getError()).isInstanceOf(InsufficientStockException.class);
+        verify(transactionTemplate, times(3)).execute(any()); // The group, then one per order
+        verify(orderRepository, times(1)).save(any());
+    }
+
+    @Test
+    void groupThatHitsAVersionConflictIsRetriedOrderByOrder() {
+        when(inventoryService.reserveEach(anyList())).thenReturn(List.of(
+                BatchOutcome.of(reservation()), BatchOutcome.of(reservation())));
+        doThrow(new OptimisticLockingFailureException("Row was updated concurrently"))
+                .when(orderRepository).insertAll(anyList());
+        when(inventoryService.reserve(any())).thenReturn(reservation());
+
+        List<BatchOutcome<OrderResponseDTO>> outcomes = createOrders.apply(List.of(request(1L), request(2L)));
+
+        assertThat(outcomes).noneMatch(BatchOutcome::isFailed);
+        verify(inventoryService, times(2)).reserve(any());
+        verify(orderRepository, times(2)).save(any());
+    }
+
+    @Test
+    void orderRejectedByTheStockCheckFailsAloneWithoutARetry() {
+        when(inventoryService.reserveEach(anyList())).thenReturn(List.of(
+                BatchOutcome.of(reservation()), BatchOutcome.failed(new InsufficientStockException("Not enough"))));
+
+        List<BatchOutcome<OrderResponseDTO>> outcomes = createOrders.apply(List.of(request(1L), request(2L)));
+
+        assertThat(outcomes.get(0).isFailed()).isFalse();
+        assertThat(outcomes.get(1).getError()).isInstanceOf(InsufficientStockException.class);
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(inventoryService, never()).reserve(any());
+    }
+
+    private static OrderRequestDTO request(long bookId) {
+        OrderItemDTO item = new OrderItemDTO();
+        item.setBookId(bookId);
+        item.setQuantity(1);
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setCustomerName("Customer " + bookId);
+        request.setCustomerEmail("customer" + bookId + "@example.com");
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    private static StockReservation reservation() {
+        return new StockReservation(Map.of(), Set.of());
+    }
+}
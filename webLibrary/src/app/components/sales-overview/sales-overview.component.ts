@@ -1,4 +1,4 @@
-import { Component, ViewChild } from '@angular/core';
+import { Component, OnInit, ViewChild } from '@angular/core';
 import { TablerIconsModule } from 'angular-tabler-icons';
 import {
   ApexChart,
@@ -17,6 +17,7 @@ import {
   NgApexchartsModule,
 } from 'ng-apexcharts';
 import { MaterialModule } from 'src/app/material.module';
+import { SaleService } from 'src/app/services/sale.service';
 
 export interface salesChart {
   series: ApexAxisChartSeries | any;
@@ -38,23 +39,23 @@ export interface salesChart {
   imports: [NgApexchartsModule, TablerIconsModule, MaterialModule],
   templateUrl: './sales-overview.component.html',
 })
-export class AppSalesOverviewComponent {
+export class AppSalesOverviewComponent implements OnInit {
   @ViewChild('chart') chart: ChartComponent = Object.create(null);
 
   public salesChart!: Partial<salesChart> | any;
 
-  constructor() {
+  constructor(private saleService: SaleService) {
     this.salesChart = {
 
       series: [
         {
-          name: "Pixel",
-          data: [9, 5, 3, 7, 5, 10, 3],
+          name: "Sales",
+          data: [],
           color: 'var(--mat-sys-primary)',
         },
         {
-          name: "Ample",
-          data: [6, 3, 9, 5, 4, 6, 4],
+          name: "Units",
+          data: [],
           color: 'var(--mat-sys-secondary)',
         },
       ],
@@ -93,7 +94,7 @@ export class AppSalesOverviewComponent {
       },
       xaxis: {
         type: "category",
-        categories: ["Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"],
+        categories: [],
         axisTicks: {
           show: false,
         },
@@ -137,4 +138,21 @@ export class AppSalesOverviewComponent {
       ],
     };
   }
+
+  ngOnInit(): void {
+    // Last 7 days from the sales rollups
+    this.saleService.getDailySales().subscribe({
+      next: days => {
+        this.salesChart.series = [
+          { ...this.salesChart.series[0], data: days.map(day => day.salesCount) },
+          { ...this.salesChart.series[1], data: days.map(day => day.units) },
+        ];
+        this.salesChart.xaxis = {
+          ...this.salesChart.xaxis,
+          categories: days.map(day => new Date(day.day + 'T00:00:00').toLocaleDateString(undefined, { weekday: 'short' })),
+        };
+      },
+      error: err => console.error('Could not load sales overview', err),
+    });
+  }
 }
@@ -0,0 +1,16 @@
+export interface FacetValue {
+  value: string | null; // null for books without a category
+  count: number;
+}
+
+export interface PriceBucket {
+  min: number | null; // inclusive; null for the first bucket
+  max: number | null; // exclusive; null for the last bucket
+  count: number;
+}
+
+export interface BookFacets {
+  categories: FacetValue[];
+  priceBuckets: PriceBucket[];
+  totalElements: number;
+}
@@ -0,0 +1,15 @@
+import { OrderItem } from './order-item.model';
+
+export interface OrderDetails {
+  orderId: number;
+  customerName: string;
+  customerEmail: string;
+  status: string;
+  items: OrderItem[];
+}
+
+export interface OrderPage {
+  content: OrderDetails[]; // Newest first
+  size: number;
+  nextCursor: string | null; // Pass as "after" to fetch the next page; null on the last page
+}
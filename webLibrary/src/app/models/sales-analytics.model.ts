@@ -0,0 +1,13 @@
+export interface SalesDay {
+  day: string; // ISO date, e.g. 2024-05-31
+  salesCount: number;
+  units: number;
+  revenue: number;
+}
+
+export interface SalesRanking {
+  id: number; // Seller ID or book ID
+  salesCount: number;
+  units: number;
+  revenue: number;
+}
@@ -1,9 +1,10 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams, HttpErrorResponse } from '@angular/common/http';
-import { Observable, throwError, of } from 'rxjs'; // Added of
-import { catchError } from 'rxjs/operators';
+import { Observable, throwError } from 'rxjs';
+import { catchError, map } from 'rxjs/operators';
 import { Book } from '../models/book.model';
 import { BookPage } from '../models/book-page.model';
+import { BookFacets } from '../models/book-facets.model';
 import { environment } from '../../environments/environment';
 
 @Injectable({
@@ -58,11 +59,30 @@ export class BookService {
     );
   }
   
+  getFacets(filters: any = {}): Observable<BookFacets> {
+    let params = new HttpParams();
+    if (filters) {
+      Object.entries(filters).forEach(([key, value]) => {
+        if (value !== null && value !== undefined && String(value).trim() !== '') {
+          if (['title', 'author', 'category', 'minPrice', 'maxPrice'].includes(key)) {
+            params = params.append(key, String(value));
+          }
+        }
+      });
+    }
+
+    return this.http.get<BookFacets>(`${this.apiUrl}/facets`, { params }).pipe(
+      catchError(this.handleError)
+    );
+  }
+
   getCategories(): Observable<string[]> {
-    // Original line (backend endpoint doesn't exist yet):
-    // return this.http.get<string[]>(`${environment.apiUrl}/categories`).pipe(catchError(this.handleError));
-    console.warn('BookService.getCategories: Mocking with empty array as backend endpoint is not implemented.');
-    return of([]); // Return empty array for now
+    return this.getFacets().pipe(
+      map(facets => facets.categories
+        .map(facet => facet.value)
+        .filter((value): value is string => value !== null)
+        .sort())
+    );
   }
 
   private handleError(error: HttpErrorResponse) {
@@ -1,5 +1,5 @@
 import { Injectable } from '@angular/core';
-import { HttpClient, HttpErrorResponse } from '@angular/common/http';
+import { HttpClient, HttpErrorResponse, HttpParams } from '@angular/common/http';
 import { Observable, throwError } from 'rxjs';
 import { catchError } from 'rxjs/operators';
 import { environment } from '../../environments/environment';
@@ -7,6 +7,7 @@ import { environment } from '../../environments/environment';
 // Import new models
 import { OrderRequest } from '../models/order-request.model';
 import { OrderResponse } from '../models/order-response.model';
+import { OrderDetails, OrderPage } from '../models/order-history.model';
 // Potentially import ApiError model for error handling if needed directly
 // import { ApiError } from '../models/api-error.model';
 
@@ -24,7 +25,25 @@ export class OrderService {
     );
   }
 
-  // Removed getUserOrders() and getOrderDetails() as they are not currently supported by backend.
+  // Keyset-paged order history, newest first. Pass the previous page's nextCursor as `after`.
+  getOrders(customerEmail?: string, after?: string, size: number = 20): Observable<OrderPage> {
+    let params = new HttpParams().set('size', String(size));
+    if (customerEmail) {
+      params = params.set('customerEmail', customerEmail);
+    }
+    if (after) {
+      params = params.set('after', after);
+    }
+    return this.http.get<OrderPage>(this.apiUrl, { params }).pipe(
+      catchError(this.handleError)
+    );
+  }
+
+  getOrderDetails(orderId: number): Observable<OrderDetails> {
+    return this.http.get<OrderDetails>(`${this.apiUrl}/${orderId}`).pipe(
+      catchError(this.handleError)
+    );
+  }
 
   private handleError(error: HttpErrorResponse) {
     let errorMessage = 'An unknown error occurred in OrderService!';
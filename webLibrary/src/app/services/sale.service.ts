@@ -1,10 +1,11 @@
 import { Injectable } from '@angular/core';
-import { HttpClient, HttpErrorResponse } from '@angular/common/http';
+import { HttpClient, HttpErrorResponse, HttpParams } from '@angular/common/http';
 import { Observable, throwError } from 'rxjs';
 import { catchError } from 'rxjs/operators';
 import { environment } from '../../environments/environment';
 import { SaleRequest } from '../models/sale-request.model';
 import { SaleResponse } from '../models/sale-response.model';
+import { SalesDay, SalesRanking } from '../models/sales-analytics.model';
 // Potentially import ApiError model for error handling if needed directly
 // import { ApiError } from '../models/api-error.model';
 
@@ -22,6 +23,35 @@ export class SaleService {
     );
   }
 
+  // Daily totals from the sales rollups; the backend defaults to the last 7 days.
+  getDailySales(filters: { from?: string; to?: string; sellerId?: number; bookId?: number } = {}): Observable<SalesDay[]> {
+    return this.http.get<SalesDay[]>(`${this.apiUrl}/analytics/daily`, { params: this.toParams(filters) }).pipe(
+      catchError(this.handleError)
+    );
+  }
+
+  getTopSellers(filters: { from?: string; to?: string; limit?: number } = {}): Observable<SalesRanking[]> {
+    return this.http.get<SalesRanking[]>(`${this.apiUrl}/analytics/top-sellers`, { params: this.toParams(filters) }).pipe(
+      catchError(this.handleError)
+    );
+  }
+
+  getTopBooks(filters: { from?: string; to?: string; limit?: number } = {}): Observable<SalesRanking[]> {
+    return this.http.get<SalesRanking[]>(`${this.apiUrl}/analytics/top-books`, { params: this.toParams(filters) }).pipe(
+      catchError(this.handleError)
+    );
+  }
+
+  private toParams(filters: object): HttpParams {
+    let params = new HttpParams();
+    Object.entries(filters).forEach(([key, value]) => {
+      if (value !== null && value !== undefined && String(value).trim() !== '') {
+        params = params.append(key, String(value));
+      }
+    });
+    return params;
+  }
+
   private handleError(error: HttpErrorResponse) {
     let errorMessage = 'An unknown error occurred in SaleService!';
     if (error.error instanceof ErrorEvent) {